@@ -0,0 +1,63 @@
+package com.nullterminators.project.config;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.storage.StorageOptions;
+import com.nullterminators.project.util.storage.BlobStore;
+import com.nullterminators.project.util.storage.GcsBlobStore;
+import com.nullterminators.project.util.storage.InMemoryBlobStore;
+import com.nullterminators.project.util.storage.LocalFileSystemBlobStore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Configuration for the blob store payslips are uploaded to. {@code storage.type} selects
+ * Google Cloud Storage ({@code gcs}, the default), a local directory ({@code local}) or an
+ * in-memory store ({@code memory}).
+ */
+@Configuration
+public class BlobStoreConfiguration {
+
+  /**
+   * Shared blob store used by the application.
+   *
+   * @param type kind of store, one of gcs, local or memory
+   * @param projectId Google Cloud project of the bucket
+   * @param bucketName bucket the objects are stored in
+   * @param credentials classpath location of the service account credentials
+   * @param cachedObjects objects whose generation and content hash the gcs store caches
+   * @param localRoot directory used by the local store
+   * @return the blob store
+   */
+  @Bean
+  public BlobStore blobStore(@Value("${storage.type:gcs}") String type,
+                            @Value("${storage.gcs.project-id:hpml-413322}") String projectId,
+                            @Value("${storage.gcs.bucket:adv-sft-storage}") String bucketName,
+                            @Value("${storage.gcs.credentials:gcp-credentials.json}")
+                            String credentials,
+                            @Value("${storage.gcs.cached-objects:10000}") int cachedObjects,
+                            @Value("${storage.local.root:payslips}") String localRoot) {
+    switch (type) {
+      case "gcs":
+        return new GcsBlobStore(bucketName, () -> {
+          try (InputStream inputStream = new ClassPathResource(credentials).getInputStream()) {
+            return StorageOptions.newBuilder().setProjectId(projectId)
+                .setCredentials(GoogleCredentials.fromStream(inputStream)).build().getService();
+          } catch (IOException e) {
+            throw new UncheckedIOException("Could not load storage credentials", e);
+          }
+        }, cachedObjects);
+      case "local":
+        return new LocalFileSystemBlobStore(Path.of(localRoot));
+      case "memory":
+        return new InMemoryBlobStore();
+      default:
+        throw new IllegalArgumentException("Unknown storage.type " + type);
+    }
+  }
+}
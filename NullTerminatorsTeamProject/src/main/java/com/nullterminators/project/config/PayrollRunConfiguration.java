@@ -0,0 +1,39 @@
+package com.nullterminators.project.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+/**
+ * Configuration for the worker pool used by company-wide payroll runs.
+ */
+@Configuration
+public class PayrollRunConfiguration {
+
+  /**
+   * Bounded worker pool on which generatePayroll processes employees. The pool size is the
+   * concurrency cap of a payroll run and is set through {@code payroll.run.concurrency}. Tasks
+   * inherit the security context of the submitting request so that the workers resolve the same
+   * company as the caller.
+   *
+   * @param concurrency maximum number of employees processed at the same time
+   * @return the payroll run executor
+   */
+  @Bean(name = "payrollRunExecutor", destroyMethod = "shutdown")
+  public ExecutorService payrollRunExecutor(
+      @Value("${payroll.run.concurrency:8}") int concurrency) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "payroll-run-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    return new DelegatingSecurityContextExecutorService(
+        Executors.newFixedThreadPool(Math.max(1, concurrency), threadFactory));
+  }
+}
@@ -0,0 +1,35 @@
+package com.nullterminators.project.config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the background pipeline that renders and uploads payslips.
+ */
+@Configuration
+public class PayslipPipelineConfiguration {
+
+  /**
+   * Worker pool of the payslip pipeline. Its queue holds the pending payslip jobs, and
+   * scheduling lets failed jobs be retried after a delay without blocking a worker.
+   *
+   * @param workers number of payslips rendered and uploaded at the same time
+   * @return the payslip executor
+   */
+  @Bean(name = "payslipExecutor", destroyMethod = "shutdown")
+  public ScheduledExecutorService payslipExecutor(
+      @Value("${payslip.pipeline.workers:4}") int workers) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "payslip-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    return Executors.newScheduledThreadPool(Math.max(1, workers), threadFactory);
+  }
+}
@@ -0,0 +1,40 @@
+package com.nullterminators.project.config;
+
+import com.nullterminators.project.util.pdf.Itext5PayslipRenderer;
+import com.nullterminators.project.util.pdf.Itext8PayslipRenderer;
+import com.nullterminators.project.util.pdf.PayslipRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the backend payslips are drawn with. {@code payslip.renderer} selects the
+ * iText 5 renderer ({@code itext5}, the default) or the compressed iText 8 renderer
+ * ({@code itext8}). With {@code payslip.template.enabled} both skip the layout engine for
+ * payslips whose values fit their lines: iText 8 draws the page at fixed positions and iText 5
+ * fills a pre-rendered template.
+ */
+@Configuration
+public class PayslipRendererConfiguration {
+
+  /**
+   * Renderer used by the pdf generator.
+   *
+   * @param type kind of renderer, one of itext5 or itext8
+   * @param useTemplate whether payslips that fit are drawn without the layout engine
+   * @return the payslip renderer
+   */
+  @Bean
+  public PayslipRenderer payslipRenderer(@Value("${payslip.renderer:itext5}") String type,
+                                         @Value("${payslip.template.enabled:true}")
+                                         boolean useTemplate) {
+    switch (type) {
+      case "itext8":
+        return new Itext8PayslipRenderer(useTemplate);
+      case "itext5":
+        return new Itext5PayslipRenderer(useTemplate);
+      default:
+        throw new IllegalArgumentException("Unknown payslip.renderer " + type);
+    }
+  }
+}
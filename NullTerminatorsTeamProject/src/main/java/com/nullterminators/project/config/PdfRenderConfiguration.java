@@ -0,0 +1,34 @@
+package com.nullterminators.project.config;
+
+import com.nullterminators.project.util.pdf.PdfRenderExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the pool payslips are rendered on.
+ */
+@Configuration
+public class PdfRenderConfiguration {
+
+  /**
+   * Rendering pool shared by payroll runs and the payslip pipeline. It has one thread per core
+   * unless {@code payslip.render.threads} is set, and producers wait once
+   * {@code payslip.render.queue-capacity} payslips are queued.
+   *
+   * @param threads number of rendering threads, one per core if not positive
+   * @param queueCapacity number of payslips waiting for a thread before producers wait
+   * @param submitTimeoutMillis how long a producer waits before the payslip is rejected
+   * @param meterRegistry registry the metrics of the pool are published to
+   * @return the render executor
+   */
+  @Bean(destroyMethod = "shutdown")
+  public PdfRenderExecutor pdfRenderExecutor(
+      @Value("${payslip.render.threads:0}") int threads,
+      @Value("${payslip.render.queue-capacity:64}") int queueCapacity,
+      @Value("${payslip.render.submit-timeout-ms:30000}") long submitTimeoutMillis,
+      MeterRegistry meterRegistry) {
+    return new PdfRenderExecutor(threads, queueCapacity, submitTimeoutMillis, meterRegistry);
+  }
+}
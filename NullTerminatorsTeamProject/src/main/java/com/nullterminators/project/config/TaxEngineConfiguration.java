@@ -0,0 +1,52 @@
+package com.nullterminators.project.config;
+
+import com.nullterminators.project.util.tax.BracketTaxEngine;
+import com.nullterminators.project.util.tax.FlatTaxEngine;
+import com.nullterminators.project.util.tax.TaxEngine;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Configuration for the tax engine used by payroll. {@code tax.engine} selects a single rate for
+ * every salary ({@code flat}, the default) or bracket tables per state and year read from the
+ * classpath location in {@code tax.brackets} ({@code brackets}). There is no default location:
+ * the bundled {@code tax/sample-brackets.csv} holds made-up rates and is only used when named.
+ */
+@Configuration
+public class TaxEngineConfiguration {
+
+  /**
+   * Shared tax engine used by the application.
+   *
+   * @param type kind of engine, one of flat or brackets
+   * @param brackets classpath location of the bracket tables
+   * @param flatRate rate in percent used by the flat engine
+   * @return the tax engine
+   */
+  @Bean
+  public TaxEngine taxEngine(@Value("${tax.engine:flat}") String type,
+                             @Value("${tax.brackets:}") String brackets,
+                             @Value("${tax.flat.rate:30}") BigDecimal flatRate) {
+    switch (type) {
+      case "brackets":
+        if (brackets.isEmpty()) {
+          throw new IllegalArgumentException("tax.engine brackets needs tax.brackets");
+        }
+        try (InputStream inputStream = new ClassPathResource(brackets).getInputStream()) {
+          return BracketTaxEngine.load(inputStream);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Could not load tax brackets", e);
+        }
+      case "flat":
+        return new FlatTaxEngine(flatRate.movePointRight(2).intValueExact());
+      default:
+        throw new IllegalArgumentException("Unknown tax.engine " + type);
+    }
+  }
+}
@@ -1,24 +1,30 @@
 package com.nullterminators.project.controller;
 
 import com.nullterminators.project.model.EmployeeHierarchy;
-import com.nullterminators.project.model.EmployeeNode;
 import com.nullterminators.project.service.EmployeeHierarchyService;
+import com.nullterminators.project.util.hierarchy.OrgChart;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** API endpoints for employee hierarchy management. */
 @RestController
 @RequestMapping("/api/employee-hierarchy")
 public class EmployeeHierarchyController {
 
+  private static final String INVALID_PAGE =
+      "maxDepth and limit must be positive and cursor must not be negative.";
+
   @Autowired private EmployeeHierarchyService employeeHierarchyService;
 
   /**
@@ -66,22 +72,128 @@ public class EmployeeHierarchyController {
   }
 
   /**
-   * Gets the subtree of an employee with the given id.
+   * Gets the subtree of an employee with the given id. The tree is streamed as it is written,
+   * without building it in memory first. The tree can be limited to a number of levels and a
+   * number of subordinates of every employee; employees with subordinates left out carry a
+   * {@code nextCursor}, which lists the rest when passed as the cursor of their own tree.
    *
    * @param employeeId the id of the employee
+   * @param maxDepth number of levels below the employee to return, all of them if absent
+   * @param limit largest number of subordinates returned for every employee, all if absent
+   * @param cursor number of subordinates of the employee to skip, none if absent
    * @return the subtree of the given employee
    */
   @GetMapping("/tree/{employeeId}")
-  public ResponseEntity<?> getSubtree(@PathVariable Long employeeId) {
+  public ResponseEntity<?> getSubtree(@PathVariable Long employeeId,
+                                      @RequestParam(required = false) Integer maxDepth,
+                                      @RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) Integer cursor) {
+    boolean employeeExists = employeeHierarchyService.employeeExists(employeeId);
+
+    if (!employeeExists) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body("Employee with ID " + employeeId + " not found");
+    }
+    if (!isValidPage(maxDepth, limit, cursor)) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_PAGE);
+    }
+
+    OrgChart orgChart = employeeHierarchyService.getOrgChart();
+    if (!orgChart.hasSubordinates(employeeId)) {
+      return ResponseEntity.ok(null);
+    }
+    StreamingResponseBody employeeTree =
+        out -> employeeHierarchyService.writeEmployeeTree(orgChart, employeeId,
+            orDefault(maxDepth, OrgChart.UNLIMITED), orDefault(limit, OrgChart.UNLIMITED),
+            orDefault(cursor, 0), out);
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(employeeTree);
+  }
+
+  /**
+   * Lists the subtree of an employee with the given id as supervisor-employee edges, level by
+   * level, with the same limits as the tree.
+   *
+   * @param employeeId the id of the employee
+   * @param maxDepth number of levels below the employee to return, all of them if absent
+   * @param limit largest number of subordinates returned for every employee, all if absent
+   * @param cursor number of subordinates of the employee to skip, none if absent
+   * @return the edges of the subtree of the given employee
+   */
+  @GetMapping("/subtree/{employeeId}")
+  public ResponseEntity<?> getSubtreeEdges(@PathVariable Long employeeId,
+                                           @RequestParam(required = false) Integer maxDepth,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) Integer cursor) {
     boolean employeeExists = employeeHierarchyService.employeeExists(employeeId);
 
     if (!employeeExists) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND)
           .body("Employee with ID " + employeeId + " not found");
     }
+    if (!isValidPage(maxDepth, limit, cursor)) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(INVALID_PAGE);
+    }
 
-    EmployeeNode employeeTree = employeeHierarchyService.buildEmployeeTree(employeeId);
-    return ResponseEntity.ok(employeeTree);
+    List<EmployeeHierarchy> subtree = employeeHierarchyService.getSubtree(employeeId,
+        orDefault(maxDepth, OrgChart.UNLIMITED), orDefault(limit, OrgChart.UNLIMITED),
+        orDefault(cursor, 0));
+    return ResponseEntity.ok(subtree);
+  }
+
+  /**
+   * Gets the chain of supervisors above an employee with the given id.
+   *
+   * @param employeeId the id of the employee
+   * @return the ids of the supervisors, from the direct supervisor up to the top
+   */
+  @GetMapping("/ancestors/{employeeId}")
+  public ResponseEntity<?> getAncestors(@PathVariable Long employeeId) {
+    boolean employeeExists = employeeHierarchyService.employeeExists(employeeId);
+
+    if (!employeeExists) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body("Employee with ID " + employeeId + " not found");
+    }
+
+    return ResponseEntity.ok(employeeHierarchyService.getAncestors(employeeId));
+  }
+
+  /**
+   * Counts the employees under a manager with the given id.
+   *
+   * @param managerId the id of the manager
+   * @return the number of direct and indirect subordinates of the manager
+   */
+  @GetMapping("/headcount/{managerId}")
+  public ResponseEntity<?> getHeadcount(@PathVariable Long managerId) {
+    boolean employeeExists = employeeHierarchyService.employeeExists(managerId);
+
+    if (!employeeExists) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body("Employee with ID " + managerId + " not found");
+    }
+
+    return ResponseEntity.ok(employeeHierarchyService.getHeadcount(managerId));
+  }
+
+  /**
+   * Checks whether an employee is somewhere below a manager.
+   *
+   * @param employeeId the id of the employee
+   * @param managerId the id of the manager
+   * @return true if the manager is a direct or indirect supervisor of the employee
+   */
+  @GetMapping("/isUnder/{employeeId}/{managerId}")
+  public ResponseEntity<?> isUnder(@PathVariable Long employeeId, @PathVariable Long managerId) {
+    boolean employeeExists = employeeHierarchyService.employeeExists(employeeId);
+    boolean managerExists = employeeHierarchyService.employeeExists(managerId);
+
+    if (!employeeExists || !managerExists) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body("Either employee or manager doesn't exist.");
+    }
+
+    return ResponseEntity.ok(employeeHierarchyService.isUnder(employeeId, managerId));
   }
 
   /**
@@ -136,4 +248,13 @@ public class EmployeeHierarchyController {
           .body("Operation failed: Employee has no supervisor.");
     }
   }
+
+  private static boolean isValidPage(Integer maxDepth, Integer limit, Integer cursor) {
+    return (maxDepth == null || maxDepth > 0) && (limit == null || limit > 0)
+        && (cursor == null || cursor >= 0);
+  }
+
+  private static int orDefault(Integer value, int defaultValue) {
+    return value == null ? defaultValue : value;
+  }
 }
@@ -1,11 +1,17 @@
 package com.nullterminators.project.controller;
 
 import com.nullterminators.project.enums.PayrollStatus;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollHistoryEntry;
 import com.nullterminators.project.service.PayrollService;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.util.Pair;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,7 +22,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * API Endpoints for Payroll.
@@ -33,27 +41,43 @@ public class PayrollController {
   }
 
   /**
-   * Get Payroll by employee id.
+   * Get Payroll by employee id, one page at a time.
    *
    * @param employeeId    A (@code int) representing the employee id the user wishes to get
    *                      the payrolls for.
+   * @param before        A (@code LocalDate) of the last payment of the previous page, taken
+   *                      from the X-Next-Before header, or empty for the first page.
+   * @param limit         A (@code int) representing the maximum number of payrolls returned.
    *
    * @return              A (@code ResponseEntity) object containing either a list of required
    *                      details and an HTTP 200 response or, an appropriate message
    *                      indicating the proper response.
    */
   @GetMapping(value = "/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<?> getPayrollByEmployeeId(@PathVariable("employeeId") Integer employeeId) {
+  public ResponseEntity<?> getPayrollByEmployeeId(
+          @PathVariable("employeeId") Integer employeeId,
+          @RequestParam(value = "before", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before,
+          @RequestParam(value = "limit", defaultValue = "24") Integer limit) {
     try {
-      Pair<PayrollStatus, List<Map<String, Object>>> result =
-              payrollService.getPayrollByEmployeeId(employeeId);
-      if (result.getFirst() == PayrollStatus.EMPLOYEE_NOT_FOUND) {
+      Pair<PayrollStatus, List<PayrollHistoryEntry>> result =
+              payrollService.getPayrollByEmployeeId(employeeId, before, limit);
+      if (result.getFirst() == PayrollStatus.INVALID_DATA) {
+        return new ResponseEntity<>(Map.of("response", "Invalid limit, it must be between 1 and "
+                + PayrollService.MAX_HISTORY_PAGE_SIZE), HttpStatus.BAD_REQUEST);
+      } else if (result.getFirst() == PayrollStatus.EMPLOYEE_NOT_FOUND) {
         return new ResponseEntity<>(Map.of("response",
                 "Employee Not Found in Company"), HttpStatus.NOT_FOUND);
       } else if (result.getSecond().isEmpty()) {
         return new ResponseEntity<>(Map.of("response", "Details Not Found"), HttpStatus.NOT_FOUND);
       }
-      return new ResponseEntity<>(result.getSecond(), HttpStatus.OK);
+
+      HttpHeaders headers = new HttpHeaders();
+      if (result.getSecond().size() == limit) {
+        headers.set("X-Next-Before",
+                result.getSecond().get(result.getSecond().size() - 1).date().toString());
+      }
+      return new ResponseEntity<>(result.getSecond(), headers, HttpStatus.OK);
     } catch (Exception e) {
       return handleException(e);
     }
@@ -314,21 +338,180 @@ public class PayrollController {
     }
   }
 
+  /**
+   * Get the progress of a payroll run of the entire company.
+   *
+   * @param runId         A (@code int) representing the id of the payroll run returned by
+   *                      generatePayroll.
+   *
+   * @return              A (@code ResponseEntity) object containing either the processed,
+   *                      failed and pending counts of the run and an HTTP 200 response or,
+   *                      an appropriate message indicating the proper response.
+   */
+  @GetMapping(value = "/runs/{runId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> getPayrollRunStatus(@PathVariable("runId") Integer runId) {
+    try {
+      Pair<PayrollStatus, Map<String, Object>> result =
+              payrollService.getPayrollRunStatus(runId);
+      if (result.getFirst() == PayrollStatus.NOT_FOUND) {
+        return new ResponseEntity<>(Map.of("response", "Payroll run Not Found"),
+                HttpStatus.NOT_FOUND);
+      }
+      return new ResponseEntity<>(result.getSecond(), HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Get the payroll totals of the entire company for a month, or for every month of a year.
+   *
+   * @param month         A (@code int) representing the month of the pay period, or empty
+   *                      for every month of the year.
+   * @param year          A (@code int) representing the year of the pay period.
+   *
+   * @return              A (@code ResponseEntity) object containing either the gross salary,
+   *                      tax, net salary, paid and unpaid counts per month and an HTTP 200
+   *                      response or, an appropriate message indicating the proper response.
+   */
+  @GetMapping(value = "/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> getPayrollSummary(
+          @RequestParam(value = "month", required = false) Integer month,
+          @RequestParam("year") Integer year) {
+    try {
+      Pair<PayrollStatus, List<Map<String, Object>>> result =
+              payrollService.getPayrollSummary(month, year);
+      if (result.getFirst() == PayrollStatus.INVALID_DATA) {
+        return new ResponseEntity<>(Map.of("response", "Invalid month or year"),
+                HttpStatus.BAD_REQUEST);
+      } else if (result.getFirst() == PayrollStatus.INVALID_FORMAT) {
+        return new ResponseEntity<>(Map.of("response", "Invalid format for month or year"),
+                HttpStatus.BAD_REQUEST);
+      } else if (result.getSecond().isEmpty()) {
+        return new ResponseEntity<>(Map.of("response", "Details Not Found"), HttpStatus.NOT_FOUND);
+      }
+      return new ResponseEntity<>(result.getSecond(), HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
   /**
    * Attempt to delete a payroll for the entire company.
    *
    * @param updates       A (@code Map) of details that the user provides to delete
-   *                      the payrolls for a particular month and year.
+   *                      the payrolls for a particular month and year, optionally limited
+   *                      to a list of employeeIds.
    *
-   * @return              A (@code ResponseEntity) object containing either a response and
-   *                      an HTTP 200 response or, an appropriate message indicating the
-   *                      proper response.
+   * @return              A (@code ResponseEntity) object containing either a response with
+   *                      the number of deleted payrolls and an HTTP 200 response or, an
+   *                      appropriate message indicating the proper response.
    */
   @DeleteMapping(value = "/deletePayroll", produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<?> deletePayroll(@RequestBody Map<String, Object> updates) {
     try {
-      Map<String, Object> result = payrollService.deletePayroll(updates);
-      return new ResponseEntity<>(result, HttpStatus.OK);
+      Pair<PayrollStatus, Integer> result = payrollService.deletePayroll(updates);
+      return getBulkUpdateResponse(result, Map.of("response",
+              "Payroll for this month and year has been deleted",
+              "deletedCount", result.getSecond()));
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Attempt to mark the payrolls of the entire company as paid.
+   *
+   * @param updates       A (@code Map) of details that the user provides to update the
+   *                      payrolls for a particular month and year, optionally limited
+   *                      to a list of employeeIds.
+   *
+   * @return              A (@code ResponseEntity) object containing either a response with
+   *                      the number of updated payrolls and an HTTP 200 response or, an
+   *                      appropriate message indicating the proper response.
+   */
+  @PatchMapping(value = "/markPaid", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> markPayrollsAsPaid(@RequestBody Map<String, Object> updates) {
+    try {
+      Pair<PayrollStatus, Integer> result = payrollService.markPayrollsAsPaid(updates);
+      return getBulkUpdateResponse(result, Map.of("response",
+              "Payroll for this month and year has been marked as Paid",
+              "updatedCount", result.getSecond()));
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Attempt to mark the payrolls of the entire company as unpaid.
+   *
+   * @param updates       A (@code Map) of details that the user provides to update the
+   *                      payrolls for a particular month and year, optionally limited
+   *                      to a list of employeeIds.
+   *
+   * @return              A (@code ResponseEntity) object containing either a response with
+   *                      the number of updated payrolls and an HTTP 200 response or, an
+   *                      appropriate message indicating the proper response.
+   */
+  @PatchMapping(value = "/markUnpaid", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> markPayrollsAsUnpaid(@RequestBody Map<String, Object> updates) {
+    try {
+      Pair<PayrollStatus, Integer> result = payrollService.markPayrollsAsUnpaid(updates);
+      return getBulkUpdateResponse(result, Map.of("response",
+              "Payroll for this month and year has been marked as Not Paid",
+              "updatedCount", result.getSecond()));
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  private ResponseEntity<?> getBulkUpdateResponse(Pair<PayrollStatus, Integer> result,
+                                                  Map<String, Object> success) {
+    return switch (result.getFirst()) {
+      case INVALID_DATA -> new ResponseEntity<>(Map.of("response", "Invalid month or year"),
+              HttpStatus.BAD_REQUEST);
+      case INVALID_FORMAT -> new ResponseEntity<>(Map.of("response",
+              "Invalid format for month or year or employeeIds"), HttpStatus.BAD_REQUEST);
+      case SUCCESS -> new ResponseEntity<>(success, HttpStatus.OK);
+      default -> new ResponseEntity<>(Map.of("response", "An Error has occurred"),
+              HttpStatus.INTERNAL_SERVER_ERROR);
+    };
+  }
+
+  /**
+   * Download the payslips of the entire company for a month as a ZIP archive. The archive is
+   * streamed to the response while the payslips are read from storage.
+   *
+   * @param month         A (@code int) representing the month of the pay period.
+   * @param year          A (@code int) representing the year of the pay period.
+   *
+   * @return              A (@code ResponseEntity) object containing either the streamed
+   *                      archive and an HTTP 200 response or, an appropriate message
+   *                      indicating the proper response.
+   */
+  @GetMapping(value = "/payslips/archive")
+  public ResponseEntity<?> getPayslipArchive(@RequestParam("month") Integer month,
+                                             @RequestParam("year") Integer year) {
+    try {
+      Pair<PayrollStatus, List<Payroll>> result =
+              payrollService.getPayslipsByPayPeriod(month, year);
+      if (result.getFirst() == PayrollStatus.INVALID_DATA) {
+        return new ResponseEntity<>(Map.of("response", "Invalid month or year"),
+                HttpStatus.BAD_REQUEST);
+      } else if (result.getFirst() == PayrollStatus.INVALID_FORMAT) {
+        return new ResponseEntity<>(Map.of("response", "Invalid format for month or year"),
+                HttpStatus.BAD_REQUEST);
+      } else if (result.getSecond().isEmpty()) {
+        return new ResponseEntity<>(Map.of("response", "Details Not Found"), HttpStatus.NOT_FOUND);
+      }
+
+      HttpHeaders headers = new HttpHeaders();
+      headers.setContentType(MediaType.parseMediaType("application/zip"));
+      headers.setContentDisposition(ContentDisposition.attachment()
+              .filename("payslips_" + month + "_" + year + ".zip").build());
+      StreamingResponseBody archive =
+              out -> payrollService.writePayslipArchive(result.getSecond(), out);
+      return new ResponseEntity<>(archive, headers, HttpStatus.OK);
     } catch (Exception e) {
       return handleException(e);
     }
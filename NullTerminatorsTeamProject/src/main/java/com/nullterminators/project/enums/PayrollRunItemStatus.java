@@ -0,0 +1,10 @@
+package com.nullterminators.project.enums;
+
+/**
+ * Enum representing the progress of an employee within a payroll run.
+ */
+public enum PayrollRunItemStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+}
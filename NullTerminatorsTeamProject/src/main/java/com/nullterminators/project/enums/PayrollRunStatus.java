@@ -0,0 +1,10 @@
+package com.nullterminators.project.enums;
+
+/**
+ * Enum representing the state of a company-wide payroll run.
+ */
+public enum PayrollRunStatus {
+    RUNNING,
+    COMPLETED,
+    INCOMPLETE
+}
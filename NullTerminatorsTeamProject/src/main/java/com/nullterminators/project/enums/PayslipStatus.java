@@ -0,0 +1,10 @@
+package com.nullterminators.project.enums;
+
+/**
+ * Enum representing the state of the payslip of a payroll entry.
+ */
+public enum PayslipStatus {
+    PENDING,
+    GENERATED,
+    FAILED
+}
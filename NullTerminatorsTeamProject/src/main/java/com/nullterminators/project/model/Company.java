@@ -17,7 +17,7 @@ import lombok.Data;
 public class Company implements Serializable {
 
   @Id
-  @SequenceGenerator(name = "companyIdSeq", sequenceName = "company_id_seq", allocationSize = 1)
+  @SequenceGenerator(name = "companyIdSeq", sequenceName = "company_id_seq", allocationSize = 50)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companyIdSeq")
   private Integer id;
 
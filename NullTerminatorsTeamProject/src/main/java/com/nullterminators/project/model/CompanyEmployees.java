@@ -4,7 +4,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import java.io.Serializable;
 import lombok.Data;
 
@@ -13,13 +15,15 @@ import lombok.Data;
  */
 @Data
 @Entity
+@Table(indexes = @Index(name = "company_employees_company_username_idx",
+    columnList = "company_username"))
 public class CompanyEmployees implements Serializable {
 
   @Id
   @SequenceGenerator(
       name = "companyEmployeesIdSeq",
       sequenceName = "company_employees_id_seq",
-      allocationSize = 1)
+      allocationSize = 50)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companyEmployeesIdSeq")
   private Integer id;
 
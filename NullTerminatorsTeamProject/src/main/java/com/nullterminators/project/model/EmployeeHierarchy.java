@@ -6,14 +6,20 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * Represents a record in the employee hierarchy table. This table is used to store the hierarchy
  * between employees. It is a many-to-many relationship between employees. The from employee is the
- * manager and the to employee is the subordinate.
+ * manager and the to employee is the subordinate. An employee has at most one supervisor.
  */
 @Entity
-@Table(name = "employee_hierarchy")
+@Table(
+    name = "employee_hierarchy",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "employee_hierarchy_to_employee_id_key",
+            columnNames = "to_employee_id"))
 public class EmployeeHierarchy {
 
   @Id
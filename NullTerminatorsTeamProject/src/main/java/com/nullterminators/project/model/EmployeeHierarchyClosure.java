@@ -0,0 +1,48 @@
+package com.nullterminators.project.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.Data;
+
+/**
+ * Database fields for the transitive closure of the employee hierarchy: one row for every
+ * employee and every direct or indirect supervisor of the employee. The rows are kept in the
+ * same transaction as the edges of the hierarchy, so subtrees, ancestor chains and headcounts
+ * are indexed lookups instead of recursive queries.
+ * Contains fields: ancestor id, descendant id and depth, the number of edges between them
+ */
+@Data
+@Entity
+@IdClass(EmployeeHierarchyClosure.Key.class)
+@Table(name = "employee_hierarchy_closure",
+    indexes = @Index(name = "employee_hierarchy_closure_descendant_id_idx",
+        columnList = "descendant_id, depth"))
+public class EmployeeHierarchyClosure implements Serializable {
+
+  @Id
+  @Column(name = "ancestor_id", nullable = false)
+  private Long ancestorId;
+
+  @Id
+  @Column(name = "descendant_id", nullable = false)
+  private Long descendantId;
+
+  @Column(name = "depth", nullable = false)
+  private Integer depth;
+
+  /**
+   * Primary key of a closure row.
+   */
+  @Data
+  public static class Key implements Serializable {
+
+    private Long ancestorId;
+
+    private Long descendantId;
+  }
+}
@@ -1,12 +1,19 @@
 package com.nullterminators.project.model;
 
+import com.nullterminators.project.enums.PayslipStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
@@ -15,17 +22,20 @@ import lombok.Data;
 
 /**
  * Database fields for Payroll.
- * Contains fields: id, employee id, salary, tax, payslip,
- *     payment date and paid
+ * Contains fields: id, employee id, salary, tax, payslip, payslip hash,
+ *     payslip status, payment date, pay period and paid
  */
 @Data
 @Entity
-@Table(name = "payroll")
+@Table(name = "payroll", uniqueConstraints = @UniqueConstraint(
+        name = "payroll_employee_id_pay_period_key", columnNames = {"employee_id", "pay_period"}),
+        indexes = @Index(name = "payroll_employee_id_payment_date_idx",
+            columnList = "employee_id, payment_date"))
 public class Payroll implements Serializable {
 
   @Id
   @SequenceGenerator(name = "payrollIdGenerationSeq",
-          sequenceName = "payroll_id_generation_seq", allocationSize = 1)
+          sequenceName = "payroll_id_generation_seq", allocationSize = 50)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payrollIdGenerationSeq")
   @Column(name = "id", updatable = false)
   private Integer id;
@@ -42,9 +52,30 @@ public class Payroll implements Serializable {
   @Size(min = 1, max = 255)
   private String payslip;
 
+  @Column(name = "payslip_hash", length = 64)
+  private String payslipHash;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "payslip_status", nullable = false, length = 16)
+  private PayslipStatus payslipStatus;
+
   @NotNull
   private LocalDate paymentDate;
 
+  @Column(name = "pay_period", nullable = false)
+  private LocalDate payPeriod;
+
   @NotNull
   private Integer paid;
+
+  /**
+   * Keeps the pay period, the first day of the payment month, in sync with the payment date.
+   */
+  @PrePersist
+  @PreUpdate
+  void syncPayPeriod() {
+    if (paymentDate != null) {
+      payPeriod = paymentDate.withDayOfMonth(1);
+    }
+  }
 }
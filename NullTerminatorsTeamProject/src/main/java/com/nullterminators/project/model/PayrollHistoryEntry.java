@@ -0,0 +1,22 @@
+package com.nullterminators.project.model;
+
+import com.nullterminators.project.enums.PayslipStatus;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Read-only row of the payroll history of an employee, selected directly by the query with the
+ * net salary computed in SQL.
+ *
+ * @param employeeId id of the employee
+ * @param date payment date
+ * @param salary gross salary
+ * @param tax tax withheld
+ * @param netSalary salary after tax
+ * @param payslip URL of the payslip
+ * @param payslipStatus state of the payslip
+ */
+public record PayrollHistoryEntry(Integer employeeId, LocalDate date, Integer salary, Integer tax,
+                                  Integer netSalary, String payslip, PayslipStatus payslipStatus)
+        implements Serializable {
+}
@@ -0,0 +1,53 @@
+package com.nullterminators.project.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.Data;
+
+/**
+ * Database fields for the payroll totals of a company for a pay period. The row is kept up to
+ * date by every write to the Payroll entries of the period, so reading the totals of a month
+ * does not scan the entries.
+ * Contains fields: id, company username, pay period, gross salary, tax, paid count and unpaid
+ *     count
+ */
+@Data
+@Entity
+@Table(name = "payroll_period_summary", uniqueConstraints = @UniqueConstraint(
+        name = "payroll_period_summary_company_username_pay_period_key",
+        columnNames = {"company_username", "pay_period"}))
+public class PayrollPeriodSummary implements Serializable {
+
+  @Id
+  @SequenceGenerator(name = "payrollPeriodSummaryIdSeq",
+          sequenceName = "payroll_period_summary_id_seq", allocationSize = 50)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payrollPeriodSummaryIdSeq")
+  @Column(name = "id", updatable = false)
+  private Integer id;
+
+  @Column(name = "company_username", nullable = false, updatable = false)
+  private String companyUsername;
+
+  @Column(name = "pay_period", nullable = false, updatable = false)
+  private LocalDate payPeriod;
+
+  @Column(name = "gross_salary", nullable = false)
+  private Long grossSalary;
+
+  @Column(name = "tax", nullable = false)
+  private Long tax;
+
+  @Column(name = "paid_count", nullable = false)
+  private Integer paidCount;
+
+  @Column(name = "unpaid_count", nullable = false)
+  private Integer unpaidCount;
+}
@@ -0,0 +1,65 @@
+package com.nullterminators.project.model;
+
+import com.nullterminators.project.enums.PayrollRunStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * Database fields for a company-wide payroll run, one per company and pay period.
+ * Contains fields: id, company username, pay period, status, created at and updated at
+ */
+@Data
+@Entity
+@Table(name = "payroll_run", uniqueConstraints = @UniqueConstraint(
+        name = "payroll_run_company_username_pay_period_key",
+        columnNames = {"company_username", "pay_period"}))
+public class PayrollRun implements Serializable {
+
+  @Id
+  @SequenceGenerator(name = "payrollRunIdSeq", sequenceName = "payroll_run_id_seq",
+          allocationSize = 50)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payrollRunIdSeq")
+  @Column(name = "id", updatable = false)
+  private Integer id;
+
+  @Column(name = "company_username", nullable = false, updatable = false)
+  private String companyUsername;
+
+  @Column(name = "pay_period", nullable = false, updatable = false)
+  private LocalDate payPeriod;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 16)
+  private PayrollRunStatus status;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+
+  @PrePersist
+  void onCreate() {
+    createdAt = LocalDateTime.now();
+    updatedAt = createdAt;
+  }
+
+  @PreUpdate
+  void onUpdate() {
+    updatedAt = LocalDateTime.now();
+  }
+}
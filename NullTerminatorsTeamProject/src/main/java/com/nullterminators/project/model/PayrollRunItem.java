@@ -0,0 +1,47 @@
+package com.nullterminators.project.model;
+
+import com.nullterminators.project.enums.PayrollRunItemStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.io.Serializable;
+import lombok.Data;
+
+/**
+ * Database fields for the progress checkpoint of one employee within a payroll run.
+ * Contains fields: id, run id, employee id and status
+ */
+@Data
+@Entity
+@Table(name = "payroll_run_item",
+        uniqueConstraints = @UniqueConstraint(name = "payroll_run_item_run_id_employee_id_key",
+                columnNames = {"run_id", "employee_id"}),
+        indexes = @Index(name = "payroll_run_item_run_id_status_idx",
+                columnList = "run_id, status"))
+public class PayrollRunItem implements Serializable {
+
+  @Id
+  @SequenceGenerator(name = "payrollRunItemIdSeq", sequenceName = "payroll_run_item_id_seq",
+          allocationSize = 50)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payrollRunItemIdSeq")
+  @Column(name = "id", updatable = false)
+  private Integer id;
+
+  @Column(name = "run_id", nullable = false, updatable = false)
+  private Integer runId;
+
+  @Column(name = "employee_id", nullable = false, updatable = false)
+  private Integer employeeId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 16)
+  private PayrollRunItemStatus status;
+}
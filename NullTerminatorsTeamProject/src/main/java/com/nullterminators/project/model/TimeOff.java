@@ -30,7 +30,7 @@ public class TimeOff implements Serializable {
   @SequenceGenerator(
       name = "timeOffIdGenerationSeq",
       sequenceName = "timeoff_id_seq",
-      allocationSize = 1)
+      allocationSize = 50)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "timeOffIdGenerationSeq")
   @Column(name = "id", updatable = false)
   private Integer id;
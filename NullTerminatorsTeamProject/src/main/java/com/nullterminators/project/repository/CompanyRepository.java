@@ -1,12 +1,23 @@
 package com.nullterminators.project.repository;
 
 import com.nullterminators.project.model.Company;
+import jakarta.persistence.LockModeType;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  *  Repository for company table.
  */
 public interface CompanyRepository extends JpaRepository<Company, Integer> {
   Optional<Company> findByUsername(String username);
+
+  /*
+   * Same lookup as findByUsername, but the row stays locked until the end of the transaction,
+   * so changes to the hierarchy of a company are made one at a time.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT c FROM Company c WHERE c.username = ?1")
+  Optional<Company> findForUpdateByUsername(String username);
 }
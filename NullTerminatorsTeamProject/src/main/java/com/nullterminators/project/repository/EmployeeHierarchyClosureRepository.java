@@ -0,0 +1,81 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.model.EmployeeHierarchyClosure;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the closure of the employee hierarchy. Every query is a lookup
+ * on the primary key (ancestor_id, descendant_id) or on the (descendant_id, depth) index.
+ */
+@Repository
+public interface EmployeeHierarchyClosureRepository
+    extends JpaRepository<EmployeeHierarchyClosure, EmployeeHierarchyClosure.Key> {
+
+  /**
+   * Finds the supervisors of an employee, from the direct supervisor up to the root.
+   *
+   * @param employeeId the id of the employee
+   * @return the ids of the supervisors, nearest first
+   */
+  @Query(
+      "SELECT c.ancestorId FROM EmployeeHierarchyClosure c WHERE c.descendantId = :employeeId"
+          + " ORDER BY c.depth")
+  List<Long> findAncestorIds(@Param("employeeId") Long employeeId);
+
+  /**
+   * Counts the direct and indirect subordinates of an employee.
+   *
+   * @param ancestorId the id of the employee
+   * @return the number of employees below the employee
+   */
+  long countByAncestorId(Long ancestorId);
+
+  boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+  /**
+   * Adds the paths through a new supervisor-employee edge: every supervisor of the supervisor,
+   * and the supervisor itself, becomes an ancestor of the employee and of every subordinate of
+   * the employee. The employee must not have a supervisor yet.
+   *
+   * @param supervisorId the id of the supervisor
+   * @param employeeId the id of the employee
+   * @return the number of rows added
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO employee_hierarchy_closure (ancestor_id, descendant_id, depth) "
+              + "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 "
+              + "FROM (SELECT ancestor_id, depth FROM employee_hierarchy_closure "
+              + "      WHERE descendant_id = :supervisorId "
+              + "      UNION ALL SELECT CAST(:supervisorId AS BIGINT), 0) a "
+              + "CROSS JOIN (SELECT descendant_id, depth FROM employee_hierarchy_closure "
+              + "      WHERE ancestor_id = :employeeId "
+              + "      UNION ALL SELECT CAST(:employeeId AS BIGINT), 0) d",
+      nativeQuery = true)
+  int insertPaths(@Param("supervisorId") Long supervisorId, @Param("employeeId") Long employeeId);
+
+  /**
+   * Removes the paths through the edge from an employee to its supervisor, which are the paths
+   * from the supervisors of the employee to the employee and its subordinates.
+   *
+   * @param employeeId the id of the employee
+   * @return the number of rows removed
+   */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM employee_hierarchy_closure "
+              + "WHERE ancestor_id IN (SELECT ancestor_id FROM employee_hierarchy_closure "
+              + "      WHERE descendant_id = :employeeId) "
+              + "AND descendant_id IN (SELECT descendant_id FROM employee_hierarchy_closure "
+              + "      WHERE ancestor_id = :employeeId "
+              + "      UNION ALL SELECT CAST(:employeeId AS BIGINT))",
+      nativeQuery = true)
+  int deletePaths(@Param("employeeId") Long employeeId);
+}
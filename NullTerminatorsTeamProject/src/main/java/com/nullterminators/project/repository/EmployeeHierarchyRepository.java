@@ -3,6 +3,7 @@ package com.nullterminators.project.repository;
 import com.nullterminators.project.model.EmployeeHierarchy;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,39 +18,34 @@ public interface EmployeeHierarchyRepository extends JpaRepository<EmployeeHiera
   List<EmployeeHierarchy> findByFromEmployeeId(Long fromEmployeeId);
 
   /**
-   * Finds the supervisor of the employee with the given id.
+   * Finds the edges to the employees of a company, in the order they were added.
    *
-   * @param toEmployeeId the id of the employee
-   * @return the id of the supervisor
+   * @param companyUsername the username of the company
+   * @return the edges of the hierarchy of the company
    */
-  @Query("SELECT e.fromEmployeeId FROM EmployeeHierarchy e WHERE e.toEmployeeId = :toEmployeeId")
-  Long findSupervisorByEmployeeId(@Param("toEmployeeId") Long toEmployeeId);
-
   @Query(
       value =
-          "WITH RECURSIVE EmployeeSubtree AS ("
-              + "   SELECT from_employee_id, to_employee_id "
-              + "   FROM employee_hierarchy "
-              + "   WHERE from_employee_id = :employeeId "
-              + "   UNION ALL "
-              + "   SELECT eh.from_employee_id, eh.to_employee_id "
-              + "   FROM employee_hierarchy eh "
-              + "   INNER JOIN EmployeeSubtree es ON eh.from_employee_id = es.to_employee_id "
-              + ") "
-              + "SELECT ROW_NUMBER() OVER() AS id, from_employee_id, to_employee_id "
-              + "FROM EmployeeSubtree",
+          "SELECT h.* FROM employee_hierarchy h "
+              + "JOIN company_employees c ON c.employee_id = h.to_employee_id "
+              + "WHERE c.company_username = :companyUsername ORDER BY h.id",
       nativeQuery = true)
-  List<EmployeeHierarchy> findSubtreeByEmployeeId(@Param("employeeId") Long employeeId);
+  List<EmployeeHierarchy> findByCompanyUsername(@Param("companyUsername") String companyUsername);
 
   /**
-   * Checks if there is a record in the EmployeeHierarchy table with the given employee id in either
-   * the from_employee_id or to_employee_id column.
+   * Adds a supervisor-employee edge unless the employee already has a supervisor. The id is
+   * generated by the identity column, so the only possible conflict is on the unique
+   * to_employee_id index, and of concurrent adds for the same employee exactly one inserts.
    *
-   * @param employeeId the id of the employee
-   * @return true if a record exists, false otherwise
+   * @param fromEmployeeId the id of the supervisor
+   * @param toEmployeeId the id of the employee
+   * @return 1 if the edge was added, 0 if the employee already has a supervisor
    */
+  @Modifying
   @Query(
-      "SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END FROM EmployeeHierarchy"
-          + " e WHERE e.fromEmployeeId = :employeeId OR e.toEmployeeId = :employeeId")
-  boolean existsByEmployeeId(@Param("employeeId") Long employeeId);
+      value =
+          "INSERT INTO employee_hierarchy (from_employee_id, to_employee_id) "
+              + "VALUES (:fromEmployeeId, :toEmployeeId) ON CONFLICT DO NOTHING",
+      nativeQuery = true)
+  int insertIfAbsent(@Param("fromEmployeeId") Long fromEmployeeId,
+                     @Param("toEmployeeId") Long toEmployeeId);
 }
@@ -1,8 +1,10 @@
 package com.nullterminators.project.repository;
 
 import com.nullterminators.project.model.EmployeeProfile;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * Repository for storing employee profile DB.
@@ -13,5 +15,11 @@ public interface EmployeeProfileRepository extends JpaRepository<EmployeeProfile
     * Check if any employee has both the same email and phone number.
     */
   Optional<EmployeeProfile> findByEmailAndPhoneNumber(String phoneNumber, String email);
-    
+
+  /*
+   * Fetch all profiles of a company in a single join with company employees.
+   */
+  @Query("SELECT e FROM EmployeeProfile e, CompanyEmployees c "
+          + "WHERE c.employeeId = e.id AND c.companyUsername = ?1 ORDER BY c.id")
+  List<EmployeeProfile> findAllByCompanyUsername(String companyUsername);
 }
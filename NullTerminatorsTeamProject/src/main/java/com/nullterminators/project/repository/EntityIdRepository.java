@@ -0,0 +1,19 @@
+package com.nullterminators.project.repository;
+
+/**
+ * Repository fragment handing out entity ids for native inserts. The id sequences are
+ * INCREMENT BY 50 and every value read by Hibernate reserves the 50 ids below it, so a native
+ * statement calling nextval itself would take a whole block for one row. Ids are instead taken
+ * from the pooled generator of the entity, the same one the JPA inserts use.
+ */
+public interface EntityIdRepository {
+
+  /**
+   * Allocates the next id of an entity from its pooled id generator. The id is used up even if
+   * the insert does not happen, which leaves a gap of one id, as a rolled back JPA insert does.
+   *
+   * @param entityClass the entity class
+   * @return the allocated id
+   */
+  Integer nextId(Class<?> entityClass);
+}
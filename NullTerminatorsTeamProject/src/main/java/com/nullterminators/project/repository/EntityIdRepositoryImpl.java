@@ -0,0 +1,29 @@
+package com.nullterminators.project.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of {@link EntityIdRepository} on top of the Hibernate id generators.
+ */
+public class EntityIdRepositoryImpl implements EntityIdRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public Integer nextId(Class<?> entityClass) {
+    return nextId(entityManager.unwrap(SharedSessionContractImplementor.class), entityClass);
+  }
+
+  static Integer nextId(SharedSessionContractImplementor session, Class<?> entityClass) {
+    BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+            .getMappingMetamodel().getEntityDescriptor(entityClass).getGenerator();
+    return (Integer) generator.generate(session, null, null, EventType.INSERT);
+  }
+}
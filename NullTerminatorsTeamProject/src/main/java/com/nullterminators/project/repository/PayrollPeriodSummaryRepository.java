@@ -0,0 +1,77 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.model.PayrollPeriodSummary;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for payroll period summary DB.
+ */
+public interface PayrollPeriodSummaryRepository
+        extends JpaRepository<PayrollPeriodSummary, Integer>, EntityIdRepository {
+  /*
+   * Summaries of the periods of a company that still have Payroll entries, oldest first.
+   */
+  @Query("SELECT s FROM PayrollPeriodSummary s WHERE s.companyUsername = ?1 "
+          + "AND s.payPeriod BETWEEN ?2 AND ?3 AND s.paidCount + s.unpaidCount > 0 "
+          + "ORDER BY s.payPeriod")
+  List<PayrollPeriodSummary> findByCompanyUsernameAndPayPeriodBetween(String companyUsername,
+                        LocalDate from, LocalDate to);
+
+  /*
+   * Adds to the totals in place, so concurrent writers of the same period do not lose updates.
+   * The persistence context is cleared so a summary read later in the transaction is not stale.
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE PayrollPeriodSummary s SET s.grossSalary = s.grossSalary + ?3, "
+          + "s.tax = s.tax + ?4, s.paidCount = s.paidCount + ?5, "
+          + "s.unpaidCount = s.unpaidCount + ?6 "
+          + "WHERE s.companyUsername = ?1 AND s.payPeriod = ?2")
+  int addToTotals(String companyUsername, LocalDate payPeriod, Long grossSalary, Long tax,
+                  Integer paidCount, Integer unpaidCount);
+
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE PayrollPeriodSummary s SET s.grossSalary = ?3, s.tax = ?4, "
+          + "s.paidCount = ?5, s.unpaidCount = ?6 "
+          + "WHERE s.companyUsername = ?1 AND s.payPeriod = ?2")
+  int setTotals(String companyUsername, LocalDate payPeriod, Long grossSalary, Long tax,
+                Integer paidCount, Integer unpaidCount);
+
+  /*
+   * The id is freshly allocated, so the only constraint the insert can conflict on is the
+   * unique (company_username, pay_period). A conflict skips the row instead of raising an
+   * error, which on Postgres would abort the surrounding transaction.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "INSERT INTO payroll_period_summary (id, company_username, pay_period, "
+          + "gross_salary, tax, paid_count, unpaid_count) "
+          + "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7) ON CONFLICT DO NOTHING", nativeQuery = true)
+  int insertIfAbsent(Integer id, String companyUsername, LocalDate payPeriod, Long grossSalary,
+                     Long tax, Integer paidCount, Integer unpaidCount);
+
+  /**
+   * Creates the summary of a pay period unless it already exists. The id comes from the pooled
+   * generator of {@link PayrollPeriodSummary} (see {@link EntityIdRepository}).
+   *
+   * @param companyUsername company the summary belongs to
+   * @param payPeriod first day of the month of the summary
+   * @param grossSalary gross salary total
+   * @param tax tax total
+   * @param paidCount number of paid entries
+   * @param unpaidCount number of unpaid entries
+   * @return true if the summary was created, false if the pay period already had one
+   */
+  @Transactional
+  default boolean insertIfAbsent(String companyUsername, LocalDate payPeriod, Long grossSalary,
+                                 Long tax, Integer paidCount, Integer unpaidCount) {
+    return insertIfAbsent(nextId(PayrollPeriodSummary.class), companyUsername, payPeriod,
+            grossSalary, tax, paidCount, unpaidCount) > 0;
+  }
+}
@@ -1,23 +1,179 @@
 package com.nullterminators.project.repository;
 
+import com.nullterminators.project.enums.PayslipStatus;
 import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollHistoryEntry;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository for payroll DB.
  */
-public interface PayrollRepository extends JpaRepository<Payroll, Integer> {
+public interface PayrollRepository extends JpaRepository<Payroll, Integer>,
+        EntityIdRepository {
   @Query(value = "SELECT * FROM Payroll p "
           + "WHERE p.employee_id = ?1 AND p.paid = 1 "
           + "ORDER BY p.payment_date DESC", nativeQuery = true)
   List<Payroll> findAllByEmployeeIdOrderByPaymentDateDesc(Integer employeeId);
 
+  /*
+   * First page of the paid payroll history of an employee, newest first.
+   */
+  @Query("SELECT new com.nullterminators.project.model.PayrollHistoryEntry(p.employeeId, "
+          + "p.paymentDate, p.salary, p.tax, p.salary - p.tax, p.payslip, p.payslipStatus) "
+          + "FROM Payroll p WHERE p.employeeId = ?1 AND p.paid = 1 "
+          + "ORDER BY p.paymentDate DESC")
+  List<PayrollHistoryEntry> findHistoryByEmployeeId(Integer employeeId, Pageable page);
+
+  /*
+   * Next page of the paid payroll history: the keyset is the payment date of the last row seen.
+   */
+  @Query("SELECT new com.nullterminators.project.model.PayrollHistoryEntry(p.employeeId, "
+          + "p.paymentDate, p.salary, p.tax, p.salary - p.tax, p.payslip, p.payslipStatus) "
+          + "FROM Payroll p WHERE p.employeeId = ?1 AND p.paid = 1 AND p.paymentDate < ?2 "
+          + "ORDER BY p.paymentDate DESC")
+  List<PayrollHistoryEntry> findHistoryByEmployeeIdBefore(Integer employeeId, LocalDate before,
+                        Pageable page);
+
   @Query(value = "SELECT * FROM Payroll p "
-          + "WHERE p.employee_id = ?1 AND "
-          + "EXTRACT(MONTH FROM p.payment_date) = ?2 AND "
-          + "EXTRACT(YEAR FROM p.payment_date) = ?3", nativeQuery = true)
-  Payroll findByEmployeeIdPaymentMonthAndYear(Integer employeeId, Integer paymentMonth,
-                        Integer paymentYear);
+          + "WHERE p.employee_id = ?1 AND p.pay_period = ?2", nativeQuery = true)
+  Payroll findByEmployeeIdAndPayPeriod(Integer employeeId, LocalDate payPeriod);
+
+  /**
+   * Finds the payroll of an employee for a month through the (employee_id, pay_period) index.
+   *
+   * @param employeeId employee id
+   * @param paymentMonth month of the payment
+   * @param paymentYear year of the payment
+   * @return the payroll of the month or null
+   */
+  default Payroll findByEmployeeIdPaymentMonthAndYear(Integer employeeId, Integer paymentMonth,
+                        Integer paymentYear) {
+    return findByEmployeeIdAndPayPeriod(employeeId, LocalDate.of(paymentYear, paymentMonth, 1));
+  }
+
+  /*
+   * Same lookup as findByEmployeeIdAndPayPeriod, but the row stays locked until the end of the
+   * transaction, so a change to the period totals is computed from the values it replaces.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM Payroll p WHERE p.employeeId = ?1 AND p.payPeriod = ?2")
+  Payroll findForUpdateByEmployeeIdAndPayPeriod(Integer employeeId, LocalDate payPeriod);
+
+  /*
+   * The id is freshly allocated, so the only constraint the insert can conflict on is the
+   * unique (employee_id, pay_period).
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "INSERT INTO payroll (id, employee_id, salary, tax, payslip, payslip_hash, "
+          + "payslip_status, payment_date, pay_period, paid) "
+          + "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10) "
+          + "ON CONFLICT DO NOTHING", nativeQuery = true)
+  int insertIfAbsent(Integer id, Integer employeeId, Integer salary, Integer tax, String payslip,
+                     String payslipHash, String payslipStatus, LocalDate paymentDate,
+                     LocalDate payPeriod, Integer paid);
+
+  /**
+   * Inserts a payroll unless the employee already has one for the pay period, in a single
+   * statement backed by the unique (employee_id, pay_period) constraint. The id comes from the
+   * pooled generator of {@link Payroll} (see {@link EntityIdRepository}), so a skipped insert
+   * leaves a gap of one id.
+   *
+   * @param payroll the payroll to insert, its id is not used
+   * @return id of the inserted payroll or null if the pay period already had one
+   */
+  @Transactional
+  default Integer insertIfAbsent(Payroll payroll) {
+    Integer id = nextId(Payroll.class);
+    int inserted = insertIfAbsent(id, payroll.getEmployeeId(), payroll.getSalary(),
+            payroll.getTax(), payroll.getPayslip(), payroll.getPayslipHash(),
+            payroll.getPayslipStatus().name(), payroll.getPaymentDate(),
+            payroll.getPaymentDate().withDayOfMonth(1), payroll.getPaid());
+    return inserted == 0 ? null : id;
+  }
+
+  @Query(value = "SELECT p.employee_id FROM Payroll p "
+          + "JOIN company_employees c ON c.employee_id = p.employee_id "
+          + "WHERE c.company_username = ?1 AND p.pay_period = ?2", nativeQuery = true)
+  List<Integer> findEmployeeIdsByCompanyUsernameAndPayPeriod(String companyUsername,
+                        LocalDate payPeriod);
+
+  @Query(value = "SELECT p.* FROM Payroll p "
+          + "JOIN company_employees c ON c.employee_id = p.employee_id "
+          + "WHERE c.company_username = ?1 AND p.pay_period = ?2 "
+          + "ORDER BY p.employee_id", nativeQuery = true)
+  List<Payroll> findPayslipsByCompanyUsernameAndPayPeriod(String companyUsername,
+                        LocalDate payPeriod);
+
+  /*
+   * Next page of the payrolls with a payslip in the given status, by id; backed by the partial
+   * index on the ids of the pending payslips.
+   */
+  List<Payroll> findByPayslipStatusAndIdGreaterThanOrderById(PayslipStatus payslipStatus,
+                        Integer afterId, Pageable page);
+
+  /*
+   * Totals of a company for a pay period: gross salary, tax, paid count and entry count.
+   */
+  @Query("SELECT COALESCE(SUM(p.salary), 0), COALESCE(SUM(p.tax), 0), "
+          + "COALESCE(SUM(p.paid), 0), COUNT(p) FROM Payroll p WHERE p.payPeriod = ?2 "
+          + "AND p.employeeId IN "
+          + "(SELECT c.employeeId FROM CompanyEmployees c WHERE c.companyUsername = ?1)")
+  List<Object[]> sumByCompanyUsernameAndPayPeriod(String companyUsername, LocalDate payPeriod);
+
+  @Modifying
+  @Query("DELETE FROM Payroll p WHERE p.payPeriod = ?2 AND p.employeeId IN "
+          + "(SELECT c.employeeId FROM CompanyEmployees c WHERE c.companyUsername = ?1)")
+  int deleteByCompanyUsernameAndPayPeriod(String companyUsername, LocalDate payPeriod);
+
+  @Modifying
+  @Query("DELETE FROM Payroll p WHERE p.payPeriod = ?2 AND p.employeeId IN ?3 "
+          + "AND p.employeeId IN (SELECT c.employeeId FROM CompanyEmployees c "
+          + "WHERE c.companyUsername = ?1)")
+  int deleteByCompanyUsernameAndPayPeriodAndEmployeeIds(String companyUsername,
+                        LocalDate payPeriod, List<Integer> employeeIds);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Payroll p SET p.paid = ?3 WHERE p.payPeriod = ?2 AND p.paid <> ?3 "
+          + "AND p.employeeId IN (SELECT c.employeeId FROM CompanyEmployees c "
+          + "WHERE c.companyUsername = ?1)")
+  int updatePaidByCompanyUsernameAndPayPeriod(String companyUsername, LocalDate payPeriod,
+                        Integer paid);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Payroll p SET p.paid = ?3 WHERE p.payPeriod = ?2 AND p.paid <> ?3 "
+          + "AND p.employeeId IN ?4 AND p.employeeId IN (SELECT c.employeeId "
+          + "FROM CompanyEmployees c WHERE c.companyUsername = ?1)")
+  int updatePaidByCompanyUsernameAndPayPeriodAndEmployeeIds(String companyUsername,
+                        LocalDate payPeriod, Integer paid, List<Integer> employeeIds);
+
+  /*
+   * Sets the paid status only if it differs, so of two concurrent requests flipping the same
+   * entry only one changes the row.
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Payroll p SET p.paid = ?2 WHERE p.id = ?1 AND p.paid <> ?2")
+  int updatePaid(Integer id, Integer paid);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Payroll p SET p.payslip = ?2, p.payslipHash = ?3, p.payslipStatus = ?4 "
+          + "WHERE p.id = ?1")
+  int updatePayslip(Integer id, String payslip, String payslipHash, PayslipStatus payslipStatus);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Payroll p SET p.payslipStatus = ?2 WHERE p.id = ?1")
+  int updatePayslipStatus(Integer id, PayslipStatus payslipStatus);
 }
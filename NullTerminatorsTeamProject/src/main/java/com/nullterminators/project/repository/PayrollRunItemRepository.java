@@ -0,0 +1,40 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.enums.PayrollRunItemStatus;
+import com.nullterminators.project.model.PayrollRunItem;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for payroll run checkpoints DB.
+ */
+public interface PayrollRunItemRepository extends JpaRepository<PayrollRunItem, Integer>,
+        PayrollRunItemRepositoryCustom {
+
+  /*
+   * Employees of the company, in company order, that have no checkpoint in the run yet.
+   */
+  @Query("SELECT c.employeeId FROM CompanyEmployees c WHERE c.companyUsername = ?1 "
+          + "AND NOT EXISTS (SELECT i.id FROM PayrollRunItem i "
+          + "WHERE i.runId = ?2 AND i.employeeId = c.employeeId) ORDER BY c.id")
+  List<Integer> findEmployeeIdsMissingFromRun(String companyUsername, Integer runId);
+
+  @Query("SELECT i.employeeId FROM PayrollRunItem i "
+          + "WHERE i.runId = ?1 AND i.status <> ?2 ORDER BY i.id")
+  List<Integer> findEmployeeIdsByRunIdAndStatusNot(Integer runId, PayrollRunItemStatus status);
+
+  @Query("SELECT i.status, COUNT(i) FROM PayrollRunItem i WHERE i.runId = ?1 GROUP BY i.status")
+  List<Object[]> countByRunIdGroupByStatus(Integer runId);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE PayrollRunItem i SET i.status = ?3 WHERE i.runId = ?1 AND i.employeeId IN ?2")
+  int updateStatus(Integer runId, List<Integer> employeeIds, PayrollRunItemStatus status);
+
+  @Modifying
+  @Query("UPDATE PayrollRunItem i SET i.status = ?2 WHERE i.runId = ?1")
+  int updateStatusByRunId(Integer runId, PayrollRunItemStatus status);
+}
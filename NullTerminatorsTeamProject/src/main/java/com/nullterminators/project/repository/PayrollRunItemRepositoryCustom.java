@@ -0,0 +1,21 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.enums.PayrollRunItemStatus;
+import java.util.List;
+
+/**
+ * Custom operations of {@link PayrollRunItemRepository}.
+ */
+public interface PayrollRunItemRepositoryCustom {
+
+  /**
+   * Adds checkpoints for employees of a run in JDBC batches, skipping the employees that already
+   * have one, so concurrent starts of the same run do not fail on the unique (run_id,
+   * employee_id) constraint.
+   *
+   * @param runId id of the payroll run
+   * @param employeeIds ids of the employees to add
+   * @param status status of the new checkpoints
+   */
+  void insertIfAbsent(Integer runId, List<Integer> employeeIds, PayrollRunItemStatus status);
+}
@@ -0,0 +1,56 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.enums.PayrollRunItemStatus;
+import com.nullterminators.project.model.PayrollRunItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.List;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of {@link PayrollRunItemRepositoryCustom}. The ids come from the pooled
+ * generator of {@link PayrollRunItem}, see {@link EntityIdRepository}.
+ */
+public class PayrollRunItemRepositoryCustomImpl implements PayrollRunItemRepositoryCustom {
+
+  /*
+   * The id is freshly allocated, so the only constraint the insert can conflict on is the
+   * unique (run_id, employee_id).
+   */
+  private static final String INSERT_IF_ABSENT = "INSERT INTO payroll_run_item "
+          + "(id, run_id, employee_id, status) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public void insertIfAbsent(Integer runId, List<Integer> employeeIds,
+                             PayrollRunItemStatus status) {
+    if (employeeIds.isEmpty()) {
+      return;
+    }
+    SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+    int batchSize = Math.max(1, session.getConfiguredJdbcBatchSize());
+    session.doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(INSERT_IF_ABSENT)) {
+        int batched = 0;
+        for (Integer employeeId : employeeIds) {
+          statement.setInt(1, EntityIdRepositoryImpl.nextId(session, PayrollRunItem.class));
+          statement.setInt(2, runId);
+          statement.setInt(3, employeeId);
+          statement.setString(4, status.name());
+          statement.addBatch();
+          if (++batched % batchSize == 0) {
+            statement.executeBatch();
+          }
+        }
+        if (batched % batchSize != 0) {
+          statement.executeBatch();
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,51 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.enums.PayrollRunStatus;
+import com.nullterminators.project.model.PayrollRun;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for payroll run DB.
+ */
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Integer>,
+        EntityIdRepository {
+  Optional<PayrollRun> findByCompanyUsernameAndPayPeriod(String companyUsername,
+                        LocalDate payPeriod);
+
+  Optional<PayrollRun> findByIdAndCompanyUsername(Integer id, String companyUsername);
+
+  /*
+   * The id is freshly allocated, so the only constraint the insert can conflict on is the
+   * unique (company_username, pay_period).
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "INSERT INTO payroll_run (id, company_username, pay_period, status, "
+          + "created_at, updated_at) VALUES (?1, ?2, ?3, ?4, ?5, ?5) "
+          + "ON CONFLICT DO NOTHING", nativeQuery = true)
+  int insertIfAbsent(Integer id, String companyUsername, LocalDate payPeriod, String status,
+                     LocalDateTime createdAt);
+
+  /**
+   * Creates the payroll run of a company for a pay period unless it already exists, in a single
+   * statement backed by the unique (company_username, pay_period) constraint. The id comes from
+   * the pooled generator of {@link PayrollRun} (see {@link EntityIdRepository}).
+   *
+   * @param companyUsername company the run belongs to
+   * @param payPeriod first day of the month of the run
+   * @param status status of the new run
+   * @return true if the run was created, false if it already existed
+   */
+  @Transactional
+  default boolean insertIfAbsent(String companyUsername, LocalDate payPeriod,
+                                 PayrollRunStatus status) {
+    return insertIfAbsent(nextId(PayrollRun.class), companyUsername, payPeriod, status.name(),
+            LocalDateTime.now()) > 0;
+  }
+}
@@ -23,6 +23,31 @@ public interface TimeOffRepository extends JpaRepository<TimeOff, Integer> {
       nativeQuery = true)
   List<TimeOff> findAllByEmployeeIdOrderByStartDateDesc(Integer employeeId);
 
+  /*
+   * Approved leave days of every employee of a company in a date range. Leaves that cross the
+   * range are clipped to it, and the rows are only read, never loaded as entities.
+   */
+  @Query(
+      "SELECT t.employeeId, SUM((LEAST(t.endDate, ?3) - GREATEST(t.startDate, ?2)) BY DAY + 1) "
+          + "FROM TimeOff t WHERE t.status = "
+          + "com.nullterminators.project.enums.LeaveStatus.APPROVED "
+          + "AND t.startDate <= ?3 AND t.endDate >= ?2 AND t.employeeId IN "
+          + "(SELECT c.employeeId FROM CompanyEmployees c WHERE c.companyUsername = ?1) "
+          + "GROUP BY t.employeeId")
+  List<Object[]> sumApprovedLeaveDaysByCompanyUsernameGivenDateRange(
+      String companyUsername, LocalDate startDate, LocalDate endDate);
+
+  /*
+   * Approved leave days of one employee in a date range, clipped to the range.
+   */
+  @Query(
+      "SELECT COALESCE(SUM((LEAST(t.endDate, ?3) - GREATEST(t.startDate, ?2)) BY DAY + 1), 0) "
+          + "FROM TimeOff t WHERE t.employeeId = ?1 AND t.status = "
+          + "com.nullterminators.project.enums.LeaveStatus.APPROVED "
+          + "AND t.startDate <= ?3 AND t.endDate >= ?2")
+  Long sumApprovedLeaveDaysByEmployeeIdGivenDateRange(
+      Integer employeeId, LocalDate startDate, LocalDate endDate);
+
   @Modifying
   @Query(
           value = "DELETE FROM timeoff WHERE employee_id = ?1 AND id = ?2",
@@ -70,4 +70,14 @@ public class CompanyService implements UserDetailsService {
   public String getCompanyUsername() {
     return SecurityContextHolder.getContext().getAuthentication().getName();
   }
+
+  /**
+   * Get the state of the company, which selects its tax tables.
+   *
+   * @return state of the company or null if it is not set
+   */
+  public String getCompanyState() {
+    return companyRepository.findByUsername(getCompanyUsername()).map(Company::getState)
+        .orElse(null);
+  }
 }
@@ -1,20 +1,56 @@
 package com.nullterminators.project.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteConstraints;
 import com.nullterminators.project.model.EmployeeHierarchy;
 import com.nullterminators.project.model.EmployeeNode;
+import com.nullterminators.project.repository.CompanyRepository;
+import com.nullterminators.project.repository.EmployeeHierarchyClosureRepository;
 import com.nullterminators.project.repository.EmployeeHierarchyRepository;
-import java.util.HashMap;
+import com.nullterminators.project.util.hierarchy.OrgChart;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-/** Service class for managing employee hierarchy. */
+/**
+ * Service class for managing employee hierarchy. Supervisor lookups and subtree traversals are
+ * answered from an in-memory {@link OrgChart} of the company, loaded on first use and patched
+ * whenever an edge is added or removed through this service.
+ *
+ * <p>Ancestor chains, headcounts and ancestor checks are read from the closure table of the
+ * hierarchy, which holds a row for every employee and every direct or indirect supervisor. The
+ * closure is changed in the same transaction as the edges, and the org chart is patched once
+ * that transaction commits. Edge changes lock the row of the company first, so the checks of
+ * one change see every change of the company committed before it.
+ */
 @Service
 public class EmployeeHierarchyService {
 
   @Autowired private EmployeeHierarchyRepository employeeHierarchyRepository;
+  @Autowired private EmployeeHierarchyClosureRepository employeeHierarchyClosureRepository;
   @Autowired private CompanyEmployeesService companyEmployeesService;
+  @Autowired private CompanyService companyService;
+  @Autowired private CompanyRepository companyRepository;
+
+  /**
+   * Trees are written without recursion, so the nesting limit Jackson sets against deep
+   * recursion is lifted; a node is nested two levels below its supervisor.
+   */
+  private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+      .streamWriteConstraints(StreamWriteConstraints.builder()
+          .maxNestingDepth(Integer.MAX_VALUE)
+          .build())
+      .build();
+
+  private final Map<String, OrgChart> orgCharts = new ConcurrentHashMap<>();
 
   /**
    * Finds all subordinates of the employee with the given id.
@@ -33,7 +69,7 @@ public class EmployeeHierarchyService {
    * @return the id of the supervisor of the given employee, or null if no supervisor exists
    */
   public Long getSupervisor(Long toEmployeeId) {
-    return employeeHierarchyRepository.findSupervisorByEmployeeId(toEmployeeId);
+    return getOrgChart().getSupervisor(toEmployeeId);
   }
 
   /**
@@ -43,7 +79,22 @@ public class EmployeeHierarchyService {
    * @return a list of all the subordinates of the given employee
    */
   public List<EmployeeHierarchy> getSubtree(Long employeeId) {
-    return employeeHierarchyRepository.findSubtreeByEmployeeId(employeeId);
+    return getOrgChart().getSubtree(employeeId);
+  }
+
+  /**
+   * Finds a page of the subtree of an employee with the given id, down to a depth and with at
+   * most a number of subordinates of every employee.
+   *
+   * @param employeeId the id of the employee
+   * @param maxDepth number of levels below the employee to list
+   * @param childLimit largest number of subordinates listed for every employee
+   * @param cursor number of subordinates of the employee to skip
+   * @return the subordinates of the given employee on the page, level by level
+   */
+  public List<EmployeeHierarchy> getSubtree(Long employeeId, int maxDepth, int childLimit,
+                                            int cursor) {
+    return getOrgChart().getSubtree(employeeId, maxDepth, childLimit, cursor);
   }
 
   /**
@@ -53,23 +104,77 @@ public class EmployeeHierarchyService {
    * @return the root of the tree
    */
   public EmployeeNode buildEmployeeTree(Long rootEmployeeId) {
-    List<EmployeeHierarchy> allSubordinates =
-        employeeHierarchyRepository.findSubtreeByEmployeeId(rootEmployeeId);
-
-    Map<Long, EmployeeNode> employeeNodeMap = new HashMap<>();
+    return getOrgChart().buildTree(rootEmployeeId);
+  }
 
-    for (EmployeeHierarchy hierarchy : allSubordinates) {
-      employeeNodeMap.putIfAbsent(
-          hierarchy.getFromEmployeeId(), new EmployeeNode(hierarchy.getFromEmployeeId()));
-      employeeNodeMap.putIfAbsent(
-          hierarchy.getToEmployeeId(), new EmployeeNode(hierarchy.getToEmployeeId()));
+  /**
+   * Writes the tree below an employee as JSON, in the shape of the tree built by {@link
+   * #buildEmployeeTree}, without building it. The chart is passed in so that a response
+   * streamed after the request returns writes the chart the request saw.
+   *
+   * @param orgChart the org chart of the company, from {@link #getOrgChart()}
+   * @param rootEmployeeId the id of the root employee
+   * @param out stream the tree is written to; it is left open
+   * @throws IOException if the tree cannot be written
+   */
+  public void writeEmployeeTree(OrgChart orgChart, Long rootEmployeeId, OutputStream out)
+      throws IOException {
+    writeEmployeeTree(orgChart, rootEmployeeId, OrgChart.UNLIMITED, OrgChart.UNLIMITED, 0, out);
+  }
 
-      EmployeeNode supervisorNode = employeeNodeMap.get(hierarchy.getFromEmployeeId());
-      EmployeeNode subordinateNode = employeeNodeMap.get(hierarchy.getToEmployeeId());
-      supervisorNode.getChildren().add(subordinateNode);
+  /**
+   * Writes a page of the tree below an employee as JSON, down to a depth and with at most a
+   * number of subordinates of every employee; employees with subordinates left out carry the
+   * cursor that lists the rest. See {@link OrgChart#writeTree(long, int, int, int,
+   * JsonGenerator)}.
+   *
+   * @param orgChart the org chart of the company, from {@link #getOrgChart()}
+   * @param rootEmployeeId the id of the root employee
+   * @param maxDepth number of levels below the root to write
+   * @param childLimit largest number of subordinates written for every employee
+   * @param cursor number of subordinates of the root to skip
+   * @param out stream the tree is written to; it is left open
+   * @throws IOException if the tree cannot be written
+   */
+  public void writeEmployeeTree(OrgChart orgChart, Long rootEmployeeId, int maxDepth,
+                                int childLimit, int cursor, OutputStream out)
+      throws IOException {
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      orgChart.writeTree(rootEmployeeId, maxDepth, childLimit, cursor, generator);
     }
+  }
+
+  /**
+   * Finds the chain of supervisors above an employee.
+   *
+   * @param employeeId the id of the employee
+   * @return the ids of the supervisors of the employee, from the direct supervisor up to the top
+   */
+  public List<Long> getAncestors(Long employeeId) {
+    return employeeHierarchyClosureRepository.findAncestorIds(employeeId);
+  }
+
+  /**
+   * Counts the employees under a manager.
+   *
+   * @param managerId the id of the manager
+   * @return the number of direct and indirect subordinates of the manager
+   */
+  public long getHeadcount(Long managerId) {
+    return employeeHierarchyClosureRepository.countByAncestorId(managerId);
+  }
 
-    return employeeNodeMap.get(rootEmployeeId);
+  /**
+   * Checks whether an employee is somewhere below a manager.
+   *
+   * @param employeeId the id of the employee
+   * @param managerId the id of the manager
+   * @return true if the manager is a direct or indirect supervisor of the employee
+   */
+  public boolean isUnder(Long employeeId, Long managerId) {
+    return employeeHierarchyClosureRepository.existsByAncestorIdAndDescendantId(managerId,
+        employeeId);
   }
 
   /**
@@ -89,21 +194,36 @@ public class EmployeeHierarchyService {
    * @param employeeId the ID of the employee
    * @return true if the edge was added successfully, false otherwise
    */
+  @Transactional
   public boolean addEmployeeSupervisorEdge(Long supervisorId, Long employeeId) {
-    Long existingSupervisor = employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId);
+    String companyUsername = companyService.getCompanyUsername();
+    // Without the lock, concurrent adds of A -> B and B -> A would both pass the cycle check.
+    companyRepository.findForUpdateByUsername(companyUsername);
+    OrgChart orgChart = getOrgChart(companyUsername);
+    Long existingSupervisor = orgChart.getSupervisor(employeeId);
     if (existingSupervisor != null) {
       System.out.println("Employee " + employeeId + " already has a supervisor.");
       return false;
     }
 
-    if (createsCycleUsingSubtree(supervisorId, employeeId)
-        || createsCycleUsingSubtree(employeeId, supervisorId)) {
+    // The employee has no supervisor, so the edge closes a cycle only if the employee is the
+    // supervisor or one of its managers. The chart is patched only after commit and may miss
+    // the edges of the change that held the lock before, so the closure is checked as well.
+    if (supervisorId.equals(employeeId) || orgChart.isUnder(supervisorId, employeeId)
+        || employeeHierarchyClosureRepository.existsByAncestorIdAndDescendantId(employeeId,
+            supervisorId)) {
       System.out.println("Adding this edge would create a cycle.");
       return false;
     }
 
-    EmployeeHierarchy newEdge = new EmployeeHierarchy(supervisorId, employeeId);
-    employeeHierarchyRepository.save(newEdge);
+    // The unique index on to_employee_id lets only one of concurrent adds for the employee in.
+    if (employeeHierarchyRepository.insertIfAbsent(supervisorId, employeeId) == 0) {
+      System.out.println("Employee " + employeeId + " already has a supervisor.");
+      return false;
+    }
+    employeeHierarchyClosureRepository.insertPaths(supervisorId, employeeId);
+    afterCommit(() -> orgCharts.computeIfPresent(companyUsername,
+        (company, chart) -> chart.withEdge(supervisorId, employeeId)));
     System.out.println("Edge added: Supervisor " + supervisorId + " -> Employee " + employeeId);
     return true;
   }
@@ -114,8 +234,11 @@ public class EmployeeHierarchyService {
    * @param employeeId the ID of the employee whose supervisor edge is to be removed
    * @return true if the edge was removed successfully, false if the employee has no supervisor
    */
+  @Transactional
   public boolean removeEmployeeSupervisorEdge(Long employeeId) {
-    Long supervisorId = employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId);
+    String companyUsername = companyService.getCompanyUsername();
+    companyRepository.findForUpdateByUsername(companyUsername);
+    Long supervisorId = getOrgChart(companyUsername).getSupervisor(employeeId);
     if (supervisorId == null) {
       System.out.println("Employee " + employeeId + " does not have a supervisor.");
       return false;
@@ -124,7 +247,10 @@ public class EmployeeHierarchyService {
     List<EmployeeHierarchy> edges = employeeHierarchyRepository.findByFromEmployeeId(supervisorId);
     for (EmployeeHierarchy edge : edges) {
       if (edge.getToEmployeeId().equals(employeeId)) {
+        employeeHierarchyClosureRepository.deletePaths(employeeId);
         employeeHierarchyRepository.delete(edge);
+        afterCommit(() -> orgCharts.computeIfPresent(companyUsername,
+            (company, chart) -> chart.withoutEdge(employeeId)));
         System.out.println(
             "Edge removed: Supervisor " + supervisorId + " -> Employee " + employeeId);
         return true;
@@ -134,21 +260,49 @@ public class EmployeeHierarchyService {
   }
 
   /**
-   * Checks if adding a supervisor-employee edge from the given supervisor to the given employee
-   * would create a cycle in the hierarchy.
+   * Drops the cached org chart of a company, so that it is loaded again on the next lookup.
+   * Needed when the hierarchy is changed without this service, for example by a bulk import.
    *
-   * @param supervisorId the ID of the supervisor
-   * @param employeeId the ID of the employee
-   * @return true if adding the edge would create a cycle, false otherwise
+   * @param companyUsername the username of the company
    */
-  private boolean createsCycleUsingSubtree(Long supervisorId, Long employeeId) {
-    List<EmployeeHierarchy> supervisorSubtree =
-        employeeHierarchyRepository.findSubtreeByEmployeeId(supervisorId);
-    for (EmployeeHierarchy hierarchy : supervisorSubtree) {
-      if (hierarchy.getToEmployeeId().equals(employeeId)) {
-        return true;
-      }
+  public void invalidateOrgChart(String companyUsername) {
+    orgCharts.remove(companyUsername);
+  }
+
+  /**
+   * Runs a change of the cached org charts once the current transaction commits, so that a
+   * rolled back change never reaches the charts.
+   */
+  private static void afterCommit(Runnable change) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          change.run();
+        }
+      });
+    } else {
+      change.run();
     }
-    return false;
+  }
+
+  /**
+   * Returns the org chart of the signed-in company. Charts are immutable, so the chart stays
+   * the same while it is read, whatever changes are made to the hierarchy meanwhile.
+   *
+   * @return the org chart of the company
+   */
+  public OrgChart getOrgChart() {
+    return getOrgChart(companyService.getCompanyUsername());
+  }
+
+  /**
+   * Returns the org chart of a company, loading it on first use. Edges added or removed while
+   * the chart loads are applied to it afterwards; the changes are idempotent, so an edge the
+   * load already saw is not applied twice.
+   */
+  private OrgChart getOrgChart(String companyUsername) {
+    return orgCharts.computeIfAbsent(companyUsername,
+        company -> OrgChart.of(employeeHierarchyRepository.findByCompanyUsername(company)));
   }
 }
@@ -6,7 +6,6 @@ import com.nullterminators.project.model.EmployeeProfile;
 import com.nullterminators.project.repository.EmployeeProfileRepository;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +21,9 @@ public class EmployeeProfileService {
   @Autowired
   private CompanyEmployeesService companyEmployeesService;
 
+  @Autowired
+  private CompanyService companyService;
+
   /**
    * Creates a new employee profile and saves it in the DB.
    *
@@ -69,11 +71,17 @@ public class EmployeeProfileService {
    * @return list of employee profiles
    */
   public List<EmployeeProfile> getAllEmployees() {
-    List<Integer> empIds = companyEmployeesService.getAllEmployeesInCompany();
+    return employeeProfileRepository.findAllByCompanyUsername(companyService.getCompanyUsername());
+  }
 
-    return employeeProfileRepository.findAll().stream()
-        .filter(employeeProfile -> empIds.contains(employeeProfile.getId()))
-        .collect(Collectors.toList());
+  /**
+   * Fetches the profiles of the given employees with a single query.
+   *
+   * @param ids (List) : Employee Ids
+   * @return list of the employee profiles found
+   */
+  public List<EmployeeProfile> getEmployeeProfiles(List<Integer> ids) {
+    return employeeProfileRepository.findAllById(ids);
   }
 
   /**
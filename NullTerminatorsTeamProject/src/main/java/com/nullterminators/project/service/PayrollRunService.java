@@ -0,0 +1,263 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.enums.PayrollRunItemStatus;
+import com.nullterminators.project.enums.PayrollRunStatus;
+import com.nullterminators.project.enums.PayrollStatus;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollRun;
+import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.repository.PayrollRunItemRepository;
+import com.nullterminators.project.repository.PayrollRunRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for persisted payroll runs. A run is kept per company and pay period together with a
+ * checkpoint per employee, so a run that stopped partway is resumed with the employees that
+ * are still pending or failed instead of starting over.
+ */
+@Service
+public class PayrollRunService {
+
+  private final PayrollRunRepository payrollRunRepository;
+  private final PayrollRunItemRepository payrollRunItemRepository;
+  private final PayrollRepository payrollRepository;
+  private final CompanyService companyService;
+  private final PayrollSummaryService payrollSummaryService;
+
+  /**
+   * Constructor for PayrollRunService.
+   *
+   * @param payrollRunRepository : {@link PayrollRunRepository}
+   * @param payrollRunItemRepository : {@link PayrollRunItemRepository}
+   * @param payrollRepository : {@link PayrollRepository}
+   * @param companyService : {@link CompanyService}
+   * @param payrollSummaryService : {@link PayrollSummaryService}
+   */
+  @Autowired
+  public PayrollRunService(PayrollRunRepository payrollRunRepository,
+                           PayrollRunItemRepository payrollRunItemRepository,
+                           PayrollRepository payrollRepository,
+                           CompanyService companyService,
+                           PayrollSummaryService payrollSummaryService) {
+    this.payrollRunRepository = payrollRunRepository;
+    this.payrollRunItemRepository = payrollRunItemRepository;
+    this.payrollRepository = payrollRepository;
+    this.companyService = companyService;
+    this.payrollSummaryService = payrollSummaryService;
+  }
+
+  /**
+   * Starts the payroll run of a company for a pay period, or resumes it if it already exists.
+   * Employees that joined the company since the run was started are added to it as pending.
+   * The run and its checkpoints are inserted only if absent and then read back, so concurrent
+   * starts of the same run share it instead of failing on its unique constraints.
+   *
+   * @param companyUsername (String) : company the run belongs to
+   * @param payPeriod (LocalDate) : first day of the month of the run
+   * @return (PayrollRun) : the running payroll run
+   */
+  @Transactional
+  public PayrollRun startRun(String companyUsername, LocalDate payPeriod) {
+    payrollRunRepository.insertIfAbsent(companyUsername, payPeriod, PayrollRunStatus.RUNNING);
+    PayrollRun run = payrollRunRepository.findByCompanyUsernameAndPayPeriod(companyUsername,
+            payPeriod).orElseThrow();
+    run.setStatus(PayrollRunStatus.RUNNING);
+    run = payrollRunRepository.save(run);
+
+    payrollRunItemRepository.insertIfAbsent(run.getId(),
+            payrollRunItemRepository.findEmployeeIdsMissingFromRun(companyUsername, run.getId()),
+            PayrollRunItemStatus.PENDING);
+    return run;
+  }
+
+  /**
+   * Lists the employees of a run that are not processed yet, in company order.
+   *
+   * @param run (PayrollRun) : the payroll run
+   * @return (List) : ids of the pending and failed employees
+   */
+  public List<Integer> getRemainingEmployeeIds(PayrollRun run) {
+    return payrollRunItemRepository.findEmployeeIdsByRunIdAndStatusNot(run.getId(),
+            PayrollRunItemStatus.PROCESSED);
+  }
+
+  /**
+   * Saves the Payroll entries generated for a part of the run, adds them to the totals of the
+   * pay period and marks the employees as processed in the same transaction, so a checkpoint
+   * never points to a missing entry.
+   *
+   * @param run (PayrollRun) : the payroll run
+   * @param payrolls (List) : generated Payroll entries to save
+   * @param processed (List) : ids of the employees completed by the checkpoint
+   */
+  @Transactional
+  public void checkpoint(PayrollRun run, List<Payroll> payrolls, List<Integer> processed) {
+    payrollRepository.saveAll(payrolls);
+    payrollSummaryService.addPayrolls(run.getCompanyUsername(), payrolls);
+    if (!processed.isEmpty()) {
+      payrollRunItemRepository.updateStatus(run.getId(), processed,
+              PayrollRunItemStatus.PROCESSED);
+    }
+  }
+
+  /**
+   * Saves the generated Payroll entries of a checkpoint one at a time, skipping the employees
+   * that already have a payroll for the pay period, and marks the employees as processed. Used
+   * when the batch of {@link #checkpoint} conflicts with payrolls created concurrently.
+   *
+   * @param run (PayrollRun) : the payroll run
+   * @param payrolls (List) : generated Payroll entries to save
+   * @param processed (List) : ids of the employees completed by the checkpoint
+   * @return (List) : ids of the employees whose payroll already existed
+   */
+  @Transactional
+  public List<Integer> checkpointSkippingExisting(PayrollRun run, List<Payroll> payrolls,
+                                                  List<Integer> processed) {
+    List<Payroll> inserted = new ArrayList<>();
+    List<Integer> skipped = new ArrayList<>();
+    for (Payroll payroll : payrolls) {
+      Integer id = payrollRepository.insertIfAbsent(payroll);
+      if (id == null) {
+        skipped.add(payroll.getEmployeeId());
+      } else {
+        payroll.setId(id);
+        inserted.add(payroll);
+      }
+    }
+    payrollSummaryService.addPayrolls(run.getCompanyUsername(), inserted);
+    if (!processed.isEmpty()) {
+      payrollRunItemRepository.updateStatus(run.getId(), processed,
+              PayrollRunItemStatus.PROCESSED);
+    }
+    return skipped;
+  }
+
+  /**
+   * Marks employees of a run as failed, they are retried when the run is resumed.
+   *
+   * @param run (PayrollRun) : the payroll run
+   * @param failed (List) : ids of the failed employees
+   */
+  public void markFailed(PayrollRun run, List<Integer> failed) {
+    if (!failed.isEmpty()) {
+      payrollRunItemRepository.updateStatus(run.getId(), failed, PayrollRunItemStatus.FAILED);
+    }
+  }
+
+  /**
+   * Finishes a run: it is completed once every employee is processed and incomplete otherwise.
+   *
+   * @param run (PayrollRun) : the payroll run
+   * @return (Map) : number of employees per checkpoint status
+   */
+  public Map<PayrollRunItemStatus, Long> finishRun(PayrollRun run) {
+    Map<PayrollRunItemStatus, Long> counts = countItems(run);
+    boolean completed = counts.get(PayrollRunItemStatus.PENDING) == 0
+            && counts.get(PayrollRunItemStatus.FAILED) == 0;
+    run.setStatus(completed ? PayrollRunStatus.COMPLETED : PayrollRunStatus.INCOMPLETE);
+    payrollRunRepository.save(run);
+    return counts;
+  }
+
+  /**
+   * Deletes the Payroll entries of a company for a pay period with a single statement. The
+   * totals of the period are recomputed and the deleted employees are reopened in the payroll
+   * run of the period, so that resuming the run generates their payroll again.
+   *
+   * @param companyUsername (String) : company the entries belong to
+   * @param payPeriod (LocalDate) : first day of the month of the entries
+   * @param employeeIds (List) : employees to delete the entries of, null for the whole company
+   * @return (int) : number of deleted entries
+   */
+  @Transactional
+  public int deletePayrolls(String companyUsername, LocalDate payPeriod,
+                            List<Integer> employeeIds) {
+    int deleted;
+    if (employeeIds == null) {
+      deleted = payrollRepository.deleteByCompanyUsernameAndPayPeriod(companyUsername, payPeriod);
+    } else if (employeeIds.isEmpty()) {
+      return 0;
+    } else {
+      deleted = payrollRepository.deleteByCompanyUsernameAndPayPeriodAndEmployeeIds(
+              companyUsername, payPeriod, employeeIds);
+    }
+    if (deleted > 0) {
+      payrollSummaryService.refresh(companyUsername, payPeriod);
+      reopen(companyUsername, payPeriod, employeeIds);
+    }
+    return deleted;
+  }
+
+  /**
+   * Sets employees of the payroll run of a pay period back to pending, after their Payroll
+   * entries were deleted.
+   *
+   * @param companyUsername (String) : company the run belongs to
+   * @param payPeriod (LocalDate) : first day of the month of the run
+   * @param employeeIds (List) : employees to reopen, null for every employee of the run
+   */
+  @Transactional
+  public void reopen(String companyUsername, LocalDate payPeriod, List<Integer> employeeIds) {
+    Optional<PayrollRun> run = payrollRunRepository.findByCompanyUsernameAndPayPeriod(
+            companyUsername, payPeriod);
+    if (run.isEmpty()) {
+      return;
+    }
+    if (employeeIds == null) {
+      payrollRunItemRepository.updateStatusByRunId(run.get().getId(),
+              PayrollRunItemStatus.PENDING);
+    } else if (!employeeIds.isEmpty()) {
+      payrollRunItemRepository.updateStatus(run.get().getId(), employeeIds,
+              PayrollRunItemStatus.PENDING);
+    }
+    run.get().setStatus(PayrollRunStatus.INCOMPLETE);
+    payrollRunRepository.save(run.get());
+  }
+
+  /**
+   * Gets the progress of a payroll run of the company.
+   *
+   * @param runId (Integer) : id of the payroll run
+   * @return (Pair) : Pair consisting of status and the progress of the run
+   */
+  public Pair<PayrollStatus, Map<String, Object>> getRunStatus(Integer runId) {
+    Optional<PayrollRun> run = payrollRunRepository.findByIdAndCompanyUsername(runId,
+            companyService.getCompanyUsername());
+    if (run.isEmpty()) {
+      return Pair.of(PayrollStatus.NOT_FOUND, new LinkedHashMap<>());
+    }
+
+    Map<PayrollRunItemStatus, Long> counts = countItems(run.get());
+    Map<String, Object> returnValue = new LinkedHashMap<>();
+    returnValue.put("runId", run.get().getId());
+    returnValue.put("month", run.get().getPayPeriod().getMonthValue());
+    returnValue.put("year", run.get().getPayPeriod().getYear());
+    returnValue.put("status", run.get().getStatus());
+    returnValue.put("processed", counts.get(PayrollRunItemStatus.PROCESSED));
+    returnValue.put("failed", counts.get(PayrollRunItemStatus.FAILED));
+    returnValue.put("pending", counts.get(PayrollRunItemStatus.PENDING));
+    returnValue.put("updatedAt", run.get().getUpdatedAt());
+    return Pair.of(PayrollStatus.OK, returnValue);
+  }
+
+  private Map<PayrollRunItemStatus, Long> countItems(PayrollRun run) {
+    Map<PayrollRunItemStatus, Long> counts = new EnumMap<>(PayrollRunItemStatus.class);
+    for (PayrollRunItemStatus status : PayrollRunItemStatus.values()) {
+      counts.put(status, 0L);
+    }
+    for (Object[] row : payrollRunItemRepository.countByRunIdGroupByStatus(run.getId())) {
+      counts.put((PayrollRunItemStatus) row[0], (Long) row[1]);
+    }
+    return counts;
+  }
+}
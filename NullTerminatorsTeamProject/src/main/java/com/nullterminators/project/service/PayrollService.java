@@ -1,22 +1,50 @@
 package com.nullterminators.project.service;
 
 import com.nullterminators.project.enums.PayrollStatus;
+import com.nullterminators.project.enums.PayslipStatus;
 import com.nullterminators.project.model.EmployeeProfile;
 import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollHistoryEntry;
+import com.nullterminators.project.model.PayrollRun;
 import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.util.pdf.PdfBuffer;
 import com.nullterminators.project.util.pdf.PdfGenerator;
 import com.nullterminators.project.util.pdf.PdfUploader;
+import com.nullterminators.project.util.tax.TaxEngine;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for Payroll.
@@ -24,63 +52,97 @@ import org.springframework.stereotype.Service;
 @Service
 public class PayrollService {
 
+  /** Largest page of the payroll history returned by one call. */
+  public static final int MAX_HISTORY_PAGE_SIZE = 120;
+
+  /** Entry of a payslip archive listing the payslips left out of it and why. */
+  public static final String MISSING_PAYSLIPS_ENTRY = "missing_payslips.csv";
+
   private final PayrollRepository payrollRepository;
   private final EmployeeProfileService employeeProfileService;
   private final CompanyEmployeesService companyEmployeesService;
+  private final CompanyService companyService;
   private final TimeOffService timeOffService;
   private final PdfGenerator pdfGenerator;
   private final PdfUploader pdfUploader;
+  private final PayslipPipeline payslipPipeline;
+  private final PayrollRunService payrollRunService;
+  private final PayrollSummaryService payrollSummaryService;
+  private final TaxEngine taxEngine;
+  private final ExecutorService payrollRunExecutor;
+  private final int checkpointSize;
 
   /**
    * Constructor for PayrollService.
    *
    * @param payrollRepository : {@link PayrollRepository}
    * @param employeeProfileService : {@link EmployeeProfileService}
+   * @param companyService : {@link CompanyService}
    * @param pdfGenerator : {@link PdfGenerator}
+   * @param payslipPipeline : {@link PayslipPipeline}
+   * @param payrollRunService : {@link PayrollRunService}
+   * @param payrollSummaryService : {@link PayrollSummaryService}
+   * @param taxEngine : {@link TaxEngine}
+   * @param payrollRunExecutor : worker pool used by {@link #generatePayroll(Map)}
+   * @param checkpointSize : number of employees saved per checkpoint of a payroll run
    */
   @Autowired
   public PayrollService(PayrollRepository payrollRepository,
                         EmployeeProfileService employeeProfileService,
                         CompanyEmployeesService companyEmployeesService,
+                        CompanyService companyService,
                         TimeOffService timeOffService,
                         PdfGenerator pdfGenerator,
-                        PdfUploader pdfUploader) {
+                        PdfUploader pdfUploader,
+                        PayslipPipeline payslipPipeline,
+                        PayrollRunService payrollRunService,
+                        PayrollSummaryService payrollSummaryService,
+                        TaxEngine taxEngine,
+                        @Qualifier("payrollRunExecutor") ExecutorService payrollRunExecutor,
+                        @Value("${payroll.run.checkpoint-size:50}") int checkpointSize) {
     this.payrollRepository = payrollRepository;
     this.employeeProfileService = employeeProfileService;
     this.companyEmployeesService = companyEmployeesService;
+    this.companyService = companyService;
     this.pdfGenerator = pdfGenerator;
     this.pdfUploader = pdfUploader;
+    this.payslipPipeline = payslipPipeline;
     this.timeOffService = timeOffService;
+    this.payrollRunService = payrollRunService;
+    this.payrollSummaryService = payrollSummaryService;
+    this.taxEngine = taxEngine;
+    this.payrollRunExecutor = payrollRunExecutor;
+    this.checkpointSize = Math.max(1, checkpointSize);
   }
 
   /**
-   * Get all Payroll entries by employee id.
+   * Get a page of the paid Payroll entries of an employee, newest first. Pages are read with
+   * keyset pagination on the payment date: the next page starts before the payment date of the
+   * last entry of the previous one.
    *
    * @param employeeId (Integer) : Employee ID
-   * @return (List) : List of Payroll entries for the employee
+   * @param before (LocalDate) : Payment date of the last entry of the previous page, or null
+   *                             for the first page
+   * @param limit (Integer) : Maximum number of entries in the page
+   * @return (Pair) : Pair consisting of status and the Payroll entries of the page
    */
-  public Pair<PayrollStatus, List<Map<String, Object>>> getPayrollByEmployeeId(Integer employeeId) {
-    List<Map<String, Object>> returnValue = new ArrayList<>();
+  public Pair<PayrollStatus, List<PayrollHistoryEntry>> getPayrollByEmployeeId(
+          Integer employeeId, LocalDate before, Integer limit) {
+    if (limit == null || limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+      return Pair.of(PayrollStatus.INVALID_DATA, new ArrayList<>());
+    }
     Boolean status = companyEmployeesService.verifyIfEmployeeInCompany(employeeId);
     if (!status) {
-      return Pair.of(PayrollStatus.EMPLOYEE_NOT_FOUND, returnValue);
+      return Pair.of(PayrollStatus.EMPLOYEE_NOT_FOUND, new ArrayList<>());
     }
 
-    List<Payroll> payrollInformation =
-            payrollRepository.findAllByEmployeeIdOrderByPaymentDateDesc(employeeId);
-
-    for (Payroll payroll : payrollInformation) {
-      Map<String, Object> data = new HashMap<>();
-      data.put("employeeId", payroll.getEmployeeId());
-      data.put("date", payroll.getPaymentDate());
-      data.put("salary", payroll.getSalary());
-      data.put("tax", payroll.getTax());
-      data.put("netSalary", payroll.getSalary() - payroll.getTax());
-      data.put("payslip", payroll.getPayslip());
-      returnValue.add(data);
+    Pageable page = PageRequest.ofSize(limit);
+    if (before == null) {
+      return Pair.of(PayrollStatus.OK,
+              payrollRepository.findHistoryByEmployeeId(employeeId, page));
     }
-
-    return Pair.of(PayrollStatus.OK, returnValue);
+    return Pair.of(PayrollStatus.OK,
+            payrollRepository.findHistoryByEmployeeIdBefore(employeeId, before, page));
   }
 
   /**
@@ -90,33 +152,9 @@ public class PayrollService {
    * @param updates (Map) : Map consisting of month and year
    * @return (Integer) : Status of update
    */
+  @Transactional
   public PayrollStatus markAsPaid(Integer employeeId, Map<String, Object> updates) {
-    Boolean status = companyEmployeesService.verifyIfEmployeeInCompany(employeeId);
-    if (!status) {
-      return PayrollStatus.EMPLOYEE_NOT_FOUND;
-    }
-
-    List<UpdateField> flags = new ArrayList<>(Arrays.asList(UpdateField.month, UpdateField.year));
-    Pair<PayrollStatus, Map<String, Integer>> data = checkError(updates, flags);
-
-    if (data.getFirst() != PayrollStatus.OK) {
-      return data.getFirst();
-    }
-
-    Payroll payroll = payrollRepository.findByEmployeeIdPaymentMonthAndYear(employeeId,
-            data.getSecond().get("month"), data.getSecond().get("year"));
-
-    if (payroll == null) {
-      return PayrollStatus.NOT_FOUND;
-    } else {
-      if (payroll.getPaid() == 1) {
-        return PayrollStatus.ALREADY_COMPLETED;
-      } else {
-        payroll.setPaid(1);
-        payrollRepository.save(payroll);
-        return PayrollStatus.SUCCESS;
-      }
-    }
+    return updatePaidByEmployeeId(employeeId, updates, 1);
   }
 
   /**
@@ -126,7 +164,17 @@ public class PayrollService {
    * @param updates (Map) : Map consisting of month and year
    * @return (Integer) : Status of update
    */
+  @Transactional
   public PayrollStatus markAsUnpaid(Integer employeeId, Map<String, Object> updates) {
+    return updatePaidByEmployeeId(employeeId, updates, 0);
+  }
+
+  /*
+   * The flip is a conditional UPDATE, and the totals are only changed when it changed the row,
+   * in the same transaction.
+   */
+  private PayrollStatus updatePaidByEmployeeId(Integer employeeId, Map<String, Object> updates,
+                                               Integer paid) {
     Boolean status = companyEmployeesService.verifyIfEmployeeInCompany(employeeId);
     if (!status) {
       return PayrollStatus.EMPLOYEE_NOT_FOUND;
@@ -144,24 +192,25 @@ public class PayrollService {
 
     if (payroll == null) {
       return PayrollStatus.NOT_FOUND;
+    } else if (payroll.getPaid().equals(paid)
+            || payrollRepository.updatePaid(payroll.getId(), paid) == 0) {
+      return PayrollStatus.ALREADY_COMPLETED;
     } else {
-      if (payroll.getPaid() == 0) {
-        return PayrollStatus.ALREADY_COMPLETED;
-      } else {
-        payroll.setPaid(0);
-        payrollRepository.save(payroll);
-        return PayrollStatus.SUCCESS;
-      }
+      payroll.setPaid(paid);
+      payrollSummaryService.changePaid(companyService.getCompanyUsername(), payroll);
+      return PayrollStatus.SUCCESS;
     }
   }
 
   /**
-   * Delete Payroll entry by employee id.
+   * Delete Payroll entry by employee id. The entry is locked while it is deleted and removed
+   * from the totals of its pay period in the same transaction.
    *
    * @param employeeId (Integer) : Employee ID
    * @param updates (Map) : Map consisting of month and year
    * @return (Integer) : Status of update
    */
+  @Transactional
   public PayrollStatus deletePayrollByEmployeeId(Integer employeeId, Map<String, Object> updates) {
     Boolean status = companyEmployeesService.verifyIfEmployeeInCompany(employeeId);
     if (!status) {
@@ -175,24 +224,33 @@ public class PayrollService {
       return data.getFirst();
     }
 
-    Payroll payroll = payrollRepository.findByEmployeeIdPaymentMonthAndYear(employeeId,
-            data.getSecond().get("month"), data.getSecond().get("year"));
+    Payroll payroll = payrollRepository.findForUpdateByEmployeeIdAndPayPeriod(employeeId,
+            LocalDate.of(data.getSecond().get("year"), data.getSecond().get("month"), 1));
 
     if (payroll == null) {
       return PayrollStatus.NOT_FOUND;
     } else {
       payrollRepository.delete(payroll);
+      payrollSummaryService.removePayroll(companyService.getCompanyUsername(), payroll);
+      payrollRunService.reopen(companyService.getCompanyUsername(),
+              LocalDate.of(data.getSecond().get("year"), data.getSecond().get("month"), 1),
+              List.of(employeeId));
       return PayrollStatus.SUCCESS;
     }
   }
 
   /**
-   * Add Payroll entry by employee id.
+   * Add Payroll entry by employee id. The entry is inserted with a pending payslip unless the
+   * employee already has one for the month, which the unique pay period constraint decides in
+   * the same statement. The entry and the period totals are changed in one transaction, and
+   * the payslip is rendered and uploaded by the {@link PayslipPipeline} in the background once
+   * that transaction commits.
    *
    * @param employeeId (Integer) : Employee ID
    * @param updates (Map) : Map consisting of month and year
    * @return (Integer) : Status of update
    */
+  @Transactional
   public PayrollStatus addPayrollByEmployeeId(Integer employeeId, Map<String, Object> updates) {
     Boolean status = companyEmployeesService.verifyIfEmployeeInCompany(employeeId);
     if (!status) {
@@ -207,40 +265,75 @@ public class PayrollService {
       return data.getFirst();
     }
 
-    Payroll payroll = payrollRepository.findByEmployeeIdPaymentMonthAndYear(employeeId,
-            data.getSecond().get("month"), data.getSecond().get("year"));
-
-    if (payroll != null) {
+    EmployeeProfile employee = employeeProfileService.getEmployeeProfile(employeeId).get();
+    Payroll newPayrollEntry = newPayroll(employee, data.getSecond(),
+            calculateTax(data.getSecond().get("salary"), data.getSecond().get("year")));
+    newPayrollEntry.setPayslipStatus(PayslipStatus.PENDING);
+    Integer id = payrollRepository.insertIfAbsent(newPayrollEntry);
+    if (id == null) {
       return PayrollStatus.ALREADY_EXISTS;
-    } else {
-      Payroll newPayrollEntry = new Payroll();
-      newPayrollEntry.setEmployeeId(employeeId);
-      newPayrollEntry.setSalary(data.getSecond().get("salary"));
-      newPayrollEntry.setTax(calculateTax(data.getSecond().get("salary")));
-      newPayrollEntry.setPaymentDate(LocalDate.of(data.getSecond().get("year"),
-              data.getSecond().get("month"), data.getSecond().get("day")));
-      EmployeeProfile employee = employeeProfileService.getEmployeeProfile(employeeId).get();
-      LocalDate startDate = LocalDate.of(data.getSecond().get("year"),
-              data.getSecond().get("month"), 1);
-      LocalDate endDate = startDate.with(TemporalAdjusters.firstDayOfMonth());
-      Integer leaveCount = timeOffService.getTimeOffByEmployeeIdWithDateRange(employee.getId(),
-              startDate, endDate).size();
-      pdfGenerator.generatePdfReport(newPayrollEntry, employee, leaveCount);
-      String url = pdfUploader.uploadPdf(pdfGenerator.getPdfName(newPayrollEntry));
-      newPayrollEntry.setPaid(1);
-      newPayrollEntry.setPayslip(url);
-      payrollRepository.save(newPayrollEntry);
-      return PayrollStatus.SUCCESS;
     }
+    newPayrollEntry.setId(id);
+
+    LocalDate startDate = newPayrollEntry.getPaymentDate().withDayOfMonth(1);
+    LocalDate endDate = startDate.with(TemporalAdjusters.lastDayOfMonth());
+    Integer leaveCount = timeOffService.getLeaveDaysByEmployeeIdWithDateRange(
+            employee.getId(), startDate, endDate);
+    payrollSummaryService.addPayrolls(companyService.getCompanyUsername(),
+            List.of(newPayrollEntry));
+    payslipPipeline.submit(newPayrollEntry, employee, leaveCount);
+    return PayrollStatus.SUCCESS;
+  }
+
+  /**
+   * Builds the Payroll entry of an employee without a payslip.
+   *
+   * @param employee (EmployeeProfile) : Employee the payroll is created for
+   * @param data (Map) : Validated day, month, year and salary
+   * @param tax (Integer) : Tax of the salary
+   * @return (Payroll) : The unsaved Payroll entry
+   */
+  private Payroll newPayroll(EmployeeProfile employee, Map<String, Integer> data, Integer tax) {
+    Payroll newPayrollEntry = new Payroll();
+    newPayrollEntry.setEmployeeId(employee.getId());
+    newPayrollEntry.setSalary(data.get("salary"));
+    newPayrollEntry.setTax(tax);
+    newPayrollEntry.setPaymentDate(LocalDate.of(data.get("year"), data.get("month"),
+            data.get("day")));
+    newPayrollEntry.setPaid(1);
+    return newPayrollEntry;
   }
 
   /**
-   * Adjust salary by employee id.
+   * Builds the Payroll entry of an employee, renders and uploads the payslip. The entry is not
+   * saved so that callers can persist several entries in one batch.
+   *
+   * @param employee (EmployeeProfile) : Employee the payroll is created for
+   * @param data (Map) : Validated day, month, year and salary
+   * @param tax (Integer) : Tax of the salary
+   * @param leaveCount (Integer) : Number of approved leave days in the month
+   * @return (Payroll) : The unsaved Payroll entry
+   */
+  private Payroll createPayroll(EmployeeProfile employee, Map<String, Integer> data,
+                                Integer tax, Integer leaveCount) {
+    Payroll newPayrollEntry = newPayroll(employee, data, tax);
+    PdfBuffer pdf = pdfGenerator.generatePdfReport(newPayrollEntry, employee, leaveCount);
+    String url = pdfUploader.uploadPdf(pdfGenerator.getPdfName(newPayrollEntry), pdf);
+    newPayrollEntry.setPayslip(url);
+    newPayrollEntry.setPayslipHash(pdf.getContentHash());
+    newPayrollEntry.setPayslipStatus(PayslipStatus.GENERATED);
+    return newPayrollEntry;
+  }
+
+  /**
+   * Adjust salary by employee id. The entry is locked while it is updated and the difference is
+   * added to the totals of its pay period in the same transaction.
    *
    * @param employeeId (Integer) : Employee ID
    * @param updates (Map) : Map consisting of month, year and salary
    * @return (Integer) : Status of update
    */
+  @Transactional
   public PayrollStatus adjustSalaryByEmployeeId(Integer employeeId, Map<String, Object> updates) {
     Boolean status = companyEmployeesService.verifyIfEmployeeInCompany(employeeId);
     if (!status) {
@@ -255,15 +348,20 @@ public class PayrollService {
       return data.getFirst();
     }
 
-    Payroll payroll = payrollRepository.findByEmployeeIdPaymentMonthAndYear(employeeId,
-            data.getSecond().get("month"), data.getSecond().get("year"));
+    Payroll payroll = payrollRepository.findForUpdateByEmployeeIdAndPayPeriod(employeeId,
+            LocalDate.of(data.getSecond().get("year"), data.getSecond().get("month"), 1));
 
     if (payroll == null) {
       return PayrollStatus.NOT_FOUND;
     } else {
+      final Integer oldSalary = payroll.getSalary();
+      final Integer oldTax = payroll.getTax();
       payroll.setSalary(data.getSecond().get("salary"));
-      payroll.setTax(calculateTax(data.getSecond().get("salary")));
+      payroll.setTax(calculateTax(data.getSecond().get("salary"),
+              data.getSecond().get("year")));
       payrollRepository.save(payroll);
+      payrollSummaryService.adjustSalary(companyService.getCompanyUsername(), payroll, oldSalary,
+              oldTax);
       return PayrollStatus.SUCCESS;
     }
   }
@@ -304,40 +402,74 @@ public class PayrollService {
   }
 
   /**
-   * Adds Payroll for all employees in a company.
+   * Adds Payroll for all employees in a company. The run is persisted with a checkpoint per
+   * employee: employees are processed concurrently on the payroll run executor in chunks, and
+   * every chunk is saved together with its checkpoints, in JDBC batches. Calling it again for
+   * the same month resumes the run with only the pending and failed employees. Profiles,
+   * existing payrolls and leave counts are loaded upfront with one query each.
    *
    * @param updates (Map) : Map consisting of month and year
-   * @return (Map) : Map consisting of response and employeeList
+   * @return (Map) : Map consisting of response, runId and employeeList
    */
   public Map<String, Object> generatePayroll(Map<String, Object> updates) {
-    List<Integer> employeeList = companyEmployeesService.getAllEmployeesInCompany();
-    List<Integer> result = new ArrayList<>();
     Map<String, Object> returnValue = new HashMap<>();
+    List<UpdateField> flags = new ArrayList<>(Arrays.asList(UpdateField.day,
+            UpdateField.month, UpdateField.year));
+    Pair<PayrollStatus, Map<String, Integer>> date = checkError(updates, flags);
+    if (date.getFirst() != PayrollStatus.OK) {
+      returnValue.put("response", getGeneratePayrollError(date.getFirst()));
+      return returnValue;
+    }
 
-    for (Integer employeeId : employeeList) {
-      Optional<EmployeeProfile> employee = employeeProfileService.getEmployeeProfile(employeeId);
-      if (employee.isEmpty()) {
-        continue;
-      }
-      updates.put("salary", employee.get().getBaseSalary());
-      PayrollStatus status = addPayrollByEmployeeId(employee.get().getId(), updates);
-
-      switch (status) {
-        case INVALID_DATA:
-          returnValue.put("response", "Invalid day or month or year");
-          return returnValue;
-        case INVALID_FORMAT:
-          returnValue.put("response", "Invalid format for day or month or year");
-          return returnValue;
+    Integer month = date.getSecond().get("month");
+    Integer year = date.getSecond().get("year");
+    String companyUsername = companyService.getCompanyUsername();
+    LocalDate startDate = LocalDate.of(year, month, 1);
+    PayrollRun run = payrollRunService.startRun(companyUsername, startDate);
+    List<Integer> remaining = payrollRunService.getRemainingEmployeeIds(run);
+    Map<Integer, EmployeeProfile> profiles = new HashMap<>();
+    for (EmployeeProfile employee : employeeProfileService.getEmployeeProfiles(remaining)) {
+      profiles.put(employee.getId(), employee);
+    }
+    Set<Integer> existingPayrolls = new HashSet<>(payrollRepository
+            .findEmployeeIdsByCompanyUsernameAndPayPeriod(companyUsername, startDate));
+    Map<Integer, Integer> leaveCounts = timeOffService.getLeaveDaysByCompanyWithDateRange(
+            companyUsername, startDate, startDate.with(TemporalAdjusters.lastDayOfMonth()));
+    Map<Integer, Integer> taxes = calculateTaxes(profiles.values(), year);
+
+    Map<Integer, PayrollStatus> statuses = new LinkedHashMap<>();
+    for (int from = 0; from < remaining.size(); from += checkpointSize) {
+      List<Integer> chunk = remaining.subList(from,
+              Math.min(remaining.size(), from + checkpointSize));
+      statuses.putAll(generatePayrollCheckpoint(run, chunk, profiles, existingPayrolls,
+              leaveCounts, taxes, date.getSecond()));
+    }
+    payrollRunService.finishRun(run);
+
+    List<Integer> result = new ArrayList<>();
+    List<Integer> failed = new ArrayList<>();
+    for (Map.Entry<Integer, PayrollStatus> status : statuses.entrySet()) {
+      switch (status.getValue()) {
         case ALREADY_EXISTS:
-          result.add(employee.get().getId());
+          result.add(status.getKey());
+          break;
+        case ERROR:
+          failed.add(status.getKey());
           break;
         default:
           break;
       }
     }
 
-    if (!result.isEmpty()) {
+    returnValue.put("runId", run.getId());
+    if (!failed.isEmpty()) {
+      returnValue.put("response",
+              "Payroll could not be generated for the employees in failedEmployeeList");
+      returnValue.put("failedEmployeeList", failed);
+      if (!result.isEmpty()) {
+        returnValue.put("employeeList", result);
+      }
+    } else if (!result.isEmpty()) {
       returnValue.put("response",
               "Payroll for the employees in list have already been generated and were not added");
       returnValue.put("employeeList", result);
@@ -349,36 +481,344 @@ public class PayrollService {
   }
 
   /**
-   * Deletes Payroll for all employees in a company.
+   * Gets the progress of a payroll run of the company.
    *
-   * @param updates (Map) : Map consisting of month and year
-   * @return (Map) : Map consisting of response and employeeList
+   * @param runId (Integer) : id of the payroll run
+   * @return (Pair) : Pair consisting of status and the processed, failed and pending counts
    */
-  public Map<String, Object> deletePayroll(Map<String, Object> updates) {
-    List<Integer> employeeList = companyEmployeesService.getAllEmployeesInCompany();
-    Map<String, Object> returnValue = new HashMap<>();
+  public Pair<PayrollStatus, Map<String, Object>> getPayrollRunStatus(Integer runId) {
+    return payrollRunService.getRunStatus(runId);
+  }
 
-    for (Integer employeeId : employeeList) {
-      Optional<EmployeeProfile> employee = employeeProfileService.getEmployeeProfile(employeeId);
-      if (employee.isEmpty()) {
+  /**
+   * Generates the Payroll entries of a chunk of the run and saves them as one checkpoint.
+   *
+   * @return (Map) : status of every employee of the chunk, in run order
+   */
+  private Map<Integer, PayrollStatus> generatePayrollCheckpoint(
+          PayrollRun run, List<Integer> employeeIds, Map<Integer, EmployeeProfile> profiles,
+          Set<Integer> existingPayrolls, Map<Integer, Integer> leaveCounts,
+          Map<Integer, Integer> taxes, Map<String, Integer> date) {
+    Map<Integer, Payroll> generated = new ConcurrentHashMap<>();
+    Map<Integer, Future<PayrollStatus>> tasks = new LinkedHashMap<>();
+    for (Integer employeeId : employeeIds) {
+      EmployeeProfile employee = profiles.get(employeeId);
+      if (employee == null) {
+        tasks.put(employeeId, CompletableFuture.completedFuture(PayrollStatus.ERROR));
         continue;
       }
-      PayrollStatus status = deletePayrollByEmployeeId(employee.get().getId(), updates);
-
-      switch (status) {
-        case INVALID_DATA:
-          returnValue.put("response", "Invalid month or year");
-          return returnValue;
-        case INVALID_FORMAT:
-          returnValue.put("response", "Invalid format for month or year");
-          return returnValue;
-        default:
-          break;
+      if (existingPayrolls.contains(employeeId)) {
+        tasks.put(employeeId, CompletableFuture.completedFuture(PayrollStatus.ALREADY_EXISTS));
+        continue;
       }
+      Integer leaveCount = leaveCounts.getOrDefault(employeeId, 0);
+      Integer tax = taxes.get(employeeId);
+      tasks.put(employeeId, payrollRunExecutor.submit(
+              () -> generatePayrollForEmployee(employee, date, tax, leaveCount, generated)));
     }
 
-    returnValue.put("response", "Payroll for this month and year has been deleted");
-    return returnValue;
+    Map<Integer, PayrollStatus> statuses = new LinkedHashMap<>();
+    for (Map.Entry<Integer, Future<PayrollStatus>> task : tasks.entrySet()) {
+      statuses.put(task.getKey(), awaitPayrollTask(task.getKey(), task.getValue()));
+    }
+    savePayrolls(run, statuses, generated);
+    return statuses;
+  }
+
+  private PayrollStatus generatePayrollForEmployee(EmployeeProfile employee,
+                                                   Map<String, Integer> date,
+                                                   Integer tax,
+                                                   Integer leaveCount,
+                                                   Map<Integer, Payroll> generated) {
+    // Reported as failed with the run, so the run resumes it once the base salary is set.
+    if (employee.getBaseSalary() == null) {
+      return PayrollStatus.ERROR;
+    }
+    Map<String, Integer> data = new HashMap<>(date);
+    data.put("salary", employee.getBaseSalary());
+    generated.put(employee.getId(), createPayroll(employee, data, tax, leaveCount));
+    return PayrollStatus.SUCCESS;
+  }
+
+  /**
+   * Saves the generated Payroll entries of a chunk in run order with a single saveAll, so that
+   * the inserts are sent in batches, and checkpoints the chunk. If another request created some
+   * of the entries in the meantime, the chunk is saved again skipping those. If the batch fails
+   * otherwise, every employee in it is marked as failed.
+   *
+   * @param run (PayrollRun) : the payroll run
+   * @param statuses (Map) : Status of every employee of the chunk, updated on failure
+   * @param generated (Map) : Generated Payroll entries by employee id
+   */
+  private void savePayrolls(PayrollRun run, Map<Integer, PayrollStatus> statuses,
+                            Map<Integer, Payroll> generated) {
+    List<Payroll> payrolls = new ArrayList<>();
+    List<Integer> processed = new ArrayList<>();
+    List<Integer> failed = new ArrayList<>();
+    for (Map.Entry<Integer, PayrollStatus> status : statuses.entrySet()) {
+      if (status.getValue() == PayrollStatus.SUCCESS) {
+        payrolls.add(generated.get(status.getKey()));
+        processed.add(status.getKey());
+      } else if (status.getValue() == PayrollStatus.ALREADY_EXISTS) {
+        processed.add(status.getKey());
+      } else {
+        failed.add(status.getKey());
+      }
+    }
+    try {
+      payrollRunService.checkpoint(run, payrolls, processed);
+    } catch (DataIntegrityViolationException e) {
+      // Another request created payrolls of the chunk since the run looked them up.
+      savePayrollsSkippingExisting(run, statuses, payrolls, processed, failed);
+    } catch (DataAccessException e) {
+      System.out.println("Saving generated payrolls failed: " + e.getMessage());
+      for (Payroll payroll : payrolls) {
+        statuses.put(payroll.getEmployeeId(), PayrollStatus.ERROR);
+        failed.add(payroll.getEmployeeId());
+      }
+    }
+    payrollRunService.markFailed(run, failed);
+  }
+
+  /**
+   * Saves the Payroll entries of a chunk one by one, skipping those that already exist, after
+   * the batch insert of the chunk hit the unique pay period constraint.
+   */
+  private void savePayrollsSkippingExisting(PayrollRun run, Map<Integer, PayrollStatus> statuses,
+                                            List<Payroll> payrolls, List<Integer> processed,
+                                            List<Integer> failed) {
+    try {
+      for (Integer employeeId : payrollRunService.checkpointSkippingExisting(run, payrolls,
+              processed)) {
+        statuses.put(employeeId, PayrollStatus.ALREADY_EXISTS);
+      }
+    } catch (DataAccessException e) {
+      System.out.println("Saving generated payrolls failed: " + e.getMessage());
+      for (Payroll payroll : payrolls) {
+        statuses.put(payroll.getEmployeeId(), PayrollStatus.ERROR);
+        failed.add(payroll.getEmployeeId());
+      }
+    }
+  }
+
+  private PayrollStatus awaitPayrollTask(Integer employeeId, Future<PayrollStatus> task) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return PayrollStatus.ERROR;
+    } catch (ExecutionException e) {
+      System.out.println("Payroll generation failed for employee " + employeeId + ": "
+              + e.getCause());
+      return PayrollStatus.ERROR;
+    }
+  }
+
+  private String getGeneratePayrollError(PayrollStatus status) {
+    if (status == PayrollStatus.INVALID_DATA) {
+      return "Invalid day or month or year";
+    }
+    return "Invalid format for day or month or year";
+  }
+
+  /**
+   * Deletes Payroll for all employees in a company, or for the employees in employeeIds, with
+   * a single statement scoped to the company.
+   *
+   * @param updates (Map) : Map consisting of month, year and optionally employeeIds
+   * @return (Pair) : Pair consisting of status and the number of deleted entries
+   */
+  public Pair<PayrollStatus, Integer> deletePayroll(Map<String, Object> updates) {
+    Pair<PayrollStatus, Map<String, Integer>> data = checkError(updates,
+            new ArrayList<>(Arrays.asList(UpdateField.month, UpdateField.year)));
+    if (data.getFirst() != PayrollStatus.OK) {
+      return Pair.of(data.getFirst(), 0);
+    }
+    Pair<PayrollStatus, Optional<List<Integer>>> employeeIds = checkEmployeeIds(updates);
+    if (employeeIds.getFirst() != PayrollStatus.OK) {
+      return Pair.of(employeeIds.getFirst(), 0);
+    }
+
+    LocalDate payPeriod = LocalDate.of(data.getSecond().get("year"),
+            data.getSecond().get("month"), 1);
+    return Pair.of(PayrollStatus.SUCCESS, payrollRunService.deletePayrolls(
+            companyService.getCompanyUsername(), payPeriod,
+            employeeIds.getSecond().orElse(null)));
+  }
+
+  /**
+   * Marks Payroll of all employees in a company, or of the employees in employeeIds, as paid
+   * with a single update scoped to the company. The update and the recomputed period totals are
+   * committed together, so a concurrent change to a single entry waits for both.
+   *
+   * @param updates (Map) : Map consisting of month, year and optionally employeeIds
+   * @return (Pair) : Pair consisting of status and the number of entries marked as paid
+   */
+  @Transactional
+  public Pair<PayrollStatus, Integer> markPayrollsAsPaid(Map<String, Object> updates) {
+    return updatePaid(updates, 1);
+  }
+
+  /**
+   * Marks Payroll of all employees in a company, or of the employees in employeeIds, as unpaid
+   * with a single update scoped to the company.
+   *
+   * @param updates (Map) : Map consisting of month, year and optionally employeeIds
+   * @return (Pair) : Pair consisting of status and the number of entries marked as unpaid
+   */
+  @Transactional
+  public Pair<PayrollStatus, Integer> markPayrollsAsUnpaid(Map<String, Object> updates) {
+    return updatePaid(updates, 0);
+  }
+
+  private Pair<PayrollStatus, Integer> updatePaid(Map<String, Object> updates, Integer paid) {
+    Pair<PayrollStatus, Map<String, Integer>> data = checkError(updates,
+            new ArrayList<>(Arrays.asList(UpdateField.month, UpdateField.year)));
+    if (data.getFirst() != PayrollStatus.OK) {
+      return Pair.of(data.getFirst(), 0);
+    }
+    Pair<PayrollStatus, Optional<List<Integer>>> employeeIds = checkEmployeeIds(updates);
+    if (employeeIds.getFirst() != PayrollStatus.OK) {
+      return Pair.of(employeeIds.getFirst(), 0);
+    }
+
+    String companyUsername = companyService.getCompanyUsername();
+    LocalDate payPeriod = LocalDate.of(data.getSecond().get("year"),
+            data.getSecond().get("month"), 1);
+    int updated;
+    if (employeeIds.getSecond().isEmpty()) {
+      updated = payrollRepository.updatePaidByCompanyUsernameAndPayPeriod(companyUsername,
+              payPeriod, paid);
+    } else if (employeeIds.getSecond().get().isEmpty()) {
+      return Pair.of(PayrollStatus.SUCCESS, 0);
+    } else {
+      updated = payrollRepository.updatePaidByCompanyUsernameAndPayPeriodAndEmployeeIds(
+              companyUsername, payPeriod, paid, employeeIds.getSecond().get());
+    }
+    if (updated > 0) {
+      payrollSummaryService.refresh(companyUsername, payPeriod);
+    }
+    return Pair.of(PayrollStatus.SUCCESS, updated);
+  }
+
+  /**
+   * Checks the optional list of employee ids of a bulk update.
+   *
+   * @param updates (Map) : Map that may consist of employeeIds
+   * @return (Pair) : Pair consisting of status and the employee ids, empty if the update is
+   *                  for the whole company
+   */
+  private Pair<PayrollStatus, Optional<List<Integer>>> checkEmployeeIds(
+          Map<String, Object> updates) {
+    Object value = updates.get("employeeIds");
+    if (value == null) {
+      return Pair.of(PayrollStatus.OK, Optional.empty());
+    } else if (!(value instanceof List<?> list)) {
+      return Pair.of(PayrollStatus.INVALID_FORMAT, Optional.empty());
+    } else {
+      List<Integer> employeeIds = new ArrayList<>();
+      for (Object employeeId : list) {
+        if (!(employeeId instanceof Integer)) {
+          return Pair.of(PayrollStatus.INVALID_FORMAT, Optional.empty());
+        }
+        employeeIds.add((Integer) employeeId);
+      }
+      return Pair.of(PayrollStatus.OK, Optional.of(employeeIds));
+    }
+  }
+
+  /**
+   * Gets the payroll totals of the company for a month, or for every month of a year when no
+   * month is given. The totals are read from the summary rows kept per pay period.
+   *
+   * @param month (Integer) : month of the pay period, or null for the whole year
+   * @param year (Integer) : year of the pay period
+   * @return (Pair) : Pair consisting of status and the totals of the pay periods with entries
+   */
+  public Pair<PayrollStatus, List<Map<String, Object>>> getPayrollSummary(Integer month,
+                                                                         Integer year) {
+    Map<String, Object> updates = new HashMap<>();
+    updates.put("month", month == null ? 1 : month);
+    updates.put("year", year);
+    List<UpdateField> flags = new ArrayList<>(Arrays.asList(UpdateField.month, UpdateField.year));
+    Pair<PayrollStatus, Map<String, Integer>> date = checkError(updates, flags);
+    if (date.getFirst() != PayrollStatus.OK) {
+      return Pair.of(date.getFirst(), new ArrayList<>());
+    }
+
+    LocalDate from = LocalDate.of(year, month == null ? 1 : month, 1);
+    LocalDate to = month == null ? from.withMonth(12) : from;
+    return Pair.of(PayrollStatus.OK, payrollSummaryService.getSummaries(from, to));
+  }
+
+  /**
+   * Finds the Payroll entries of the company for a month, whatever the status of their
+   * payslips.
+   *
+   * @param month (Integer) : month of the pay period
+   * @param year (Integer) : year of the pay period
+   * @return (Pair) : Pair consisting of status and the payroll entries ordered by employee id
+   */
+  public Pair<PayrollStatus, List<Payroll>> getPayslipsByPayPeriod(Integer month, Integer year) {
+    Map<String, Object> updates = new HashMap<>();
+    updates.put("month", month);
+    updates.put("year", year);
+    List<UpdateField> flags = new ArrayList<>(Arrays.asList(UpdateField.month, UpdateField.year));
+    Pair<PayrollStatus, Map<String, Integer>> date = checkError(updates, flags);
+    if (date.getFirst() != PayrollStatus.OK) {
+      return Pair.of(date.getFirst(), new ArrayList<>());
+    }
+
+    LocalDate payPeriod = LocalDate.of(year, month, 1);
+    return Pair.of(PayrollStatus.OK, payrollRepository
+            .findPayslipsByCompanyUsernameAndPayPeriod(
+                    companyService.getCompanyUsername(), payPeriod));
+  }
+
+  /**
+   * Writes the payslips of the given Payroll entries as a ZIP archive. Every payslip is copied
+   * from the blob store into its entry while it is read, so neither a payslip nor the archive
+   * is held in memory. Payslips that are pending, failed or missing from the blob store are
+   * left out and listed with the reason in a {@value #MISSING_PAYSLIPS_ENTRY} entry at the end
+   * of the archive, which is only written if a payslip was left out.
+   *
+   * @param payrolls (List) : Payroll entries whose payslips are archived
+   * @param out (OutputStream) : stream the archive is written to, left open
+   * @throws IOException if the archive can not be written
+   */
+  public void writePayslipArchive(List<Payroll> payrolls, OutputStream out) throws IOException {
+    ZipOutputStream zip = new ZipOutputStream(out);
+    zip.setLevel(Deflater.BEST_SPEED);
+    StringBuilder missing = new StringBuilder();
+    for (Payroll payroll : payrolls) {
+      String fileName = pdfGenerator.getPdfName(payroll);
+      if (payroll.getPayslipStatus() != PayslipStatus.GENERATED) {
+        appendMissingPayslip(missing, payroll, fileName, payroll.getPayslipStatus().name());
+        continue;
+      }
+      try (InputStream pdf = pdfUploader.openPdf(fileName)) {
+        if (pdf == null) {
+          appendMissingPayslip(missing, payroll, fileName, "MISSING_FROM_STORAGE");
+          continue;
+        }
+        zip.putNextEntry(new ZipEntry(fileName));
+        pdf.transferTo(zip);
+        zip.closeEntry();
+      }
+    }
+    if (!missing.isEmpty()) {
+      zip.putNextEntry(new ZipEntry(MISSING_PAYSLIPS_ENTRY));
+      zip.write(("employee_id,payslip,reason\n" + missing).getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+    }
+    zip.finish();
+    zip.flush();
+  }
+
+  private static void appendMissingPayslip(StringBuilder missing, Payroll payroll,
+                                           String fileName, String reason) {
+    missing.append(payroll.getEmployeeId()).append(',').append(fileName).append(',')
+            .append(reason).append('\n');
   }
 
   private enum UpdateField {
@@ -388,8 +828,37 @@ public class PayrollService {
     year
   }
 
-  private Integer calculateTax(Integer salary) {
-    return (int) (salary * 0.3);
+  /**
+   * Computes the taxes of the base salaries of a payroll run with the tax table of the company,
+   * looked up once and applied to all salaries in one pass.
+   *
+   * @param employees (Collection) : Employees of the run
+   * @param year (Integer) : Year of the payment
+   * @return (Map) : Tax by employee id, employees without a base salary are absent
+   */
+  private Map<Integer, Integer> calculateTaxes(Collection<EmployeeProfile> employees,
+                                               Integer year) {
+    List<Integer> employeeIds = new ArrayList<>(employees.size());
+    int[] salaries = new int[employees.size()];
+    for (EmployeeProfile employee : employees) {
+      if (employee.getBaseSalary() != null) {
+        salaries[employeeIds.size()] = employee.getBaseSalary();
+        employeeIds.add(employee.getId());
+      }
+    }
+    int[] taxes = new int[employeeIds.size()];
+    taxEngine.getTable(companyService.getCompanyState(), year)
+            .calculateTaxes(Arrays.copyOf(salaries, employeeIds.size()), taxes);
+
+    Map<Integer, Integer> returnValue = new HashMap<>();
+    for (int i = 0; i < taxes.length; i++) {
+      returnValue.put(employeeIds.get(i), taxes[i]);
+    }
+    return returnValue;
+  }
+
+  private Integer calculateTax(Integer salary, Integer year) {
+    return taxEngine.calculateTax(salary, companyService.getCompanyState(), year);
   }
 
   /**
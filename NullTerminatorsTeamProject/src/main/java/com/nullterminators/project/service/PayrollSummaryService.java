@@ -0,0 +1,168 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollPeriodSummary;
+import com.nullterminators.project.repository.PayrollPeriodSummaryRepository;
+import com.nullterminators.project.repository.PayrollRepository;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for the payroll totals of a company per pay period. Writes to single Payroll entries
+ * add their difference to the totals, while bulk writes recompute the totals of the period
+ * with one aggregate query.
+ */
+@Service
+public class PayrollSummaryService {
+
+  private final PayrollPeriodSummaryRepository payrollPeriodSummaryRepository;
+  private final PayrollRepository payrollRepository;
+  private final CompanyService companyService;
+
+  /**
+   * Constructor for PayrollSummaryService.
+   *
+   * @param payrollPeriodSummaryRepository : {@link PayrollPeriodSummaryRepository}
+   * @param payrollRepository : {@link PayrollRepository}
+   * @param companyService : {@link CompanyService}
+   */
+  @Autowired
+  public PayrollSummaryService(PayrollPeriodSummaryRepository payrollPeriodSummaryRepository,
+                               PayrollRepository payrollRepository,
+                               CompanyService companyService) {
+    this.payrollPeriodSummaryRepository = payrollPeriodSummaryRepository;
+    this.payrollRepository = payrollRepository;
+    this.companyService = companyService;
+  }
+
+  /**
+   * Adds Payroll entries to the totals of their pay period.
+   *
+   * @param companyUsername (String) : company the entries belong to
+   * @param payrolls (List) : saved Payroll entries of one pay period
+   */
+  public void addPayrolls(String companyUsername, List<Payroll> payrolls) {
+    if (payrolls.isEmpty()) {
+      return;
+    }
+    long grossSalary = 0;
+    long tax = 0;
+    int paidCount = 0;
+    for (Payroll payroll : payrolls) {
+      grossSalary += payroll.getSalary();
+      tax += payroll.getTax();
+      paidCount += payroll.getPaid();
+    }
+    addToTotals(companyUsername, getPayPeriod(payrolls.get(0)), grossSalary, tax, paidCount,
+            payrolls.size() - paidCount);
+  }
+
+  /**
+   * Removes a deleted Payroll entry from the totals of its pay period.
+   *
+   * @param companyUsername (String) : company the entry belongs to
+   * @param payroll (Payroll) : the deleted Payroll entry
+   */
+  public void removePayroll(String companyUsername, Payroll payroll) {
+    addToTotals(companyUsername, getPayPeriod(payroll), -payroll.getSalary(),
+            -payroll.getTax(), -payroll.getPaid(), payroll.getPaid() - 1);
+  }
+
+  /**
+   * Applies the change of the salary and tax of a Payroll entry to its pay period.
+   *
+   * @param companyUsername (String) : company the entry belongs to
+   * @param payroll (Payroll) : the updated Payroll entry
+   * @param oldSalary (Integer) : salary before the update
+   * @param oldTax (Integer) : tax before the update
+   */
+  public void adjustSalary(String companyUsername, Payroll payroll, Integer oldSalary,
+                           Integer oldTax) {
+    addToTotals(companyUsername, getPayPeriod(payroll), payroll.getSalary() - oldSalary,
+            payroll.getTax() - oldTax, 0, 0);
+  }
+
+  /**
+   * Moves a Payroll entry between the paid and unpaid counts of its pay period.
+   *
+   * @param companyUsername (String) : company the entry belongs to
+   * @param payroll (Payroll) : the updated Payroll entry, with its new paid status
+   */
+  public void changePaid(String companyUsername, Payroll payroll) {
+    int change = payroll.getPaid() == 1 ? 1 : -1;
+    addToTotals(companyUsername, getPayPeriod(payroll), 0L, 0L, change, -change);
+  }
+
+  /**
+   * Recomputes the totals of a pay period from its Payroll entries, after a bulk update.
+   *
+   * @param companyUsername (String) : company the entries belong to
+   * @param payPeriod (LocalDate) : first day of the month of the entries
+   */
+  public void refresh(String companyUsername, LocalDate payPeriod) {
+    Object[] totals = payrollRepository.sumByCompanyUsernameAndPayPeriod(companyUsername,
+            payPeriod).get(0);
+    long grossSalary = ((Number) totals[0]).longValue();
+    long tax = ((Number) totals[1]).longValue();
+    int paidCount = ((Number) totals[2]).intValue();
+    int unpaidCount = ((Number) totals[3]).intValue() - paidCount;
+    if (payrollPeriodSummaryRepository.setTotals(companyUsername, payPeriod, grossSalary, tax,
+            paidCount, unpaidCount) == 0
+            && !payrollPeriodSummaryRepository.insertIfAbsent(companyUsername, payPeriod,
+            grossSalary, tax, paidCount, unpaidCount)) {
+      // Another request created the row of the period first
+      payrollPeriodSummaryRepository.setTotals(companyUsername, payPeriod, grossSalary, tax,
+              paidCount, unpaidCount);
+    }
+  }
+
+  /**
+   * Gets the totals of the company for the pay periods in a range.
+   *
+   * @param from (LocalDate) : first pay period of the range
+   * @param to (LocalDate) : last pay period of the range
+   * @return (List) : totals of the pay periods with Payroll entries, oldest first
+   */
+  public List<Map<String, Object>> getSummaries(LocalDate from, LocalDate to) {
+    return payrollPeriodSummaryRepository.findByCompanyUsernameAndPayPeriodBetween(
+            companyService.getCompanyUsername(), from, to).stream()
+            .map(PayrollSummaryService::toMap).toList();
+  }
+
+  private static Map<String, Object> toMap(PayrollPeriodSummary summary) {
+    Map<String, Object> returnValue = new LinkedHashMap<>();
+    returnValue.put("month", summary.getPayPeriod().getMonthValue());
+    returnValue.put("year", summary.getPayPeriod().getYear());
+    returnValue.put("grossSalary", summary.getGrossSalary());
+    returnValue.put("tax", summary.getTax());
+    returnValue.put("netSalary", summary.getGrossSalary() - summary.getTax());
+    returnValue.put("paidCount", summary.getPaidCount());
+    returnValue.put("unpaidCount", summary.getUnpaidCount());
+    return returnValue;
+  }
+
+  /*
+   * The row of the period is created with INSERT ... ON CONFLICT DO NOTHING rather than by
+   * catching the unique violation of a plain insert: on Postgres a failed statement aborts the
+   * transaction, and these writes run inside the transactions of the payroll run checkpoints.
+   */
+  private void addToTotals(String companyUsername, LocalDate payPeriod, long grossSalary,
+                           long tax, int paidCount, int unpaidCount) {
+    if (payrollPeriodSummaryRepository.addToTotals(companyUsername, payPeriod, grossSalary, tax,
+            paidCount, unpaidCount) == 0
+            && !payrollPeriodSummaryRepository.insertIfAbsent(companyUsername, payPeriod,
+            grossSalary, tax, paidCount, unpaidCount)) {
+      // Another request created the row of the period first
+      payrollPeriodSummaryRepository.addToTotals(companyUsername, payPeriod, grossSalary, tax,
+              paidCount, unpaidCount);
+    }
+  }
+
+  private static LocalDate getPayPeriod(Payroll payroll) {
+    return payroll.getPaymentDate().withDayOfMonth(1);
+  }
+}
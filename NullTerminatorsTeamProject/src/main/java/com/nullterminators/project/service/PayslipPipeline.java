@@ -0,0 +1,243 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.enums.PayslipStatus;
+import com.nullterminators.project.model.EmployeeProfile;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.repository.EmployeeProfileRepository;
+import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.repository.TimeOffRepository;
+import com.nullterminators.project.util.pdf.PdfBuffer;
+import com.nullterminators.project.util.pdf.PdfGenerator;
+import com.nullterminators.project.util.pdf.PdfUploader;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Background pipeline that renders and uploads payslips. Payroll entries are saved with a
+ * pending payslip; the pipeline renders the PDF, uploads it and fills in the payslip URL.
+ * Failed jobs are retried with a growing delay and the payslip is marked as failed once all
+ * attempts are used up.
+ *
+ * <p>The pending status in the database is the queue of record. At most a fixed number of
+ * payslips are queued in memory; a payslip submitted while the queue is full stays pending,
+ * and a sweep at startup and at a fixed interval pages through the pending payslips and queues
+ * them as room frees up. Payslips left pending by a restart are picked up the same way.
+ */
+@Service
+public class PayslipPipeline {
+
+  /** Pending payslips read by one query of the sweep. */
+  static final int SWEEP_PAGE_SIZE = 100;
+
+  private final PayrollRepository payrollRepository;
+  private final EmployeeProfileRepository employeeProfileRepository;
+  private final TimeOffRepository timeOffRepository;
+  private final PdfGenerator pdfGenerator;
+  private final PdfUploader pdfUploader;
+  private final ScheduledExecutorService payslipExecutor;
+  private final int maxAttempts;
+  private final long retryDelayMillis;
+  private final long sweepIntervalMillis;
+  private final Semaphore queueSlots;
+  private final Set<Integer> queued = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor for PayslipPipeline.
+   *
+   * @param payrollRepository : {@link PayrollRepository}
+   * @param employeeProfileRepository : {@link EmployeeProfileRepository}
+   * @param timeOffRepository : {@link TimeOffRepository}
+   * @param pdfGenerator : {@link PdfGenerator}
+   * @param pdfUploader : {@link PdfUploader}
+   * @param payslipExecutor : worker pool of the pipeline
+   * @param maxAttempts : attempts per payslip before it is marked as failed
+   * @param retryDelayMillis : delay before the first retry, multiplied by the attempt number
+   * @param queueCapacity : payslips queued or being processed at the same time
+   * @param sweepIntervalMillis : delay between two sweeps of the pending payslips
+   */
+  @Autowired
+  public PayslipPipeline(PayrollRepository payrollRepository,
+                         EmployeeProfileRepository employeeProfileRepository,
+                         TimeOffRepository timeOffRepository,
+                         PdfGenerator pdfGenerator,
+                         PdfUploader pdfUploader,
+                         @Qualifier("payslipExecutor") ScheduledExecutorService payslipExecutor,
+                         @Value("${payslip.pipeline.max-attempts:3}") int maxAttempts,
+                         @Value("${payslip.pipeline.retry-delay-ms:1000}") long retryDelayMillis,
+                         @Value("${payslip.pipeline.queue-capacity:1000}") int queueCapacity,
+                         @Value("${payslip.pipeline.sweep-interval-ms:60000}")
+                         long sweepIntervalMillis) {
+    this.payrollRepository = payrollRepository;
+    this.employeeProfileRepository = employeeProfileRepository;
+    this.timeOffRepository = timeOffRepository;
+    this.pdfGenerator = pdfGenerator;
+    this.pdfUploader = pdfUploader;
+    this.payslipExecutor = payslipExecutor;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.retryDelayMillis = retryDelayMillis;
+    this.queueSlots = new Semaphore(Math.max(1, queueCapacity));
+    this.sweepIntervalMillis = sweepIntervalMillis;
+  }
+
+  /**
+   * Starts sweeping the pending payslips, first right away and then at the configured interval.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void startSweeping() {
+    payslipExecutor.scheduleWithFixedDelay(this::sweepSafely, 0, sweepIntervalMillis,
+            TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Queues the payslip of a saved Payroll entry. Inside a transaction the job is queued once
+   * the transaction commits, so workers never see an uncommitted row. If the queue is full the
+   * payslip stays pending until a sweep queues it.
+   *
+   * @param payroll (Payroll) : Saved Payroll entry
+   * @param employee (EmployeeProfile) : Employee the payroll belongs to
+   * @param leaveCount (Integer) : Number of approved leave days in the month
+   */
+  public void submit(Payroll payroll, EmployeeProfile employee, Integer leaveCount) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          enqueue(payroll, employee, leaveCount);
+        }
+      });
+    } else {
+      enqueue(payroll, employee, leaveCount);
+    }
+  }
+
+  /**
+   * Queues pending payslips that are not queued yet, oldest first, until the queue is full.
+   * The pending payslips are read a page at a time by id.
+   *
+   * @return (int) : number of payslips queued
+   */
+  public int sweep() {
+    int added = 0;
+    Integer afterId = 0;
+    while (queueSlots.availablePermits() > 0) {
+      List<Payroll> page = payrollRepository.findByPayslipStatusAndIdGreaterThanOrderById(
+              PayslipStatus.PENDING, afterId, PageRequest.ofSize(SWEEP_PAGE_SIZE));
+      for (Payroll payroll : page) {
+        afterId = payroll.getId();
+        if (queued.contains(payroll.getId())) {
+          continue;
+        }
+        Optional<EmployeeProfile> employee =
+                employeeProfileRepository.findById(payroll.getEmployeeId());
+        if (employee.isEmpty()) {
+          markFailed(payroll);
+        } else if (enqueue(payroll, employee.get(), leaveCount(payroll))) {
+          added++;
+        } else {
+          return added;
+        }
+      }
+      if (page.size() < SWEEP_PAGE_SIZE) {
+        break;
+      }
+    }
+    return added;
+  }
+
+  private void sweepSafely() {
+    try {
+      sweep();
+    } catch (Exception e) {
+      System.out.println("Sweep of pending payslips failed: " + e);
+    }
+  }
+
+  private int leaveCount(Payroll payroll) {
+    LocalDate startDate = payroll.getPaymentDate().withDayOfMonth(1);
+    return timeOffRepository.sumApprovedLeaveDaysByEmployeeIdGivenDateRange(
+            payroll.getEmployeeId(), startDate,
+            startDate.with(TemporalAdjusters.lastDayOfMonth())).intValue();
+  }
+
+  /*
+   * Takes a queue slot, held until the last attempt of the payslip ends. A payslip that is
+   * already queued keeps its single job.
+   */
+  private boolean enqueue(Payroll payroll, EmployeeProfile employee, Integer leaveCount) {
+    if (!queueSlots.tryAcquire()) {
+      return false;
+    }
+    if (!queued.add(payroll.getId())) {
+      queueSlots.release();
+      return true;
+    }
+    return schedule(payroll, employee, leaveCount, 1, 0);
+  }
+
+  private void dequeue(Payroll payroll) {
+    queued.remove(payroll.getId());
+    queueSlots.release();
+  }
+
+  /*
+   * Schedules an attempt of a queued payslip. If the executor rejects it, for example while the
+   * application shuts down, the slot is given back and the payslip is left pending for a sweep.
+   */
+  private boolean schedule(Payroll payroll, EmployeeProfile employee, Integer leaveCount,
+                           int attempt, long delayMillis) {
+    try {
+      payslipExecutor.schedule(() -> process(payroll, employee, leaveCount, attempt),
+              delayMillis, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (RejectedExecutionException e) {
+      System.out.println("Payslip of payroll " + payroll.getId() + " left pending: " + e);
+      dequeue(payroll);
+      return false;
+    }
+  }
+
+  private void process(Payroll payroll, EmployeeProfile employee, Integer leaveCount,
+                       int attempt) {
+    try {
+      PdfBuffer pdf = pdfGenerator.generatePdfReport(payroll, employee, leaveCount);
+      String url = pdfUploader.uploadPdf(pdfGenerator.getPdfName(payroll), pdf,
+              payroll.getPayslipHash());
+      payrollRepository.updatePayslip(payroll.getId(), url, pdf.getContentHash(),
+              PayslipStatus.GENERATED);
+    } catch (Exception e) {
+      if (attempt < maxAttempts) {
+        schedule(payroll, employee, leaveCount, attempt + 1, retryDelayMillis * attempt);
+        return;
+      }
+      System.out.println("Payslip generation failed for payroll " + payroll.getId() + ": " + e);
+      markFailed(payroll);
+    }
+    dequeue(payroll);
+  }
+
+  private void markFailed(Payroll payroll) {
+    try {
+      payrollRepository.updatePayslipStatus(payroll.getId(), PayslipStatus.FAILED);
+    } catch (Exception e) {
+      System.out.println("Could not mark payslip of payroll " + payroll.getId()
+              + " as failed: " + e);
+    }
+  }
+}
@@ -6,8 +6,10 @@ import com.nullterminators.project.repository.TimeOffRepository;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +41,43 @@ public class TimeOffService {
     return timeOffRepository.findAllByEmployeeIdGivenDateRange(employeeId, startDate, endDate);
   }
 
+  /**
+   * Count the approved leave days of every employee in a company within a given date range,
+   * using a single grouped query. Leaves crossing the range only count their days inside it.
+   *
+   * @param companyUsername the username of the company
+   * @param startDate the start date of the range
+   * @param endDate the end date of the range
+   * @return a map from employee ID to the number of leave days, employees without any approved
+   *     leave in the range are absent
+   */
+  public Map<Integer, Integer> getLeaveDaysByCompanyWithDateRange(
+      String companyUsername, LocalDate startDate, LocalDate endDate) {
+    Map<Integer, Integer> leaveDays = new HashMap<>();
+    for (Object[] row :
+        timeOffRepository.sumApprovedLeaveDaysByCompanyUsernameGivenDateRange(
+            companyUsername, startDate, endDate)) {
+      leaveDays.put(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+    }
+    return leaveDays;
+  }
+
+  /**
+   * Count the approved leave days of an employee within a given date range with a single
+   * aggregate query. Leaves crossing the range only count their days inside it.
+   *
+   * @param employeeId the ID of the employee
+   * @param startDate the start date of the range
+   * @param endDate the end date of the range
+   * @return the number of leave days
+   */
+  public int getLeaveDaysByEmployeeIdWithDateRange(
+      Integer employeeId, LocalDate startDate, LocalDate endDate) {
+    return timeOffRepository
+        .sumApprovedLeaveDaysByEmployeeIdGivenDateRange(employeeId, startDate, endDate)
+        .intValue();
+  }
+
   /**
    * Get all time-off requests for a specific employee, ordered by most recent start date.
    *
@@ -0,0 +1,464 @@
+package com.nullterminators.project.util.hierarchy;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.nullterminators.project.model.EmployeeHierarchy;
+import com.nullterminators.project.model.EmployeeNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable in-memory index of the reporting hierarchy of one company. Employees are numbered
+ * by their position in a sorted id array; every employee stores the number of its supervisor
+ * in a parent array, and the subordinates of all employees are kept in one array, grouped by
+ * supervisor in the order the edges were added, with an offset array marking where the group
+ * of each supervisor starts.
+ *
+ * <p>Supervisor lookups are a binary search, ancestor checks walk up the parent array and
+ * subtree traversals, including writing a subtree as JSON, only touch the subtree. Changes
+ * produce a new chart, so readers never see a chart half way through a change.
+ */
+public final class OrgChart {
+
+  /** Depth or number of subordinates that leaves a subtree whole. */
+  public static final int UNLIMITED = Integer.MAX_VALUE;
+
+  private static final OrgChart EMPTY = new OrgChart(new long[0], new int[0], new int[] {0},
+      new int[0]);
+
+  private final long[] ids;
+
+  private final int[] parents;
+
+  private final int[] childStart;
+
+  private final int[] children;
+
+  private OrgChart(long[] ids, int[] parents, int[] childStart, int[] children) {
+    this.ids = ids;
+    this.parents = parents;
+    this.childStart = childStart;
+    this.children = children;
+  }
+
+  /**
+   * Builds the chart of a hierarchy.
+   *
+   * @param edges supervisor-employee edges, in the order they were added
+   * @return the org chart
+   */
+  public static OrgChart of(List<EmployeeHierarchy> edges) {
+    long[] from = new long[edges.size()];
+    long[] to = new long[edges.size()];
+    for (int i = 0; i < from.length; i++) {
+      from[i] = edges.get(i).getFromEmployeeId();
+      to[i] = edges.get(i).getToEmployeeId();
+    }
+    return of(from, to, from.length);
+  }
+
+  private static OrgChart of(long[] from, long[] to, int edgeCount) {
+    if (edgeCount == 0) {
+      return EMPTY;
+    }
+    long[] all = Arrays.copyOf(from, 2 * edgeCount);
+    System.arraycopy(to, 0, all, edgeCount, edgeCount);
+    Arrays.sort(all);
+    int size = 0;
+    for (int i = 0; i < all.length; i++) {
+      if (i == 0 || all[i] != all[i - 1]) {
+        all[size++] = all[i];
+      }
+    }
+    final long[] ids = Arrays.copyOf(all, size);
+
+    int[] parents = new int[size];
+    Arrays.fill(parents, -1);
+    int[] childStart = new int[size + 1];
+    int[] fromIndex = new int[edgeCount];
+    int[] toIndex = new int[edgeCount];
+    for (int i = 0; i < edgeCount; i++) {
+      fromIndex[i] = Arrays.binarySearch(ids, from[i]);
+      toIndex[i] = Arrays.binarySearch(ids, to[i]);
+      parents[toIndex[i]] = fromIndex[i];
+      childStart[fromIndex[i] + 1]++;
+    }
+    for (int i = 0; i < size; i++) {
+      childStart[i + 1] += childStart[i];
+    }
+    int[] children = new int[edgeCount];
+    int[] next = Arrays.copyOf(childStart, size);
+    for (int i = 0; i < edgeCount; i++) {
+      children[next[fromIndex[i]]++] = toIndex[i];
+    }
+    return new OrgChart(ids, parents, childStart, children);
+  }
+
+  /**
+   * Finds the supervisor of an employee.
+   *
+   * @param employeeId the id of the employee
+   * @return the id of the supervisor, or null if the employee has no supervisor
+   */
+  public Long getSupervisor(long employeeId) {
+    int index = indexOf(employeeId);
+    return index < 0 || parents[index] < 0 ? null : ids[parents[index]];
+  }
+
+  /**
+   * Lists the edges below an employee, level by level.
+   *
+   * @param employeeId the id of the employee at the top of the subtree
+   * @return the edges of the subtree, numbered from 1 in the order they are listed
+   */
+  public List<EmployeeHierarchy> getSubtree(long employeeId) {
+    return getSubtree(employeeId, UNLIMITED, UNLIMITED, 0);
+  }
+
+  /**
+   * Lists the edges below an employee, level by level, down to a depth and with at most a
+   * number of subordinates of every employee. Only the listed edges are visited, so the cost
+   * grows with the size of the page and not with the size of the subtree.
+   *
+   * @param employeeId the id of the employee at the top of the subtree
+   * @param maxDepth number of levels below the employee to list
+   * @param childLimit largest number of subordinates listed for every employee
+   * @param cursor number of subordinates of the employee at the top to skip, in the order the
+   *     edges were added
+   * @return the edges of the subtree, numbered from 1 in the order they are listed
+   */
+  public List<EmployeeHierarchy> getSubtree(long employeeId, int maxDepth, int childLimit,
+                                            int cursor) {
+    List<EmployeeHierarchy> subtree = new ArrayList<>();
+    int root = indexOf(employeeId);
+    if (root < 0 || maxDepth < 1) {
+      return subtree;
+    }
+    int[] queue = new int[] {root};
+    int head = 0;
+    int tail = 1;
+    int level = 0;
+    int levelEnd = 1;
+    int skipped = cursor;
+    while (head < tail) {
+      if (head == levelEnd) {
+        level++;
+        levelEnd = tail;
+      }
+      int supervisor = queue[head++];
+      int start = childStart[supervisor]
+          + Math.min(skipped, childStart[supervisor + 1] - childStart[supervisor]);
+      int end = shownEnd(start, supervisor, childLimit);
+      skipped = 0;
+      for (int i = start; i < end; i++) {
+        EmployeeHierarchy edge = new EmployeeHierarchy(ids[supervisor], ids[children[i]]);
+        edge.setId((long) subtree.size() + 1);
+        subtree.add(edge);
+        if (level + 1 < maxDepth) {
+          if (tail == queue.length) {
+            // A chart holds no cycles; the bound only keeps corrupt data from looping forever.
+            if (tail > ids.length) {
+              throw new IllegalStateException("Cycle below employee " + employeeId);
+            }
+            queue = Arrays.copyOf(queue, 2 * tail);
+          }
+          queue[tail++] = children[i];
+        }
+      }
+    }
+    return subtree;
+  }
+
+  /**
+   * Builds the {@link EmployeeNode} tree below an employee.
+   *
+   * @param employeeId the id of the employee at the root of the tree
+   * @return the root of the tree, or null if the employee has no subordinates
+   */
+  public EmployeeNode buildTree(long employeeId) {
+    int root = indexOf(employeeId);
+    if (root < 0 || childStart[root] == childStart[root + 1]) {
+      return null;
+    }
+    EmployeeNode rootNode = new EmployeeNode(employeeId);
+    List<EmployeeNode> nodes = new ArrayList<>();
+    List<Integer> indexes = new ArrayList<>();
+    nodes.add(rootNode);
+    indexes.add(root);
+    for (int head = 0; head < nodes.size(); head++) {
+      // A chart holds no cycles; the bound only keeps corrupt data from looping forever.
+      if (head >= ids.length) {
+        throw new IllegalStateException("Cycle below employee " + employeeId);
+      }
+      int supervisor = indexes.get(head);
+      List<EmployeeNode> subordinates = nodes.get(head).getChildren();
+      for (int i = childStart[supervisor]; i < childStart[supervisor + 1]; i++) {
+        EmployeeNode node = new EmployeeNode(ids[children[i]]);
+        subordinates.add(node);
+        nodes.add(node);
+        indexes.add(children[i]);
+      }
+    }
+    return rootNode;
+  }
+
+  /**
+   * Checks whether an employee supervises anyone.
+   *
+   * @param employeeId the id of the employee
+   * @return true if the employee has at least one direct subordinate
+   */
+  public boolean hasSubordinates(long employeeId) {
+    int index = indexOf(employeeId);
+    return index >= 0 && childStart[index] < childStart[index + 1];
+  }
+
+  /**
+   * Writes the tree below an employee as JSON, in the shape of the {@link EmployeeNode} tree
+   * built by {@link #buildTree}.
+   *
+   * @param employeeId the id of the employee at the root of the tree
+   * @param generator generator the tree is written to
+   * @throws IOException if the tree cannot be written
+   */
+  public void writeTree(long employeeId, JsonGenerator generator) throws IOException {
+    writeTree(employeeId, UNLIMITED, UNLIMITED, 0, generator);
+  }
+
+  /**
+   * Writes the tree below an employee as JSON, in the shape of the {@link EmployeeNode} tree
+   * built by {@link #buildTree}, straight from the subordinate arrays. The tree is walked depth
+   * first with an explicit stack holding the next subordinate to write on every open level, so
+   * no nodes are built, deep chains cannot overflow the call stack and the memory used grows
+   * with the depth of the tree only. Like {@link #buildTree}, an employee without subordinates
+   * is written as null.
+   *
+   * <p>The tree stops at a depth, and every employee lists at most a number of subordinates.
+   * An employee with subordinates left out gets a {@code nextCursor}, the number of its
+   * subordinates to skip to list the rest, so the walk only visits the nodes it writes.
+   *
+   * @param employeeId the id of the employee at the root of the tree
+   * @param maxDepth number of levels below the root to write
+   * @param childLimit largest number of subordinates written for every employee
+   * @param cursor number of subordinates of the root to skip, in the order the edges were added
+   * @param generator generator the tree is written to
+   * @throws IOException if the tree cannot be written
+   */
+  public void writeTree(long employeeId, int maxDepth, int childLimit, int cursor,
+                        JsonGenerator generator) throws IOException {
+    int root = indexOf(employeeId);
+    if (root < 0 || childStart[root] == childStart[root + 1]) {
+      generator.writeNull();
+      return;
+    }
+    writeNodeStart(root, generator);
+    int start = childStart[root] + Math.min(cursor, childStart[root + 1] - childStart[root]);
+    int[] nodes = new int[] {root};
+    int[] next = new int[] {start};
+    int[] end = new int[] {maxDepth < 1 ? start : shownEnd(start, root, childLimit)};
+    int depth = 0;
+    while (depth >= 0) {
+      if (next[depth] == end[depth]) {
+        writeNodeEnd(nodes[depth], end[depth], generator);
+        depth--;
+        continue;
+      }
+      int employee = children[next[depth]++];
+      writeNodeStart(employee, generator);
+      if (++depth == next.length) {
+        // A chart holds no cycles; the bound only keeps corrupt data from looping forever.
+        if (depth > ids.length) {
+          throw new IllegalStateException("Cycle below employee " + employeeId);
+        }
+        nodes = Arrays.copyOf(nodes, 2 * depth);
+        next = Arrays.copyOf(next, 2 * depth);
+        end = Arrays.copyOf(end, 2 * depth);
+      }
+      nodes[depth] = employee;
+      next[depth] = childStart[employee];
+      end[depth] = depth < maxDepth ? shownEnd(childStart[employee], employee, childLimit)
+          : childStart[employee];
+    }
+  }
+
+  /**
+   * Checks whether an employee is somewhere below a manager, by walking up the supervisors of
+   * the employee, so the cost is bounded by the depth of the employee and not by the size of
+   * the subtree of the manager.
+   *
+   * @param employeeId the id of the employee
+   * @param managerId the id of the manager
+   * @return true if the manager is a direct or indirect supervisor of the employee
+   */
+  public boolean isUnder(long employeeId, long managerId) {
+    int employee = indexOf(employeeId);
+    int manager = indexOf(managerId);
+    if (employee < 0 || manager < 0) {
+      return false;
+    }
+    // A chart holds no cycles; the bound only keeps corrupt data from looping forever.
+    int ancestor = parents[employee];
+    for (int steps = 0; ancestor >= 0 && steps < ids.length; steps++) {
+      if (ancestor == manager) {
+        return true;
+      }
+      ancestor = parents[ancestor];
+    }
+    return false;
+  }
+
+  /**
+   * Returns the chart with an edge added, unless the employee already reports to the
+   * supervisor. An employee that reports to someone else is moved to the supervisor. The
+   * arrays are patched in one pass over the chart, so the change costs time linear in the size
+   * of the chart and nothing is sorted again.
+   *
+   * @param supervisorId the id of the supervisor
+   * @param employeeId the id of the employee
+   * @return the changed chart
+   */
+  public OrgChart withEdge(long supervisorId, long employeeId) {
+    Long supervisor = getSupervisor(employeeId);
+    if (supervisor != null) {
+      return supervisor == supervisorId ? this
+          : withoutEdge(employeeId).withEdge(supervisorId, employeeId);
+    }
+    long[] changedIds = inserted(inserted(ids, supervisorId), employeeId);
+    return patched(changedIds, -1, Arrays.binarySearch(changedIds, supervisorId),
+        Arrays.binarySearch(changedIds, employeeId));
+  }
+
+  /**
+   * Returns the chart with the edge to the supervisor of an employee removed, unless the
+   * employee has no supervisor. Like {@link #withEdge}, the change costs time linear in the size
+   * of the chart.
+   *
+   * @param employeeId the id of the employee
+   * @return the changed chart
+   */
+  public OrgChart withoutEdge(long employeeId) {
+    int employee = indexOf(employeeId);
+    if (employee < 0 || parents[employee] < 0) {
+      return this;
+    }
+    // Employees left without a supervisor and without subordinates are no longer in the chart.
+    int supervisor = parents[employee];
+    long[] changedIds = ids;
+    if (childStart[employee] == childStart[employee + 1]) {
+      changedIds = removed(changedIds, employeeId);
+    }
+    if (parents[supervisor] < 0 && childStart[supervisor + 1] - childStart[supervisor] == 1) {
+      changedIds = removed(changedIds, ids[supervisor]);
+    }
+    return patched(changedIds, employee, -1, -1);
+  }
+
+  /**
+   * Number of employees in the chart, that is employees with a supervisor or subordinates.
+   *
+   * @return the number of employees
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Builds the chart over changed ids from the arrays of this chart, dropping the edge to the
+   * supervisor of one employee, numbered in this chart, and appending one edge after the other
+   * subordinates of its supervisor, numbered in the changed ids. Either change is skipped with
+   * -1.
+   */
+  private OrgChart patched(long[] changedIds, int removedEmployee, int addedSupervisor,
+                           int addedEmployee) {
+    int[] moved = new int[ids.length];
+    for (int i = 0, j = 0; i < ids.length; i++) {
+      while (j < changedIds.length && changedIds[j] < ids[i]) {
+        j++;
+      }
+      moved[i] = j < changedIds.length && changedIds[j] == ids[i] ? j : -1;
+    }
+    int[] changedParents = new int[changedIds.length];
+    Arrays.fill(changedParents, -1);
+    for (int i = 0; i < ids.length; i++) {
+      if (parents[i] >= 0 && i != removedEmployee) {
+        changedParents[moved[i]] = moved[parents[i]];
+      }
+    }
+    if (addedEmployee >= 0) {
+      changedParents[addedEmployee] = addedSupervisor;
+    }
+    int[] changedStart = new int[changedIds.length + 1];
+    for (int parent : changedParents) {
+      if (parent >= 0) {
+        changedStart[parent + 1]++;
+      }
+    }
+    for (int i = 0; i < changedIds.length; i++) {
+      changedStart[i + 1] += changedStart[i];
+    }
+    int[] changedChildren = new int[changedStart[changedIds.length]];
+    int[] next = Arrays.copyOf(changedStart, changedIds.length);
+    for (int supervisor = 0; supervisor < ids.length; supervisor++) {
+      for (int i = childStart[supervisor]; i < childStart[supervisor + 1]; i++) {
+        if (children[i] != removedEmployee) {
+          changedChildren[next[moved[supervisor]]++] = moved[children[i]];
+        }
+      }
+    }
+    if (addedEmployee >= 0) {
+      changedChildren[next[addedSupervisor]] = addedEmployee;
+    }
+    return changedIds.length == 0 ? EMPTY
+        : new OrgChart(changedIds, changedParents, changedStart, changedChildren);
+  }
+
+  private static long[] inserted(long[] ids, long id) {
+    int index = Arrays.binarySearch(ids, id);
+    if (index >= 0) {
+      return ids;
+    }
+    index = -index - 1;
+    long[] changed = new long[ids.length + 1];
+    System.arraycopy(ids, 0, changed, 0, index);
+    changed[index] = id;
+    System.arraycopy(ids, index, changed, index + 1, ids.length - index);
+    return changed;
+  }
+
+  private static long[] removed(long[] ids, long id) {
+    int index = Arrays.binarySearch(ids, id);
+    long[] changed = new long[ids.length - 1];
+    System.arraycopy(ids, 0, changed, 0, index);
+    System.arraycopy(ids, index + 1, changed, index, changed.length - index);
+    return changed;
+  }
+
+  /**
+   * End of the subordinates of a supervisor that are listed, from a start within them.
+   */
+  private int shownEnd(int start, int supervisor, int childLimit) {
+    int end = childStart[supervisor + 1];
+    return end - start <= childLimit ? end : start + childLimit;
+  }
+
+  private void writeNodeStart(int employee, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("id", ids[employee]);
+    generator.writeArrayFieldStart("children");
+  }
+
+  private void writeNodeEnd(int employee, int shownEnd, JsonGenerator generator)
+      throws IOException {
+    generator.writeEndArray();
+    if (shownEnd < childStart[employee + 1]) {
+      generator.writeNumberField("nextCursor", shownEnd - childStart[employee]);
+    }
+    generator.writeEndObject();
+  }
+
+  private int indexOf(long employeeId) {
+    int index = Arrays.binarySearch(ids, employeeId);
+    return index < 0 ? -1 : index;
+  }
+}
@@ -0,0 +1,249 @@
+package com.nullterminators.project.util.pdf;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEvent;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Payslip renderer on the iText 5 API. In template mode the static layout of the payslip is
+ * rendered once and every payslip only draws its values onto it; payslips with values too long
+ * for the template fall back to the regular layout.
+ */
+public class Itext5PayslipRenderer implements PayslipRenderer {
+
+  private static final Font COURIER = new Font(Font.FontFamily.COURIER, 20, Font.BOLD);
+  private static final Font COURIER_SMALL = new Font(Font.FontFamily.COURIER, 16, Font.BOLD);
+  private static final Font COURIER_SMALL_FOOTER = new Font(Font.FontFamily.COURIER, 12, Font.BOLD);
+  private static final Font TABLE_FONT = new Font();
+
+  /** Horizontal room taken by the border and padding of the boxed sections. */
+  private static final float BOX_INSET = 12;
+  /** Horizontal room taken by the padding of a salary table cell. */
+  private static final float CELL_INSET = 4;
+  private static final int TABLE_COLUMNS = 4;
+
+  private final boolean useTemplate;
+  private volatile PayslipTemplate template;
+
+  /**
+   * Constructor for Itext5PayslipRenderer.
+   *
+   * @param useTemplate whether payslips are rendered from the pre-rendered template
+   */
+  public Itext5PayslipRenderer(boolean useTemplate) {
+    this.useTemplate = useTemplate;
+  }
+
+  @Override
+  public void render(Map<PayslipField, String> values, OutputStream out) {
+    try {
+      PayslipTemplate payslipTemplate = useTemplate ? getTemplate() : null;
+      if (payslipTemplate != null && payslipTemplate.fits(values)) {
+        payslipTemplate.fill(values, out);
+      } else {
+        renderLayout(out, field -> new Chunk(values.get(field), getFont(field)), null);
+      }
+    } catch (DocumentException e) {
+      throw new IllegalStateException("Could not render payslip", e);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return useTemplate ? "itext5-template" : "itext5-layout";
+  }
+
+  private static Font getFont(PayslipField field) {
+    if (field == PayslipField.PAYMENT_DATE) {
+      return COURIER_SMALL;
+    }
+    return field.isTableCell() ? TABLE_FONT : COURIER_SMALL_FOOTER;
+  }
+
+  /**
+   * Returns the payslip template, rendering it on first use. Every field of the layout is a
+   * tagged placeholder whose position is recorded while the layout is rendered.
+   */
+  private PayslipTemplate getTemplate() throws DocumentException {
+    PayslipTemplate current = template;
+    if (current == null) {
+      synchronized (this) {
+        current = template;
+        if (current == null) {
+          Map<PayslipField, PayslipTemplate.Slot> slots = new EnumMap<>(PayslipField.class);
+          PdfPageEvent recorder = new PdfPageEventHelper() {
+            @Override
+            public void onGenericTag(PdfWriter writer, Document document, Rectangle rect,
+                                     String text) {
+              PayslipField field = PayslipField.valueOf(text);
+              float x = field.isTableCell() ? (rect.getLeft() + rect.getRight()) / 2
+                  : rect.getLeft();
+              float maxWidth = field.isTableCell()
+                  ? (document.right() - document.left()) / TABLE_COLUMNS - CELL_INSET
+                  : document.right() - BOX_INSET - x;
+              slots.put(field, new PayslipTemplate.Slot(writer.getPageNumber(), x,
+                  rect.getBottom(), PayslipTemplate.alignment(field), maxWidth,
+                  getFont(field)));
+            }
+          };
+          ByteArrayOutputStream layout = new ByteArrayOutputStream();
+          // A non-breaking space, unlike a space, is not trimmed at the end of a line.
+          int pages = renderLayout(layout,
+              field -> new Chunk("\u00a0", getFont(field)).setGenericTag(field.name()),
+              recorder);
+          current = new PayslipTemplate(layout.toByteArray(), slots, pages);
+          template = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Renders the payslip layout.
+   *
+   * @param out stream the payslip is written to
+   * @param values chunk drawn for every variable field
+   * @param pageEvent optional page event of the writer
+   * @return number of pages rendered
+   */
+  private int renderLayout(OutputStream out, Function<PayslipField, Chunk> values,
+                     PdfPageEvent pageEvent) throws DocumentException {
+    Document document = new Document();
+    PdfWriter writer = PdfWriter.getInstance(document, out);
+    if (pageEvent != null) {
+      writer.setPageEvent(pageEvent);
+    }
+    document.open();
+    addDocTitle(document, values);
+    createTable(document, values);
+    addFooter(document);
+    int pages = writer.getPageNumber();
+    document.close();
+    return pages;
+  }
+
+  private void addDocTitle(Document document, Function<PayslipField, Chunk> values)
+          throws DocumentException {
+    PdfPTable table = new PdfPTable(1);
+    table.setWidthPercentage(100);
+    PdfPCell cell = new PdfPCell();
+    cell.setBorderWidth(2);
+    cell.setPadding(10);
+
+    Paragraph p1Title = new Paragraph("Payroll Report", COURIER);
+    p1Title.setAlignment(Element.ALIGN_CENTER);
+    leaveEmptyLine(p1Title, 1);
+    cell.addElement(p1Title);
+    table.addCell(cell);
+    document.add(table);
+
+    Paragraph p1Space = new Paragraph();
+    leaveEmptyLine(p1Space, 3);
+    document.add(p1Space);
+
+    table = new PdfPTable(1);
+    table.setWidthPercentage(100);
+    cell = new PdfPCell();
+    cell.setBorderWidth(2);
+    cell.setPadding(10);
+
+    Paragraph p1 = new Paragraph();
+    leaveEmptyLine(p1, 1);
+    p1.add(line("Report generated on ", PayslipField.PAYMENT_DATE, COURIER_SMALL, values));
+    leaveEmptyLine(p1, 2);
+    p1.add(line("Name: ", PayslipField.NAME, COURIER_SMALL_FOOTER, values));
+    leaveEmptyLine(p1, 1);
+    p1.add(line("Phone Number: ", PayslipField.PHONE_NUMBER, COURIER_SMALL_FOOTER, values));
+    leaveEmptyLine(p1, 1);
+    p1.add(line("Designation: ", PayslipField.DESIGNATION, COURIER_SMALL_FOOTER, values));
+    leaveEmptyLine(p1, 1);
+    p1.add(line("Email: ", PayslipField.EMAIL, COURIER_SMALL_FOOTER, values));
+    leaveEmptyLine(p1, 1);
+    p1.add(line("Emergency Contact: ", PayslipField.EMERGENCY_CONTACT, COURIER_SMALL_FOOTER,
+            values));
+    leaveEmptyLine(p1, 1);
+    p1.add(line("Base Salary: ", PayslipField.BASE_SALARY, COURIER_SMALL_FOOTER, values));
+    leaveEmptyLine(p1, 1);
+    p1.add(line("Leave Count: ", PayslipField.LEAVE_COUNT, COURIER_SMALL_FOOTER, values));
+    leaveEmptyLine(p1, 1);
+    cell.addElement(p1);
+    table.addCell(cell);
+    document.add(table);
+  }
+
+  private static Paragraph line(String label, PayslipField field, Font font,
+                                Function<PayslipField, Chunk> values) {
+    Paragraph paragraph = new Paragraph(label, font);
+    paragraph.add(values.apply(field));
+    return paragraph;
+  }
+
+  private void createTable(Document document, Function<PayslipField, Chunk> values)
+          throws DocumentException {
+    Paragraph paragraph = new Paragraph();
+    leaveEmptyLine(paragraph, 3);
+    document.add(paragraph);
+    PdfPTable table = new PdfPTable(TABLE_COLUMNS);
+    List<String> columnNames = new ArrayList<>(Arrays.asList("Employee ID", "Current Month Salary",
+            "Tax", "Net Salary"));
+
+    for (int i = 0; i < TABLE_COLUMNS; i++) {
+      PdfPCell cell = new PdfPCell(new Phrase(columnNames.get(i)));
+      cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+      cell.setBackgroundColor(BaseColor.YELLOW);
+      table.addCell(cell);
+    }
+
+    table.setHeaderRows(1);
+    getDbData(table, values);
+    document.add(table);
+  }
+
+  private void getDbData(PdfPTable table, Function<PayslipField, Chunk> values) {
+    table.setWidthPercentage(100);
+    table.getDefaultCell().setHorizontalAlignment(Element.ALIGN_CENTER);
+    table.getDefaultCell().setVerticalAlignment(Element.ALIGN_MIDDLE);
+
+    table.addCell(new Phrase(values.apply(PayslipField.EMPLOYEE_ID)));
+    table.addCell(new Phrase(values.apply(PayslipField.SALARY)));
+    table.addCell(new Phrase(values.apply(PayslipField.TAX)));
+    table.addCell(new Phrase(values.apply(PayslipField.NET_SALARY)));
+  }
+
+  private void addFooter(Document document) throws DocumentException {
+    Paragraph p2 = new Paragraph();
+    leaveEmptyLine(p2, 3);
+    p2.setAlignment(Element.ALIGN_MIDDLE);
+    p2.add(new Paragraph(
+        "------------------------ End Of Payroll Report ------------------------",
+        COURIER_SMALL_FOOTER));
+
+    document.add(p2);
+  }
+
+  private static void leaveEmptyLine(Paragraph paragraph, int number) {
+    for (int i = 0; i < number; i++) {
+      paragraph.add(new Paragraph(" "));
+    }
+  }
+}
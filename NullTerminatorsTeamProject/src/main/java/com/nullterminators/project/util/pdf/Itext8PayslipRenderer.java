@@ -0,0 +1,240 @@
+package com.nullterminators.project.util.pdf;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.CompressionConstants;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Payslip renderer on the iText 8 API. Payslips are written with full compression, so content
+ * streams are deflated and objects are packed into compressed object streams, and use the
+ * standard Type 1 fonts, which are referenced rather than embedded.
+ *
+ * <p>In fixed mode the page is drawn directly at positions measured from the output of the
+ * layout engine, which skips the layout engine; payslips with values too long for their line
+ * fall back to the layout, which wraps them.
+ */
+public class Itext8PayslipRenderer implements PayslipRenderer {
+
+  /** Height of an empty line of the iText 5 layout, kept so both payslips look alike. */
+  private static final float LINE = 18;
+  private static final String TITLE = "Payroll Report";
+  private static final String DATE_LABEL = "Report generated on ";
+  private static final String FOOTER =
+      "------------------------ End Of Payroll Report ------------------------";
+  private static final String[] COLUMN_NAMES = {"Employee ID", "Current Month Salary", "Tax",
+      "Net Salary"};
+  private static final PayslipField[] DETAILS = {PayslipField.NAME, PayslipField.PHONE_NUMBER,
+      PayslipField.DESIGNATION, PayslipField.EMAIL, PayslipField.EMERGENCY_CONTACT,
+      PayslipField.BASE_SALARY, PayslipField.LEAVE_COUNT};
+  private static final String[] DETAIL_LABELS = {"Name: ", "Phone Number: ", "Designation: ",
+      "Email: ", "Emergency Contact: ", "Base Salary: ", "Leave Count: "};
+  private static final PayslipField[] TABLE_CELLS = {PayslipField.EMPLOYEE_ID,
+      PayslipField.SALARY, PayslipField.TAX, PayslipField.NET_SALARY};
+
+  // Positions the layout path below gives the elements on an A4 page, measured from its output
+  // by hand. They do not follow changes to the layout, which is why the fixed mode is opt-in.
+  private static final float LEFT = 36;
+  private static final float RIGHT = 559;
+  private static final float TITLE_BASELINE = 775.6f;
+  private static final float[] TITLE_BOX = {37, 739.53f, 521, 65.47f};
+  private static final float[] DETAILS_BOX = {37, 372.2f, 521, 311.33f};
+  private static final float TEXT_LEFT = 48;
+  /** Right end of the text in the boxed sections, inside their padding. */
+  private static final float TEXT_RIGHT = 548;
+  private static final float DATE_BASELINE = 639.82f;
+  private static final float DETAILS_BASELINE = 605.12f;
+  private static final float DETAILS_LEADING = 33.28f;
+  private static final float COLUMN_WIDTH = (RIGHT - LEFT) / COLUMN_NAMES.length;
+  /** Room for the text of a salary table cell, inside its padding and borders. */
+  private static final float CELL_TEXT_WIDTH = COLUMN_WIDTH - 5;
+  private static final float[] TABLE_RULES = {316.95f, 294.47f, 271.99f};
+  private static final float HEADER_BASELINE = 302.03f;
+  private static final float CELL_BASELINE = 279.55f;
+  private static final float FOOTER_BASELINE = 206.7f;
+
+  private final boolean useFixedLayout;
+
+  public Itext8PayslipRenderer() {
+    this(true);
+  }
+
+  /**
+   * Constructor for Itext8PayslipRenderer.
+   *
+   * @param useFixedLayout whether payslips whose values fit are drawn without the layout engine
+   */
+  public Itext8PayslipRenderer(boolean useFixedLayout) {
+    this.useFixedLayout = useFixedLayout;
+  }
+
+  @Override
+  public void render(Map<PayslipField, String> values, OutputStream out) {
+    // iText sizes the document id for a 512 bit digest; 16 random bytes are as unique.
+    byte[] id = new byte[16];
+    ThreadLocalRandom.current().nextBytes(id);
+    PdfString documentId = new PdfString(id).setHexWriting(true);
+    WriterProperties properties = new WriterProperties()
+        .setFullCompressionMode(true)
+        .setCompressionLevel(CompressionConstants.BEST_COMPRESSION)
+        .setInitialDocumentId(documentId)
+        .setModifiedDocumentId(documentId);
+    try {
+      PdfWriter writer = new PdfWriter(out, properties);
+      writer.setCloseStream(false);
+      // Fonts belong to a single document, the font programs behind them are cached by iText.
+      PdfFont courier = PdfFontFactory.createFont(StandardFonts.COURIER_BOLD);
+      PdfFont helvetica = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+      try (PdfDocument pdf = new PdfDocument(writer)) {
+        if (useFixedLayout && fits(values, courier, helvetica)) {
+          drawPage(pdf, values, courier, helvetica);
+        } else {
+          layout(pdf, values, courier, helvetica);
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not render payslip", e);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return useFixedLayout ? "itext8-fixed" : "itext8-layout";
+  }
+
+  /**
+   * Checks that every value fits on one line in the room of its field.
+   */
+  private static boolean fits(Map<PayslipField, String> values, PdfFont courier,
+                              PdfFont helvetica) {
+    if (TEXT_LEFT + courier.getWidth(DATE_LABEL + values.get(PayslipField.PAYMENT_DATE), 16)
+        > TEXT_RIGHT) {
+      return false;
+    }
+    for (int i = 0; i < DETAILS.length; i++) {
+      if (TEXT_LEFT + courier.getWidth(DETAIL_LABELS[i] + values.get(DETAILS[i]), 12)
+          > TEXT_RIGHT) {
+        return false;
+      }
+    }
+    for (PayslipField field : TABLE_CELLS) {
+      if (helvetica.getWidth(values.get(field), 12) > CELL_TEXT_WIDTH) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void drawPage(PdfDocument pdf, Map<PayslipField, String> values,
+                               PdfFont courier, PdfFont helvetica) {
+    PdfCanvas canvas = new PdfCanvas(pdf.addNewPage(PageSize.A4));
+    canvas.setLineWidth(2)
+        .rectangle(TITLE_BOX[0], TITLE_BOX[1], TITLE_BOX[2], TITLE_BOX[3])
+        .rectangle(DETAILS_BOX[0], DETAILS_BOX[1], DETAILS_BOX[2], DETAILS_BOX[3])
+        .stroke();
+    canvas.setFillColor(ColorConstants.YELLOW)
+        .rectangle(LEFT, TABLE_RULES[1], RIGHT - LEFT, TABLE_RULES[0] - TABLE_RULES[1])
+        .fill()
+        .setFillColor(ColorConstants.BLACK);
+    canvas.setLineWidth(0.5f);
+    for (float rule : TABLE_RULES) {
+      canvas.moveTo(LEFT, rule).lineTo(RIGHT, rule);
+    }
+    for (int column = 0; column <= COLUMN_NAMES.length; column++) {
+      float x = Math.min(LEFT + column * COLUMN_WIDTH + 0.25f, RIGHT - 0.25f);
+      canvas.moveTo(x, TABLE_RULES[0]).lineTo(x, TABLE_RULES[2]);
+    }
+    canvas.stroke();
+
+    canvas.beginText();
+    showText(canvas, courier, 20, (PageSize.A4.getWidth() - courier.getWidth(TITLE, 20)) / 2,
+        TITLE_BASELINE, TITLE);
+    showText(canvas, courier, 16, TEXT_LEFT, DATE_BASELINE,
+        DATE_LABEL + values.get(PayslipField.PAYMENT_DATE));
+    for (int i = 0; i < DETAILS.length; i++) {
+      showText(canvas, courier, 12, TEXT_LEFT, DETAILS_BASELINE - i * DETAILS_LEADING,
+          DETAIL_LABELS[i] + values.get(DETAILS[i]));
+    }
+    for (int column = 0; column < COLUMN_NAMES.length; column++) {
+      float center = LEFT + (column + 0.5f) * COLUMN_WIDTH;
+      String header = COLUMN_NAMES[column];
+      String value = values.get(TABLE_CELLS[column]);
+      showText(canvas, helvetica, 12, center - helvetica.getWidth(header, 12) / 2,
+          HEADER_BASELINE, header);
+      showText(canvas, helvetica, 12, center - helvetica.getWidth(value, 12) / 2,
+          CELL_BASELINE, value);
+    }
+    showText(canvas, courier, 12, LEFT, FOOTER_BASELINE, FOOTER);
+    canvas.endText();
+  }
+
+  private static void showText(PdfCanvas canvas, PdfFont font, float size, float x, float y,
+                               String text) {
+    canvas.setFontAndSize(font, size).setTextMatrix(x, y).showText(text);
+  }
+
+  private static void layout(PdfDocument pdf, Map<PayslipField, String> values,
+                             PdfFont courier, PdfFont helvetica) {
+    try (Document document = new Document(pdf, PageSize.A4)) {
+      document.add(box(new Paragraph(TITLE).setFont(courier).setFontSize(20)
+          .setTextAlignment(TextAlignment.CENTER).setMarginBottom(LINE))
+          .setMarginBottom(3 * LINE));
+
+      Cell details = new Cell().setBorder(new SolidBorder(2)).setPadding(10);
+      details.add(line(DATE_LABEL, values.get(PayslipField.PAYMENT_DATE), courier, 16)
+          .setMarginTop(LINE).setMarginBottom(LINE));
+      for (int i = 0; i < DETAILS.length; i++) {
+        details.add(line(DETAIL_LABELS[i], values.get(DETAILS[i]), courier, 12)
+            .setMarginBottom(LINE));
+      }
+      document.add(new Table(1).useAllAvailableWidth().addCell(details));
+
+      Table table = new Table(UnitValue.createPercentArray(COLUMN_NAMES.length))
+          .useAllAvailableWidth()
+          .setFont(helvetica)
+          .setFontSize(12)
+          .setTextAlignment(TextAlignment.CENTER)
+          .setMarginTop(3 * LINE);
+      for (String columnName : COLUMN_NAMES) {
+        table.addHeaderCell(new Cell().add(new Paragraph(columnName))
+            .setBackgroundColor(ColorConstants.YELLOW));
+      }
+      for (PayslipField field : TABLE_CELLS) {
+        table.addCell(new Cell().add(new Paragraph(values.get(field))));
+      }
+      document.add(table);
+
+      document.add(new Paragraph(FOOTER).setFont(courier).setFontSize(12)
+          .setMarginTop(3 * LINE));
+    }
+  }
+
+  private static Table box(Paragraph paragraph) {
+    return new Table(1).useAllAvailableWidth()
+        .addCell(new Cell().setBorder(new SolidBorder(2)).setPadding(10).add(paragraph));
+  }
+
+  private static Paragraph line(String label, String value, PdfFont font, float size) {
+    return new Paragraph().add(new Text(label)).add(new Text(value))
+        .setFont(font).setFontSize(size).setMargin(0);
+  }
+}
@@ -0,0 +1,28 @@
+package com.nullterminators.project.util.pdf;
+
+/**
+ * Variable fields of a payslip, filled in per employee.
+ */
+public enum PayslipField {
+  PAYMENT_DATE,
+  NAME,
+  PHONE_NUMBER,
+  DESIGNATION,
+  EMAIL,
+  EMERGENCY_CONTACT,
+  BASE_SALARY,
+  LEAVE_COUNT,
+  EMPLOYEE_ID,
+  SALARY,
+  TAX,
+  NET_SALARY;
+
+  /**
+   * Whether the field is a centered cell of the salary table rather than a labelled line.
+   *
+   * @return true for salary table cells
+   */
+  public boolean isTableCell() {
+    return ordinal() >= EMPLOYEE_ID.ordinal();
+  }
+}
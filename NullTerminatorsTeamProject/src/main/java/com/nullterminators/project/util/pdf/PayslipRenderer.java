@@ -0,0 +1,27 @@
+package com.nullterminators.project.util.pdf;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Backend that draws a payslip. Implementations are thread safe and leave the stream open.
+ */
+public interface PayslipRenderer {
+
+  /**
+   * Writes a payslip with the given values.
+   *
+   * @param values value of every field of the payslip
+   * @param out stream the payslip is written to
+   * @throws IllegalStateException if the payslip can not be rendered
+   */
+  void render(Map<PayslipField, String> values, OutputStream out);
+
+  /**
+   * Name of the renderer and its mode. It is part of the payslip fingerprint, so payslips are
+   * uploaded again after the renderer changes.
+   *
+   * @return the renderer name
+   */
+  String getName();
+}
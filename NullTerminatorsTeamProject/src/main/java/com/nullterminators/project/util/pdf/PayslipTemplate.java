@@ -0,0 +1,117 @@
+package com.nullterminators.project.util.pdf;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Pre-rendered payslip layout. The static part of the payslip (borders, titles, labels and
+ * table headers) is rendered once; a payslip is produced by stamping that page and drawing
+ * only the variable fields at the positions recorded while rendering the layout.
+ */
+final class PayslipTemplate {
+
+  /**
+   * Where a field is drawn: page, x anchor (left edge or center, depending on the alignment),
+   * baseline, font and the room it has.
+   */
+  static final class Slot {
+    private final int page;
+    private final float anchor;
+    private final float baseline;
+    private final int alignment;
+    private final float maxWidth;
+    private final Font font;
+
+    Slot(int page, float anchor, float baseline, int alignment, float maxWidth, Font font) {
+      this.page = page;
+      this.anchor = anchor;
+      this.baseline = baseline;
+      this.alignment = alignment;
+      this.maxWidth = maxWidth;
+      this.font = font;
+    }
+  }
+
+  private final byte[] layout;
+  private final Map<PayslipField, Slot> slots;
+  private final int pages;
+  private final ThreadLocal<PdfReader> reader;
+
+  PayslipTemplate(byte[] layout, Map<PayslipField, Slot> slots, int pages) {
+    this.layout = layout;
+    this.slots = slots;
+    this.pages = pages;
+    this.reader = ThreadLocal.withInitial(this::openLayout);
+  }
+
+  /**
+   * Checks that every value fits on one line in the room of its field. Values that do not fit
+   * have to go through the regular layout, which wraps them.
+   *
+   * @param values values of the payslip
+   * @return true if the template can render the values
+   */
+  boolean fits(Map<PayslipField, String> values) {
+    for (Map.Entry<PayslipField, Slot> entry : slots.entrySet()) {
+      Slot slot = entry.getValue();
+      float width = slot.font.getCalculatedBaseFont(false)
+          .getWidthPoint(values.get(entry.getKey()), slot.font.getSize());
+      if (width > slot.maxWidth) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes a payslip with the given values.
+   *
+   * @param values values of the payslip
+   * @param out stream the payslip is written to
+   * @throws DocumentException if the payslip can not be written
+   */
+  void fill(Map<PayslipField, String> values, OutputStream out) throws DocumentException {
+    PdfReader layoutReader = reader.get();
+    Document document = new Document(layoutReader.getPageSize(1));
+    PdfWriter writer = PdfWriter.getInstance(document, out);
+    document.open();
+    PdfContentByte canvas = writer.getDirectContent();
+    for (int page = 1; page <= pages; page++) {
+      if (page > 1) {
+        document.newPage();
+      }
+      canvas.addTemplate(writer.getImportedPage(layoutReader, page), 0, 0);
+      for (Map.Entry<PayslipField, Slot> entry : slots.entrySet()) {
+        Slot slot = entry.getValue();
+        if (slot.page == page) {
+          ColumnText.showTextAligned(canvas, slot.alignment,
+              new Phrase(values.get(entry.getKey()), slot.font), slot.anchor, slot.baseline, 0);
+        }
+      }
+    }
+    document.close();
+  }
+
+  private PdfReader openLayout() {
+    try {
+      return new PdfReader(layout);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read payslip template", e);
+    }
+  }
+
+  static int alignment(PayslipField field) {
+    return field.isTableCell() ? Element.ALIGN_CENTER : Element.ALIGN_LEFT;
+  }
+}
@@ -0,0 +1,48 @@
+package com.nullterminators.project.util.pdf;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Growable in-memory buffer a payslip is rendered into. Each rendering thread reuses one
+ * buffer, so the backing array is only reallocated when a payslip outgrows it.
+ */
+public class PdfBuffer extends ByteArrayOutputStream {
+
+  private static final int INITIAL_CAPACITY = 8 * 1024;
+
+  private String contentHash;
+
+  public PdfBuffer() {
+    super(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Backing array of the buffer, valid from index 0 up to {@link #size()}. The array is shared,
+   * not copied, and is overwritten by the next payslip rendered on the same thread.
+   *
+   * @return the backing array
+   */
+  public byte[] array() {
+    return buf;
+  }
+
+  /**
+   * Fingerprint of the payslip in the buffer, set by the {@link PdfGenerator}. Unlike the bytes,
+   * which carry the creation time of the pdf, it only changes with the content of the payslip.
+   *
+   * @return the content hash or null if the buffer holds no fingerprinted payslip
+   */
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    contentHash = null;
+  }
+}
@@ -1,153 +1,128 @@
 package com.nullterminators.project.util.pdf;
 
-import com.itextpdf.text.BaseColor;
-import com.itextpdf.text.Document;
-import com.itextpdf.text.DocumentException;
-import com.itextpdf.text.Element;
-import com.itextpdf.text.Font;
-import com.itextpdf.text.Paragraph;
-import com.itextpdf.text.Phrase;
-import com.itextpdf.text.pdf.PdfPCell;
-import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfWriter;
 import com.nullterminators.project.model.EmployeeProfile;
 import com.nullterminators.project.model.Payroll;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
- * Pdf Generator class.
+ * Pdf Generator class. It collects the values of a payslip and renders it into an in-memory
+ * buffer with the configured {@link PayslipRenderer}, on the render pool if there is one.
+ * Every payslip is fingerprinted with a hash of the renderer and its values, so an unchanged
+ * payslip is recognised without comparing pdf bytes, which differ in their creation time.
  */
 @Component("pdfGenerator")
 public class PdfGenerator {
 
-  private static final Font COURIER = new Font(Font.FontFamily.COURIER, 20, Font.BOLD);
-  private static final Font COURIER_SMALL = new Font(Font.FontFamily.COURIER, 16, Font.BOLD);
-  private static final Font COURIER_SMALL_FOOTER = new Font(Font.FontFamily.COURIER, 12, Font.BOLD);
+  private static final DateTimeFormatter PAYMENT_DATE_FORMAT =
+      DateTimeFormatter.ofPattern("dd MMMM yyyy");
 
-  /**
-   * Generate Pdf Report based on the payroll details.
-   *
-   * @param payroll (Payroll) : Payroll details
-   */
-  public void generatePdfReport(Payroll payroll, EmployeeProfile employee, Integer leaveCount) {
-    Document document = new Document();
+  private static final ThreadLocal<PdfBuffer> BUFFER = ThreadLocal.withInitial(PdfBuffer::new);
 
-    try {
-      PdfWriter.getInstance(document, new FileOutputStream(getPdfName(payroll)));
-      document.open();
-      addDocTitle(document, payroll, employee, leaveCount);
-      createTable(document, payroll);
-      addFooter(document);
-      document.close();
+  private final PayslipRenderer renderer;
+  private final PdfRenderExecutor renderExecutor;
 
-    } catch (FileNotFoundException | DocumentException e) {
-      e.printStackTrace();
-    }
+  public PdfGenerator() {
+    this(true);
   }
 
-  private void addDocTitle(Document document, Payroll payroll, EmployeeProfile employee,
-                           Integer leaveCount) throws DocumentException {
-    final String paymentDate = payroll.getPaymentDate().format(
-            DateTimeFormatter.ofPattern("dd MMMM yyyy"));
-    PdfPTable table = new PdfPTable(1);
-    table.setWidthPercentage(100);
-    PdfPCell cell = new PdfPCell();
-    cell.setBorderWidth(2);
-    cell.setPadding(10);
-
-    Paragraph p1Title = new Paragraph("Payroll Report", COURIER);
-    p1Title.setAlignment(Element.ALIGN_CENTER);
-    leaveEmptyLine(p1Title, 1);
-    cell.addElement(p1Title);
-    table.addCell(cell);
-    document.add(table);
-
-    Paragraph p1Space = new Paragraph();
-    leaveEmptyLine(p1Space, 3);
-    document.add(p1Space);
-
-    table = new PdfPTable(1);
-    table.setWidthPercentage(100);
-    cell = new PdfPCell();
-    cell.setBorderWidth(2);
-    cell.setPadding(10);
-
-    Paragraph p1 = new Paragraph();
-    leaveEmptyLine(p1, 1);
-    p1.add(new Paragraph("Report generated on " + paymentDate, COURIER_SMALL));
-    leaveEmptyLine(p1, 2);
-    p1.add(new Paragraph("Name: " + employee.getName(), COURIER_SMALL_FOOTER));
-    leaveEmptyLine(p1, 1);
-    p1.add(new Paragraph("Phone Number: " + employee.getPhoneNumber(), COURIER_SMALL_FOOTER));
-    leaveEmptyLine(p1, 1);
-    p1.add(new Paragraph("Designation: " + employee.getDesignation(), COURIER_SMALL_FOOTER));
-    leaveEmptyLine(p1, 1);
-    p1.add(new Paragraph("Email: " + employee.getEmail(), COURIER_SMALL_FOOTER));
-    leaveEmptyLine(p1, 1);
-    p1.add(new Paragraph("Emergency Contact: " + employee.getEmergencyContactNumber(),
-            COURIER_SMALL_FOOTER));
-    leaveEmptyLine(p1, 1);
-    p1.add(new Paragraph("Base Salary: " + employee.getBaseSalary(), COURIER_SMALL_FOOTER));
-    leaveEmptyLine(p1, 1);
-    p1.add(new Paragraph("Leave Count: " + leaveCount, COURIER_SMALL_FOOTER));
-    leaveEmptyLine(p1, 1);
-    cell.addElement(p1);
-    table.addCell(cell);
-    document.add(table);
+  /**
+   * Constructor for a PdfGenerator that renders with iText 5 on the calling thread.
+   *
+   * @param useTemplate whether payslips are rendered from the pre-rendered template
+   */
+  public PdfGenerator(boolean useTemplate) {
+    this(new Itext5PayslipRenderer(useTemplate), null);
   }
 
-  private void createTable(Document document, Payroll payroll) throws DocumentException {
-    Paragraph paragraph = new Paragraph();
-    leaveEmptyLine(paragraph, 3);
-    document.add(paragraph);
-    PdfPTable table = new PdfPTable(4);
-    List<String> columnNames = new ArrayList<>(Arrays.asList("Employee ID", "Current Month Salary",
-            "Tax", "Net Salary"));
+  /**
+   * Constructor for PdfGenerator.
+   *
+   * @param renderer renderer the payslips are drawn with
+   * @param renderExecutor pool the payslips are rendered on, or null to render on the caller
+   */
+  @Autowired
+  public PdfGenerator(PayslipRenderer renderer, PdfRenderExecutor renderExecutor) {
+    this.renderer = renderer;
+    this.renderExecutor = renderExecutor;
+  }
 
-    for (int i = 0; i < 4; i++) {
-      PdfPCell cell = new PdfPCell(new Phrase(columnNames.get(i)));
-      cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-      cell.setBackgroundColor(BaseColor.YELLOW);
-      table.addCell(cell);
+  /**
+   * Generate Pdf Report based on the payroll details. The report is rendered in memory on the
+   * render pool, if there is one, and handed back in the buffer of the calling thread; it stays
+   * valid until the thread renders the next report.
+   *
+   * @param payroll (Payroll) : Payroll details
+   * @param employee (EmployeeProfile) : Employee the payroll belongs to
+   * @param leaveCount (Integer) : Number of approved leave days in the month
+   * @return (PdfBuffer) : Buffer holding the rendered report
+   */
+  public PdfBuffer generatePdfReport(Payroll payroll, EmployeeProfile employee,
+                                     Integer leaveCount) {
+    if (renderExecutor == null) {
+      return renderReport(payroll, employee, leaveCount);
     }
-
-    table.setHeaderRows(1);
-    getDbData(table, payroll);
-    document.add(table);
+    PdfBuffer buffer = BUFFER.get();
+    renderExecutor.execute(() -> {
+      PdfBuffer rendered = renderReport(payroll, employee, leaveCount);
+      buffer.reset();
+      buffer.write(rendered.array(), 0, rendered.size());
+      buffer.setContentHash(rendered.getContentHash());
+    });
+    return buffer;
   }
 
-  private void getDbData(PdfPTable table, Payroll payroll) {
-    table.setWidthPercentage(100);
-    table.getDefaultCell().setHorizontalAlignment(Element.ALIGN_CENTER);
-    table.getDefaultCell().setVerticalAlignment(Element.ALIGN_MIDDLE);
-
-    table.addCell(payroll.getEmployeeId().toString());
-    table.addCell("$" + payroll.getSalary().toString());
-    table.addCell("$" + payroll.getTax().toString());
-    table.addCell("$" + (payroll.getSalary() - payroll.getTax()));
+  private PdfBuffer renderReport(Payroll payroll, EmployeeProfile employee, Integer leaveCount) {
+    Map<PayslipField, String> values = getValues(payroll, employee, leaveCount);
+    PdfBuffer buffer = BUFFER.get();
+    buffer.reset();
+    renderer.render(values, buffer);
+    buffer.setContentHash(fingerprint(values));
+    return buffer;
   }
 
-  private void addFooter(Document document) throws DocumentException {
-    Paragraph p2 = new Paragraph();
-    leaveEmptyLine(p2, 3);
-    p2.setAlignment(Element.ALIGN_MIDDLE);
-    p2.add(new Paragraph(
-        "------------------------ End Of Payroll Report ------------------------",
-        COURIER_SMALL_FOOTER));
-
-    document.add(p2);
+  /**
+   * Hex SHA-256 of the renderer name and the payslip values, in field order.
+   */
+  private String fingerprint(Map<PayslipField, String> values) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    digest.update(renderer.getName().getBytes(StandardCharsets.UTF_8));
+    for (String value : values.values()) {
+      digest.update((byte) 0);
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+    return HexFormat.of().formatHex(digest.digest());
   }
 
-  private static void leaveEmptyLine(Paragraph paragraph, int number) {
-    for (int i = 0; i < number; i++) {
-      paragraph.add(new Paragraph(" "));
-    }
+  private static Map<PayslipField, String> getValues(Payroll payroll, EmployeeProfile employee,
+                                                     Integer leaveCount) {
+    Map<PayslipField, String> values = new EnumMap<>(PayslipField.class);
+    values.put(PayslipField.PAYMENT_DATE, payroll.getPaymentDate().format(PAYMENT_DATE_FORMAT));
+    values.put(PayslipField.NAME, String.valueOf(employee.getName()));
+    values.put(PayslipField.PHONE_NUMBER, String.valueOf(employee.getPhoneNumber()));
+    values.put(PayslipField.DESIGNATION, String.valueOf(employee.getDesignation()));
+    values.put(PayslipField.EMAIL, String.valueOf(employee.getEmail()));
+    values.put(PayslipField.EMERGENCY_CONTACT,
+        String.valueOf(employee.getEmergencyContactNumber()));
+    values.put(PayslipField.BASE_SALARY, String.valueOf(employee.getBaseSalary()));
+    values.put(PayslipField.LEAVE_COUNT, String.valueOf(leaveCount));
+    values.put(PayslipField.EMPLOYEE_ID, payroll.getEmployeeId().toString());
+    values.put(PayslipField.SALARY, "$" + payroll.getSalary().toString());
+    values.put(PayslipField.TAX, "$" + payroll.getTax().toString());
+    values.put(PayslipField.NET_SALARY, "$" + (payroll.getSalary() - payroll.getTax()));
+    return values;
   }
 
   /**
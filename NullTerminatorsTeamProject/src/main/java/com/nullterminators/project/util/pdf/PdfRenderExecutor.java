@@ -0,0 +1,154 @@
+package com.nullterminators.project.util.pdf;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated pool payslips are rendered on, so that rendering never runs on more threads than
+ * there are cores no matter how many payroll runs and pipeline workers produce payslips.
+ *
+ * <p>The queue in front of the pool is bounded. Once every thread is busy and the queue is
+ * full, producers wait for a free slot, up to the submit timeout, and the payslip is rejected
+ * after that. Queue depth, active renders, render time and rejections are published as
+ * {@code payslip.render.*} metrics.
+ */
+public class PdfRenderExecutor {
+
+  private final ThreadPoolExecutor executor;
+  private final Semaphore slots;
+  private final long submitTimeoutMillis;
+  private final Timer renderTimer;
+  private final Counter rejections;
+
+  /**
+   * Constructor for PdfRenderExecutor.
+   *
+   * @param threads number of rendering threads, one per core if not positive
+   * @param queueCapacity number of payslips waiting for a thread before producers wait
+   * @param submitTimeoutMillis how long a producer waits for a free slot
+   * @param meterRegistry registry the metrics of the pool are published to
+   */
+  public PdfRenderExecutor(int threads, int queueCapacity, long submitTimeoutMillis,
+                           MeterRegistry meterRegistry) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    int capacity = Math.max(1, queueCapacity);
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "pdf-render-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(capacity), threadFactory);
+    this.slots = new Semaphore(poolSize + capacity);
+    this.submitTimeoutMillis = submitTimeoutMillis;
+
+    Gauge.builder("payslip.render.queue.depth", executor, pool -> pool.getQueue().size())
+        .description("Payslips waiting for a rendering thread")
+        .register(meterRegistry);
+    Gauge.builder("payslip.render.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Payslips being rendered")
+        .register(meterRegistry);
+    this.renderTimer = Timer.builder("payslip.render.time")
+        .description("Time spent rendering a payslip")
+        .register(meterRegistry);
+    this.rejections = Counter.builder("payslip.render.rejections")
+        .description("Payslips rejected because the render queue stayed full")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs a rendering task on the pool and waits for it. The caller waits for a free slot
+   * first when the queue is full.
+   *
+   * @param task the rendering task
+   * @throws RejectedExecutionException if no slot frees up within the submit timeout
+   */
+  public void execute(Runnable task) {
+    acquireSlot();
+    Future<?> future;
+    try {
+      future = executor.submit(() -> {
+        try {
+          renderTimer.record(task);
+        } finally {
+          slots.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      slots.release();
+      rejections.increment();
+      throw e;
+    }
+    await(future);
+  }
+
+  /**
+   * Number of payslips waiting for a rendering thread.
+   *
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private void acquireSlot() {
+    boolean acquired;
+    try {
+      acquired = slots.tryAcquire(submitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting to render a payslip", e);
+    }
+    if (!acquired) {
+      rejections.increment();
+      throw new RejectedExecutionException("Payslip render queue is full");
+    }
+  }
+
+  /**
+   * Waits for the task even when interrupted, since the task writes into a buffer of the
+   * caller that must not be reused before the task is done.
+   */
+  private static void await(Future<?> future) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          future.get();
+          return;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+          }
+          if (cause instanceof Error error) {
+            throw error;
+          }
+          throw new IllegalStateException("Payslip rendering failed", cause);
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
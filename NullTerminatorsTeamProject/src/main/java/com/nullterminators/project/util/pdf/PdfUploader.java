@@ -1,55 +1,60 @@
 package com.nullterminators.project.util.pdf;
 
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.StorageOptions;
-import java.io.File;
+import com.nullterminators.project.util.storage.BlobStore;
 import java.io.InputStream;
-import java.nio.file.Paths;
-import lombok.SneakyThrows;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
- * Class for uploading pdf file to google cloud storage.
+ * Class for uploading pdf files to the configured {@link BlobStore} and reading them back.
  */
 @Component("PdfUploader")
 public class PdfUploader {
 
+  private final BlobStore blobStore;
+
+  @Autowired
+  public PdfUploader(BlobStore blobStore) {
+    this.blobStore = blobStore;
+  }
+
   /**
-   * Upload pdf file to google cloud storage.
+   * Upload pdf file to the blob store. The upload is skipped when the stored file already has
+   * the content hash of the buffer.
    *
-   * @param filePath file path
+   * @param fileName name of the uploaded file
+   * @param pdf buffer holding the pdf file
    * @return URL of the uploaded file
    */
-  @SneakyThrows
-  public String uploadPdf(String filePath) {
-
-    String gcpConfigFile = "gcp-credentials.json";
-    InputStream inputStream = new ClassPathResource(gcpConfigFile).getInputStream();
-    String projectId = "hpml-413322";
-    Storage storage = StorageOptions.newBuilder().setProjectId(projectId)
-            .setCredentials(GoogleCredentials.fromStream(inputStream)).build().getService();
-    String bucketName = "adv-sft-storage";
-    BlobId blobId = BlobId.of(bucketName, filePath);
-    BlobInfo blobInfo = BlobInfo.newBuilder(blobId).build();
-
-    Storage.BlobWriteOption precondition;
-    if (storage.get(bucketName, filePath) == null) {
-      precondition = Storage.BlobWriteOption.doesNotExist();
-    } else {
-      precondition = Storage.BlobWriteOption.generationMatch(
-              storage.get(bucketName, filePath).getGeneration());
-    }
-    storage.createFrom(blobInfo, Paths.get(filePath), precondition);
+  public String uploadPdf(String fileName, PdfBuffer pdf) {
+    return uploadPdf(fileName, pdf, null);
+  }
 
-    File file = new File(filePath);
-    if (!file.delete()) {
-      System.out.println("Failed to delete the file.");
+  /**
+   * Upload pdf file to the blob store unless it is unchanged. The upload is skipped without any
+   * request when the content hash of the buffer is the hash recorded with the payroll, and
+   * otherwise when the stored file already has that content hash.
+   *
+   * @param fileName name of the uploaded file
+   * @param pdf buffer holding the pdf file
+   * @param storedHash content hash recorded for the file by a previous upload, or null
+   * @return URL of the uploaded file
+   */
+  public String uploadPdf(String fileName, PdfBuffer pdf, String storedHash) {
+    if (storedHash != null && storedHash.equals(pdf.getContentHash())) {
+      return blobStore.url(fileName);
     }
+    return blobStore.putIfChanged(fileName, pdf.array(), 0, pdf.size(), "application/pdf",
+        pdf.getContentHash());
+  }
 
-    return "https://storage.googleapis.com/" + bucketName + "/" + filePath;
+  /**
+   * Open an uploaded pdf file for reading.
+   *
+   * @param fileName name of the uploaded file
+   * @return stream over the pdf file or null if it does not exist
+   */
+  public InputStream openPdf(String fileName) {
+    return blobStore.open(fileName);
   }
 }
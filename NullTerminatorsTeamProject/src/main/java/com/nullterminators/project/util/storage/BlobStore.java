@@ -0,0 +1,61 @@
+package com.nullterminators.project.util.storage;
+
+import java.io.InputStream;
+
+/**
+ * Store for uploaded files such as payslips. Implementations are thread-safe and shared by
+ * all callers.
+ */
+public interface BlobStore {
+
+  /**
+   * Stores the given bytes under a name, replacing any existing object with that name.
+   *
+   * @param name name of the object
+   * @param content array holding the content
+   * @param offset start of the content in the array
+   * @param length length of the content
+   * @param contentType MIME type of the content
+   * @return URL of the stored object
+   */
+  String put(String name, byte[] content, int offset, int length, String contentType);
+
+  /**
+   * Stores the given bytes under a name unless the object stored under that name already has
+   * the same content hash, in which case nothing is written.
+   *
+   * @param name name of the object
+   * @param content array holding the content
+   * @param offset start of the content in the array
+   * @param length length of the content
+   * @param contentType MIME type of the content
+   * @param contentHash hash identifying the content, or null to always store it
+   * @return URL of the stored object
+   */
+  String putIfChanged(String name, byte[] content, int offset, int length, String contentType,
+                      String contentHash);
+
+  /**
+   * Gets the URL an object is stored under, without accessing the store.
+   *
+   * @param name name of the object
+   * @return URL of the object
+   */
+  String url(String name);
+
+  /**
+   * Reads an object.
+   *
+   * @param name name of the object
+   * @return content of the object or null if it does not exist
+   */
+  byte[] get(String name);
+
+  /**
+   * Opens an object for reading without loading it into memory.
+   *
+   * @param name name of the object
+   * @return stream over the content of the object or null if it does not exist
+   */
+  InputStream open(String name);
+}
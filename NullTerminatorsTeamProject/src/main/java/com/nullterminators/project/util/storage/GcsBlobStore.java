@@ -0,0 +1,188 @@
+package com.nullterminators.project.util.storage;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Blob store backed by a Google Cloud Storage bucket. One Storage client, created on first
+ * use, is shared by all uploads. The generation of the most recently used objects is cached,
+ * so an overwrite is sent with a generation precondition directly instead of looking the
+ * object up first; the object is only fetched again when the cached generation turns out to
+ * be stale.
+ *
+ * <p>Content hashes are stored as object metadata and cached with the generation, so storing
+ * an object whose cached hash matches costs no request at all. When the object is not cached,
+ * its metadata is looked up before uploading and an object that already carries the same hash
+ * is not uploaded again.
+ */
+public class GcsBlobStore implements BlobStore {
+
+  /** Objects whose generation and content hash are cached by default. */
+  public static final int DEFAULT_CACHED_OBJECTS = 10_000;
+
+  private static final int PRECONDITION_FAILED = 412;
+  private static final String CONTENT_HASH = "content-hash";
+
+  private final String bucketName;
+  private final Supplier<Storage> storageFactory;
+  private final Map<String, CachedObject> cachedObjects;
+  private volatile Storage storage;
+
+  /**
+   * Constructor for GcsBlobStore.
+   *
+   * @param bucketName bucket the objects are stored in
+   * @param storageFactory creates the Storage client on first use
+   */
+  public GcsBlobStore(String bucketName, Supplier<Storage> storageFactory) {
+    this(bucketName, storageFactory, DEFAULT_CACHED_OBJECTS);
+  }
+
+  /**
+   * Constructor for GcsBlobStore.
+   *
+   * @param bucketName bucket the objects are stored in
+   * @param storageFactory creates the Storage client on first use
+   * @param maxCachedObjects objects whose generation and content hash are cached, the least
+   *     recently used are evicted first
+   */
+  public GcsBlobStore(String bucketName, Supplier<Storage> storageFactory,
+                      int maxCachedObjects) {
+    this.bucketName = bucketName;
+    this.storageFactory = storageFactory;
+    this.cachedObjects = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedObject> eldest) {
+        return size() > maxCachedObjects;
+      }
+    };
+  }
+
+  @Override
+  public String put(String name, byte[] content, int offset, int length, String contentType) {
+    return putIfChanged(name, content, offset, length, contentType, null);
+  }
+
+  @Override
+  public String putIfChanged(String name, byte[] content, int offset, int length,
+                             String contentType, String contentHash) {
+    CachedObject cached = cached(name);
+    Long generation = cached == null ? null : cached.generation();
+    if (cached == null && contentHash != null) {
+      Blob existing = storage().get(bucketName, name);
+      if (existing != null && contentHash.equals(contentHashOf(existing))) {
+        remember(name, existing.getGeneration(), contentHash);
+        return url(name);
+      }
+      generation = existing == null ? null : existing.getGeneration();
+    } else if (contentHash != null && contentHash.equals(cached.contentHash())) {
+      return url(name);
+    }
+    BlobInfo.Builder blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, name))
+        .setContentType(contentType);
+    if (contentHash != null) {
+      blobInfo.setMetadata(Map.of(CONTENT_HASH, contentHash));
+    }
+    Blob blob;
+    try {
+      blob = create(blobInfo.build(), content, offset, length, generation);
+    } catch (StorageException e) {
+      if (e.getCode() != PRECONDITION_FAILED) {
+        throw e;
+      }
+      Blob existing = storage().get(bucketName, name);
+      if (existing != null && contentHash != null
+          && contentHash.equals(contentHashOf(existing))) {
+        remember(name, existing.getGeneration(), contentHash);
+        return url(name);
+      }
+      blob = create(blobInfo.build(), content, offset, length,
+          existing == null ? null : existing.getGeneration());
+    }
+    remember(name, blob.getGeneration(), contentHash);
+    return url(name);
+  }
+
+  @Override
+  public String url(String name) {
+    return "https://storage.googleapis.com/" + bucketName + "/" + name;
+  }
+
+  @Override
+  public byte[] get(String name) {
+    Blob blob = storage().get(bucketName, name);
+    if (blob == null) {
+      forget(name);
+      return null;
+    }
+    remember(name, blob.getGeneration(), contentHashOf(blob));
+    return blob.getContent();
+  }
+
+  @Override
+  public InputStream open(String name) {
+    Blob blob = storage().get(bucketName, name);
+    if (blob == null) {
+      forget(name);
+      return null;
+    }
+    remember(name, blob.getGeneration(), contentHashOf(blob));
+    return Channels.newInputStream(blob.reader());
+  }
+
+  private Blob create(BlobInfo blobInfo, byte[] content, int offset, int length,
+                      Long generation) {
+    Storage.BlobTargetOption precondition = generation == null
+        ? Storage.BlobTargetOption.doesNotExist()
+        : Storage.BlobTargetOption.generationMatch(generation);
+    return storage().create(blobInfo, content, offset, length, precondition);
+  }
+
+  private CachedObject cached(String name) {
+    synchronized (cachedObjects) {
+      return cachedObjects.get(name);
+    }
+  }
+
+  private void remember(String name, long generation, String contentHash) {
+    synchronized (cachedObjects) {
+      cachedObjects.put(name, new CachedObject(generation, contentHash));
+    }
+  }
+
+  private void forget(String name) {
+    synchronized (cachedObjects) {
+      cachedObjects.remove(name);
+    }
+  }
+
+  private static String contentHashOf(Blob blob) {
+    Map<String, String> metadata = blob.getMetadata();
+    return metadata == null ? null : metadata.get(CONTENT_HASH);
+  }
+
+  private Storage storage() {
+    Storage current = storage;
+    if (current == null) {
+      synchronized (this) {
+        current = storage;
+        if (current == null) {
+          current = storageFactory.get();
+          storage = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /** Generation and content hash of a stored object, the hash is null if it has none. */
+  private record CachedObject(long generation, String contentHash) {}
+}
@@ -0,0 +1,53 @@
+package com.nullterminators.project.util.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Blob store that keeps objects in memory, for tests and local runs.
+ */
+public class InMemoryBlobStore implements BlobStore {
+
+  private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+  private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+
+  @Override
+  public String put(String name, byte[] content, int offset, int length, String contentType) {
+    return putIfChanged(name, content, offset, length, contentType, null);
+  }
+
+  @Override
+  public String putIfChanged(String name, byte[] content, int offset, int length,
+                             String contentType, String contentHash) {
+    if (contentHash == null || !contentHash.equals(contentHashes.get(name))
+        || !objects.containsKey(name)) {
+      objects.put(name, Arrays.copyOfRange(content, offset, offset + length));
+      if (contentHash == null) {
+        contentHashes.remove(name);
+      } else {
+        contentHashes.put(name, contentHash);
+      }
+    }
+    return url(name);
+  }
+
+  @Override
+  public String url(String name) {
+    return "memory://" + name;
+  }
+
+  @Override
+  public byte[] get(String name) {
+    byte[] content = objects.get(name);
+    return content == null ? null : content.clone();
+  }
+
+  @Override
+  public InputStream open(String name) {
+    byte[] content = objects.get(name);
+    return content == null ? null : new ByteArrayInputStream(content);
+  }
+}
@@ -0,0 +1,103 @@
+package com.nullterminators.project.util.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Blob store that keeps objects as files under a root directory, for air-gapped deployments.
+ * Objects are written to a temporary file and moved into place, so readers never see a
+ * partially written object. The content hashes of the objects written by this store are kept in
+ * memory, so an object is not written again while its content is unchanged.
+ */
+public class LocalFileSystemBlobStore implements BlobStore {
+
+  private final Path root;
+  private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for LocalFileSystemBlobStore.
+   *
+   * @param root directory the objects are stored in, created if missing
+   */
+  public LocalFileSystemBlobStore(Path root) {
+    this.root = root.toAbsolutePath().normalize();
+    try {
+      Files.createDirectories(this.root);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not create blob store directory " + root, e);
+    }
+  }
+
+  @Override
+  public String put(String name, byte[] content, int offset, int length, String contentType) {
+    return putIfChanged(name, content, offset, length, contentType, null);
+  }
+
+  @Override
+  public String putIfChanged(String name, byte[] content, int offset, int length,
+                             String contentType, String contentHash) {
+    Path target = resolve(name);
+    if (contentHash != null && contentHash.equals(contentHashes.get(name))
+        && Files.exists(target)) {
+      return target.toUri().toString();
+    }
+    contentHashes.remove(name);
+    try {
+      Path temp = Files.createTempFile(root, ".upload-", ".tmp");
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        out.write(content, offset, length);
+      }
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not store " + name, e);
+    }
+    if (contentHash != null) {
+      contentHashes.put(name, contentHash);
+    }
+    return target.toUri().toString();
+  }
+
+  @Override
+  public String url(String name) {
+    return resolve(name).toUri().toString();
+  }
+
+  @Override
+  public byte[] get(String name) {
+    try {
+      return Files.readAllBytes(resolve(name));
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read " + name, e);
+    }
+  }
+
+  @Override
+  public InputStream open(String name) {
+    try {
+      return Files.newInputStream(resolve(name));
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read " + name, e);
+    }
+  }
+
+  private Path resolve(String name) {
+    Path path = root.resolve(name).normalize();
+    if (!path.startsWith(root) || path.equals(root)) {
+      throw new IllegalArgumentException("Invalid object name " + name);
+    }
+    return path;
+  }
+}
@@ -0,0 +1,112 @@
+package com.nullterminators.project.util.tax;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Tax engine backed by bracket tables preloaded per state and year. A table applies from its
+ * year until the next table of the state, and states without a table use the table of
+ * {@link #DEFAULT_STATE}. The tables are read once when the engine is created and never
+ * change afterwards.
+ */
+public class BracketTaxEngine implements TaxEngine {
+
+  /** State whose tables are used for companies of a state without its own tables. */
+  public static final String DEFAULT_STATE = "*";
+
+  private final Map<String, NavigableMap<Integer, TaxTable>> tables;
+
+  /**
+   * Creates the engine.
+   *
+   * @param tables tax tables by state and first year they apply to, including the tables of
+   *     {@link #DEFAULT_STATE}
+   */
+  public BracketTaxEngine(Map<String, ? extends Map<Integer, TaxTable>> tables) {
+    Map<String, NavigableMap<Integer, TaxTable>> copy = new HashMap<>();
+    for (Map.Entry<String, ? extends Map<Integer, TaxTable>> state : tables.entrySet()) {
+      if (!state.getValue().isEmpty()) {
+        copy.put(normalize(state.getKey()), new TreeMap<>(state.getValue()));
+      }
+    }
+    if (!copy.containsKey(DEFAULT_STATE)) {
+      throw new IllegalArgumentException("No tax table for the default state");
+    }
+    this.tables = Map.copyOf(copy);
+  }
+
+  /**
+   * Reads bracket tables in CSV form. Every line holds the state, the first year of the
+   * table, the lower bound of a bracket and its rate in percent, for example
+   * {@code NY,2024,5000,28.5}. Blank lines and lines starting with # are skipped.
+   *
+   * @param input the CSV content
+   * @return the engine
+   * @throws IOException if the content cannot be read
+   */
+  public static BracketTaxEngine load(InputStream input) throws IOException {
+    Map<String, Map<Integer, List<int[]>>> brackets = new HashMap<>();
+    BufferedReader reader = new BufferedReader(
+        new InputStreamReader(input, StandardCharsets.UTF_8));
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",");
+      if (fields.length != 4) {
+        throw new IllegalArgumentException("Invalid tax bracket on line " + lineNumber);
+      }
+      int rate = new BigDecimal(fields[3].trim()).movePointRight(2).intValueExact();
+      brackets.computeIfAbsent(normalize(fields[0]), state -> new HashMap<>())
+          .computeIfAbsent(Integer.parseInt(fields[1].trim()), year -> new ArrayList<>())
+          .add(new int[] {Integer.parseInt(fields[2].trim()), rate});
+    }
+
+    Map<String, Map<Integer, TaxTable>> tables = new HashMap<>();
+    for (Map.Entry<String, Map<Integer, List<int[]>>> state : brackets.entrySet()) {
+      Map<Integer, TaxTable> years = new HashMap<>();
+      for (Map.Entry<Integer, List<int[]>> year : state.getValue().entrySet()) {
+        List<int[]> rows = year.getValue();
+        rows.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] lowerBounds = new int[rows.size()];
+        int[] rates = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+          lowerBounds[i] = rows.get(i)[0];
+          rates[i] = rows.get(i)[1];
+        }
+        years.put(year.getKey(), new TaxTable(lowerBounds, rates));
+      }
+      tables.put(state.getKey(), years);
+    }
+    return new BracketTaxEngine(tables);
+  }
+
+  @Override
+  public TaxTable getTable(String state, int year) {
+    NavigableMap<Integer, TaxTable> years = state == null ? null : tables.get(normalize(state));
+    if (years == null) {
+      years = tables.get(DEFAULT_STATE);
+    }
+    Map.Entry<Integer, TaxTable> table = years.floorEntry(year);
+    return table != null ? table.getValue() : years.firstEntry().getValue();
+  }
+
+  private static String normalize(String state) {
+    return state.trim().toUpperCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,23 @@
+package com.nullterminators.project.util.tax;
+
+/**
+ * Tax engine applying the same rate to every salary, whatever the state and year.
+ */
+public class FlatTaxEngine implements TaxEngine {
+
+  private final TaxTable table;
+
+  /**
+   * Creates the engine.
+   *
+   * @param rate rate in basis points
+   */
+  public FlatTaxEngine(int rate) {
+    this.table = TaxTable.flat(rate);
+  }
+
+  @Override
+  public TaxTable getTable(String state, int year) {
+    return table;
+  }
+}
@@ -0,0 +1,42 @@
+package com.nullterminators.project.util.tax;
+
+/**
+ * Computes the tax withheld from salaries. Implementations resolve an immutable
+ * {@link TaxTable} per state and year, so callers taxing many salaries look the table up once
+ * and reuse it. Implementations are thread-safe and shared by all callers.
+ */
+public interface TaxEngine {
+
+  /**
+   * Finds the tax table of a state for a year.
+   *
+   * @param state state of the company, null or unknown states use the default table
+   * @param year year of the payment
+   * @return the tax table
+   */
+  TaxTable getTable(String state, int year);
+
+  /**
+   * Computes the tax of one salary.
+   *
+   * @param salary the salary
+   * @param state state of the company
+   * @param year year of the payment
+   * @return the tax
+   */
+  default int calculateTax(int salary, String state, int year) {
+    return getTable(state, year).calculateTax(salary);
+  }
+
+  /**
+   * Computes the taxes of many salaries of one state and year in one pass.
+   *
+   * @param salaries the salaries
+   * @param taxes array receiving the tax of every salary
+   * @param state state of the company
+   * @param year year of the payment
+   */
+  default void calculateTaxes(int[] salaries, int[] taxes, String state, int year) {
+    getTable(state, year).calculateTaxes(salaries, taxes);
+  }
+}
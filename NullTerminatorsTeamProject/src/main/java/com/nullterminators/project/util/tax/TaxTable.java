@@ -0,0 +1,102 @@
+package com.nullterminators.project.util.tax;
+
+import java.util.Arrays;
+
+/**
+ * Immutable progressive tax brackets of one state and year. Each bracket taxes the part of a
+ * salary between its lower bound and the lower bound of the next bracket at its rate. The tax
+ * owed below every bound is computed once, so the tax of a salary is one bracket lookup and
+ * one multiplication.
+ */
+public final class TaxTable {
+
+  /** Rates are kept in basis points, hundredths of a percent, to avoid floating point. */
+  public static final int BASIS_POINTS = 10_000;
+
+  private final int[] lowerBounds;
+
+  private final int[] rates;
+
+  private final long[] baseTaxes;
+
+  /**
+   * Creates a tax table.
+   *
+   * @param lowerBounds ascending lower bounds of the brackets, the first one is 0
+   * @param rates rate of every bracket in basis points
+   */
+  public TaxTable(int[] lowerBounds, int[] rates) {
+    if (lowerBounds.length == 0 || lowerBounds.length != rates.length || lowerBounds[0] != 0) {
+      throw new IllegalArgumentException("Brackets must start at 0 and have one rate each");
+    }
+    this.lowerBounds = lowerBounds.clone();
+    this.rates = rates.clone();
+    this.baseTaxes = new long[lowerBounds.length];
+    for (int i = 0; i < lowerBounds.length; i++) {
+      if (rates[i] < 0 || rates[i] > BASIS_POINTS) {
+        throw new IllegalArgumentException("Rate out of range: " + rates[i]);
+      }
+      if (i > 0) {
+        if (lowerBounds[i] <= lowerBounds[i - 1]) {
+          throw new IllegalArgumentException("Bracket bounds must be ascending");
+        }
+        baseTaxes[i] = baseTaxes[i - 1]
+            + (long) (lowerBounds[i] - lowerBounds[i - 1]) * rates[i - 1];
+      }
+    }
+  }
+
+  /**
+   * Creates a table taxing the whole salary at one rate.
+   *
+   * @param rate rate in basis points
+   * @return the tax table
+   */
+  public static TaxTable flat(int rate) {
+    return new TaxTable(new int[] {0}, new int[] {rate});
+  }
+
+  /**
+   * Computes the tax of a salary, rounded down.
+   *
+   * @param salary the salary
+   * @return the tax, 0 for salaries that are not positive
+   */
+  public int calculateTax(int salary) {
+    if (salary <= 0) {
+      return 0;
+    }
+    int bracket = lowerBounds.length - 1;
+    while (salary < lowerBounds[bracket]) {
+      bracket--;
+    }
+    return (int) ((baseTaxes[bracket] + (long) (salary - lowerBounds[bracket]) * rates[bracket])
+        / BASIS_POINTS);
+  }
+
+  /**
+   * Computes the taxes of many salaries in one pass.
+   *
+   * @param salaries the salaries
+   * @param taxes array receiving the tax of every salary, at least as long as salaries
+   */
+  public void calculateTaxes(int[] salaries, int[] taxes) {
+    if (taxes.length < salaries.length) {
+      throw new IllegalArgumentException("Tax array is shorter than the salary array");
+    }
+    for (int i = 0; i < salaries.length; i++) {
+      taxes[i] = calculateTax(salaries[i]);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof TaxTable other && Arrays.equals(lowerBounds, other.lowerBounds)
+        && Arrays.equals(rates, other.rates);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(lowerBounds) + Arrays.hashCode(rates);
+  }
+}
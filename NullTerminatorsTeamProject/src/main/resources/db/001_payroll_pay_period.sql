@@ -0,0 +1,12 @@
+-- Persisted pay period (first day of the payment month) for index-friendly period lookups.
+-- Replaces the EXTRACT(MONTH/YEAR FROM payment_date) filters, which could not use an index.
+ALTER TABLE payroll ADD COLUMN IF NOT EXISTS pay_period DATE;
+
+UPDATE payroll
+SET pay_period = date_trunc('month', payment_date)::date
+WHERE pay_period IS NULL;
+
+ALTER TABLE payroll ALTER COLUMN pay_period SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS payroll_employee_id_pay_period_idx
+    ON payroll (employee_id, pay_period);
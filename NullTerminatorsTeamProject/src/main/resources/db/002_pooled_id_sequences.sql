@@ -0,0 +1,28 @@
+-- Hibernate now reserves ids in blocks of 50 (pooled optimizer) so that inserts can be batched
+-- without a sequence round trip per row. The sequences must advance by the same step.
+-- These are the sequences named by the @SequenceGenerator of each entity, which Hibernate calls
+-- by name; they are not owned by the id columns.
+ALTER SEQUENCE company_id_seq INCREMENT BY 50;
+ALTER SEQUENCE company_employees_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payroll_id_generation_seq INCREMENT BY 50;
+ALTER SEQUENCE timeoff_id_seq INCREMENT BY 50;
+
+-- Employee ids move from the IDENTITY column to employee_id_seq. The identity sequence is named
+-- and managed by PostgreSQL and cannot be altered on its own, so the identity is dropped and
+-- the named sequence is created past the highest id, then owned by the column.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'employee' AND column_name = 'id'
+                 AND is_identity = 'YES') THEN
+        ALTER TABLE employee ALTER COLUMN id DROP IDENTITY;
+    END IF;
+END $$;
+
+CREATE SEQUENCE IF NOT EXISTS employee_id_seq INCREMENT BY 50 OWNED BY employee.id;
+ALTER SEQUENCE employee_id_seq INCREMENT BY 50;
+
+-- The pooled optimizer hands out the block below the value it reads, so the sequence is moved
+-- a whole block above the highest existing id, and never back.
+SELECT setval('employee_id_seq', GREATEST((SELECT last_value FROM employee_id_seq),
+                                          (SELECT COALESCE(MAX(id), 0) FROM employee) + 50));
@@ -0,0 +1,8 @@
+-- Payslips are rendered and uploaded in the background; the column tracks their progress.
+ALTER TABLE payroll ADD COLUMN IF NOT EXISTS payslip_status VARCHAR(16);
+
+UPDATE payroll
+SET payslip_status = CASE WHEN payslip IS NULL THEN 'FAILED' ELSE 'GENERATED' END
+WHERE payslip_status IS NULL;
+
+ALTER TABLE payroll ALTER COLUMN payslip_status SET NOT NULL;
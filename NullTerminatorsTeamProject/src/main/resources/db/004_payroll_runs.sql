@@ -0,0 +1,25 @@
+-- Company-wide payroll runs are persisted with a checkpoint per employee, so a run that stops
+-- partway is resumed with only the employees that have not been processed yet.
+CREATE SEQUENCE IF NOT EXISTS payroll_run_id_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payroll_run_item_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS payroll_run (
+    id INTEGER PRIMARY KEY,
+    company_username VARCHAR(255) NOT NULL,
+    pay_period DATE NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT payroll_run_company_username_pay_period_key UNIQUE (company_username, pay_period)
+);
+
+CREATE TABLE IF NOT EXISTS payroll_run_item (
+    id INTEGER PRIMARY KEY,
+    run_id INTEGER NOT NULL REFERENCES payroll_run (id) ON DELETE CASCADE,
+    employee_id INTEGER NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    CONSTRAINT payroll_run_item_run_id_employee_id_key UNIQUE (run_id, employee_id)
+);
+
+CREATE INDEX IF NOT EXISTS payroll_run_item_run_id_status_idx
+    ON payroll_run_item (run_id, status);
@@ -0,0 +1,4 @@
+-- The payroll history is paged by payment date (keyset pagination), newest first. The index
+-- serves both the first page and every following page as a range scan.
+CREATE INDEX IF NOT EXISTS payroll_employee_id_payment_date_idx
+    ON payroll (employee_id, payment_date);
@@ -0,0 +1,27 @@
+-- Payroll totals are kept per company and pay period, so dashboards read a month's totals
+-- from one row instead of summing every Payroll entry.
+CREATE SEQUENCE IF NOT EXISTS payroll_period_summary_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS payroll_period_summary (
+    id INTEGER PRIMARY KEY,
+    company_username VARCHAR(255) NOT NULL,
+    pay_period DATE NOT NULL,
+    gross_salary BIGINT NOT NULL,
+    tax BIGINT NOT NULL,
+    paid_count INTEGER NOT NULL,
+    unpaid_count INTEGER NOT NULL,
+    CONSTRAINT payroll_period_summary_company_username_pay_period_key
+        UNIQUE (company_username, pay_period)
+);
+
+-- Backfill the totals of the existing Payroll entries.
+INSERT INTO payroll_period_summary (id, company_username, pay_period, gross_salary, tax,
+                                    paid_count, unpaid_count)
+SELECT nextval('payroll_period_summary_id_seq'), t.company_username, t.pay_period,
+       t.gross_salary, t.tax, t.paid_count, t.unpaid_count
+FROM (SELECT c.company_username, p.pay_period, SUM(p.salary) AS gross_salary,
+             SUM(p.tax) AS tax, SUM(p.paid) AS paid_count, COUNT(*) - SUM(p.paid) AS unpaid_count
+      FROM payroll p
+      JOIN company_employees c ON c.employee_id = p.employee_id
+      GROUP BY c.company_username, p.pay_period) t
+ON CONFLICT (company_username, pay_period) DO NOTHING;
@@ -0,0 +1,40 @@
+-- An employee has at most one payroll per pay period. Payrolls are created with
+-- INSERT ... ON CONFLICT DO NOTHING against this index instead of a read before every insert,
+-- which also keeps concurrent payroll runs from creating the same payroll twice.
+
+-- Periods whose totals were backfilled by 006 with the duplicates below included.
+DROP TABLE IF EXISTS payroll_duplicate_period;
+
+CREATE TEMPORARY TABLE payroll_duplicate_period AS
+SELECT DISTINCT c.company_username, p.pay_period
+FROM payroll p
+JOIN company_employees c ON c.employee_id = p.employee_id
+GROUP BY c.company_username, p.employee_id, p.pay_period
+HAVING COUNT(*) > 1;
+
+-- Of the duplicates of a payroll, the paid one is kept, then the oldest.
+DELETE FROM payroll p
+USING payroll d
+WHERE p.employee_id = d.employee_id AND p.pay_period = d.pay_period
+  AND (d.paid > p.paid OR (d.paid = p.paid AND d.id < p.id));
+
+-- Recompute the totals of those periods from the payrolls that are left.
+UPDATE payroll_period_summary s
+SET gross_salary = t.gross_salary, tax = t.tax, paid_count = t.paid_count,
+    unpaid_count = t.unpaid_count
+FROM (SELECT c.company_username, p.pay_period, SUM(p.salary) AS gross_salary,
+             SUM(p.tax) AS tax, SUM(p.paid) AS paid_count, COUNT(*) - SUM(p.paid) AS unpaid_count
+      FROM payroll p
+      JOIN company_employees c ON c.employee_id = p.employee_id
+      JOIN payroll_duplicate_period d
+        ON d.company_username = c.company_username AND d.pay_period = p.pay_period
+      GROUP BY c.company_username, p.pay_period) t
+WHERE s.company_username = t.company_username AND s.pay_period = t.pay_period;
+
+DROP TABLE payroll_duplicate_period;
+
+CREATE UNIQUE INDEX IF NOT EXISTS payroll_employee_id_pay_period_key
+    ON payroll (employee_id, pay_period);
+
+-- The unique index serves the lookups of the previous (employee_id, pay_period) index.
+DROP INDEX IF EXISTS payroll_employee_id_pay_period_idx;
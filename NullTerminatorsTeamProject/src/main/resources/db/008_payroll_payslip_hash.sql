@@ -0,0 +1,2 @@
+-- Fingerprint of the uploaded payslip, so that an unchanged payslip is not uploaded again.
+ALTER TABLE payroll ADD COLUMN IF NOT EXISTS payslip_hash VARCHAR(64);
@@ -0,0 +1,7 @@
+-- The org chart of a company is loaded by joining the hierarchy to the employees of the
+-- company; both sides of the join are looked up by these columns.
+CREATE INDEX IF NOT EXISTS company_employees_company_username_idx
+    ON company_employees (company_username);
+
+CREATE INDEX IF NOT EXISTS employee_hierarchy_to_employee_id_idx
+    ON employee_hierarchy (to_employee_id);
@@ -0,0 +1,26 @@
+-- Transitive closure of the employee hierarchy: a row for every employee and every direct or
+-- indirect supervisor, at the number of edges between them. Kept by the hierarchy service in the
+-- same transaction as employee_hierarchy, so subtrees, ancestor chains and headcounts are
+-- lookups on the primary key or the descendant index.
+CREATE TABLE IF NOT EXISTS employee_hierarchy_closure (
+    ancestor_id BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE INDEX IF NOT EXISTS employee_hierarchy_closure_descendant_id_idx
+    ON employee_hierarchy_closure (descendant_id, depth);
+
+-- Backfill from the existing edges.
+WITH RECURSIVE paths (ancestor_id, descendant_id, depth) AS (
+    SELECT from_employee_id, to_employee_id, 1
+    FROM employee_hierarchy
+    UNION ALL
+    SELECT p.ancestor_id, h.to_employee_id, p.depth + 1
+    FROM paths p
+    JOIN employee_hierarchy h ON h.from_employee_id = p.descendant_id
+)
+INSERT INTO employee_hierarchy_closure (ancestor_id, descendant_id, depth)
+SELECT ancestor_id, descendant_id, depth FROM paths
+ON CONFLICT (ancestor_id, descendant_id) DO NOTHING;
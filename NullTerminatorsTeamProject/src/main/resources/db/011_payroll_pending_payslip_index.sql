@@ -0,0 +1,4 @@
+-- The payslip pipeline sweeps pending payslips in pages by id, so that payslips left pending by
+-- a restart or a full queue are rendered. Only a few rows are pending at any time.
+CREATE INDEX IF NOT EXISTS payroll_pending_payslip_idx
+    ON payroll (id) WHERE payslip_status = 'PENDING';
@@ -0,0 +1,26 @@
+-- An employee has at most one supervisor. Edges are added with INSERT ... ON CONFLICT DO NOTHING
+-- against this index, so concurrent adds cannot give an employee two supervisors.
+DELETE FROM employee_hierarchy e
+USING employee_hierarchy d
+WHERE e.to_employee_id = d.to_employee_id AND e.id > d.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS employee_hierarchy_to_employee_id_key
+    ON employee_hierarchy (to_employee_id);
+
+-- The unique index serves the lookups of the previous to_employee_id index.
+DROP INDEX IF EXISTS employee_hierarchy_to_employee_id_idx;
+
+-- Rebuild the closure, which still holds the paths through the removed duplicate edges.
+DELETE FROM employee_hierarchy_closure;
+
+WITH RECURSIVE paths (ancestor_id, descendant_id, depth) AS (
+    SELECT from_employee_id, to_employee_id, 1
+    FROM employee_hierarchy
+    UNION ALL
+    SELECT p.ancestor_id, h.to_employee_id, p.depth + 1
+    FROM paths p
+    JOIN employee_hierarchy h ON h.from_employee_id = p.descendant_id
+)
+INSERT INTO employee_hierarchy_closure (ancestor_id, descendant_id, depth)
+SELECT ancestor_id, descendant_id, depth FROM paths
+ON CONFLICT (ancestor_id, descendant_id) DO NOTHING;
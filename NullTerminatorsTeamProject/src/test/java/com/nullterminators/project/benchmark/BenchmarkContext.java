@@ -0,0 +1,41 @@
+package com.nullterminators.project.benchmark;
+
+import com.nullterminators.project.EmployeeManagementApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application for JMH benchmarks against an embedded H2 database running in
+ * PostgreSQL mode, so that the native queries of the repositories run unchanged.
+ */
+final class BenchmarkContext {
+
+  private BenchmarkContext() {}
+
+  /**
+   * Starts a non-web application context backed by a fresh in-memory database.
+   *
+   * @param databaseName name of the in-memory database
+   * @param extraArguments additional property overrides in {@code --key=value} form
+   * @return the started context
+   */
+  static ConfigurableApplicationContext start(String databaseName, String... extraArguments) {
+    String[] arguments = {
+      "--spring.datasource.url=jdbc:h2:mem:" + databaseName
+          + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+      "--spring.datasource.username=sa",
+      "--spring.datasource.password=",
+      "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "--spring.jpa.hibernate.ddl-auto=create-drop",
+      "--spring.main.banner-mode=off",
+      "--logging.level.root=WARN"
+    };
+    String[] allArguments = new String[arguments.length + extraArguments.length];
+    System.arraycopy(arguments, 0, allArguments, 0, arguments.length);
+    System.arraycopy(extraArguments, 0, allArguments, arguments.length, extraArguments.length);
+    return new SpringApplicationBuilder(EmployeeManagementApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(allArguments);
+  }
+}
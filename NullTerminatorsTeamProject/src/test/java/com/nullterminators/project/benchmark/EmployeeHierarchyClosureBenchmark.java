@@ -0,0 +1,135 @@
+package com.nullterminators.project.benchmark;
+
+import com.nullterminators.project.service.EmployeeHierarchyService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Latency of the hierarchy queries answered from the closure table, against the recursive
+ * queries over the edges they replace, on a deep hierarchy. The queries start from a manager on
+ * the fifth level and from the last employee, on the lowest level.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeHierarchyClosureBenchmark {
+
+  private static final int MANAGER_LEVEL = 5;
+
+  private static final String RECURSIVE_ANCESTORS =
+      "WITH RECURSIVE ancestors (employee_id, depth) AS ("
+          + "   SELECT from_employee_id, 1 FROM employee_hierarchy WHERE to_employee_id = ? "
+          + "   UNION ALL "
+          + "   SELECT h.from_employee_id, a.depth + 1 FROM employee_hierarchy h "
+          + "   JOIN ancestors a ON h.to_employee_id = a.employee_id"
+          + ") SELECT employee_id FROM ancestors ORDER BY depth";
+
+  private static final String RECURSIVE_HEADCOUNT =
+      "WITH RECURSIVE subtree (employee_id) AS ("
+          + "   SELECT to_employee_id FROM employee_hierarchy WHERE from_employee_id = ? "
+          + "   UNION ALL "
+          + "   SELECT h.to_employee_id FROM employee_hierarchy h "
+          + "   JOIN subtree s ON h.from_employee_id = s.employee_id"
+          + ") SELECT COUNT(*) FROM subtree";
+
+  @Param({"100000"})
+  public int employees;
+
+  @Param({"15"})
+  public int levels;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeHierarchyService employeeHierarchyService;
+  private JdbcTemplate jdbcTemplate;
+  private long managerId;
+  private long employeeId;
+
+  /**
+   * Starts the application on H2 and loads the synthetic company with a deep hierarchy.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("employee_hierarchy_closure_" + employees);
+    employeeHierarchyService = context.getBean(EmployeeHierarchyService.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    long[] parents = SyntheticCompany.levels(employees, levels);
+    SyntheticCompany.load(jdbcTemplate, parents);
+
+    employeeId = employees;
+    managerId = employeeId;
+    for (int i = levels - 1; i > MANAGER_LEVEL - 1; i--) {
+      managerId = parents[(int) managerId];
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Lists the supervisors of the employee from the closure.
+   */
+  @Benchmark
+  public List<Long> closureAncestors() {
+    return employeeHierarchyService.getAncestors(employeeId);
+  }
+
+  /**
+   * Lists the supervisors of the employee by walking the edges.
+   */
+  @Benchmark
+  public List<Long> recursiveAncestors() {
+    return jdbcTemplate.queryForList(RECURSIVE_ANCESTORS, Long.class, employeeId);
+  }
+
+  /**
+   * Counts the employees under the manager from the closure.
+   */
+  @Benchmark
+  public long closureHeadcount() {
+    return employeeHierarchyService.getHeadcount(managerId);
+  }
+
+  /**
+   * Counts the employees under the manager by walking the edges.
+   */
+  @Benchmark
+  public Long recursiveHeadcount() {
+    return jdbcTemplate.queryForObject(RECURSIVE_HEADCOUNT, Long.class, managerId);
+  }
+
+  /**
+   * Checks whether the employee is under the manager with the closure.
+   */
+  @Benchmark
+  public boolean closureIsUnder() {
+    return employeeHierarchyService.isUnder(employeeId, managerId);
+  }
+
+  /**
+   * Checks whether the employee is under the manager by walking up the edges.
+   */
+  @Benchmark
+  public boolean recursiveIsUnder() {
+    return recursiveAncestors().contains(managerId);
+  }
+}
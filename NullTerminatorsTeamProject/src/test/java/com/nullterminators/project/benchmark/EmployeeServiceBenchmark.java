@@ -0,0 +1,112 @@
+package com.nullterminators.project.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nullterminators.project.model.EmployeeNode;
+import com.nullterminators.project.model.EmployeeProfile;
+import com.nullterminators.project.service.EmployeeHierarchyService;
+import com.nullterminators.project.service.EmployeeProfileService;
+import com.nullterminators.project.util.hierarchy.OrgChart;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Latency of the company wide employee reads as the company grows: listing every employee
+ * profile, and building the reporting tree from the root of the hierarchy and writing it as
+ * JSON, either through the node tree or streamed from the org chart, whole or two levels at a
+ * time. Run with {@code -prof gc} to compare the memory the ways of writing the tree allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int employees;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeProfileService employeeProfileService;
+  private EmployeeHierarchyService employeeHierarchyService;
+  private ObjectMapper objectMapper;
+
+  /**
+   * Starts the application on H2 and loads the synthetic company.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("employee_service_" + employees);
+    employeeProfileService = context.getBean(EmployeeProfileService.class);
+    employeeHierarchyService = context.getBean(EmployeeHierarchyService.class);
+    objectMapper = new ObjectMapper();
+    SyntheticCompany.load(context.getBean(JdbcTemplate.class), employees);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Lists the profiles of every employee of the company.
+   */
+  @Benchmark
+  public List<EmployeeProfile> getAllEmployees() {
+    return employeeProfileService.getAllEmployees();
+  }
+
+  /**
+   * Builds the reporting tree of the whole company.
+   */
+  @Benchmark
+  public EmployeeNode buildEmployeeTree() {
+    return employeeHierarchyService.buildEmployeeTree(SyntheticCompany.ROOT_EMPLOYEE_ID);
+  }
+
+  /**
+   * Builds the reporting tree of the whole company and serializes it, as the tree endpoint did.
+   */
+  @Benchmark
+  public void serializeEmployeeTree() throws IOException {
+    objectMapper.writeValue(OutputStream.nullOutputStream(),
+        employeeHierarchyService.buildEmployeeTree(SyntheticCompany.ROOT_EMPLOYEE_ID));
+  }
+
+  /**
+   * Streams the reporting tree of the whole company from the org chart, as the tree endpoint
+   * does.
+   */
+  @Benchmark
+  public void streamEmployeeTree() throws IOException {
+    employeeHierarchyService.writeEmployeeTree(employeeHierarchyService.getOrgChart(),
+        SyntheticCompany.ROOT_EMPLOYEE_ID, OutputStream.nullOutputStream());
+  }
+
+  /**
+   * Streams the first two levels below the root, as the UI expands a node.
+   */
+  @Benchmark
+  public void streamEmployeeTreeTwoLevels() throws IOException {
+    employeeHierarchyService.writeEmployeeTree(employeeHierarchyService.getOrgChart(),
+        SyntheticCompany.ROOT_EMPLOYEE_ID, 2, OrgChart.UNLIMITED, 0,
+        OutputStream.nullOutputStream());
+  }
+}
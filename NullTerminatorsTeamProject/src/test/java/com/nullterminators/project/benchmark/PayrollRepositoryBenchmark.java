@@ -0,0 +1,126 @@
+package com.nullterminators.project.benchmark;
+
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.repository.PayrollRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Latency of the payroll period lookup as the payroll history of every employee grows.
+ *
+ * <p>{@code payPeriodLookup} runs the (employee_id, pay_period) index lookup used by
+ * {@link PayrollRepository#findByEmployeeIdPaymentMonthAndYear}; it should stay flat across
+ * history sizes. {@code extractLookup} runs the previous EXTRACT(MONTH/YEAR) filter, kept as a
+ * baseline, which has to visit every payroll row of the employee. Both go through plain JDBC so
+ * that only the SQL differs; {@code repositoryLookup} measures the repository call end to end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollRepositoryBenchmark {
+
+  private static final int EMPLOYEES = 200;
+
+  private static final LocalDate LATEST_PAYMENT = LocalDate.of(2024, 12, 15);
+
+  private static final String PAY_PERIOD_LOOKUP = "SELECT * FROM payroll p "
+      + "WHERE p.employee_id = ? AND p.pay_period = ?";
+
+  private static final String EXTRACT_LOOKUP = "SELECT * FROM payroll p "
+      + "WHERE p.employee_id = ? AND "
+      + "EXTRACT(MONTH FROM p.payment_date) = ? AND "
+      + "EXTRACT(YEAR FROM p.payment_date) = ?";
+
+  /** Months of payroll history per employee: 1, 10 and 50 years. */
+  @Param({"12", "120", "600"})
+  public int monthsOfHistory;
+
+  private ConfigurableApplicationContext context;
+  private PayrollRepository payrollRepository;
+  private JdbcTemplate jdbcTemplate;
+  private int nextEmployee;
+
+  /**
+   * Starts the application on H2 and loads the payroll history of every employee.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("payroll_lookup_" + monthsOfHistory);
+    payrollRepository = context.getBean(PayrollRepository.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+    List<Object[]> rows = new ArrayList<>();
+    int id = 1;
+    for (int employeeId = 1; employeeId <= EMPLOYEES; employeeId++) {
+      for (int month = 0; month < monthsOfHistory; month++) {
+        LocalDate paymentDate = LATEST_PAYMENT.minusMonths(month);
+        rows.add(new Object[] {id++, employeeId, 10000, 3000, "N/A", "GENERATED", paymentDate,
+            paymentDate.withDayOfMonth(1), 1});
+      }
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO payroll (id, employee_id, salary, tax, payslip, "
+        + "payslip_status, payment_date, pay_period, paid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+        rows);
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Looks up a month in the middle of the history through the pay period index.
+   */
+  @Benchmark
+  public List<Map<String, Object>> payPeriodLookup() {
+    LocalDate period = LATEST_PAYMENT.minusMonths(monthsOfHistory / 2).withDayOfMonth(1);
+    return jdbcTemplate.queryForList(PAY_PERIOD_LOOKUP, nextEmployeeId(), period);
+  }
+
+  /**
+   * Looks up the same month with the previous EXTRACT based filter.
+   */
+  @Benchmark
+  public List<Map<String, Object>> extractLookup() {
+    LocalDate period = LATEST_PAYMENT.minusMonths(monthsOfHistory / 2);
+    return jdbcTemplate.queryForList(EXTRACT_LOOKUP, nextEmployeeId(),
+        period.getMonthValue(), period.getYear());
+  }
+
+  /**
+   * Looks up a month in the middle of the history through the repository.
+   */
+  @Benchmark
+  public Payroll repositoryLookup() {
+    LocalDate period = LATEST_PAYMENT.minusMonths(monthsOfHistory / 2);
+    return payrollRepository.findByEmployeeIdPaymentMonthAndYear(nextEmployeeId(),
+        period.getMonthValue(), period.getYear());
+  }
+
+  private int nextEmployeeId() {
+    nextEmployee = nextEmployee % EMPLOYEES + 1;
+    return nextEmployee;
+  }
+}
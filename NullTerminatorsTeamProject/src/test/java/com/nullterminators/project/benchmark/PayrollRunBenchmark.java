@@ -0,0 +1,79 @@
+package com.nullterminators.project.benchmark;
+
+import com.nullterminators.project.service.PayrollService;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Duration of a full payroll run of the company: tax, payslip rendering and upload to the
+ * in-memory blob store, and the checkpointed inserts. Every invocation starts from a month
+ * without payrolls, so each measurement is one complete run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PayrollRunBenchmark {
+
+  private static final Map<String, Object> PAY_DAY = Map.of("day", 17, "month", 10,
+      "year", 2024);
+
+  @Param({"1000", "10000", "100000"})
+  public int employees;
+
+  private ConfigurableApplicationContext context;
+  private PayrollService payrollService;
+  private JdbcTemplate jdbcTemplate;
+
+  /**
+   * Starts the application on H2 with payslips kept in memory and loads the synthetic company.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start("payroll_run_" + employees, "--storage.type=memory");
+    payrollService = context.getBean(PayrollService.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    SyntheticCompany.load(jdbcTemplate, employees);
+  }
+
+  /**
+   * Removes the payrolls and the run of the previous invocation.
+   */
+  @Setup(Level.Invocation)
+  public void clearRun() {
+    jdbcTemplate.execute("DELETE FROM payroll_run_item");
+    jdbcTemplate.execute("DELETE FROM payroll_run");
+    jdbcTemplate.execute("DELETE FROM payroll_period_summary");
+    jdbcTemplate.execute("DELETE FROM payroll");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * Generates the payroll of every employee of the company for one month.
+   */
+  @Benchmark
+  public Map<String, Object> generatePayroll() {
+    return payrollService.generatePayroll(PAY_DAY);
+  }
+}
@@ -0,0 +1,91 @@
+package com.nullterminators.project.benchmark;
+
+import com.nullterminators.project.model.EmployeeProfile;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.util.pdf.Itext8PayslipRenderer;
+import com.nullterminators.project.util.pdf.PdfBuffer;
+import com.nullterminators.project.util.pdf.PdfGenerator;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares rendering a payslip with the regular iText 5 layout, filling the pre-rendered iText 5
+ * template and rendering with the compressed iText 8 renderer. Run with {@code -prof gc} to
+ * compare allocation per payslip as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfGeneratorBenchmark {
+
+  private final PdfGenerator layoutGenerator = new PdfGenerator(false);
+
+  private final PdfGenerator templateGenerator = new PdfGenerator(true);
+
+  private final PdfGenerator itext8Generator = new PdfGenerator(new Itext8PayslipRenderer(), null);
+
+  private Payroll payroll;
+
+  private EmployeeProfile employee;
+
+  private int employeeId;
+
+  /**
+   * Builds the payroll and employee rendered by every invocation.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    payroll = new Payroll();
+    payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
+    payroll.setSalary(10000);
+    payroll.setTax(3000);
+    employee = new EmployeeProfile();
+    employee.setName("Benchmark Employee");
+    employee.setPhoneNumber("1234567890");
+    employee.setDesignation("Engineer");
+    employee.setEmail("benchmark.employee@example.com");
+    employee.setEmergencyContactNumber("0987654321");
+    employee.setBaseSalary(10000);
+  }
+
+  /**
+   * Renders the whole payslip layout.
+   */
+  @Benchmark
+  public PdfBuffer regularLayout() {
+    payroll.setEmployeeId(++employeeId);
+    return layoutGenerator.generatePdfReport(payroll, employee, 2);
+  }
+
+  /**
+   * Stamps the pre-rendered layout and draws only the values.
+   */
+  @Benchmark
+  public PdfBuffer template() {
+    payroll.setEmployeeId(++employeeId);
+    return templateGenerator.generatePdfReport(payroll, employee, 2);
+  }
+
+  /**
+   * Renders the whole payslip with the compressed iText 8 renderer.
+   */
+  @Benchmark
+  public PdfBuffer itext8() {
+    payroll.setEmployeeId(++employeeId);
+    return itext8Generator.generatePdfReport(payroll, employee, 2);
+  }
+}
@@ -0,0 +1,161 @@
+package com.nullterminators.project.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Loads a synthetic company into the benchmark database and signs it in, so that service
+ * methods scoped to the current company can be benchmarked outside of a request.
+ *
+ * <p>Employees have ids 1 to n and employee 1 is the root of the hierarchy. By default every
+ * employee supervises up to {@link #FAN_OUT} others, in id order; {@link #levels} spreads the
+ * employees over a given number of levels instead, for deep hierarchies.
+ */
+final class SyntheticCompany {
+
+  static final String USERNAME = "benchmarkCompany";
+
+  static final long ROOT_EMPLOYEE_ID = 1L;
+
+  static final int FAN_OUT = 10;
+
+  private static final int BATCH_SIZE = 5000;
+
+  private SyntheticCompany() {}
+
+  /**
+   * Inserts the company, its employees and their hierarchy, with every employee supervising up
+   * to {@link #FAN_OUT} others, then signs the company in for every thread of the benchmark.
+   *
+   * @param jdbcTemplate template of the benchmark database
+   * @param employees number of employees of the company
+   */
+  static void load(JdbcTemplate jdbcTemplate, int employees) {
+    long[] parents = new long[employees + 1];
+    for (int id = 2; id <= employees; id++) {
+      parents[id] = (long) (id - 2) / FAN_OUT + 1;
+    }
+    load(jdbcTemplate, parents);
+  }
+
+  /**
+   * Inserts the company, its employees and their hierarchy, then signs the company in for every
+   * thread of the benchmark.
+   *
+   * @param jdbcTemplate template of the benchmark database
+   * @param parents supervisor of every employee by id, 0 for the root; entry 0 is unused
+   */
+  static void load(JdbcTemplate jdbcTemplate, long[] parents) {
+    int employees = parents.length - 1;
+    jdbcTemplate.update("INSERT INTO company (id, name, username, address, state, password) "
+        + "VALUES (1, 'Benchmark Company', ?, 'Benchmark Street', 'NY', 'N/A')", USERNAME);
+
+    List<Object[]> profiles = new ArrayList<>();
+    List<Object[]> companyEmployees = new ArrayList<>();
+    List<Object[]> edges = new ArrayList<>();
+    List<Object[]> paths = new ArrayList<>();
+    for (int id = 1; id <= employees; id++) {
+      profiles.add(new Object[] {id, "Employee " + id, "1234567890", "Female", 30,
+          LocalDate.of(2020, 1, 1), "Engineer", "employee" + id + "@example.com", "0987654321",
+          5000 + id % 20 * 1000});
+      companyEmployees.add(new Object[] {id, USERNAME, id});
+      if (parents[id] > 0) {
+        edges.add(new Object[] {parents[id], (long) id});
+      }
+      int depth = 1;
+      for (long ancestor = parents[id]; ancestor > 0; ancestor = parents[(int) ancestor]) {
+        paths.add(new Object[] {ancestor, (long) id, depth++});
+      }
+      if (profiles.size() == BATCH_SIZE || id == employees) {
+        insert(jdbcTemplate, profiles, companyEmployees, edges, paths);
+      }
+    }
+    // H2 joins the recursive subtree query with nested loops, where Postgres hashes the
+    // hierarchy; the index keeps the hierarchy reads linear so that large companies stay
+    // measurable.
+    jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS employee_hierarchy_from_employee_id_idx "
+        + "ON employee_hierarchy (from_employee_id)");
+    jdbcTemplate.execute("ANALYZE");
+
+    SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+    SecurityContextHolder.getContext()
+        .setAuthentication(new UsernamePasswordAuthenticationToken(USERNAME, null));
+  }
+
+  /**
+   * Spreads employees over a number of levels that grow by the same factor, numbered level by
+   * level, and has every employee report to the employee at the same relative position on the
+   * level above.
+   *
+   * @param employees number of employees of the company
+   * @param levels number of levels of the hierarchy
+   * @return supervisor of every employee by id, 0 for the root; entry 0 is unused
+   */
+  static long[] levels(int employees, int levels) {
+    // Largest growth factor whose levels do not add up to more than the employees; the last
+    // level takes the employees left over.
+    double low = 1;
+    double high = employees;
+    for (int i = 0; i < 100; i++) {
+      double factor = (low + high) / 2;
+      if (totalSize(factor, levels) <= employees) {
+        low = factor;
+      } else {
+        high = factor;
+      }
+    }
+    int[] sizes = new int[levels];
+    int total = 0;
+    for (int level = 0; level < levels; level++) {
+      sizes[level] = levelSize(low, level);
+      total += sizes[level];
+    }
+    sizes[levels - 1] += employees - total;
+
+    long[] parents = new long[employees + 1];
+    int levelStart = 1;
+    for (int level = 1; level < levels; level++) {
+      int parentStart = levelStart;
+      levelStart += sizes[level - 1];
+      for (int i = 0; i < sizes[level]; i++) {
+        parents[levelStart + i] = parentStart + (long) i * sizes[level - 1] / sizes[level];
+      }
+    }
+    return parents;
+  }
+
+  private static int levelSize(double factor, int level) {
+    return (int) Math.round(Math.pow(factor, level));
+  }
+
+  /** Adds up the levels in floating point, where a large factor cannot overflow. */
+  private static double totalSize(double factor, int levels) {
+    double total = 0;
+    for (int level = 0; level < levels; level++) {
+      total += Math.round(Math.pow(factor, level));
+    }
+    return total;
+  }
+
+  private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> profiles,
+                             List<Object[]> companyEmployees, List<Object[]> edges,
+                             List<Object[]> paths) {
+    jdbcTemplate.batchUpdate("INSERT INTO employee (id, name, phone_number, gender, age, "
+        + "start_date, designation, email_id, emergency_contact_number, base_salary) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", profiles);
+    jdbcTemplate.batchUpdate("INSERT INTO company_employees (id, company_username, employee_id) "
+        + "VALUES (?, ?, ?)", companyEmployees);
+    jdbcTemplate.batchUpdate("INSERT INTO employee_hierarchy (from_employee_id, to_employee_id) "
+        + "VALUES (?, ?)", edges);
+    jdbcTemplate.batchUpdate("INSERT INTO employee_hierarchy_closure (ancestor_id, "
+        + "descendant_id, depth) VALUES (?, ?, ?)", paths);
+    profiles.clear();
+    companyEmployees.clear();
+    edges.clear();
+    paths.clear();
+  }
+}
@@ -0,0 +1,84 @@
+package com.nullterminators.project.benchmark;
+
+import com.nullterminators.project.util.tax.BracketTaxEngine;
+import com.nullterminators.project.util.tax.TaxEngine;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares taxing the salaries of a payroll run one by one, resolving the tax table of the
+ * state for every salary, against the batch API that resolves it once and taxes the whole
+ * array in one pass.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaxEngineBenchmark {
+
+  @Param({"100000"})
+  private int salaryCount;
+
+  @Param({"NY", "ZZ"})
+  private String state;
+
+  private TaxEngine taxEngine;
+
+  private int[] salaries;
+
+  private int[] taxes;
+
+  /**
+   * Loads the bundled tax tables and draws the salaries taxed by every invocation.
+   *
+   * @throws IOException if the tax tables cannot be read
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    try (InputStream inputStream = getClass().getResourceAsStream("/tax/sample-brackets.csv")) {
+      taxEngine = BracketTaxEngine.load(inputStream);
+    }
+    SplittableRandom random = new SplittableRandom(42);
+    salaries = new int[salaryCount];
+    for (int i = 0; i < salaryCount; i++) {
+      salaries[i] = random.nextInt(1000, 40000);
+    }
+    taxes = new int[salaryCount];
+  }
+
+  /**
+   * Taxes every salary through the engine, one lookup per salary.
+   */
+  @Benchmark
+  public int[] perSalary() {
+    for (int i = 0; i < salaries.length; i++) {
+      taxes[i] = taxEngine.calculateTax(salaries[i], state, 2024);
+    }
+    return taxes;
+  }
+
+  /**
+   * Taxes all salaries with one table lookup and one pass over the array.
+   */
+  @Benchmark
+  public int[] batch() {
+    taxEngine.calculateTaxes(salaries, taxes, state, 2024);
+    return taxes;
+  }
+}
@@ -2,11 +2,15 @@ package com.nullterminators.project.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.nullterminators.project.model.EmployeeHierarchy;
-import com.nullterminators.project.model.EmployeeNode;
 import com.nullterminators.project.service.EmployeeHierarchyService;
+import com.nullterminators.project.util.hierarchy.OrgChart;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +19,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** JUnit tests for {@link EmployeeHierarchyController}. */
 class EmployeeHierarchyControllerTests {
@@ -150,38 +156,120 @@ class EmployeeHierarchyControllerTests {
   }
 
   /**
-   * Test for {@link EmployeeHierarchyController#getSubtree(Long)} when the requested employee
+   * Test for {@link EmployeeHierarchyController#getSubtree(Long, Integer, Integer,
+   * Integer)} when the requested employee
    * exists and has subordinates.
    *
-   * <p>This test calls {@link EmployeeHierarchyController#getSubtree(Long)} with an existing
-   * employee id, mocks the {@link EmployeeHierarchyService#buildEmployeeTree(Long)} to return a
-   * mock {@link EmployeeNode} with two children, and asserts that the response has a status code of
-   * 200 OK and a body containing the subtree of the given employee.
+   * <p>This test calls {@link EmployeeHierarchyController#getSubtree(Long, Integer, Integer,
+   * Integer)} with an existing
+   * employee id, mocks {@link EmployeeHierarchyService#getOrgChart()} to return a chart where the
+   * employee has two subordinates, and asserts that the response has a status code of 200 OK and
+   * a JSON body that streams the subtree of the given employee from that chart.
    */
   @Test
-  void testGetSubtreeSuccess() {
+  void testGetSubtreeSuccess() throws IOException {
     Long employeeId = 1L;
-    EmployeeNode mockEmployeeNode = new EmployeeNode(1L);
-    mockEmployeeNode.getChildren().add(new EmployeeNode(2L));
-    mockEmployeeNode.getChildren().add(new EmployeeNode(3L));
+    OrgChart orgChart = OrgChart.of(List.of(new EmployeeHierarchy(1L, 2L),
+        new EmployeeHierarchy(1L, 3L)));
 
     when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
-    when(employeeHierarchyService.buildEmployeeTree(employeeId)).thenReturn(mockEmployeeNode);
+    when(employeeHierarchyService.getOrgChart()).thenReturn(orgChart);
 
-    ResponseEntity<?> response = employeeHierarchyController.getSubtree(employeeId);
+    ResponseEntity<?> response = employeeHierarchyController.getSubtree(employeeId, null, null,
+        null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
-    EmployeeNode responseBody = (EmployeeNode) response.getBody();
-    assertNotNull(responseBody);
-    assertEquals(1L, responseBody.getId());
-    assertEquals(2, responseBody.getChildren().size());
+    assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(out);
+    verify(employeeHierarchyService).writeEmployeeTree(orgChart, employeeId, OrgChart.UNLIMITED,
+        OrgChart.UNLIMITED, 0, out);
+  }
+
+  @Test
+  void testGetSubtreePage() throws IOException {
+    Long employeeId = 1L;
+    OrgChart orgChart = OrgChart.of(List.of(new EmployeeHierarchy(1L, 2L),
+        new EmployeeHierarchy(1L, 3L)));
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
+    when(employeeHierarchyService.getOrgChart()).thenReturn(orgChart);
+
+    ResponseEntity<?> response = employeeHierarchyController.getSubtree(employeeId, 2, 1, 1);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(out);
+    verify(employeeHierarchyService).writeEmployeeTree(orgChart, employeeId, 2, 1, 1, out);
+  }
+
+  @Test
+  void testGetSubtreeInvalidPage() {
+    Long employeeId = 1L;
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
+
+    ResponseEntity<?> response = employeeHierarchyController.getSubtree(employeeId, 0, null,
+        null);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals("maxDepth and limit must be positive and cursor must not be negative.",
+        response.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, employeeHierarchyController
+        .getSubtreeEdges(employeeId, null, null, -1).getStatusCode());
+  }
+
+  @Test
+  void testGetSubtreeEdgesSuccess() {
+    Long employeeId = 1L;
+    List<EmployeeHierarchy> page = List.of(new EmployeeHierarchy(1L, 2L));
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
+    when(employeeHierarchyService.getSubtree(employeeId, 2, OrgChart.UNLIMITED, 0))
+        .thenReturn(page);
+
+    ResponseEntity<?> response = employeeHierarchyController.getSubtreeEdges(employeeId, 2, null,
+        null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  void testGetSubtreeEdgesEmployeeNotFound() {
+    Long employeeId = 999L;
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(false);
+
+    ResponseEntity<?> response = employeeHierarchyController.getSubtreeEdges(employeeId, null,
+        null, null);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertEquals("Employee with ID " + employeeId + " not found", response.getBody());
+  }
+
+  @Test
+  void testGetSubtreeWithoutSubordinates() {
+    Long employeeId = 3L;
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
+    when(employeeHierarchyService.getOrgChart())
+        .thenReturn(OrgChart.of(List.of(new EmployeeHierarchy(1L, 3L))));
+
+    ResponseEntity<?> response = employeeHierarchyController.getSubtree(employeeId, null, null,
+        null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNull(response.getBody());
   }
 
   /**
-   * Test for {@link EmployeeHierarchyController#getSubtree(Long)} when the requested employee does
+   * Test for {@link EmployeeHierarchyController#getSubtree(Long, Integer, Integer,
+   * Integer)} when the requested employee does
    * not exist.
    *
-   * <p>This test calls {@link EmployeeHierarchyController#getSubtree(Long)} with a non-existent
+   * <p>This test calls {@link EmployeeHierarchyController#getSubtree(Long, Integer, Integer,
+   * Integer)} with a non-existent
    * employee id and asserts that the response has a status code of 404 NOT FOUND and a body
    * containing an error message.
    */
@@ -191,12 +279,80 @@ class EmployeeHierarchyControllerTests {
 
     when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(false);
 
-    ResponseEntity<?> response = employeeHierarchyController.getSubtree(employeeId);
+    ResponseEntity<?> response = employeeHierarchyController.getSubtree(employeeId, null, null,
+        null);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertEquals("Employee with ID " + employeeId + " not found", response.getBody());
+  }
+
+  @Test
+  void testGetAncestorsSuccess() {
+    Long employeeId = 3L;
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
+    when(employeeHierarchyService.getAncestors(employeeId)).thenReturn(List.of(2L, 1L));
+
+    ResponseEntity<?> response = employeeHierarchyController.getAncestors(employeeId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(List.of(2L, 1L), response.getBody());
+  }
+
+  @Test
+  void testGetAncestorsEmployeeNotFound() {
+    Long employeeId = 999L;
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(false);
+
+    ResponseEntity<?> response = employeeHierarchyController.getAncestors(employeeId);
 
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     assertEquals("Employee with ID " + employeeId + " not found", response.getBody());
   }
 
+  @Test
+  void testGetHeadcountSuccess() {
+    Long managerId = 1L;
+
+    when(employeeHierarchyService.employeeExists(managerId)).thenReturn(true);
+    when(employeeHierarchyService.getHeadcount(managerId)).thenReturn(5L);
+
+    ResponseEntity<?> response = employeeHierarchyController.getHeadcount(managerId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(5L, response.getBody());
+  }
+
+  @Test
+  void testIsUnderSuccess() {
+    Long employeeId = 3L;
+    Long managerId = 1L;
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
+    when(employeeHierarchyService.employeeExists(managerId)).thenReturn(true);
+    when(employeeHierarchyService.isUnder(employeeId, managerId)).thenReturn(true);
+
+    ResponseEntity<?> response = employeeHierarchyController.isUnder(employeeId, managerId);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(true, response.getBody());
+  }
+
+  @Test
+  void testIsUnderManagerNotFound() {
+    Long employeeId = 3L;
+    Long managerId = 999L;
+
+    when(employeeHierarchyService.employeeExists(employeeId)).thenReturn(true);
+    when(employeeHierarchyService.employeeExists(managerId)).thenReturn(false);
+
+    ResponseEntity<?> response = employeeHierarchyController.isUnder(employeeId, managerId);
+
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    assertEquals("Either employee or manager doesn't exist.", response.getBody());
+  }
+
   @Test
   void testAddEdgeEmployeeOrSupervisorNotFound() {
     Long supervisorId = 1L;
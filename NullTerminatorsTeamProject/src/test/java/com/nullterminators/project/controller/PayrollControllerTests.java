@@ -1,10 +1,17 @@
 package com.nullterminators.project.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.nullterminators.project.enums.PayrollStatus;
+import com.nullterminators.project.enums.PayslipStatus;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollHistoryEntry;
 import com.nullterminators.project.service.PayrollService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +24,7 @@ import org.springframework.data.util.Pair;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller Tests for Payroll.
@@ -35,35 +43,85 @@ public class PayrollControllerTests {
     payrollController = new PayrollController(payrollService);
   }
 
+  @Test
+  void testGetPayrollSummaryInvalidMonth() {
+    when(payrollService.getPayrollSummary(13, 2024)).thenReturn(
+            Pair.of(PayrollStatus.INVALID_FORMAT, new ArrayList<>()));
+    ResponseEntity<?> result = payrollController.getPayrollSummary(13, 2024);
+    assertEquals(Map.of("response", "Invalid format for month or year"), result.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+  }
+
+  @Test
+  void testGetPayrollSummaryIsEmpty() {
+    when(payrollService.getPayrollSummary(null, 2024)).thenReturn(
+            Pair.of(PayrollStatus.OK, new ArrayList<>()));
+    ResponseEntity<?> result = payrollController.getPayrollSummary(null, 2024);
+    assertEquals(Map.of("response", "Details Not Found"), result.getBody());
+    assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+  }
+
+  @Test
+  void testGetPayrollSummarySuccess() {
+    List<Map<String, Object>> summaries = List.of(Map.of("month", 10, "year", 2024,
+            "grossSalary", 20000L, "tax", 6000L, "netSalary", 14000L, "paidCount", 1,
+            "unpaidCount", 1));
+    when(payrollService.getPayrollSummary(10, 2024)).thenReturn(
+            Pair.of(PayrollStatus.OK, summaries));
+    ResponseEntity<?> result = payrollController.getPayrollSummary(10, 2024);
+    assertEquals(summaries, result.getBody());
+    assertEquals(HttpStatus.OK, result.getStatusCode());
+  }
+
   @Test
   void testGetPayrollByEmployeeIdEmployeeNotFound() {
-    when(payrollService.getPayrollByEmployeeId(1)).thenReturn(
+    when(payrollService.getPayrollByEmployeeId(1, null, 24)).thenReturn(
             Pair.of(PayrollStatus.EMPLOYEE_NOT_FOUND, new ArrayList<>()));
-    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1);
+    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1, null, 24);
     assertEquals(Map.of("response", "Employee Not Found in Company"), result.getBody());
     assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
   }
 
+  @Test
+  void testGetPayrollByEmployeeIdInvalidLimit() {
+    when(payrollService.getPayrollByEmployeeId(1, null, 0)).thenReturn(
+            Pair.of(PayrollStatus.INVALID_DATA, new ArrayList<>()));
+    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1, null, 0);
+    assertEquals(Map.of("response", "Invalid limit, it must be between 1 and 120"),
+            result.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+  }
+
   @Test
   void testGetPayrollByEmployeeIdIsEmpty() {
-    when(payrollService.getPayrollByEmployeeId(1)).thenReturn(
+    when(payrollService.getPayrollByEmployeeId(1, null, 24)).thenReturn(
             Pair.of(PayrollStatus.SUCCESS, new ArrayList<>()));
-    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1);
+    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1, null, 24);
     assertEquals(Map.of("response", "Details Not Found"), result.getBody());
     assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
   }
 
   @Test
   void testGetPayrollByEmployeeIdSuccess() {
-    Map<String, Object> payrollInfo = Map.of("employeeId", 1, "date",
-            LocalDate.of(2024, 10, 17),
-            "salary", 10000, "tax", 3000,
-            "payslip", "N/A", "netSalary", 7000);
-    when(payrollService.getPayrollByEmployeeId(1)).thenReturn(
-            Pair.of(PayrollStatus.SUCCESS, List.of(payrollInfo)));
-    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1);
-    assertEquals(List.of(payrollInfo), result.getBody());
+    PayrollHistoryEntry entry = new PayrollHistoryEntry(1, LocalDate.of(2024, 10, 17), 10000,
+            3000, 7000, "N/A", PayslipStatus.GENERATED);
+    when(payrollService.getPayrollByEmployeeId(1, null, 24)).thenReturn(
+            Pair.of(PayrollStatus.OK, List.of(entry)));
+    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1, null, 24);
+    assertEquals(List.of(entry), result.getBody());
     assertEquals(HttpStatus.OK, result.getStatusCode());
+    assertFalse(result.getHeaders().containsKey("X-Next-Before"));
+  }
+
+  @Test
+  void testGetPayrollByEmployeeIdFullPage() {
+    PayrollHistoryEntry entry = new PayrollHistoryEntry(1, LocalDate.of(2024, 10, 17), 10000,
+            3000, 7000, "N/A", PayslipStatus.GENERATED);
+    when(payrollService.getPayrollByEmployeeId(1, null, 1)).thenReturn(
+            Pair.of(PayrollStatus.OK, List.of(entry)));
+    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1, null, 1);
+    assertEquals(List.of(entry), result.getBody());
+    assertEquals("2024-10-17", result.getHeaders().getFirst("X-Next-Before"));
   }
 
   @Test
@@ -433,13 +491,97 @@ public class PayrollControllerTests {
     assertEquals(HttpStatus.OK, result.getStatusCode());
   }
 
+  @Test
+  void testGetPayrollRunStatusNotFound() {
+    when(payrollService.getPayrollRunStatus(7)).thenReturn(
+            Pair.of(PayrollStatus.NOT_FOUND, Map.of()));
+    ResponseEntity<?> result = payrollController.getPayrollRunStatus(7);
+    assertEquals(Map.of("response", "Payroll run Not Found"), result.getBody());
+    assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+  }
+
+  @Test
+  void testGetPayrollRunStatusSuccess() {
+    Map<String, Object> progress = Map.of("runId", 7, "processed", 2L, "failed", 1L,
+            "pending", 0L);
+    when(payrollService.getPayrollRunStatus(7)).thenReturn(Pair.of(PayrollStatus.OK, progress));
+    ResponseEntity<?> result = payrollController.getPayrollRunStatus(7);
+    assertEquals(progress, result.getBody());
+    assertEquals(HttpStatus.OK, result.getStatusCode());
+  }
+
   @Test
   void testDeletePayroll() {
     Map<String, Object> updates = Map.of("month", 10, "year", 2024);
-    when(payrollService.deletePayroll(updates)).thenReturn(updates);
+    when(payrollService.deletePayroll(updates)).thenReturn(Pair.of(PayrollStatus.SUCCESS, 2));
     ResponseEntity<?> result = payrollController.deletePayroll(updates);
-    assertEquals(updates, result.getBody());
+    assertEquals(Map.of("response", "Payroll for this month and year has been deleted",
+            "deletedCount", 2), result.getBody());
     assertEquals(HttpStatus.OK, result.getStatusCode());
   }
 
+  @Test
+  void testDeletePayrollInvalidData() {
+    Map<String, Object> updates = Map.of("year", 2024);
+    when(payrollService.deletePayroll(updates)).thenReturn(Pair.of(PayrollStatus.INVALID_DATA, 0));
+    ResponseEntity<?> result = payrollController.deletePayroll(updates);
+    assertEquals(Map.of("response", "Invalid month or year"), result.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+  }
+
+  @Test
+  void testMarkPayrollsAsPaid() {
+    Map<String, Object> updates = Map.of("month", 10, "year", 2024);
+    when(payrollService.markPayrollsAsPaid(updates)).thenReturn(
+            Pair.of(PayrollStatus.SUCCESS, 3));
+    ResponseEntity<?> result = payrollController.markPayrollsAsPaid(updates);
+    assertEquals(Map.of("response", "Payroll for this month and year has been marked as Paid",
+            "updatedCount", 3), result.getBody());
+    assertEquals(HttpStatus.OK, result.getStatusCode());
+  }
+
+  @Test
+  void testMarkPayrollsAsUnpaidInvalidFormat() {
+    Map<String, Object> updates = Map.of("month", 10, "year", 2024, "employeeIds", "1");
+    when(payrollService.markPayrollsAsUnpaid(updates)).thenReturn(
+            Pair.of(PayrollStatus.INVALID_FORMAT, 0));
+    ResponseEntity<?> result = payrollController.markPayrollsAsUnpaid(updates);
+    assertEquals(Map.of("response", "Invalid format for month or year or employeeIds"),
+            result.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+  }
+
+  @Test
+  void testGetPayslipArchiveInvalidFormat() {
+    when(payrollService.getPayslipsByPayPeriod(13, 2024)).thenReturn(
+            Pair.of(PayrollStatus.INVALID_FORMAT, new ArrayList<>()));
+    ResponseEntity<?> result = payrollController.getPayslipArchive(13, 2024);
+    assertEquals(Map.of("response", "Invalid format for month or year"), result.getBody());
+    assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+  }
+
+  @Test
+  void testGetPayslipArchiveIsEmpty() {
+    when(payrollService.getPayslipsByPayPeriod(10, 2024)).thenReturn(
+            Pair.of(PayrollStatus.OK, new ArrayList<>()));
+    ResponseEntity<?> result = payrollController.getPayslipArchive(10, 2024);
+    assertEquals(Map.of("response", "Details Not Found"), result.getBody());
+    assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+  }
+
+  @Test
+  void testGetPayslipArchiveSuccess() throws IOException {
+    List<Payroll> payrolls = List.of(new Payroll());
+    when(payrollService.getPayslipsByPayPeriod(10, 2024)).thenReturn(
+            Pair.of(PayrollStatus.OK, payrolls));
+    ResponseEntity<?> result = payrollController.getPayslipArchive(10, 2024);
+    assertEquals(HttpStatus.OK, result.getStatusCode());
+    assertEquals("application/zip", result.getHeaders().getContentType().toString());
+    assertEquals("payslips_10_2024.zip",
+            result.getHeaders().getContentDisposition().getFilename());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingResponseBody) result.getBody()).writeTo(out);
+    verify(payrollService).writePayslipArchive(payrolls, out);
+  }
 }
@@ -0,0 +1,91 @@
+package com.nullterminators.project.integration.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nullterminators.project.model.EmployeeHierarchy;
+import com.nullterminators.project.repository.EmployeeHierarchyClosureRepository;
+import com.nullterminators.project.repository.EmployeeHierarchyRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * Internal integration tests for the closure of the employee hierarchy, run against an
+ * in-memory database. They check that the closure follows edges added to and removed from the
+ * middle of a hierarchy, including edges that move a whole subtree.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:employeehierarchy;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+public class EmployeeHierarchyClosureInternalIntegrationTests {
+
+  @Autowired private EmployeeHierarchyRepository employeeHierarchyRepository;
+
+  @Autowired private EmployeeHierarchyClosureRepository employeeHierarchyClosureRepository;
+
+  private void addEdge(long supervisorId, long employeeId) {
+    employeeHierarchyRepository.save(new EmployeeHierarchy(supervisorId, employeeId));
+    employeeHierarchyClosureRepository.insertPaths(supervisorId, employeeId);
+  }
+
+  private void removeEdge(long supervisorId, long employeeId) {
+    employeeHierarchyClosureRepository.deletePaths(employeeId);
+    employeeHierarchyRepository.findByFromEmployeeId(supervisorId).stream()
+        .filter(edge -> edge.getToEmployeeId() == employeeId)
+        .forEach(employeeHierarchyRepository::delete);
+  }
+
+  /**
+   * Builds 1 -> 2 -> 3 and 1 -> 4, and a separate 5 -> 6 -> 7 that is then moved below 3.
+   */
+  private void buildHierarchy() {
+    addEdge(1L, 2L);
+    addEdge(2L, 3L);
+    addEdge(1L, 4L);
+    addEdge(6L, 7L);
+    addEdge(5L, 6L);
+    addEdge(3L, 5L);
+  }
+
+  @Test
+  void testAddedSubtreeGetsEveryAncestor() {
+    buildHierarchy();
+
+    assertEquals(List.of(6L, 5L, 3L, 2L, 1L),
+        employeeHierarchyClosureRepository.findAncestorIds(7L));
+    assertEquals(6, employeeHierarchyClosureRepository.countByAncestorId(1L));
+    assertEquals(0, employeeHierarchyClosureRepository.countByAncestorId(4L));
+    assertTrue(employeeHierarchyClosureRepository.existsByAncestorIdAndDescendantId(2L, 7L));
+    assertFalse(employeeHierarchyClosureRepository.existsByAncestorIdAndDescendantId(4L, 7L));
+    assertFalse(employeeHierarchyClosureRepository.existsByAncestorIdAndDescendantId(7L, 2L));
+  }
+
+  @Test
+  void testRemovedEdgeDetachesSubtree() {
+    buildHierarchy();
+
+    removeEdge(3L, 5L);
+
+    assertEquals(List.of(6L, 5L), employeeHierarchyClosureRepository.findAncestorIds(7L));
+    assertEquals(List.of(2L, 1L), employeeHierarchyClosureRepository.findAncestorIds(3L));
+    assertEquals(3, employeeHierarchyClosureRepository.countByAncestorId(1L));
+    assertEquals(2, employeeHierarchyClosureRepository.countByAncestorId(5L));
+    assertEquals(List.of(5L), employeeHierarchyClosureRepository.findAncestorIds(6L));
+  }
+
+  @Test
+  void testInsertIfAbsentKeepsOneSupervisor() {
+    assertEquals(1, employeeHierarchyRepository.insertIfAbsent(1L, 2L));
+    assertEquals(0, employeeHierarchyRepository.insertIfAbsent(3L, 2L));
+
+    assertEquals(1, employeeHierarchyRepository.findByFromEmployeeId(1L).size());
+    assertEquals(1, employeeHierarchyRepository.count());
+  }
+}
@@ -0,0 +1,85 @@
+package com.nullterminators.project.integration.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.when;
+
+import com.nullterminators.project.model.Company;
+import com.nullterminators.project.repository.CompanyRepository;
+import com.nullterminators.project.repository.EmployeeHierarchyClosureRepository;
+import com.nullterminators.project.service.CompanyEmployeesService;
+import com.nullterminators.project.service.CompanyService;
+import com.nullterminators.project.service.EmployeeHierarchyService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Internal integration tests for concurrent changes to the employee hierarchy, run against an
+ * in-memory database in PostgreSQL mode. Every change commits on its own, so the changes run
+ * outside a test transaction.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:employeehierarchyconcurrency;MODE=PostgreSQL;"
+        + "DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(EmployeeHierarchyService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeHierarchyConcurrencyInternalIntegrationTests {
+
+  @Autowired private EmployeeHierarchyService employeeHierarchyService;
+
+  @Autowired private EmployeeHierarchyClosureRepository employeeHierarchyClosureRepository;
+
+  @Autowired private CompanyRepository companyRepository;
+
+  @MockBean private CompanyService companyService;
+
+  @MockBean private CompanyEmployeesService companyEmployeesService;
+
+  @Test
+  void testOppositeAddsDoNotCloseCycle() throws Exception {
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    Company company = new Company();
+    company.setUsername("testCompany");
+    companyRepository.save(company);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (long first = 1; first < 40; first += 2) {
+        final long second = first + 1;
+        final long supervisorId = first;
+        CountDownLatch start = new CountDownLatch(1);
+        Future<Boolean> down = executor.submit(() -> {
+          start.await();
+          return employeeHierarchyService.addEmployeeSupervisorEdge(supervisorId, second);
+        });
+        Future<Boolean> up = executor.submit(() -> {
+          start.await();
+          return employeeHierarchyService.addEmployeeSupervisorEdge(second, supervisorId);
+        });
+        start.countDown();
+
+        assertEquals(1, (down.get() ? 1 : 0) + (up.get() ? 1 : 0));
+        assertFalse(employeeHierarchyClosureRepository
+            .existsByAncestorIdAndDescendantId(first, second)
+            && employeeHierarchyClosureRepository
+            .existsByAncestorIdAndDescendantId(second, first));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
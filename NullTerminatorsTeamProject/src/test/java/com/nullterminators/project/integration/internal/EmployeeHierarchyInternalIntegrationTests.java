@@ -8,8 +8,11 @@ import com.nullterminators.project.controller.EmployeeHierarchyController;
 import com.nullterminators.project.model.CompanyEmployees;
 import com.nullterminators.project.model.EmployeeHierarchy;
 import com.nullterminators.project.repository.CompanyEmployeesRepository;
+import com.nullterminators.project.repository.CompanyRepository;
+import com.nullterminators.project.repository.EmployeeHierarchyClosureRepository;
 import com.nullterminators.project.repository.EmployeeHierarchyRepository;
 import com.nullterminators.project.service.CompanyService;
+import com.nullterminators.project.service.EmployeeHierarchyService;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +24,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Integration tests for {@link EmployeeHierarchyController} to verify that it correctly integrates
@@ -32,8 +36,13 @@ class EmployeeHierarchyInternalIntegrationTests {
   @Autowired private EmployeeHierarchyController employeeHierarchyController;
 
   @MockBean private EmployeeHierarchyRepository employeeHierarchyRepository;
+  @MockBean private EmployeeHierarchyClosureRepository employeeHierarchyClosureRepository;
   @MockBean private CompanyEmployeesRepository companyEmployeesRepository;
+  @MockBean private CompanyRepository companyRepository;
+  // Every repository is mocked, so edge changes must not open a transaction on the database.
+  @MockBean private PlatformTransactionManager transactionManager;
   @Autowired private CompanyService companyService;
+  @Autowired private EmployeeHierarchyService employeeHierarchyService;
 
   @BeforeEach
   void setUp() {
@@ -57,9 +66,7 @@ class EmployeeHierarchyInternalIntegrationTests {
     when(companyEmployeesRepository.findAllByCompanyUsernameAndEmployeeId("testCompany", 999))
         .thenReturn(Collections.emptyList());
 
-    when(employeeHierarchyRepository.existsByEmployeeId(1L)).thenReturn(true);
-    when(employeeHierarchyRepository.existsByEmployeeId(2L)).thenReturn(true);
-    when(employeeHierarchyRepository.existsByEmployeeId(999L)).thenReturn(false);
+    employeeHierarchyService.invalidateOrgChart("testCompany");
   }
 
   @Test
@@ -84,9 +91,9 @@ class EmployeeHierarchyInternalIntegrationTests {
     Long supervisorId = 1L;
     Long employeeId = 2L;
 
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId)).thenReturn(null);
-    when(employeeHierarchyRepository.findSubtreeByEmployeeId(supervisorId))
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
         .thenReturn(Collections.emptyList());
+    when(employeeHierarchyRepository.insertIfAbsent(supervisorId, employeeId)).thenReturn(1);
 
     ResponseEntity<?> response =
         employeeHierarchyController.addEmployeeSupervisorEdge(supervisorId, employeeId);
@@ -100,8 +107,7 @@ class EmployeeHierarchyInternalIntegrationTests {
     Long supervisorId = 1L;
     Long employeeId = 2L;
 
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(supervisorId)).thenReturn(null);
-    when(employeeHierarchyRepository.findSubtreeByEmployeeId(employeeId))
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
         .thenReturn(List.of(new EmployeeHierarchy(2L, 1L))); // Simulate a cycle
 
     ResponseEntity<?> response =
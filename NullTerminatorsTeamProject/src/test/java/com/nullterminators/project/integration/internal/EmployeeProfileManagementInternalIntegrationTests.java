@@ -60,7 +60,8 @@ public class EmployeeProfileManagementInternalIntegrationTests {
     mockProfile.setBaseSalary(233445);
     when(companyEmployeesRepository.findAllByCompanyUsername("testCompany"))
         .thenReturn(List.of(mockEmployee));
-    when(employeeProfileRepository.findAll()).thenReturn(List.of(mockProfile));
+    when(employeeProfileRepository.findAllByCompanyUsername("testCompany"))
+        .thenReturn(List.of(mockProfile));
     when(employeeProfileRepository.findById(1)).thenReturn(Optional.of(mockProfile));
     when(companyEmployeesRepository.findAllByCompanyUsernameAndEmployeeId(
         "testCompany", 1)).thenReturn(List.of(mockEmployee));
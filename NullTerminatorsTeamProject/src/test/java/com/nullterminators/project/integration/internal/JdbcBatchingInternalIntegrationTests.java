@@ -0,0 +1,123 @@
+package com.nullterminators.project.integration.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nullterminators.project.enums.PayslipStatus;
+import com.nullterminators.project.model.CompanyEmployees;
+import com.nullterminators.project.model.EmployeeProfile;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.repository.CompanyEmployeesRepository;
+import com.nullterminators.project.repository.EmployeeProfileRepository;
+import com.nullterminators.project.repository.PayrollRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * Internal integration tests for JDBC batching, run against an in-memory database. They count
+ * the statements Hibernate actually prepares for bulk saves: with pooled id sequences and a
+ * batch size of 50, inserting n rows costs about n / 50 insert statements and sequence calls
+ * instead of n of each.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class JdbcBatchingInternalIntegrationTests {
+
+  private static final int ROWS = 120;
+
+  /** Batches needed for {@link #ROWS} rows with a batch size of 50. */
+  private static final int BATCHES = 3;
+
+  @Autowired private PayrollRepository payrollRepository;
+
+  @Autowired private EmployeeProfileRepository employeeProfileRepository;
+
+  @Autowired private CompanyEmployeesRepository companyEmployeesRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void testPayrollInsertsAreBatched() {
+    List<Payroll> payrolls = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      Payroll payroll = new Payroll();
+      payroll.setEmployeeId(i);
+      payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
+      payroll.setSalary(10000);
+      payroll.setTax(3000);
+      payroll.setPaid(1);
+      payroll.setPayslip("url");
+      payroll.setPayslipStatus(PayslipStatus.GENERATED);
+      payrolls.add(payroll);
+    }
+    payrollRepository.saveAll(payrolls);
+    entityManager.flush();
+
+    assertEquals(ROWS, statistics.getEntityInsertCount());
+    assertStatementsBatched(1);
+  }
+
+  @Test
+  void testEmployeeInsertsAreBatched() {
+    List<EmployeeProfile> employees = new ArrayList<>();
+    List<CompanyEmployees> companyEmployees = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      EmployeeProfile employee = new EmployeeProfile();
+      employee.setName("employee" + i);
+      employee.setPhoneNumber("1234567890");
+      employee.setGender("female");
+      employee.setAge(30);
+      employee.setStartDate(LocalDate.of(2024, 1, 1));
+      employee.setDesignation("engineer");
+      employee.setBaseSalary(10000);
+      employee.setEmail("employee" + i + "@example.com");
+      employee.setEmergencyContactNumber("1234567890");
+      employees.add(employee);
+    }
+    employeeProfileRepository.saveAll(employees);
+    for (EmployeeProfile employee : employees) {
+      CompanyEmployees companyEmployee = new CompanyEmployees();
+      companyEmployee.setCompanyUsername("testCompany");
+      companyEmployee.setEmployeeId(employee.getId());
+      companyEmployees.add(companyEmployee);
+    }
+    companyEmployeesRepository.saveAll(companyEmployees);
+    entityManager.flush();
+
+    assertEquals(2L * ROWS, statistics.getEntityInsertCount());
+    assertStatementsBatched(2);
+  }
+
+  /**
+   * Per table, one statement per insert batch plus one sequence call per block of 50 ids, and
+   * one extra sequence call when the pooled optimizer initialises.
+   *
+   * @param tables number of tables written to
+   */
+  private void assertStatementsBatched(int tables) {
+    assertTrue(statistics.getPrepareStatementCount() <= tables * 2L * (BATCHES + 1),
+        "expected batched inserts, got " + statistics.getPrepareStatementCount()
+            + " statements");
+  }
+}
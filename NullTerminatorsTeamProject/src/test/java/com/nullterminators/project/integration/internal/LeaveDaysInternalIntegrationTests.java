@@ -0,0 +1,87 @@
+package com.nullterminators.project.integration.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nullterminators.project.enums.LeaveStatus;
+import com.nullterminators.project.enums.LeaveType;
+import com.nullterminators.project.model.CompanyEmployees;
+import com.nullterminators.project.model.TimeOff;
+import com.nullterminators.project.repository.CompanyEmployeesRepository;
+import com.nullterminators.project.repository.TimeOffRepository;
+import com.nullterminators.project.service.TimeOffService;
+import java.time.LocalDate;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Internal integration tests for the approved leave days counted on payslips, run against an
+ * in-memory database.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(TimeOffService.class)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class LeaveDaysInternalIntegrationTests {
+
+  private static final LocalDate START = LocalDate.of(2024, 10, 1);
+
+  private static final LocalDate END = LocalDate.of(2024, 10, 31);
+
+  @Autowired private TimeOffService timeOffService;
+
+  @Autowired private TimeOffRepository timeOffRepository;
+
+  @Autowired private CompanyEmployeesRepository companyEmployeesRepository;
+
+  @BeforeEach
+  void setUp() {
+    addEmployee("testCompany", 10);
+    addEmployee("testCompany", 20);
+    addEmployee("otherCompany", 30);
+
+    addTimeOff(10, LocalDate.of(2024, 10, 7), LocalDate.of(2024, 10, 9), LeaveStatus.APPROVED);
+    addTimeOff(10, LocalDate.of(2024, 9, 29), LocalDate.of(2024, 10, 2), LeaveStatus.APPROVED);
+    addTimeOff(10, LocalDate.of(2024, 10, 30), LocalDate.of(2024, 11, 4), LeaveStatus.APPROVED);
+    addTimeOff(10, LocalDate.of(2024, 10, 14), LocalDate.of(2024, 10, 18), LeaveStatus.PENDING);
+    addTimeOff(20, LocalDate.of(2024, 10, 21), LocalDate.of(2024, 10, 21), LeaveStatus.APPROVED);
+    addTimeOff(20, LocalDate.of(2024, 9, 2), LocalDate.of(2024, 9, 6), LeaveStatus.APPROVED);
+    addTimeOff(30, LocalDate.of(2024, 10, 7), LocalDate.of(2024, 10, 8), LeaveStatus.APPROVED);
+  }
+
+  private void addEmployee(String companyUsername, Integer employeeId) {
+    CompanyEmployees companyEmployee = new CompanyEmployees();
+    companyEmployee.setCompanyUsername(companyUsername);
+    companyEmployee.setEmployeeId(employeeId);
+    companyEmployeesRepository.save(companyEmployee);
+  }
+
+  private void addTimeOff(Integer employeeId, LocalDate startDate, LocalDate endDate,
+                          LeaveStatus status) {
+    TimeOff timeOff = new TimeOff();
+    timeOff.setEmployeeId(employeeId);
+    timeOff.setLeaveType(LeaveType.CASUAL);
+    timeOff.setStartDate(startDate);
+    timeOff.setEndDate(endDate);
+    timeOff.setReason("reason");
+    timeOff.setStatus(status);
+    timeOffRepository.save(timeOff);
+  }
+
+  @Test
+  void testLeaveDaysOfCompanyAreClippedToRange() {
+    assertEquals(Map.of(10, 7, 20, 1),
+        timeOffService.getLeaveDaysByCompanyWithDateRange("testCompany", START, END));
+  }
+
+  @Test
+  void testLeaveDaysOfEmployee() {
+    assertEquals(7, timeOffService.getLeaveDaysByEmployeeIdWithDateRange(10, START, END));
+    assertEquals(0, timeOffService.getLeaveDaysByEmployeeIdWithDateRange(20,
+        LocalDate.of(2024, 11, 1), LocalDate.of(2024, 11, 30)));
+  }
+}
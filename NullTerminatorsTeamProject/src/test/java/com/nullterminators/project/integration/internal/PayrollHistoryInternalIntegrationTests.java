@@ -0,0 +1,69 @@
+package com.nullterminators.project.integration.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nullterminators.project.enums.PayslipStatus;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollHistoryEntry;
+import com.nullterminators.project.repository.PayrollRepository;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Internal integration tests for the keyset pagination of the payroll history, run against an
+ * in-memory database.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class PayrollHistoryInternalIntegrationTests {
+
+  @Autowired private PayrollRepository payrollRepository;
+
+  @BeforeEach
+  void setUp() {
+    for (int month = 1; month <= 5; month++) {
+      payrollRepository.save(payroll(1, LocalDate.of(2024, month, 17)));
+    }
+    payrollRepository.save(payroll(2, LocalDate.of(2024, 3, 17)));
+  }
+
+  private Payroll payroll(Integer employeeId, LocalDate paymentDate) {
+    Payroll payroll = new Payroll();
+    payroll.setEmployeeId(employeeId);
+    payroll.setPaymentDate(paymentDate);
+    payroll.setSalary(10000);
+    payroll.setTax(3000);
+    payroll.setPaid(1);
+    payroll.setPayslip("url");
+    payroll.setPayslipStatus(PayslipStatus.GENERATED);
+    return payroll;
+  }
+
+  @Test
+  void testFirstPageIsNewestFirst() {
+    List<PayrollHistoryEntry> page = payrollRepository.findHistoryByEmployeeId(1,
+        PageRequest.ofSize(2));
+    assertEquals(List.of(
+        new PayrollHistoryEntry(1, LocalDate.of(2024, 5, 17), 10000, 3000, 7000, "url",
+            PayslipStatus.GENERATED),
+        new PayrollHistoryEntry(1, LocalDate.of(2024, 4, 17), 10000, 3000, 7000, "url",
+            PayslipStatus.GENERATED)), page);
+  }
+
+  @Test
+  void testNextPagesStartBeforeLastDate() {
+    List<PayrollHistoryEntry> page = payrollRepository.findHistoryByEmployeeIdBefore(1,
+        LocalDate.of(2024, 4, 17), PageRequest.ofSize(2));
+    assertEquals(List.of(LocalDate.of(2024, 3, 17), LocalDate.of(2024, 2, 17)),
+        page.stream().map(PayrollHistoryEntry::date).toList());
+
+    page = payrollRepository.findHistoryByEmployeeIdBefore(1, LocalDate.of(2024, 2, 17),
+        PageRequest.ofSize(2));
+    assertEquals(List.of(LocalDate.of(2024, 1, 17)),
+        page.stream().map(PayrollHistoryEntry::date).toList());
+  }
+}
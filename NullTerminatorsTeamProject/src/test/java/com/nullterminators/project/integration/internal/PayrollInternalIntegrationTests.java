@@ -6,12 +6,17 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.nullterminators.project.controller.PayrollController;
+import com.nullterminators.project.enums.PayslipStatus;
 import com.nullterminators.project.model.CompanyEmployees;
 import com.nullterminators.project.model.EmployeeProfile;
 import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollHistoryEntry;
 import com.nullterminators.project.repository.CompanyEmployeesRepository;
+import com.nullterminators.project.repository.CompanyRepository;
 import com.nullterminators.project.repository.EmployeeProfileRepository;
 import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.service.PayrollRunService;
+import com.nullterminators.project.service.PayrollSummaryService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -21,10 +26,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 /** Internal integration tests for payroll module. */
 @SpringBootTest
@@ -39,6 +46,19 @@ public class PayrollInternalIntegrationTests {
   @MockBean
   private CompanyEmployeesRepository companyEmployeesRepository;
 
+  @MockBean
+  private PayrollRunService payrollRunService;
+
+  @MockBean
+  private PayrollSummaryService payrollSummaryService;
+
+  @MockBean
+  private CompanyRepository companyRepository;
+
+  // Every repository is mocked, so payroll updates must not open a transaction on the database.
+  @MockBean
+  private PlatformTransactionManager transactionManager;
+
   @Autowired
   private PayrollController payrollController;
 
@@ -69,33 +89,37 @@ public class PayrollInternalIntegrationTests {
     mockProfile.setBaseSalary(233445);
 
     Payroll payroll = new Payroll();
+    payroll.setId(1);
     payroll.setEmployeeId(1);
     payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
     payroll.setSalary(10000);
     payroll.setTax(3000);
     payroll.setPaid(0);
     payroll.setPayslip("N/A");
+    payroll.setPayslipStatus(PayslipStatus.GENERATED);
 
     when(companyEmployeesRepository.findAllByCompanyUsernameAndEmployeeId("testCompany", 1))
         .thenReturn(List.of(mockEmployee));
     when(companyEmployeesRepository.findAllByCompanyUsername("testCompany"))
         .thenReturn(List.of(mockEmployee));
     when(employeeProfileRepository.findById(1)).thenReturn(Optional.of(mockProfile));
-    when(payrollRepository.findAllByEmployeeIdOrderByPaymentDateDesc(1)).thenReturn(
-        List.of(payroll));
+    when(payrollRepository.findHistoryByEmployeeId(1, PageRequest.ofSize(24))).thenReturn(
+        List.of(new PayrollHistoryEntry(1, LocalDate.of(2024, 10, 17), 10000, 3000, 7000, "N/A",
+            PayslipStatus.GENERATED)));
     when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(1, 10, 2024))
         .thenReturn(payroll);
+    when(payrollRepository.findForUpdateByEmployeeIdAndPayPeriod(1, LocalDate.of(2024, 10, 1)))
+        .thenReturn(payroll);
+    when(payrollRepository.updatePaid(1, 1)).thenReturn(1);
   }
 
 
   @Test
   void testGetPayrollByEmployeeIdSuccess() {
-    Map<String, Object> payrollInfo = Map.of("employeeId", 1, "date",
-        LocalDate.of(2024, 10, 17),
-        "salary", 10000, "tax", 3000,
-        "payslip", "N/A", "netSalary", 7000);
+    PayrollHistoryEntry payrollInfo = new PayrollHistoryEntry(1, LocalDate.of(2024, 10, 17),
+        10000, 3000, 7000, "N/A", PayslipStatus.GENERATED);
 
-    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1);
+    ResponseEntity<?> result = payrollController.getPayrollByEmployeeId(1, null, 24);
     assertEquals(List.of(payrollInfo), result.getBody());
     assertEquals(HttpStatus.OK, result.getStatusCode());
   }
@@ -106,7 +130,7 @@ public class PayrollInternalIntegrationTests {
     ResponseEntity<?> result = payrollController.markAsPaid(1, updates);
     assertEquals(Map.of("response", "Attribute was updated successfully"), result.getBody());
     assertEquals(HttpStatus.OK, result.getStatusCode());
-    verify(payrollRepository).save(any(Payroll.class));
+    verify(payrollRepository).updatePaid(1, 1);
   }
 
   @Test
@@ -157,10 +181,11 @@ public class PayrollInternalIntegrationTests {
   void testDeletePayroll() {
     Map<String, Object> updates = Map.of("month", 10, "year", 2024);
     Map<String, Object> answer = Map.of("response",
-            "Payroll for this month and year has been deleted");
+            "Payroll for this month and year has been deleted", "deletedCount", 1);
+    when(payrollRunService.deletePayrolls("testCompany", LocalDate.of(2024, 10, 1), null))
+            .thenReturn(1);
     ResponseEntity<?> result = payrollController.deletePayroll(updates);
     assertEquals(answer, result.getBody());
     assertEquals(HttpStatus.OK, result.getStatusCode());
-    verify(payrollRepository).delete(any(Payroll.class));
   }
 }
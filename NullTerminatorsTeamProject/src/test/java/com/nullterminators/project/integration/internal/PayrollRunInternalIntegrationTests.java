@@ -0,0 +1,225 @@
+package com.nullterminators.project.integration.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.nullterminators.project.enums.PayrollRunItemStatus;
+import com.nullterminators.project.enums.PayrollRunStatus;
+import com.nullterminators.project.enums.PayrollStatus;
+import com.nullterminators.project.enums.PayslipStatus;
+import com.nullterminators.project.model.CompanyEmployees;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollRun;
+import com.nullterminators.project.repository.CompanyEmployeesRepository;
+import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.repository.PayrollRunItemRepository;
+import com.nullterminators.project.repository.PayrollRunRepository;
+import com.nullterminators.project.service.CompanyService;
+import com.nullterminators.project.service.PayrollRunService;
+import com.nullterminators.project.service.PayrollSummaryService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Internal integration tests for persisted payroll runs and the company-wide bulk updates of
+ * payroll entries, run against an in-memory database in PostgreSQL mode so that the native
+ * ON CONFLICT inserts run unchanged.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:payrollrun;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import({PayrollRunService.class, PayrollSummaryService.class})
+public class PayrollRunInternalIntegrationTests {
+
+  private static final LocalDate PAY_PERIOD = LocalDate.of(2024, 10, 1);
+
+  @Autowired private PayrollRunService payrollRunService;
+
+  @Autowired private PayrollRepository payrollRepository;
+
+  @Autowired private PayrollRunRepository payrollRunRepository;
+
+  @Autowired private PayrollRunItemRepository payrollRunItemRepository;
+
+  @Autowired private CompanyEmployeesRepository companyEmployeesRepository;
+
+  @Autowired private PayrollSummaryService payrollSummaryService;
+
+  @MockBean private CompanyService companyService;
+
+  @BeforeEach
+  void setUp() {
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    for (Integer employeeId : List.of(30, 10, 20)) {
+      addEmployee("testCompany", employeeId);
+    }
+    addEmployee("otherCompany", 40);
+  }
+
+  private void addEmployee(String companyUsername, Integer employeeId) {
+    CompanyEmployees companyEmployee = new CompanyEmployees();
+    companyEmployee.setCompanyUsername(companyUsername);
+    companyEmployee.setEmployeeId(employeeId);
+    companyEmployeesRepository.save(companyEmployee);
+  }
+
+  private Payroll payroll(Integer employeeId) {
+    Payroll payroll = new Payroll();
+    payroll.setEmployeeId(employeeId);
+    payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
+    payroll.setSalary(10000);
+    payroll.setTax(3000);
+    payroll.setPaid(0);
+    payroll.setPayslip("url");
+    payroll.setPayslipStatus(PayslipStatus.GENERATED);
+    return payroll;
+  }
+
+  @Test
+  void testStartRunAddsCompanyEmployeesInOrder() {
+    PayrollRun run = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    assertEquals(PayrollRunStatus.RUNNING, run.getStatus());
+    assertEquals(List.of(30, 10, 20), payrollRunService.getRemainingEmployeeIds(run));
+  }
+
+  @Test
+  void testStartRunTwiceSharesRun() {
+    PayrollRun run = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    PayrollRun again = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    assertEquals(run.getId(), again.getId());
+    assertEquals(PayrollRunStatus.RUNNING, again.getStatus());
+    assertEquals(List.of(30, 10, 20), payrollRunService.getRemainingEmployeeIds(again));
+  }
+
+  @Test
+  void testInsertRunAndItemsSkipsExistingRows() {
+    assertTrue(payrollRunRepository.insertIfAbsent("testCompany", PAY_PERIOD,
+        PayrollRunStatus.RUNNING));
+    assertFalse(payrollRunRepository.insertIfAbsent("testCompany", PAY_PERIOD,
+        PayrollRunStatus.RUNNING));
+    PayrollRun run = payrollRunRepository.findByCompanyUsernameAndPayPeriod("testCompany",
+        PAY_PERIOD).orElseThrow();
+
+    payrollRunItemRepository.insertIfAbsent(run.getId(), List.of(30, 10),
+        PayrollRunItemStatus.PENDING);
+    payrollRunItemRepository.insertIfAbsent(run.getId(), List.of(10, 20),
+        PayrollRunItemStatus.PENDING);
+    assertEquals(List.of(30, 10, 20), payrollRunService.getRemainingEmployeeIds(run));
+  }
+
+  @Test
+  void testResumedRunSkipsProcessedEmployees() {
+    PayrollRun run = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    payrollRunService.checkpoint(run, List.of(payroll(30)), List.of(30));
+    payrollRunService.markFailed(run, List.of(10));
+    Map<PayrollRunItemStatus, Long> counts = payrollRunService.finishRun(run);
+    assertEquals(Map.of(PayrollRunItemStatus.PROCESSED, 1L, PayrollRunItemStatus.FAILED, 1L,
+        PayrollRunItemStatus.PENDING, 1L), counts);
+    assertEquals(PayrollRunStatus.INCOMPLETE, run.getStatus());
+
+    addEmployee("testCompany", 50);
+    PayrollRun resumed = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    assertEquals(run.getId(), resumed.getId());
+    assertEquals(List.of(10, 20, 50), payrollRunService.getRemainingEmployeeIds(resumed));
+    assertEquals(List.of(30), payrollRepository.findEmployeeIdsByCompanyUsernameAndPayPeriod(
+        "testCompany", PAY_PERIOD));
+  }
+
+  @Test
+  void testFinishRunCompletesRun() {
+    PayrollRun run = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    payrollRunService.checkpoint(run, List.of(payroll(30), payroll(10), payroll(20)),
+        List.of(30, 10, 20));
+    payrollRunService.finishRun(run);
+    assertEquals(List.of(), payrollRunService.getRemainingEmployeeIds(run));
+
+    Map<String, Object> progress = payrollRunService.getRunStatus(run.getId()).getSecond();
+    assertEquals(PayrollRunStatus.COMPLETED, progress.get("status"));
+    assertEquals(3L, progress.get("processed"));
+    assertEquals(0L, progress.get("failed"));
+    assertEquals(0L, progress.get("pending"));
+  }
+
+  @Test
+  void testCheckpointRejectsSecondPayrollOfPayPeriod() {
+    PayrollRun run = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    payrollRepository.saveAndFlush(payroll(10));
+    assertThrows(DataIntegrityViolationException.class,
+        () -> payrollRunService.checkpoint(run, List.of(payroll(30), payroll(10)),
+            List.of(30, 10)));
+  }
+
+  @Test
+  void testGetRunStatusOfOtherCompany() {
+    PayrollRun run = payrollRunService.startRun("otherCompany", PAY_PERIOD);
+    assertEquals(PayrollStatus.NOT_FOUND, payrollRunService.getRunStatus(run.getId()).getFirst());
+  }
+
+  @Test
+  void testDeletePayrollsIsScopedToCompanyAndReopensRun() {
+    PayrollRun run = payrollRunService.startRun("testCompany", PAY_PERIOD);
+    payrollRunService.checkpoint(run, List.of(payroll(30), payroll(10), payroll(20)),
+        List.of(30, 10, 20));
+    payrollRepository.save(payroll(40));
+    payrollRunService.finishRun(run);
+
+    assertEquals(1, payrollRunService.deletePayrolls("testCompany", PAY_PERIOD, List.of(10, 40)));
+    assertEquals(List.of(10), payrollRunService.getRemainingEmployeeIds(run));
+    assertEquals(20000L, payrollSummaryService.getSummaries(PAY_PERIOD, PAY_PERIOD).get(0)
+        .get("grossSalary"));
+    assertEquals(2, payrollRunService.deletePayrolls("testCompany", PAY_PERIOD, null));
+    assertEquals(List.of(30, 10, 20), payrollRunService.getRemainingEmployeeIds(run));
+    assertEquals(List.of(), payrollSummaryService.getSummaries(PAY_PERIOD, PAY_PERIOD));
+    assertEquals(List.of(40), payrollRepository.findEmployeeIdsByCompanyUsernameAndPayPeriod(
+        "otherCompany", PAY_PERIOD));
+  }
+
+  @Test
+  void testUpdatePaidCountsChangedEntries() {
+    Payroll paid = payroll(30);
+    paid.setPaid(1);
+    payrollRepository.saveAll(List.of(paid, payroll(10), payroll(20), payroll(40)));
+
+    assertEquals(1, payrollRepository.updatePaidByCompanyUsernameAndPayPeriodAndEmployeeIds(
+        "testCompany", PAY_PERIOD, 1, List.of(10, 40)));
+    assertEquals(1, payrollRepository.updatePaidByCompanyUsernameAndPayPeriod("testCompany",
+        PAY_PERIOD, 1));
+    assertEquals(0, payrollRepository.updatePaidByCompanyUsernameAndPayPeriod("testCompany",
+        PAY_PERIOD, 1));
+    assertEquals(3, payrollRepository.updatePaidByCompanyUsernameAndPayPeriod("testCompany",
+        PAY_PERIOD, 0));
+  }
+
+  @Test
+  void testUpdatePaidChangesEntryOnce() {
+    Payroll entry = payrollRepository.saveAndFlush(payroll(30));
+    assertEquals(entry, payrollRepository.findForUpdateByEmployeeIdAndPayPeriod(30, PAY_PERIOD));
+    assertEquals(1, payrollRepository.updatePaid(entry.getId(), 1));
+    assertEquals(0, payrollRepository.updatePaid(entry.getId(), 1));
+    assertEquals(1, payrollRepository.findById(entry.getId()).orElseThrow().getPaid());
+  }
+
+  @Test
+  void testInsertIfAbsentTakesIdsFromPooledRange() {
+    Integer first = payrollRepository.saveAndFlush(payroll(30)).getId();
+    assertEquals(first + 1, payrollRepository.insertIfAbsent(payroll(10)));
+    assertNull(payrollRepository.insertIfAbsent(payroll(10)));
+    assertEquals(first + 3, payrollRepository.saveAndFlush(payroll(20)).getId());
+  }
+}
@@ -0,0 +1,130 @@
+package com.nullterminators.project.integration.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.when;
+
+import com.nullterminators.project.enums.PayslipStatus;
+import com.nullterminators.project.model.CompanyEmployees;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.repository.CompanyEmployeesRepository;
+import com.nullterminators.project.repository.PayrollPeriodSummaryRepository;
+import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.service.CompanyService;
+import com.nullterminators.project.service.PayrollSummaryService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Internal integration tests for the payroll totals kept per pay period, run against an
+ * in-memory database in PostgreSQL mode so that the native ON CONFLICT inserts run unchanged.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:payrollsummary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import(PayrollSummaryService.class)
+public class PayrollSummaryInternalIntegrationTests {
+
+  private static final LocalDate PAY_PERIOD = LocalDate.of(2024, 10, 1);
+
+  @Autowired private PayrollSummaryService payrollSummaryService;
+
+  @Autowired private PayrollRepository payrollRepository;
+
+  @Autowired private PayrollPeriodSummaryRepository payrollPeriodSummaryRepository;
+
+  @Autowired private CompanyEmployeesRepository companyEmployeesRepository;
+
+  @MockBean private CompanyService companyService;
+
+  @BeforeEach
+  void setUp() {
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    for (Integer employeeId : List.of(10, 20, 30)) {
+      CompanyEmployees companyEmployee = new CompanyEmployees();
+      companyEmployee.setCompanyUsername("testCompany");
+      companyEmployee.setEmployeeId(employeeId);
+      companyEmployeesRepository.save(companyEmployee);
+    }
+  }
+
+  private Payroll payroll(Integer employeeId, Integer salary, Integer paid) {
+    Payroll payroll = new Payroll();
+    payroll.setEmployeeId(employeeId);
+    payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
+    payroll.setSalary(salary);
+    payroll.setTax(salary * 3 / 10);
+    payroll.setPaid(paid);
+    payroll.setPayslip("url");
+    payroll.setPayslipStatus(PayslipStatus.GENERATED);
+    return payrollRepository.save(payroll);
+  }
+
+  private Map<String, Object> summary(long grossSalary, long tax, int paidCount,
+                                      int unpaidCount) {
+    return Map.of("month", 10, "year", 2024, "grossSalary", grossSalary, "tax", tax,
+        "netSalary", grossSalary - tax, "paidCount", paidCount, "unpaidCount", unpaidCount);
+  }
+
+  @Test
+  void testIncrementalUpdatesMatchRefresh() {
+    Payroll first = payroll(10, 10000, 1);
+    Payroll second = payroll(20, 20000, 1);
+    payrollSummaryService.addPayrolls("testCompany", List.of(first, second));
+
+    second.setPaid(0);
+    payrollRepository.save(second);
+    payrollSummaryService.changePaid("testCompany", second);
+    first.setSalary(12000);
+    first.setTax(3600);
+    payrollRepository.save(first);
+    payrollSummaryService.adjustSalary("testCompany", first, 10000, 3000);
+    Payroll third = payroll(30, 5000, 1);
+    payrollSummaryService.addPayrolls("testCompany", List.of(third));
+    payrollRepository.delete(third);
+    payrollSummaryService.removePayroll("testCompany", third);
+
+    assertEquals(List.of(summary(32000, 9600, 1, 1)),
+        payrollSummaryService.getSummaries(PAY_PERIOD, PAY_PERIOD));
+    payrollSummaryService.refresh("testCompany", PAY_PERIOD);
+    assertEquals(List.of(summary(32000, 9600, 1, 1)),
+        payrollSummaryService.getSummaries(PAY_PERIOD, PAY_PERIOD));
+  }
+
+  @Test
+  void testRefreshCreatesMissingSummary() {
+    payroll(10, 10000, 0);
+    payroll(20, 10000, 0);
+    payrollSummaryService.refresh("testCompany", PAY_PERIOD);
+    assertEquals(List.of(summary(20000, 6000, 0, 2)),
+        payrollSummaryService.getSummaries(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 1)));
+    assertEquals(List.of(), payrollSummaryService.getSummaries(LocalDate.of(2023, 1, 1),
+        LocalDate.of(2023, 12, 1)));
+  }
+
+  @Test
+  void testAddToSummaryCreatedConcurrently() {
+    final Payroll first = payroll(10, 10000, 1);
+    payrollPeriodSummaryRepository.insertIfAbsent("testCompany", PAY_PERIOD, 10000L, 3000L, 1,
+        0);
+    assertFalse(payrollPeriodSummaryRepository.insertIfAbsent("testCompany", PAY_PERIOD, 0L, 0L,
+        0, 0));
+    payrollSummaryService.addPayrolls("testCompany", List.of(payroll(20, 20000, 0)));
+    assertEquals(List.of(summary(30000, 9000, 1, 1)),
+        payrollSummaryService.getSummaries(PAY_PERIOD, PAY_PERIOD));
+    payrollSummaryService.removePayroll("testCompany", first);
+    assertEquals(List.of(summary(20000, 6000, 0, 1)),
+        payrollSummaryService.getSummaries(PAY_PERIOD, PAY_PERIOD));
+  }
+}
@@ -3,6 +3,7 @@ package com.nullterminators.project.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
@@ -12,7 +13,12 @@ import static org.mockito.Mockito.when;
 
 import com.nullterminators.project.model.EmployeeHierarchy;
 import com.nullterminators.project.model.EmployeeNode;
+import com.nullterminators.project.repository.CompanyRepository;
+import com.nullterminators.project.repository.EmployeeHierarchyClosureRepository;
 import com.nullterminators.project.repository.EmployeeHierarchyRepository;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -27,6 +33,12 @@ class EmployeeHierarchyServiceTests {
 
   @Mock private EmployeeHierarchyRepository employeeHierarchyRepository;
 
+  @Mock private EmployeeHierarchyClosureRepository employeeHierarchyClosureRepository;
+
+  @Mock private CompanyRepository companyRepository;
+
+  @Mock private CompanyService companyService;
+
   @InjectMocks private EmployeeHierarchyService employeeHierarchyService;
 
   /**
@@ -38,6 +50,7 @@ class EmployeeHierarchyServiceTests {
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this); // Initialize mocks
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
   }
 
   /**
@@ -97,7 +110,8 @@ class EmployeeHierarchyServiceTests {
             new EmployeeHierarchy(2L, 5L),
             new EmployeeHierarchy(3L, 6L));
 
-    when(employeeHierarchyRepository.findSubtreeByEmployeeId(1L)).thenReturn(mockSubordinates);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(mockSubordinates);
 
     EmployeeNode rootNode = employeeHierarchyService.buildEmployeeTree(1L);
 
@@ -130,26 +144,79 @@ class EmployeeHierarchyServiceTests {
    * Tests that {@link EmployeeHierarchyService#getSupervisor(Long)} returns the supervisor of the
    * given employee id.
    *
-   * <p>This test mocks the call to {@link EmployeeHierarchyRepository#findSupervisorByEmployeeId}
-   * to return the expected supervisor id. It then calls {@link
-   * EmployeeHierarchyService#getSupervisor(Long)} and asserts that the result is not null and
-   * matches the expected supervisor id. Finally, it verifies that the repository method was called
-   * with the given employee id.
+   * <p>This test mocks the hierarchy of the company to contain an edge from the expected
+   * supervisor to the employee. It then calls {@link
+   * EmployeeHierarchyService#getSupervisor(Long)} twice and asserts that the result is not null
+   * and matches the expected supervisor id. Finally, it verifies that the hierarchy was loaded
+   * once and the supervisor was not queried.
    */
   @Test
   void testGetSupervisor() {
     Long toEmployeeId = 2L;
     Long expectedSupervisorId = 1L;
 
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(toEmployeeId))
-        .thenReturn(expectedSupervisorId);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(List.of(new EmployeeHierarchy(expectedSupervisorId, toEmployeeId)));
 
     Long result = employeeHierarchyService.getSupervisor(toEmployeeId);
 
     assertNotNull(result);
     assertEquals(expectedSupervisorId, result);
+    assertEquals(expectedSupervisorId, employeeHierarchyService.getSupervisor(toEmployeeId));
+
+    verify(employeeHierarchyRepository, times(1)).findByCompanyUsername("testCompany");
+  }
 
-    verify(employeeHierarchyRepository, times(1)).findSupervisorByEmployeeId(toEmployeeId);
+  @Test
+  void testGetSubtree() {
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(List.of(new EmployeeHierarchy(1L, 2L), new EmployeeHierarchy(2L, 3L),
+            new EmployeeHierarchy(1L, 4L), new EmployeeHierarchy(5L, 6L)));
+
+    List<EmployeeHierarchy> subtree = employeeHierarchyService.getSubtree(1L);
+
+    assertEquals(3, subtree.size());
+    assertEquals(2L, subtree.get(0).getToEmployeeId());
+    assertEquals(4L, subtree.get(1).getToEmployeeId());
+    assertEquals(2L, subtree.get(2).getFromEmployeeId());
+    assertEquals(3L, subtree.get(2).getToEmployeeId());
+  }
+
+  @Test
+  void testWriteEmployeeTree() throws IOException {
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(List.of(new EmployeeHierarchy(1L, 2L), new EmployeeHierarchy(2L, 3L),
+            new EmployeeHierarchy(1L, 4L)));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    employeeHierarchyService.writeEmployeeTree(employeeHierarchyService.getOrgChart(), 1L, out);
+
+    assertEquals("{\"id\":1,\"children\":[{\"id\":2,\"children\":[{\"id\":3,\"children\":[]}]},"
+        + "{\"id\":4,\"children\":[]}]}", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testInvalidateOrgChartReloadsHierarchy() {
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(Collections.emptyList())
+        .thenReturn(List.of(new EmployeeHierarchy(1L, 2L)));
+
+    assertNull(employeeHierarchyService.getSupervisor(2L));
+    employeeHierarchyService.invalidateOrgChart("testCompany");
+    assertEquals(1L, employeeHierarchyService.getSupervisor(2L));
+  }
+
+  @Test
+  void testClosureQueries() {
+    when(employeeHierarchyClosureRepository.findAncestorIds(3L)).thenReturn(List.of(2L, 1L));
+    when(employeeHierarchyClosureRepository.countByAncestorId(1L)).thenReturn(2L);
+    when(employeeHierarchyClosureRepository.existsByAncestorIdAndDescendantId(1L, 3L))
+        .thenReturn(true);
+
+    assertEquals(List.of(2L, 1L), employeeHierarchyService.getAncestors(3L));
+    assertEquals(2L, employeeHierarchyService.getHeadcount(1L));
+    assertTrue(employeeHierarchyService.isUnder(3L, 1L));
+    assertFalse(employeeHierarchyService.isUnder(1L, 3L));
   }
 
   @Test
@@ -157,12 +224,14 @@ class EmployeeHierarchyServiceTests {
     Long supervisorId = 1L;
     Long employeeId = 2L;
 
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId)).thenReturn(3L);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(List.of(new EmployeeHierarchy(3L, employeeId)));
 
     boolean added = employeeHierarchyService.addEmployeeSupervisorEdge(supervisorId, employeeId);
 
     assertFalse(added); // Should reject adding the edge
-    verify(employeeHierarchyRepository, never()).save(any());
+    verify(employeeHierarchyRepository, never()).insertIfAbsent(any(), any());
+    verify(employeeHierarchyClosureRepository, never()).insertPaths(any(), any());
   }
 
   @Test
@@ -170,43 +239,69 @@ class EmployeeHierarchyServiceTests {
     Long supervisorId = 1L;
     Long employeeId = 2L;
 
-    when(employeeHierarchyRepository.existsByEmployeeId(supervisorId)).thenReturn(true);
-    when(employeeHierarchyRepository.existsByEmployeeId(employeeId)).thenReturn(true);
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId)).thenReturn(null);
-
-    List<EmployeeHierarchy> mockSubtree = Arrays.asList(new EmployeeHierarchy(1L, employeeId));
-    when(employeeHierarchyRepository.findSubtreeByEmployeeId(supervisorId)).thenReturn(mockSubtree);
+    List<EmployeeHierarchy> mockHierarchy = Arrays.asList(new EmployeeHierarchy(employeeId, 3L),
+        new EmployeeHierarchy(3L, supervisorId));
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(mockHierarchy);
 
     boolean added = employeeHierarchyService.addEmployeeSupervisorEdge(supervisorId, employeeId);
 
     assertFalse(added);
-    verify(employeeHierarchyRepository, never()).save(any());
+    verify(employeeHierarchyRepository, never()).insertIfAbsent(any(), any());
   }
 
   @Test
-  void testAddEdgeSuccess() {
+  void testAddEdgeCreatesCycleAddedConcurrently() {
     Long supervisorId = 1L;
     Long employeeId = 2L;
 
-    when(employeeHierarchyRepository.existsByEmployeeId(supervisorId)).thenReturn(true);
-    when(employeeHierarchyRepository.existsByEmployeeId(employeeId)).thenReturn(true);
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId)).thenReturn(null);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(Collections.emptyList());
+    when(employeeHierarchyClosureRepository.existsByAncestorIdAndDescendantId(employeeId,
+        supervisorId)).thenReturn(true);
+
+    assertFalse(employeeHierarchyService.addEmployeeSupervisorEdge(supervisorId, employeeId));
+    verify(employeeHierarchyRepository, never()).insertIfAbsent(any(), any());
+  }
+
+  @Test
+  void testAddEdgeSupervisorAddedConcurrently() {
+    Long supervisorId = 1L;
+    Long employeeId = 2L;
 
-    List<EmployeeHierarchy> mockSubtree = Collections.emptyList();
-    when(employeeHierarchyRepository.findSubtreeByEmployeeId(supervisorId)).thenReturn(mockSubtree);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(Collections.emptyList());
+    when(employeeHierarchyRepository.insertIfAbsent(supervisorId, employeeId)).thenReturn(0);
+
+    assertFalse(employeeHierarchyService.addEmployeeSupervisorEdge(supervisorId, employeeId));
+    verify(employeeHierarchyClosureRepository, never()).insertPaths(any(), any());
+    assertNull(employeeHierarchyService.getSupervisor(employeeId));
+  }
+
+  @Test
+  void testAddEdgeSuccess() {
+    Long supervisorId = 1L;
+    Long employeeId = 2L;
+
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(Collections.emptyList());
+    when(employeeHierarchyRepository.insertIfAbsent(supervisorId, employeeId)).thenReturn(1);
 
     boolean added = employeeHierarchyService.addEmployeeSupervisorEdge(supervisorId, employeeId);
 
     assertTrue(added);
-    verify(employeeHierarchyRepository, times(1)).save(any(EmployeeHierarchy.class));
+    verify(employeeHierarchyRepository, times(1)).insertIfAbsent(supervisorId, employeeId);
+    verify(employeeHierarchyClosureRepository, times(1)).insertPaths(supervisorId, employeeId);
+    assertEquals(supervisorId, employeeHierarchyService.getSupervisor(employeeId));
+    verify(employeeHierarchyRepository, times(1)).findByCompanyUsername("testCompany");
   }
 
   @Test
   void testRemoveEdgeNoSupervisorFound() {
     Long employeeId = 2L;
 
-    when(employeeHierarchyRepository.existsByEmployeeId(employeeId)).thenReturn(true);
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId)).thenReturn(null);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(Collections.emptyList());
 
     boolean removed = employeeHierarchyService.removeEmployeeSupervisorEdge(employeeId);
 
@@ -219,9 +314,8 @@ class EmployeeHierarchyServiceTests {
     Long employeeId = 2L;
     Long supervisorId = 1L;
 
-    when(employeeHierarchyRepository.existsByEmployeeId(employeeId)).thenReturn(true);
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId))
-        .thenReturn(supervisorId);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(List.of(new EmployeeHierarchy(supervisorId, employeeId)));
 
     when(employeeHierarchyRepository.findByFromEmployeeId(supervisorId))
         .thenReturn(Collections.emptyList());
@@ -237,9 +331,8 @@ class EmployeeHierarchyServiceTests {
     Long employeeId = 2L;
     Long supervisorId = 1L;
 
-    when(employeeHierarchyRepository.existsByEmployeeId(employeeId)).thenReturn(true);
-    when(employeeHierarchyRepository.findSupervisorByEmployeeId(employeeId))
-        .thenReturn(supervisorId);
+    when(employeeHierarchyRepository.findByCompanyUsername("testCompany"))
+        .thenReturn(List.of(new EmployeeHierarchy(supervisorId, employeeId)));
 
     List<EmployeeHierarchy> mockEdges =
         Arrays.asList(new EmployeeHierarchy(supervisorId, employeeId));
@@ -249,5 +342,7 @@ class EmployeeHierarchyServiceTests {
 
     assertTrue(removed);
     verify(employeeHierarchyRepository, times(1)).delete(any(EmployeeHierarchy.class));
+    verify(employeeHierarchyClosureRepository, times(1)).deletePaths(employeeId);
+    assertNull(employeeHierarchyService.getSupervisor(employeeId));
   }
 }
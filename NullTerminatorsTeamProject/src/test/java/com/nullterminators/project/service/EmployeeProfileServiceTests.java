@@ -36,6 +36,9 @@ public class EmployeeProfileServiceTests {
   @Mock
   private CompanyEmployeesService companyEmployeesService;
 
+  @Mock
+  private CompanyService companyService;
+
   @InjectMocks
   private EmployeeProfileService employeeProfileService;
 
@@ -149,8 +152,9 @@ public class EmployeeProfileServiceTests {
     allEmployees.add(employeeProfile1);
     allEmployees.add(employeeProfile2);
 
-    when(employeeProfileRepository.findAll()).thenReturn(allEmployees);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(List.of(1, 2));
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    when(employeeProfileRepository.findAllByCompanyUsername("testCompany"))
+        .thenReturn(allEmployees);
 
     List<EmployeeProfile> result = employeeProfileService.getAllEmployees();
     assertEquals(allEmployees, result);
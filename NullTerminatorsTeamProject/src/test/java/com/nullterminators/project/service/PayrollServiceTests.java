@@ -1,16 +1,33 @@
 package com.nullterminators.project.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.nullterminators.project.enums.PayrollStatus;
+import com.nullterminators.project.enums.PayslipStatus;
 import com.nullterminators.project.model.EmployeeProfile;
 import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.model.PayrollHistoryEntry;
+import com.nullterminators.project.model.PayrollRun;
 import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.util.pdf.PdfBuffer;
 import com.nullterminators.project.util.pdf.PdfGenerator;
 import com.nullterminators.project.util.pdf.PdfUploader;
+import com.nullterminators.project.util.storage.InMemoryBlobStore;
+import com.nullterminators.project.util.tax.FlatTaxEngine;
+import com.nullterminators.project.util.tax.TaxEngine;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -18,10 +35,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.util.Pair;
 import org.springframework.test.context.ContextConfiguration;
 
@@ -35,6 +58,9 @@ public class PayrollServiceTests {
   @Mock
   private CompanyEmployeesService companyEmployeesService;
 
+  @Mock
+  private CompanyService companyService;
+
   @Mock
   private PayrollRepository payrollRepository;
 
@@ -50,41 +76,119 @@ public class PayrollServiceTests {
   @Mock
   private PdfUploader pdfUploader;
 
+  @Mock
+  private PayslipPipeline payslipPipeline;
+
+  @Mock
+  private PayrollRunService payrollRunService;
+
+  @Mock
+  private PayrollSummaryService payrollSummaryService;
+
+  private final TaxEngine taxEngine = new FlatTaxEngine(3000);
+
+  private final ExecutorService payrollRunExecutor = Executors.newFixedThreadPool(4);
+
   private PayrollService payrollService;
 
   Payroll payroll;
 
+  PayrollRun run;
+
   @BeforeEach
   void setUp() {
     payrollService = new PayrollService(payrollRepository,
-            employeeProfileService, companyEmployeesService, timeOffService,
-            pdfGenerator, pdfUploader);
+            employeeProfileService, companyEmployeesService, companyService, timeOffService,
+            pdfGenerator, pdfUploader, payslipPipeline, payrollRunService, payrollSummaryService,
+            taxEngine, payrollRunExecutor, 50);
     payroll = new Payroll();
     payroll.setEmployeeId(1);
     payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
     payroll.setSalary(10000);
     payroll.setTax(3000);
     payroll.setPayslip("N/A");
+    payroll.setPayslipStatus(PayslipStatus.GENERATED);
+    run = new PayrollRun();
+    run.setId(7);
+  }
+
+  private List<Integer> mockRun(List<EmployeeProfile> employeeProfiles) {
+    List<Integer> employeeIds = new ArrayList<>();
+    for (EmployeeProfile employeeProfile : employeeProfiles) {
+      employeeIds.add(employeeProfile.getId());
+    }
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    when(payrollRunService.startRun("testCompany", LocalDate.of(2024, 10, 1))).thenReturn(run);
+    when(payrollRunService.getRemainingEmployeeIds(run)).thenReturn(employeeIds);
+    when(employeeProfileService.getEmployeeProfiles(employeeIds)).thenReturn(employeeProfiles);
+    PdfBuffer pdf = new PdfBuffer();
+    pdf.setContentHash("hash");
+    when(pdfGenerator.generatePdfReport(any(Payroll.class), any(EmployeeProfile.class),
+        any(Integer.class))).thenReturn(pdf);
+    return employeeIds;
+  }
+
+  @Test
+  void testGetPayrollSummaryInvalidMonth() {
+    assertEquals(Pair.of(PayrollStatus.INVALID_FORMAT, new ArrayList<>()),
+            payrollService.getPayrollSummary(13, 2024));
+    assertEquals(Pair.of(PayrollStatus.INVALID_DATA, new ArrayList<>()),
+            payrollService.getPayrollSummary(10, null));
+  }
+
+  @Test
+  void testGetPayrollSummaryOfMonth() {
+    List<Map<String, Object>> summaries = List.of(Map.of("month", 10, "year", 2024));
+    when(payrollSummaryService.getSummaries(LocalDate.of(2024, 10, 1),
+            LocalDate.of(2024, 10, 1))).thenReturn(summaries);
+    assertEquals(Pair.of(PayrollStatus.OK, summaries), payrollService.getPayrollSummary(10, 2024));
+  }
+
+  @Test
+  void testGetPayrollSummaryOfYear() {
+    List<Map<String, Object>> summaries = List.of(Map.of("month", 10, "year", 2024));
+    when(payrollSummaryService.getSummaries(LocalDate.of(2024, 1, 1),
+            LocalDate.of(2024, 12, 1))).thenReturn(summaries);
+    assertEquals(Pair.of(PayrollStatus.OK, summaries),
+            payrollService.getPayrollSummary(null, 2024));
   }
 
   @Test
   void testGetPayrollByEmployeeIdEmployeeNotFound() {
     when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(false);
     assertEquals(Pair.of(PayrollStatus.EMPLOYEE_NOT_FOUND, new ArrayList<>()),
-            payrollService.getPayrollByEmployeeId(1));
+            payrollService.getPayrollByEmployeeId(1, null, 24));
+  }
+
+  @Test
+  void testGetPayrollByEmployeeIdInvalidLimit() {
+    assertEquals(Pair.of(PayrollStatus.INVALID_DATA, new ArrayList<>()),
+            payrollService.getPayrollByEmployeeId(1, null, 0));
+    assertEquals(Pair.of(PayrollStatus.INVALID_DATA, new ArrayList<>()),
+            payrollService.getPayrollByEmployeeId(1, null,
+                    PayrollService.MAX_HISTORY_PAGE_SIZE + 1));
   }
 
   @Test
   void testGetPayrollByEmployeeIdSuccess() {
-    Map<String, Object> payrollInfo = Map.of("employeeId", 1, "date",
-            LocalDate.of(2024, 10, 17),
-            "salary", 10000, "tax", 3000,
-            "payslip", "N/A", "netSalary", 7000);
+    PayrollHistoryEntry entry = new PayrollHistoryEntry(1, LocalDate.of(2024, 10, 17), 10000,
+            3000, 7000, "N/A", PayslipStatus.GENERATED);
+    when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
+    when(payrollRepository.findHistoryByEmployeeId(1, PageRequest.ofSize(24)))
+            .thenReturn(List.of(entry));
+    assertEquals(Pair.of(PayrollStatus.OK, List.of(entry)),
+            payrollService.getPayrollByEmployeeId(1, null, 24));
+  }
+
+  @Test
+  void testGetPayrollByEmployeeIdBefore() {
+    PayrollHistoryEntry entry = new PayrollHistoryEntry(1, LocalDate.of(2024, 9, 17), 10000,
+            3000, 7000, "N/A", PayslipStatus.GENERATED);
     when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
-    when(payrollRepository.findAllByEmployeeIdOrderByPaymentDateDesc(1))
-            .thenReturn(List.of(payroll));
-    assertEquals(Pair.of(PayrollStatus.OK, List.of(payrollInfo)),
-            payrollService.getPayrollByEmployeeId(1));
+    when(payrollRepository.findHistoryByEmployeeIdBefore(1, LocalDate.of(2024, 10, 17),
+            PageRequest.ofSize(1))).thenReturn(List.of(entry));
+    assertEquals(Pair.of(PayrollStatus.OK, List.of(entry)),
+            payrollService.getPayrollByEmployeeId(1, LocalDate.of(2024, 10, 17), 1));
   }
 
   @Test
@@ -132,9 +236,25 @@ public class PayrollServiceTests {
     final Map<String, Object> updates = Map.of("month", 10, "year", 2024);
     payroll.setPaid(0);
     when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
     when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(1, 10, 2024))
         .thenReturn(payroll);
+    when(payrollRepository.updatePaid(payroll.getId(), 1)).thenReturn(1);
     assertEquals(PayrollStatus.SUCCESS, payrollService.markAsPaid(1, updates));
+    assertEquals(1, payroll.getPaid());
+    verify(payrollSummaryService).changePaid("testCompany", payroll);
+  }
+
+  @Test
+  void testMarkAsPaidConcurrentlyPaid() {
+    final Map<String, Object> updates = Map.of("month", 10, "year", 2024);
+    payroll.setPaid(0);
+    when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
+    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(1, 10, 2024))
+        .thenReturn(payroll);
+    when(payrollRepository.updatePaid(payroll.getId(), 1)).thenReturn(0);
+    assertEquals(PayrollStatus.ALREADY_COMPLETED, payrollService.markAsPaid(1, updates));
+    verify(payrollSummaryService, never()).changePaid(any(), any());
   }
 
   @Test
@@ -184,7 +304,9 @@ public class PayrollServiceTests {
     when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
     when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(1, 10, 2024))
         .thenReturn(payroll);
+    when(payrollRepository.updatePaid(payroll.getId(), 0)).thenReturn(1);
     assertEquals(PayrollStatus.SUCCESS, payrollService.markAsUnpaid(1, updates));
+    assertEquals(0, payroll.getPaid());
   }
 
   @Test
@@ -220,11 +342,13 @@ public class PayrollServiceTests {
 
   @Test
   void testAdjustSalaryByEmployeeIdSuccess() {
-    Map<String, Object> updates = Map.of("month", 10, "year", 2024, "salary", 10000);
+    final Map<String, Object> updates = Map.of("month", 10, "year", 2024, "salary", 20000);
     when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
-    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(1, 10, 2024))
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    when(payrollRepository.findForUpdateByEmployeeIdAndPayPeriod(1, LocalDate.of(2024, 10, 1)))
         .thenReturn(payroll);
     assertEquals(PayrollStatus.SUCCESS, payrollService.adjustSalaryByEmployeeId(1, updates));
+    verify(payrollSummaryService).adjustSalary("testCompany", payroll, 10000, 3000);
   }
 
   @Test
@@ -276,6 +400,46 @@ public class PayrollServiceTests {
     assertEquals(PayrollStatus.INVALID_DATA, payrollService.addPayrollByEmployeeId(1, updates));
   }
 
+  @Test
+  void testAddPayrollByEmployeeIdSuccessQueuesPayslip() {
+    final Map<String, Object> updates =
+        Map.of("day", 17, "month", 10, "year", 2024, "salary", 10000);
+    EmployeeProfile employeeProfile = new EmployeeProfile();
+    employeeProfile.setId(1);
+    when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
+    when(employeeProfileService.getEmployeeProfile(1)).thenReturn(Optional.of(employeeProfile));
+    when(timeOffService.getLeaveDaysByEmployeeIdWithDateRange(1, LocalDate.of(2024, 10, 1),
+        LocalDate.of(2024, 10, 31))).thenReturn(3);
+    when(payrollRepository.insertIfAbsent(any(Payroll.class))).thenReturn(42);
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    assertEquals(PayrollStatus.SUCCESS, payrollService.addPayrollByEmployeeId(1, updates));
+    verify(payrollRepository).insertIfAbsent(argThat(entry -> entry.getPayslip() == null
+        && entry.getPayslipStatus() == PayslipStatus.PENDING && entry.getTax() == 3000));
+    verify(payrollSummaryService).addPayrolls(eq("testCompany"),
+        argThat(entries -> entries.size() == 1 && entries.get(0).getId() == 42));
+    verify(payslipPipeline).submit(argThat(entry -> entry.getId() == 42), eq(employeeProfile),
+        eq(3));
+    verify(pdfGenerator, never()).generatePdfReport(any(Payroll.class),
+        any(EmployeeProfile.class), any(Integer.class));
+    verify(pdfUploader, never()).uploadPdf(any(String.class), any());
+  }
+
+  @Test
+  void testAddPayrollByEmployeeIdAlreadyExists() {
+    final Map<String, Object> updates =
+        Map.of("day", 17, "month", 10, "year", 2024, "salary", 10000);
+    EmployeeProfile employeeProfile = new EmployeeProfile();
+    employeeProfile.setId(1);
+    when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
+    when(employeeProfileService.getEmployeeProfile(1)).thenReturn(Optional.of(employeeProfile));
+    when(payrollRepository.insertIfAbsent(any(Payroll.class))).thenReturn(null);
+    assertEquals(PayrollStatus.ALREADY_EXISTS,
+            payrollService.addPayrollByEmployeeId(1, updates));
+    verify(payrollRepository, never()).findByEmployeeIdPaymentMonthAndYear(any(), any(), any());
+    verify(payrollSummaryService, never()).addPayrolls(any(), any());
+    verify(payslipPipeline, never()).submit(any(), any(), any());
+  }
+
   @Test
   void testAddPayrollByEmployeeIdEmployeeNotFound() {
     Map<String, Object> updates = new HashMap<>();
@@ -294,45 +458,45 @@ public class PayrollServiceTests {
 
   @Test
   void testDeletePayrollByEmployeeIdSuccess() {
-    Map<String, Object> updates = new HashMap<>(Map.of("day", 10, "month", 10, "year", 2024));
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 10, "month", 10, "year", 2024));
     when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
-    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(1, 10, 2024))
-            .thenReturn(new Payroll());
+    when(payrollRepository.findForUpdateByEmployeeIdAndPayPeriod(1, LocalDate.of(2024, 10, 1)))
+            .thenReturn(payroll);
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
     assertEquals(PayrollStatus.SUCCESS, payrollService.deletePayrollByEmployeeId(1, updates));
+    verify(payrollRepository).delete(payroll);
+    verify(payrollSummaryService).removePayroll("testCompany", payroll);
+    verify(payrollRunService).reopen("testCompany", LocalDate.of(2024, 10, 1), List.of(1));
   }
 
   @Test
   void testGeneratePayrollInvalidData() {
     final Map<String, Object> updates = new HashMap<>();
-    EmployeeProfile employeeProfile1 = new EmployeeProfile();
-    employeeProfile1.setId(100);
-    EmployeeProfile employeeProfile2 = new EmployeeProfile();
-    employeeProfile2.setId(200);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(Arrays.asList(100, 200));
-    when(employeeProfileService.getEmployeeProfile(100)).thenReturn(Optional.of(employeeProfile1));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(100)).thenReturn(true);
-    when(employeeProfileService.getEmployeeProfile(200)).thenReturn(Optional.of(employeeProfile2));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(200)).thenReturn(true);
     assertEquals(Map.of("response", "Invalid day or month or year"),
             payrollService.generatePayroll(updates));
+    verify(payrollRunService, never()).startRun(any(), any());
   }
 
   @Test
   void testGeneratePayrollInvalidFormat() {
     final Map<String, Object> updates = new HashMap<>(Map.of("day", 32, "month", 10, "year", 2024));
-    EmployeeProfile employeeProfile1 = new EmployeeProfile();
-    employeeProfile1.setId(100);
-    employeeProfile1.setBaseSalary(10000);
-    EmployeeProfile employeeProfile2 = new EmployeeProfile();
-    employeeProfile2.setId(200);
-    employeeProfile1.setBaseSalary(10000);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(Arrays.asList(100, 200));
-    when(employeeProfileService.getEmployeeProfile(100)).thenReturn(Optional.of(employeeProfile1));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(100)).thenReturn(true);
-    when(employeeProfileService.getEmployeeProfile(200)).thenReturn(Optional.of(employeeProfile2));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(200)).thenReturn(true);
     assertEquals(Map.of("response", "Invalid format for day or month or year"),
             payrollService.generatePayroll(updates));
+    verify(payrollRunService, never()).startRun(any(), any());
+  }
+
+  @Test
+  void testGeneratePayrollMissingBaseSalary() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 10, "month", 10, "year", 2024));
+    EmployeeProfile employeeProfile = new EmployeeProfile();
+    employeeProfile.setId(100);
+    mockRun(List.of(employeeProfile));
+    assertEquals(Map.of("response",
+            "Payroll could not be generated for the employees in failedEmployeeList",
+            "failedEmployeeList", List.of(100), "runId", 7),
+            payrollService.generatePayroll(updates));
+    verify(payrollRunService).checkpoint(run, List.of(), List.of());
+    verify(payrollRunService).markFailed(run, List.of(100));
   }
 
   @Test
@@ -342,22 +506,20 @@ public class PayrollServiceTests {
     result.put("response", "Payroll for the employees in list have already "
             + "been generated and were not added");
     result.put("employeeList", Arrays.asList(100, 200));
+    result.put("runId", 7);
     EmployeeProfile employeeProfile1 = new EmployeeProfile();
     employeeProfile1.setId(100);
     employeeProfile1.setBaseSalary(10000);
     EmployeeProfile employeeProfile2 = new EmployeeProfile();
     employeeProfile2.setId(200);
     employeeProfile2.setBaseSalary(10000);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(Arrays.asList(100, 200));
-    when(employeeProfileService.getEmployeeProfile(100)).thenReturn(Optional.of(employeeProfile1));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(100)).thenReturn(true);
-    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(100, 10, 2024))
-        .thenReturn(new Payroll());
-    when(employeeProfileService.getEmployeeProfile(200)).thenReturn(Optional.of(employeeProfile2));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(200)).thenReturn(true);
-    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(200, 10, 2024))
-        .thenReturn(new Payroll());
+    mockRun(List.of(employeeProfile1, employeeProfile2));
+    when(payrollRepository.findEmployeeIdsByCompanyUsernameAndPayPeriod(
+        "testCompany", LocalDate.of(2024, 10, 1))).thenReturn(List.of(200, 100));
     assertEquals(result, payrollService.generatePayroll(updates));
+    verify(pdfGenerator, never()).generatePdfReport(any(Payroll.class),
+            any(EmployeeProfile.class), any(Integer.class));
+    verify(payrollRunService).checkpoint(run, List.of(), List.of(100, 200));
   }
 
   @Test
@@ -366,69 +528,325 @@ public class PayrollServiceTests {
     EmployeeProfile employeeProfile = new EmployeeProfile();
     employeeProfile.setId(1);
     employeeProfile.setBaseSalary(10000);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(List.of(1));
-    when(employeeProfileService.getEmployeeProfile(1)).thenReturn(Optional.of(employeeProfile));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(1)).thenReturn(true);
-    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(1, 10, 2024))
-        .thenReturn(null);
+    mockRun(List.of(employeeProfile));
+    when(timeOffService.getLeaveDaysByCompanyWithDateRange("testCompany",
+        LocalDate.of(2024, 10, 1), LocalDate.of(2024, 10, 31))).thenReturn(Map.of(1, 2));
     when(pdfGenerator.getPdfName(any(Payroll.class))).thenReturn("pdfName");
-    when(pdfUploader.uploadPdf(any(String.class))).thenReturn("url");
-    assertEquals(Map.of("response", "Payroll for this month and year has been generated"),
-            payrollService.generatePayroll(updates));
+    when(pdfUploader.uploadPdf(any(String.class), any())).thenReturn("url");
+    assertEquals(Map.of("response", "Payroll for this month and year has been generated",
+            "runId", 7), payrollService.generatePayroll(updates));
     verify(pdfGenerator).generatePdfReport(any(Payroll.class), any(EmployeeProfile.class),
-            any(Integer.class));
-    verify(payrollRepository).save(any(Payroll.class));
+            eq(2));
+    verify(payrollRunService).checkpoint(eq(run),
+            argThat((List<Payroll> payrolls) -> payrolls.size() == 1
+                    && payrolls.get(0).getEmployeeId() == 1
+                    && payrolls.get(0).getPayslipStatus() == PayslipStatus.GENERATED
+                    && "hash".equals(payrolls.get(0).getPayslipHash())),
+            eq(List.of(1)));
+    verify(payrollRunService).finishRun(run);
+    verify(payrollRepository, never()).save(any(Payroll.class));
+    verify(payrollRepository, never()).findByEmployeeIdPaymentMonthAndYear(any(), any(), any());
+    verify(companyEmployeesService, never()).verifyIfEmployeeInCompany(any());
   }
 
   @Test
-  void testDeletePayrollInvalidData() {
-    final Map<String, Object> updates = new HashMap<>();
+  void testGeneratePayrollResumesRemainingEmployees() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 17, "month", 10, "year", 2024));
+    EmployeeProfile employeeProfile = new EmployeeProfile();
+    employeeProfile.setId(200);
+    employeeProfile.setBaseSalary(20000);
+    mockRun(List.of(employeeProfile));
+    when(pdfGenerator.getPdfName(any(Payroll.class))).thenReturn("pdfName");
+    when(pdfUploader.uploadPdf(any(String.class), any())).thenReturn("url");
+    assertEquals(Map.of("response", "Payroll for this month and year has been generated",
+            "runId", 7), payrollService.generatePayroll(updates));
+    verify(employeeProfileService).getEmployeeProfiles(List.of(200));
+    verify(employeeProfileService, never()).getAllEmployees();
+    verify(pdfGenerator).generatePdfReport(argThat(entry -> entry.getEmployeeId() == 200),
+            any(EmployeeProfile.class), any(Integer.class));
+    verify(payrollRunService).checkpoint(eq(run), any(), eq(List.of(200)));
+  }
+
+  @Test
+  void testGeneratePayrollCheckpointsInChunks() {
+    payrollService = new PayrollService(payrollRepository,
+            employeeProfileService, companyEmployeesService, companyService, timeOffService,
+            pdfGenerator, pdfUploader, payslipPipeline, payrollRunService, payrollSummaryService,
+            taxEngine, payrollRunExecutor, 2);
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 17, "month", 10, "year", 2024));
+    List<EmployeeProfile> employeeProfiles = new ArrayList<>();
+    for (int employeeId = 1; employeeId <= 5; employeeId++) {
+      EmployeeProfile employeeProfile = new EmployeeProfile();
+      employeeProfile.setId(employeeId);
+      employeeProfile.setBaseSalary(10000);
+      employeeProfiles.add(employeeProfile);
+    }
+    mockRun(employeeProfiles);
+    when(pdfGenerator.getPdfName(any(Payroll.class))).thenReturn("pdfName");
+    when(pdfUploader.uploadPdf(any(String.class), any())).thenReturn("url");
+    payrollService.generatePayroll(updates);
+    verify(payrollRunService).checkpoint(eq(run), any(), eq(List.of(1, 2)));
+    verify(payrollRunService).checkpoint(eq(run), any(), eq(List.of(3, 4)));
+    verify(payrollRunService).checkpoint(eq(run), any(), eq(List.of(5)));
+  }
+
+  @Test
+  void testGeneratePayrollAlreadyExistsKeepsCompanyOrder() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 10, "month", 10, "year", 2024));
+    List<Integer> employeeIds = Arrays.asList(5, 3, 9, 1, 7, 2, 8);
+    List<EmployeeProfile> employeeProfiles = new ArrayList<>();
+    for (Integer employeeId : employeeIds) {
+      EmployeeProfile employeeProfile = new EmployeeProfile();
+      employeeProfile.setId(employeeId);
+      employeeProfile.setBaseSalary(10000);
+      employeeProfiles.add(employeeProfile);
+    }
+    mockRun(employeeProfiles);
+    when(payrollRepository.findEmployeeIdsByCompanyUsernameAndPayPeriod(
+        "testCompany", LocalDate.of(2024, 10, 1))).thenReturn(List.of(1, 2, 3, 5, 7, 8, 9));
+    Map<String, Object> result = new HashMap<>();
+    result.put("response", "Payroll for the employees in list have already "
+            + "been generated and were not added");
+    result.put("employeeList", employeeIds);
+    result.put("runId", 7);
+    assertEquals(result, payrollService.generatePayroll(updates));
+  }
+
+  @Test
+  void testGeneratePayrollReportsFailedEmployees() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 17, "month", 10, "year", 2024));
     EmployeeProfile employeeProfile1 = new EmployeeProfile();
     employeeProfile1.setId(100);
+    employeeProfile1.setBaseSalary(10000);
     EmployeeProfile employeeProfile2 = new EmployeeProfile();
     employeeProfile2.setId(200);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(Arrays.asList(100, 200));
-    when(employeeProfileService.getEmployeeProfile(100)).thenReturn(Optional.of(employeeProfile1));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(100)).thenReturn(true);
-    when(employeeProfileService.getEmployeeProfile(200)).thenReturn(Optional.of(employeeProfile2));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(200)).thenReturn(true);
-    assertEquals(Map.of("response", "Invalid month or year"),
-            payrollService.deletePayroll(updates));
+    employeeProfile2.setBaseSalary(20000);
+    mockRun(List.of(employeeProfile1, employeeProfile2));
+    when(pdfGenerator.getPdfName(any(Payroll.class))).thenReturn("pdfName");
+    when(pdfUploader.uploadPdf(any(String.class), any())).thenReturn("url");
+    doThrow(new IllegalStateException("upload failed")).when(pdfGenerator)
+        .generatePdfReport(argThat(entry -> entry.getEmployeeId() == 200),
+            any(EmployeeProfile.class), any(Integer.class));
+    Map<String, Object> result = payrollService.generatePayroll(updates);
+    assertEquals("Payroll could not be generated for the employees in failedEmployeeList",
+            result.get("response"));
+    assertEquals(List.of(200), result.get("failedEmployeeList"));
+    verify(payrollRunService).checkpoint(eq(run),
+            argThat((List<Payroll> payrolls) -> payrolls.size() == 1
+                    && payrolls.get(0).getEmployeeId() == 100),
+            eq(List.of(100)));
+    verify(payrollRunService).markFailed(run, List.of(200));
+  }
+
+  @Test
+  void testGeneratePayrollSaveFailureMarksBatchFailed() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 17, "month", 10, "year", 2024));
+    EmployeeProfile employeeProfile1 = new EmployeeProfile();
+    employeeProfile1.setId(100);
+    employeeProfile1.setBaseSalary(10000);
+    EmployeeProfile employeeProfile2 = new EmployeeProfile();
+    employeeProfile2.setId(200);
+    employeeProfile2.setBaseSalary(20000);
+    mockRun(List.of(employeeProfile1, employeeProfile2));
+    when(pdfGenerator.getPdfName(any(Payroll.class))).thenReturn("pdfName");
+    when(pdfUploader.uploadPdf(any(String.class), any())).thenReturn("url");
+    doThrow(new DataAccessResourceFailureException("connection lost")).when(payrollRunService)
+            .checkpoint(eq(run), any(), any());
+    Map<String, Object> result = payrollService.generatePayroll(updates);
+    assertEquals("Payroll could not be generated for the employees in failedEmployeeList",
+            result.get("response"));
+    assertEquals(List.of(100, 200), result.get("failedEmployeeList"));
+    verify(payrollRunService).markFailed(run, List.of(100, 200));
   }
 
   @Test
-  void testDeletePayrollInvalidFormat() {
-    final Map<String, Object> updates = new HashMap<>(Map.of("day", 32, "month", 13, "year", 2024));
+  void testGeneratePayrollSkipsPayrollsCreatedConcurrently() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 17, "month", 10, "year", 2024));
     EmployeeProfile employeeProfile1 = new EmployeeProfile();
     employeeProfile1.setId(100);
+    employeeProfile1.setBaseSalary(10000);
     EmployeeProfile employeeProfile2 = new EmployeeProfile();
     employeeProfile2.setId(200);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(Arrays.asList(100, 200));
-    when(employeeProfileService.getEmployeeProfile(100)).thenReturn(Optional.of(employeeProfile1));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(100)).thenReturn(true);
-    when(employeeProfileService.getEmployeeProfile(200)).thenReturn(Optional.of(employeeProfile2));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(200)).thenReturn(true);
-    assertEquals(Map.of("response", "Invalid format for month or year"),
+    employeeProfile2.setBaseSalary(20000);
+    mockRun(List.of(employeeProfile1, employeeProfile2));
+    doThrow(new DataIntegrityViolationException("duplicate key")).when(payrollRunService)
+            .checkpoint(eq(run), any(), any());
+    when(payrollRunService.checkpointSkippingExisting(eq(run), any(), eq(List.of(100, 200))))
+            .thenReturn(List.of(200));
+    Map<String, Object> result = payrollService.generatePayroll(updates);
+    assertEquals("Payroll for the employees in list have already been generated and were not "
+            + "added", result.get("response"));
+    assertEquals(List.of(200), result.get("employeeList"));
+    verify(payrollRunService, never()).markFailed(run, List.of(100, 200));
+  }
+
+  @Test
+  void testGetPayrollRunStatus() {
+    Map<String, Object> progress = Map.of("runId", 7, "processed", 1L);
+    when(payrollRunService.getRunStatus(7)).thenReturn(Pair.of(PayrollStatus.OK, progress));
+    assertEquals(Pair.of(PayrollStatus.OK, progress), payrollService.getPayrollRunStatus(7));
+  }
+
+  @Test
+  void testDeletePayrollInvalidData() {
+    final Map<String, Object> updates = new HashMap<>();
+    assertEquals(Pair.of(PayrollStatus.INVALID_DATA, 0), payrollService.deletePayroll(updates));
+    verify(payrollRunService, never()).deletePayrolls(any(), any(), any());
+  }
+
+  @Test
+  void testDeletePayrollInvalidFormat() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("day", 32, "month", 13, "year", 2024));
+    assertEquals(Pair.of(PayrollStatus.INVALID_FORMAT, 0),
             payrollService.deletePayroll(updates));
+    verify(payrollRunService, never()).deletePayrolls(any(), any(), any());
+  }
+
+  @Test
+  void testDeletePayrollInvalidEmployeeIds() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("month", 10, "year", 2024,
+            "employeeIds", List.of(1, "2")));
+    assertEquals(Pair.of(PayrollStatus.INVALID_FORMAT, 0),
+            payrollService.deletePayroll(updates));
+    verify(payrollRunService, never()).deletePayrolls(any(), any(), any());
   }
 
   @Test
   void testDeletePayrollSuccess() {
     final Map<String, Object> updates = new HashMap<>(Map.of("day", 10, "month", 10, "year", 2024));
-    EmployeeProfile employeeProfile1 = new EmployeeProfile();
-    employeeProfile1.setId(100);
-    EmployeeProfile employeeProfile2 = new EmployeeProfile();
-    employeeProfile2.setId(200);
-    when(companyEmployeesService.getAllEmployeesInCompany()).thenReturn(Arrays.asList(100, 200));
-    when(employeeProfileService.getEmployeeProfile(100)).thenReturn(Optional.of(employeeProfile1));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(100)).thenReturn(true);
-    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(100, 10, 2024))
-        .thenReturn(null);
-    when(employeeProfileService.getEmployeeProfile(200)).thenReturn(Optional.of(employeeProfile2));
-    when(companyEmployeesService.verifyIfEmployeeInCompany(200)).thenReturn(true);
-    when(payrollRepository.findByEmployeeIdPaymentMonthAndYear(200, 10, 2024))
-        .thenReturn(null);
-    assertEquals(Map.of("response", "Payroll for this month and year has been deleted"),
-            payrollService.deletePayroll(updates));
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    when(payrollRunService.deletePayrolls("testCompany", LocalDate.of(2024, 10, 1), null))
+            .thenReturn(2);
+    assertEquals(Pair.of(PayrollStatus.SUCCESS, 2), payrollService.deletePayroll(updates));
+    verify(payrollRepository, never()).findByEmployeeIdPaymentMonthAndYear(any(), any(), any());
+    verify(payrollRepository, never()).delete(any(Payroll.class));
+  }
+
+  @Test
+  void testDeletePayrollOfEmployees() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("month", 10, "year", 2024,
+            "employeeIds", List.of(100, 200)));
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    when(payrollRunService.deletePayrolls("testCompany", LocalDate.of(2024, 10, 1),
+            List.of(100, 200))).thenReturn(1);
+    assertEquals(Pair.of(PayrollStatus.SUCCESS, 1), payrollService.deletePayroll(updates));
+  }
+
+  @Test
+  void testMarkPayrollsAsPaidInvalidFormat() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("month", 10, "year", 2024,
+            "employeeIds", 100));
+    assertEquals(Pair.of(PayrollStatus.INVALID_FORMAT, 0),
+            payrollService.markPayrollsAsPaid(updates));
+  }
+
+  @Test
+  void testMarkPayrollsAsPaidSuccess() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("month", 10, "year", 2024));
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    when(payrollRepository.updatePaidByCompanyUsernameAndPayPeriod("testCompany",
+            LocalDate.of(2024, 10, 1), 1)).thenReturn(3);
+    assertEquals(Pair.of(PayrollStatus.SUCCESS, 3), payrollService.markPayrollsAsPaid(updates));
+    verify(payrollRepository, never()).save(any(Payroll.class));
+    verify(payrollSummaryService).refresh("testCompany", LocalDate.of(2024, 10, 1));
+  }
+
+  @Test
+  void testMarkPayrollsAsUnpaidOfEmployees() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("month", 10, "year", 2024,
+            "employeeIds", List.of(100, 200)));
+    when(companyService.getCompanyUsername()).thenReturn("testCompany");
+    when(payrollRepository.updatePaidByCompanyUsernameAndPayPeriodAndEmployeeIds("testCompany",
+            LocalDate.of(2024, 10, 1), 0, List.of(100, 200))).thenReturn(2);
+    assertEquals(Pair.of(PayrollStatus.SUCCESS, 2),
+            payrollService.markPayrollsAsUnpaid(updates));
+  }
+
+  @Test
+  void testMarkPayrollsAsUnpaidEmptyEmployeeIds() {
+    final Map<String, Object> updates = new HashMap<>(Map.of("month", 10, "year", 2024,
+            "employeeIds", List.of()));
+    assertEquals(Pair.of(PayrollStatus.SUCCESS, 0),
+            payrollService.markPayrollsAsUnpaid(updates));
+    verify(payrollRepository, never())
+            .updatePaidByCompanyUsernameAndPayPeriod(any(), any(), any());
+  }
+
+  @Test
+  void testGetPayslipsByPayPeriodInvalidFormat() {
+    assertEquals(Pair.of(PayrollStatus.INVALID_FORMAT, new ArrayList<>()),
+            payrollService.getPayslipsByPayPeriod(13, 2024));
+    verify(payrollRepository, never())
+            .findPayslipsByCompanyUsernameAndPayPeriod(any(), any());
+  }
+
+  @Test
+  void testGetPayslipsByPayPeriodSuccess() {
+    when(companyService.getCompanyUsername()).thenReturn("company");
+    when(payrollRepository.findPayslipsByCompanyUsernameAndPayPeriod("company",
+            LocalDate.of(2024, 10, 1))).thenReturn(List.of(payroll));
+    assertEquals(Pair.of(PayrollStatus.OK, List.of(payroll)),
+            payrollService.getPayslipsByPayPeriod(10, 2024));
+  }
+
+  @Test
+  void testWritePayslipArchiveListsMissingPayslips() throws IOException {
+    Payroll missing = new Payroll();
+    missing.setEmployeeId(2);
+    missing.setPayslipStatus(PayslipStatus.GENERATED);
+    Payroll pending = new Payroll();
+    pending.setEmployeeId(3);
+    pending.setPayslipStatus(PayslipStatus.PENDING);
+    Payroll failed = new Payroll();
+    failed.setEmployeeId(4);
+    failed.setPayslipStatus(PayslipStatus.FAILED);
+    InMemoryBlobStore blobStore = new InMemoryBlobStore();
+    byte[] content = {'%', 'P', 'D', 'F'};
+    blobStore.put("1_10_2024.pdf", content, 0, content.length, "application/pdf");
+    payrollService = new PayrollService(payrollRepository,
+            employeeProfileService, companyEmployeesService, companyService, timeOffService,
+            pdfGenerator, new PdfUploader(blobStore), payslipPipeline, payrollRunService,
+            payrollSummaryService, taxEngine, payrollRunExecutor, 50);
+    when(pdfGenerator.getPdfName(payroll)).thenReturn("1_10_2024.pdf");
+    when(pdfGenerator.getPdfName(missing)).thenReturn("2_10_2024.pdf");
+    when(pdfGenerator.getPdfName(pending)).thenReturn("3_10_2024.pdf");
+    when(pdfGenerator.getPdfName(failed)).thenReturn("4_10_2024.pdf");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    payrollService.writePayslipArchive(List.of(payroll, missing, pending, failed), out);
+
+    try (ZipInputStream zip = new ZipInputStream(
+            new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals("1_10_2024.pdf", zip.getNextEntry().getName());
+      assertArrayEquals(content, zip.readAllBytes());
+      assertEquals(PayrollService.MISSING_PAYSLIPS_ENTRY, zip.getNextEntry().getName());
+      assertEquals("employee_id,payslip,reason\n"
+              + "2,2_10_2024.pdf,MISSING_FROM_STORAGE\n"
+              + "3,3_10_2024.pdf,PENDING\n"
+              + "4,4_10_2024.pdf,FAILED\n",
+              new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+      assertNull(zip.getNextEntry());
+    }
+  }
+
+  @Test
+  void testWritePayslipArchiveWithoutMissingPayslips() throws IOException {
+    InMemoryBlobStore blobStore = new InMemoryBlobStore();
+    byte[] content = {'%', 'P', 'D', 'F'};
+    blobStore.put("1_10_2024.pdf", content, 0, content.length, "application/pdf");
+    payrollService = new PayrollService(payrollRepository,
+            employeeProfileService, companyEmployeesService, companyService, timeOffService,
+            pdfGenerator, new PdfUploader(blobStore), payslipPipeline, payrollRunService,
+            payrollSummaryService, taxEngine, payrollRunExecutor, 50);
+    when(pdfGenerator.getPdfName(payroll)).thenReturn("1_10_2024.pdf");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    payrollService.writePayslipArchive(List.of(payroll), out);
+
+    try (ZipInputStream zip = new ZipInputStream(
+            new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals("1_10_2024.pdf", zip.getNextEntry().getName());
+      assertNull(zip.getNextEntry());
+    }
   }
 }
@@ -0,0 +1,205 @@
+package com.nullterminators.project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nullterminators.project.enums.PayslipStatus;
+import com.nullterminators.project.model.EmployeeProfile;
+import com.nullterminators.project.model.Payroll;
+import com.nullterminators.project.repository.EmployeeProfileRepository;
+import com.nullterminators.project.repository.PayrollRepository;
+import com.nullterminators.project.repository.TimeOffRepository;
+import com.nullterminators.project.util.pdf.PdfBuffer;
+import com.nullterminators.project.util.pdf.PdfGenerator;
+import com.nullterminators.project.util.pdf.PdfUploader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+
+/** Tests for the background payslip pipeline. */
+class PayslipPipelineTests {
+
+  @Mock private PayrollRepository payrollRepository;
+
+  @Mock private EmployeeProfileRepository employeeProfileRepository;
+
+  @Mock private TimeOffRepository timeOffRepository;
+
+  @Mock private PdfGenerator pdfGenerator;
+
+  @Mock private PdfUploader pdfUploader;
+
+  private ScheduledExecutorService payslipExecutor;
+
+  private PayslipPipeline payslipPipeline;
+
+  private Payroll payroll;
+
+  private EmployeeProfile employee;
+
+  private final PdfBuffer pdf = new PdfBuffer();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    payslipExecutor = Executors.newScheduledThreadPool(1);
+    payslipPipeline = new PayslipPipeline(payrollRepository, employeeProfileRepository,
+        timeOffRepository, pdfGenerator, pdfUploader, payslipExecutor, 3, 1, 10, 60000);
+
+    payroll = new Payroll();
+    payroll.setId(10);
+    payroll.setEmployeeId(1);
+    payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
+    payroll.setPayslipStatus(PayslipStatus.PENDING);
+    employee = new EmployeeProfile();
+    employee.setId(1);
+    pdf.setContentHash("hash");
+    when(pdfGenerator.getPdfName(payroll)).thenReturn("1_10_2024.pdf");
+    when(pdfGenerator.generatePdfReport(payroll, employee, 2)).thenReturn(pdf);
+    when(pdfGenerator.generatePdfReport(payroll, employee, 0)).thenReturn(pdf);
+  }
+
+  @AfterEach
+  void tearDown() {
+    payslipExecutor.shutdownNow();
+  }
+
+  @Test
+  void testSubmitFillsInPayslip() {
+    when(pdfUploader.uploadPdf("1_10_2024.pdf", pdf, null)).thenReturn("url");
+    payslipPipeline.submit(payroll, employee, 2);
+    verify(payrollRepository, timeout(5000))
+        .updatePayslip(10, "url", "hash", PayslipStatus.GENERATED);
+    verify(pdfGenerator).generatePdfReport(payroll, employee, 2);
+    verify(payrollRepository, never()).updatePayslipStatus(anyInt(), any());
+  }
+
+  @Test
+  void testSubmitPassesStoredPayslipHash() {
+    payroll.setPayslipHash("hash");
+    when(pdfUploader.uploadPdf("1_10_2024.pdf", pdf, "hash")).thenReturn("url");
+    payslipPipeline.submit(payroll, employee, 2);
+    verify(payrollRepository, timeout(5000))
+        .updatePayslip(10, "url", "hash", PayslipStatus.GENERATED);
+  }
+
+  @Test
+  void testSubmitRetriesFailedUpload() {
+    when(pdfUploader.uploadPdf("1_10_2024.pdf", pdf, null))
+        .thenThrow(new IllegalStateException("upload failed"))
+        .thenReturn("url");
+    payslipPipeline.submit(payroll, employee, 0);
+    verify(payrollRepository, timeout(5000))
+        .updatePayslip(10, "url", "hash", PayslipStatus.GENERATED);
+    verify(pdfUploader, times(2)).uploadPdf("1_10_2024.pdf", pdf, null);
+  }
+
+  @Test
+  void testSubmitMarksPayslipFailedAfterLastAttempt() {
+    when(pdfUploader.uploadPdf("1_10_2024.pdf", pdf, null))
+        .thenThrow(new IllegalStateException("upload failed"));
+    payslipPipeline.submit(payroll, employee, 0);
+    verify(payrollRepository, timeout(5000)).updatePayslipStatus(10, PayslipStatus.FAILED);
+    verify(pdfUploader, times(3)).uploadPdf("1_10_2024.pdf", pdf, null);
+    verify(payrollRepository, never()).updatePayslip(anyInt(), any(), any(), any());
+  }
+
+  @Test
+  void testSweepQueuesPendingPayslips() {
+    when(payrollRepository.findByPayslipStatusAndIdGreaterThanOrderById(PayslipStatus.PENDING,
+        0, PageRequest.ofSize(PayslipPipeline.SWEEP_PAGE_SIZE))).thenReturn(List.of(payroll));
+    when(employeeProfileRepository.findById(1)).thenReturn(Optional.of(employee));
+    when(timeOffRepository.sumApprovedLeaveDaysByEmployeeIdGivenDateRange(1,
+        LocalDate.of(2024, 10, 1), LocalDate.of(2024, 10, 31))).thenReturn(2L);
+    when(pdfUploader.uploadPdf("1_10_2024.pdf", pdf, null)).thenReturn("url");
+    assertEquals(1, payslipPipeline.sweep());
+    verify(payrollRepository, timeout(5000))
+        .updatePayslip(10, "url", "hash", PayslipStatus.GENERATED);
+  }
+
+  @Test
+  void testFullQueueLeavesPayslipPending() throws InterruptedException {
+    payslipPipeline = new PayslipPipeline(payrollRepository, employeeProfileRepository,
+        timeOffRepository, pdfGenerator, pdfUploader, payslipExecutor, 3, 1, 1, 60000);
+    CountDownLatch uploadStarted = new CountDownLatch(1);
+    CountDownLatch releaseUpload = new CountDownLatch(1);
+    when(pdfUploader.uploadPdf("1_10_2024.pdf", pdf, null)).thenAnswer(invocation -> {
+      uploadStarted.countDown();
+      releaseUpload.await();
+      return "url";
+    });
+    Payroll other = new Payroll();
+    other.setId(11);
+    other.setEmployeeId(1);
+    other.setPaymentDate(LocalDate.of(2024, 10, 17));
+
+    payslipPipeline.submit(payroll, employee, 2);
+    assertTrue(uploadStarted.await(5, TimeUnit.SECONDS));
+    payslipPipeline.submit(other, employee, 2);
+    assertEquals(0, payslipPipeline.sweep());
+    releaseUpload.countDown();
+
+    verify(payrollRepository, timeout(5000))
+        .updatePayslip(10, "url", "hash", PayslipStatus.GENERATED);
+    verify(pdfGenerator, never()).generatePdfReport(other, employee, 2);
+    verify(payrollRepository, never()).findByPayslipStatusAndIdGreaterThanOrderById(any(),
+        any(), any());
+  }
+
+  @Test
+  void testRejectedSubmitLeavesPayslipToSweep() {
+    payslipPipeline = new PayslipPipeline(payrollRepository, employeeProfileRepository,
+        timeOffRepository, pdfGenerator, pdfUploader, payslipExecutor, 3, 1, 1, 60000);
+    payslipExecutor.shutdown();
+    payslipPipeline.submit(payroll, employee, 2);
+
+    assertEquals(0, sweepPendingPayroll());
+    verify(employeeProfileRepository).findById(1);
+  }
+
+  @Test
+  void testRejectedRetryLeavesPayslipToSweep() throws InterruptedException {
+    payslipPipeline = new PayslipPipeline(payrollRepository, employeeProfileRepository,
+        timeOffRepository, pdfGenerator, pdfUploader, payslipExecutor, 3, 1, 1, 60000);
+    when(pdfUploader.uploadPdf("1_10_2024.pdf", pdf, null)).thenAnswer(invocation -> {
+      payslipExecutor.shutdown();
+      throw new RuntimeException("upload failed");
+    });
+    payslipPipeline.submit(payroll, employee, 2);
+    assertTrue(payslipExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+    assertEquals(0, sweepPendingPayroll());
+    verify(employeeProfileRepository).findById(1);
+    verify(payrollRepository, never()).updatePayslipStatus(10, PayslipStatus.FAILED);
+  }
+
+  /*
+   * Sweeps with the payroll as the only pending one; the sweep only looks the employee up if
+   * the payslip is not queued and a queue slot is free.
+   */
+  private int sweepPendingPayroll() {
+    when(payrollRepository.findByPayslipStatusAndIdGreaterThanOrderById(PayslipStatus.PENDING,
+        0, PageRequest.ofSize(PayslipPipeline.SWEEP_PAGE_SIZE))).thenReturn(List.of(payroll));
+    when(employeeProfileRepository.findById(1)).thenReturn(Optional.of(employee));
+    when(timeOffRepository.sumApprovedLeaveDaysByEmployeeIdGivenDateRange(1,
+        LocalDate.of(2024, 10, 1), LocalDate.of(2024, 10, 31))).thenReturn(2L);
+    return payslipPipeline.sweep();
+  }
+}
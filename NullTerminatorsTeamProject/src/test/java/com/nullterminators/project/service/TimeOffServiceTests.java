@@ -18,6 +18,7 @@ import com.nullterminators.project.repository.TimeOffRepository;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -70,6 +71,31 @@ class TimeOffServiceTests {
     assertEquals(timeOff1, result.get(0));
   }
 
+  @Test
+  void testGetLeaveDaysByCompanyWithDateRange() {
+    when(timeOffRepository.sumApprovedLeaveDaysByCompanyUsernameGivenDateRange(
+            "testCompany", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+        .thenReturn(Arrays.asList(new Object[] {123, 2L}, new Object[] {456, 1L}));
+
+    Map<Integer, Integer> result =
+        timeOffService.getLeaveDaysByCompanyWithDateRange(
+            "testCompany", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+    assertEquals(Map.of(123, 2, 456, 1), result);
+  }
+
+  @Test
+  void testGetLeaveDaysByEmployeeIdWithDateRange() {
+    when(timeOffRepository.sumApprovedLeaveDaysByEmployeeIdGivenDateRange(
+            123, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+        .thenReturn(4L);
+
+    assertEquals(
+        4,
+        timeOffService.getLeaveDaysByEmployeeIdWithDateRange(
+            123, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+  }
+
   @Test
   void testGetTimeOffByEmployeeId() {
     when(timeOffRepository.findAllByEmployeeIdOrderByStartDateDesc(123))
@@ -0,0 +1,206 @@
+package com.nullterminators.project.util.hierarchy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nullterminators.project.model.EmployeeHierarchy;
+import com.nullterminators.project.model.EmployeeNode;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the in-memory org chart index. */
+class OrgChartTests {
+
+  /**
+   * Employee 10 supervises 30 and 20, 30 supervises 40 and 40 supervises 50.
+   */
+  private final OrgChart orgChart = OrgChart.of(List.of(new EmployeeHierarchy(10L, 30L),
+      new EmployeeHierarchy(30L, 40L), new EmployeeHierarchy(10L, 20L),
+      new EmployeeHierarchy(40L, 50L)));
+
+  @Test
+  void testGetSupervisor() {
+    assertEquals(10L, orgChart.getSupervisor(30L));
+    assertEquals(40L, orgChart.getSupervisor(50L));
+    assertNull(orgChart.getSupervisor(10L));
+    assertNull(orgChart.getSupervisor(99L));
+    assertEquals(5, orgChart.size());
+  }
+
+  @Test
+  void testGetSubtreeListsEdgesLevelByLevel() {
+    List<EmployeeHierarchy> subtree = orgChart.getSubtree(10L);
+    assertEquals(4, subtree.size());
+    assertEquals(List.of(30L, 20L, 40L, 50L),
+        subtree.stream().map(EmployeeHierarchy::getToEmployeeId).toList());
+    assertEquals(List.of(1L, 2L, 3L, 4L),
+        subtree.stream().map(EmployeeHierarchy::getId).toList());
+    assertTrue(orgChart.getSubtree(50L).isEmpty());
+    assertTrue(orgChart.getSubtree(99L).isEmpty());
+  }
+
+  @Test
+  void testGetSubtreePage() {
+    assertEquals(List.of(30L, 20L), orgChart.getSubtree(10L, 1, OrgChart.UNLIMITED, 0).stream()
+        .map(EmployeeHierarchy::getToEmployeeId).toList());
+    assertEquals(List.of(30L, 40L), orgChart.getSubtree(10L, 2, 1, 0).stream()
+        .map(EmployeeHierarchy::getToEmployeeId).toList());
+    List<EmployeeHierarchy> nextPage = orgChart.getSubtree(10L, OrgChart.UNLIMITED, 1, 1);
+    assertEquals(1, nextPage.size());
+    assertEquals(20L, nextPage.get(0).getToEmployeeId());
+    assertEquals(1L, nextPage.get(0).getId());
+    assertTrue(orgChart.getSubtree(10L, 3, 5, 2).isEmpty());
+    assertTrue(orgChart.getSubtree(10L, 0, 5, 0).isEmpty());
+  }
+
+  @Test
+  void testBuildTreeKeepsEdgeOrder() {
+    EmployeeNode root = orgChart.buildTree(10L);
+    assertEquals(10L, root.getId());
+    assertEquals(30L, root.getChildren().get(0).getId());
+    assertEquals(20L, root.getChildren().get(1).getId());
+    assertEquals(50L, root.getChildren().get(0).getChildren().get(0).getChildren().get(0)
+        .getId());
+    assertNull(orgChart.buildTree(20L));
+  }
+
+  @Test
+  void testWriteTreeMatchesBuildTree() throws IOException {
+    ObjectMapper objectMapper = new ObjectMapper();
+    assertEquals(objectMapper.writeValueAsString(orgChart.buildTree(10L)), writeTree(orgChart,
+        10L));
+    assertEquals(objectMapper.writeValueAsString(orgChart.buildTree(30L)), writeTree(orgChart,
+        30L));
+    assertEquals("null", writeTree(orgChart, 20L));
+    assertEquals("null", writeTree(orgChart, 99L));
+  }
+
+  @Test
+  void testWriteTreePage() throws IOException {
+    assertEquals("{\"id\":10,\"children\":[{\"id\":30,\"children\":[],\"nextCursor\":0},"
+        + "{\"id\":20,\"children\":[]}]}", writeTree(orgChart, 10L, 1, OrgChart.UNLIMITED, 0));
+    assertEquals("{\"id\":10,\"children\":[{\"id\":30,\"children\":[{\"id\":40,"
+        + "\"children\":[],\"nextCursor\":0}]}],\"nextCursor\":1}",
+        writeTree(orgChart, 10L, 2, 1, 0));
+    assertEquals("{\"id\":10,\"children\":[{\"id\":20,\"children\":[]}]}",
+        writeTree(orgChart, 10L, 2, 1, 1));
+    assertEquals("{\"id\":10,\"children\":[],\"nextCursor\":0}",
+        writeTree(orgChart, 10L, 0, 1, 0));
+  }
+
+  @Test
+  void testWriteTreeHandlesDeepChains() throws IOException {
+    int depth = 100000;
+    List<EmployeeHierarchy> chain = new ArrayList<>();
+    for (long id = 1; id < depth; id++) {
+      chain.add(new EmployeeHierarchy(id, id + 1));
+    }
+    String json = writeTree(OrgChart.of(chain), 1L);
+    assertTrue(json.startsWith("{\"id\":1,\"children\":[{\"id\":2,"));
+    assertTrue(json.endsWith("{\"id\":" + depth + ",\"children\":[]}" + "]}".repeat(depth - 1)));
+  }
+
+  @Test
+  void testIsUnder() {
+    assertTrue(orgChart.isUnder(50L, 10L));
+    assertTrue(orgChart.isUnder(40L, 30L));
+    assertFalse(orgChart.isUnder(10L, 50L));
+    assertFalse(orgChart.isUnder(40L, 20L));
+    assertFalse(orgChart.isUnder(50L, 50L));
+    assertFalse(orgChart.isUnder(99L, 10L));
+  }
+
+  @Test
+  void testWithEdgeAppendsSubordinate() {
+    OrgChart changed = orgChart.withEdge(20L, 60L).withEdge(10L, 70L);
+    assertEquals(20L, changed.getSupervisor(60L));
+    assertEquals(List.of(30L, 20L, 70L), changed.buildTree(10L).getChildren().stream()
+        .map(EmployeeNode::getId).toList());
+    assertNull(orgChart.getSupervisor(60L));
+    assertSame(changed, changed.withEdge(20L, 60L));
+  }
+
+  @Test
+  void testWithoutEdgeDetachesSubtree() {
+    OrgChart changed = orgChart.withoutEdge(30L);
+    assertNull(changed.getSupervisor(30L));
+    assertEquals(40L, changed.getSupervisor(50L));
+    assertEquals(1, changed.getSubtree(10L).size());
+    assertSame(changed, changed.withoutEdge(30L));
+    assertEquals(0, orgChart.withoutEdge(30L).withoutEdge(40L).withoutEdge(50L)
+        .withoutEdge(20L).size());
+  }
+
+  @Test
+  void testWithEdgeMovesSubordinate() {
+    OrgChart changed = orgChart.withEdge(20L, 30L);
+    assertEquals(20L, changed.getSupervisor(30L));
+    assertEquals(List.of(20L), changed.buildTree(10L).getChildren().stream()
+        .map(EmployeeNode::getId).toList());
+    assertEquals(5, changed.size());
+  }
+
+  @Test
+  void testChangesMatchRebuiltChart() throws IOException {
+    Random random = new Random(42);
+    List<EmployeeHierarchy> edges = new ArrayList<>();
+    OrgChart changed = OrgChart.of(edges);
+    for (int step = 0; step < 500; step++) {
+      long supervisorId = 1 + random.nextInt(40);
+      long employeeId = 1 + random.nextInt(40);
+      if (random.nextInt(3) == 0) {
+        edges.removeIf(edge -> edge.getToEmployeeId() == employeeId);
+        changed = changed.withoutEdge(employeeId);
+      } else if (supervisorId != employeeId && changed.getSupervisor(employeeId) == null
+          && !changed.isUnder(supervisorId, employeeId)) {
+        edges.add(new EmployeeHierarchy(supervisorId, employeeId));
+        changed = changed.withEdge(supervisorId, employeeId);
+      }
+      OrgChart rebuilt = OrgChart.of(edges);
+      assertEquals(rebuilt.size(), changed.size());
+      for (long id = 1; id <= 40; id++) {
+        assertEquals(rebuilt.getSupervisor(id), changed.getSupervisor(id));
+        assertEquals(writeTree(rebuilt, id), writeTree(changed, id));
+      }
+    }
+  }
+
+  @Test
+  void testCorruptCycleStopsTraversals() {
+    OrgChart cycle = OrgChart.of(List.of(new EmployeeHierarchy(1L, 2L),
+        new EmployeeHierarchy(2L, 1L)));
+    assertThrows(IllegalStateException.class, () -> cycle.getSubtree(1L));
+    assertThrows(IllegalStateException.class, () -> cycle.buildTree(1L));
+    assertThrows(IllegalStateException.class, () -> writeTree(cycle, 1L));
+  }
+
+  private static String writeTree(OrgChart orgChart, long employeeId) throws IOException {
+    return writeTree(orgChart, employeeId, OrgChart.UNLIMITED, OrgChart.UNLIMITED, 0);
+  }
+
+  private static String writeTree(OrgChart orgChart, long employeeId, int maxDepth,
+                                  int childLimit, int cursor) throws IOException {
+    StringWriter out = new StringWriter();
+    JsonFactory jsonFactory = JsonFactory.builder()
+        .streamWriteConstraints(StreamWriteConstraints.builder()
+            .maxNestingDepth(Integer.MAX_VALUE)
+            .build())
+        .build();
+    try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+      orgChart.writeTree(employeeId, maxDepth, childLimit, cursor, generator);
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,98 @@
+package com.nullterminators.project.util.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.LocationTextExtractionStrategy;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the compressed iText 8 payslip renderer. */
+class Itext8PayslipRendererTests {
+
+  private final Map<PayslipField, String> values = new EnumMap<>(PayslipField.class);
+
+  @BeforeEach
+  void setUp() {
+    values.put(PayslipField.PAYMENT_DATE, "17 October 2024");
+    values.put(PayslipField.NAME, "testEmployee");
+    values.put(PayslipField.PHONE_NUMBER, "1234567890");
+    values.put(PayslipField.DESIGNATION, "Engineer");
+    values.put(PayslipField.EMAIL, "employee@example.com");
+    values.put(PayslipField.EMERGENCY_CONTACT, "0987654321");
+    values.put(PayslipField.BASE_SALARY, "10000");
+    values.put(PayslipField.LEAVE_COUNT, "2");
+    values.put(PayslipField.EMPLOYEE_ID, "1");
+    values.put(PayslipField.SALARY, "$10000");
+    values.put(PayslipField.TAX, "$3000");
+    values.put(PayslipField.NET_SALARY, "$7000");
+  }
+
+  private byte[] render(PayslipRenderer renderer) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    renderer.render(values, out);
+    return out.toByteArray();
+  }
+
+  @Test
+  void testFixedLayoutMatchesLayout() throws IOException {
+    String text = extractText(render(new Itext8PayslipRenderer(true)));
+    assertEquals(extractText(render(new Itext8PayslipRenderer(false))), text);
+    assertTrue(text.contains("Email: employee@example.com"));
+    assertTrue(text.contains("$10000 $3000 $7000"));
+  }
+
+  @Test
+  void testFixedLayoutFallsBackForLongValues() throws IOException {
+    values.put(PayslipField.EMAIL,
+        "a.very.long.email.address.that.does.not.fit.on.one.line@example.com");
+    String text = extractText(render(new Itext8PayslipRenderer(true)));
+    assertEquals(extractText(render(new Itext8PayslipRenderer(false))), text);
+    assertTrue(text.contains("a.very.long.email.address"));
+  }
+
+  @Test
+  void testPayslipIsCompressedWithStandardFonts() {
+    String pdf = new String(render(new Itext8PayslipRenderer()), StandardCharsets.ISO_8859_1);
+    assertTrue(pdf.contains("/ObjStm"));
+    assertTrue(pdf.contains("/XRef"));
+    assertFalse(pdf.contains("/FontFile"));
+  }
+
+  @Test
+  void testPayslipIsSmallerThanItext5() {
+    int itext8 = render(new Itext8PayslipRenderer()).length;
+    assertTrue(itext8 < render(new Itext5PayslipRenderer(true)).length);
+    assertTrue(itext8 < render(new Itext5PayslipRenderer(false)).length);
+  }
+
+  @Test
+  void testStreamIsLeftOpen() {
+    boolean[] closed = new boolean[1];
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      @Override
+      public void close() {
+        closed[0] = true;
+      }
+    };
+    new Itext8PayslipRenderer().render(values, out);
+    assertFalse(closed[0]);
+    assertTrue(out.size() > 0);
+  }
+
+  private static String extractText(byte[] pdf) throws IOException {
+    PdfReader reader = new PdfReader(pdf);
+    String text = PdfTextExtractor.getTextFromPage(reader, 1,
+        new LocationTextExtractionStrategy());
+    reader.close();
+    return text.replaceAll("\\s+", " ").trim();
+  }
+}
@@ -0,0 +1,113 @@
+package com.nullterminators.project.util.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.LocationTextExtractionStrategy;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import com.nullterminators.project.model.EmployeeProfile;
+import com.nullterminators.project.model.Payroll;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for in-memory payslip rendering. */
+class PdfGeneratorTests {
+
+  private final PdfGenerator pdfGenerator = new PdfGenerator();
+
+  private Payroll payroll;
+
+  private EmployeeProfile employee;
+
+  @BeforeEach
+  void setUp() {
+    payroll = new Payroll();
+    payroll.setEmployeeId(1);
+    payroll.setPaymentDate(LocalDate.of(2024, 10, 17));
+    payroll.setSalary(10000);
+    payroll.setTax(3000);
+    employee = new EmployeeProfile();
+    employee.setId(1);
+    employee.setName("testEmployee");
+    employee.setBaseSalary(10000);
+  }
+
+  @Test
+  void testGeneratePdfReportRendersInMemory() {
+    PdfBuffer pdf = pdfGenerator.generatePdfReport(payroll, employee, 2);
+    assertTrue(pdf.size() > 0);
+    assertEquals("%PDF", new String(pdf.array(), 0, 4, StandardCharsets.US_ASCII));
+    assertFalse(Files.exists(Path.of(pdfGenerator.getPdfName(payroll))));
+  }
+
+  @Test
+  void testContentHashChangesWithPayslipOnly() {
+    String hash = pdfGenerator.generatePdfReport(payroll, employee, 2).getContentHash();
+    assertEquals(64, hash.length());
+    assertEquals(hash, pdfGenerator.generatePdfReport(payroll, employee, 2).getContentHash());
+    assertNotEquals(hash,
+        new PdfGenerator(false).generatePdfReport(payroll, employee, 2).getContentHash());
+    payroll.setTax(2000);
+    assertNotEquals(hash, pdfGenerator.generatePdfReport(payroll, employee, 2).getContentHash());
+  }
+
+  @Test
+  void testTemplateMatchesRegularLayout() throws IOException {
+    employee.setEmail("employee@example.com");
+    assertEquals(extractText(new PdfGenerator(false).generatePdfReport(payroll, employee, 2)),
+        extractText(new PdfGenerator(true).generatePdfReport(payroll, employee, 2)));
+  }
+
+  @Test
+  void testTemplateFallsBackForLongValues() throws IOException {
+    employee.setEmail("a.very.long.email.address.that.does.not.fit.on.one.line@example.com");
+    String text = extractText(new PdfGenerator(true).generatePdfReport(payroll, employee, 2));
+    assertEquals(extractText(new PdfGenerator(false).generatePdfReport(payroll, employee, 2)),
+        text);
+    assertTrue(text.contains("a.very.long.email.address"));
+  }
+
+  @Test
+  void testRenderPoolHandsReportToCaller() throws IOException {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PdfRenderExecutor renderExecutor = new PdfRenderExecutor(1, 1, 1000, meterRegistry);
+    try {
+      PdfBuffer pdf = new PdfGenerator(new Itext5PayslipRenderer(true), renderExecutor)
+          .generatePdfReport(payroll, employee, 2);
+      assertEquals(64, pdf.getContentHash().length());
+      assertEquals(extractText(new PdfGenerator(true).generatePdfReport(payroll, employee, 2)),
+          extractText(pdf));
+      assertEquals(1, meterRegistry.timer("payslip.render.time").count());
+    } finally {
+      renderExecutor.shutdown();
+    }
+  }
+
+  private static String extractText(PdfBuffer pdf) throws IOException {
+    PdfReader reader = new PdfReader(Arrays.copyOf(pdf.array(), pdf.size()));
+    String text = PdfTextExtractor.getTextFromPage(reader, 1,
+        new LocationTextExtractionStrategy());
+    reader.close();
+    return text.replace('\u00a0', ' ').replaceAll("\\s+", " ").trim();
+  }
+
+  @Test
+  void testGeneratePdfReportReusesThreadBuffer() {
+    PdfBuffer first = pdfGenerator.generatePdfReport(payroll, employee, 2);
+    byte[] array = first.array();
+    PdfBuffer second = pdfGenerator.generatePdfReport(payroll, employee, 2);
+    assertSame(first, second);
+    assertSame(array, second.array());
+  }
+}
@@ -0,0 +1,78 @@
+package com.nullterminators.project.util.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the bounded payslip rendering pool. */
+class PdfRenderExecutorTests {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final PdfRenderExecutor renderExecutor =
+      new PdfRenderExecutor(1, 1, 50, meterRegistry);
+
+  @AfterEach
+  void tearDown() {
+    renderExecutor.shutdown();
+  }
+
+  @Test
+  void testExecuteWaitsForTask() {
+    int[] rendered = new int[1];
+    renderExecutor.execute(() -> rendered[0]++);
+    assertEquals(1, rendered[0]);
+    assertEquals(1, meterRegistry.timer("payslip.render.time").count());
+  }
+
+  @Test
+  void testFailurePropagatesToCaller() {
+    assertThrows(IllegalStateException.class, () -> renderExecutor.execute(() -> {
+      throw new IllegalStateException("render failed");
+    }));
+    renderExecutor.execute(() -> { });
+    assertEquals(2, meterRegistry.timer("payslip.render.time").count());
+  }
+
+  @Test
+  void testFullQueueRejectsAfterTimeout() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    final CompletableFuture<Void> running = CompletableFuture.runAsync(() ->
+        renderExecutor.execute(() -> {
+          started.countDown();
+          await(release);
+        }));
+    started.await(5, TimeUnit.SECONDS);
+    final CompletableFuture<Void> queued = CompletableFuture.runAsync(() ->
+        renderExecutor.execute(() -> { }));
+    while (renderExecutor.getQueueDepth() == 0) {
+      Thread.onSpinWait();
+    }
+    assertEquals(1.0, meterRegistry.get("payslip.render.queue.depth").gauge().value());
+
+    assertThrows(RejectedExecutionException.class, () -> renderExecutor.execute(() -> { }));
+    assertEquals(1.0, meterRegistry.counter("payslip.render.rejections").count());
+
+    release.countDown();
+    running.get(5, TimeUnit.SECONDS);
+    queued.get(5, TimeUnit.SECONDS);
+    renderExecutor.execute(() -> { });
+    assertEquals(3, meterRegistry.timer("payslip.render.time").count());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.nullterminators.project.util.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nullterminators.project.util.storage.BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for uploading payslips to the blob store. */
+class PdfUploaderTests {
+
+  private BlobStore blobStore;
+
+  private PdfUploader pdfUploader;
+
+  private PdfBuffer pdf;
+
+  @BeforeEach
+  void setUp() {
+    blobStore = mock(BlobStore.class);
+    pdfUploader = new PdfUploader(blobStore);
+    pdf = new PdfBuffer();
+    pdf.write(new byte[] {1, 2, 3}, 0, 3);
+    pdf.setContentHash("hash");
+  }
+
+  @Test
+  void testUploadSkippedForStoredHash() {
+    when(blobStore.url("1_10_2024.pdf")).thenReturn("url");
+    assertEquals("url", pdfUploader.uploadPdf("1_10_2024.pdf", pdf, "hash"));
+    verify(blobStore, never()).putIfChanged(anyString(), any(), anyInt(), anyInt(), anyString(),
+        anyString());
+  }
+
+  @Test
+  void testUploadOfChangedPayslip() {
+    when(blobStore.putIfChanged("1_10_2024.pdf", pdf.array(), 0, 3, "application/pdf", "hash"))
+        .thenReturn("url");
+    assertEquals("url", pdfUploader.uploadPdf("1_10_2024.pdf", pdf, "other"));
+    assertEquals("url", pdfUploader.uploadPdf("1_10_2024.pdf", pdf));
+  }
+}
@@ -0,0 +1,170 @@
+package com.nullterminators.project.util.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the Google Cloud Storage blob store. */
+class GcsBlobStoreTests {
+
+  private static final byte[] CONTENT = {1, 2, 3, 4};
+
+  private Storage storage;
+
+  private AtomicInteger clientsCreated;
+
+  private GcsBlobStore blobStore;
+
+  @BeforeEach
+  void setUp() {
+    storage = mock(Storage.class);
+    clientsCreated = new AtomicInteger();
+    blobStore = new GcsBlobStore("bucket", () -> {
+      clientsCreated.incrementAndGet();
+      return storage;
+    });
+  }
+
+  private Blob blobWithGeneration(long generation) {
+    Blob blob = mock(Blob.class);
+    when(blob.getGeneration()).thenReturn(generation);
+    return blob;
+  }
+
+  @Test
+  void testPutReusesClientAndCachedGeneration() {
+    Blob first = blobWithGeneration(1L);
+    Blob second = blobWithGeneration(2L);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.doesNotExist()))).thenReturn(first);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.generationMatch(1L)))).thenReturn(second);
+
+    assertEquals("https://storage.googleapis.com/bucket/1_10_2024.pdf",
+        blobStore.put("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf"));
+    blobStore.put("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf");
+
+    assertEquals(1, clientsCreated.get());
+    verify(storage, never()).get(anyString(), anyString());
+    verify(storage).create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.generationMatch(1L)));
+  }
+
+  @Test
+  void testPutRefreshesStaleGeneration() {
+    Blob existing = blobWithGeneration(7L);
+    Blob updated = blobWithGeneration(8L);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.doesNotExist())))
+        .thenThrow(new StorageException(412, "precondition failed"));
+    when(storage.get("bucket", "1_10_2024.pdf")).thenReturn(existing);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.generationMatch(7L)))).thenReturn(updated);
+
+    blobStore.put("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf");
+
+    verify(storage, times(1)).get("bucket", "1_10_2024.pdf");
+  }
+
+  @Test
+  void testPutPropagatesOtherErrors() {
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.doesNotExist())))
+        .thenThrow(new StorageException(503, "unavailable"));
+    assertThrows(StorageException.class,
+        () -> blobStore.put("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf"));
+    verify(storage, never()).get(anyString(), anyString());
+  }
+
+  @Test
+  void testPutIfChangedSkipsCachedContentHash() {
+    Blob blob = blobWithGeneration(1L);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.doesNotExist()))).thenReturn(blob);
+
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+    assertEquals("https://storage.googleapis.com/bucket/1_10_2024.pdf",
+        blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash"));
+
+    verify(storage, times(1)).create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        any(Storage.BlobTargetOption.class));
+    verify(storage, times(1)).get("bucket", "1_10_2024.pdf");
+  }
+
+  @Test
+  void testPutIfChangedUploadsChangedContent() {
+    Blob first = blobWithGeneration(1L);
+    Blob second = blobWithGeneration(2L);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.doesNotExist()))).thenReturn(first);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.generationMatch(1L)))).thenReturn(second);
+
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "other");
+
+    verify(storage).create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.generationMatch(1L)));
+  }
+
+  @Test
+  void testPutIfChangedSkipsStoredContentHash() {
+    Blob existing = blobWithGeneration(7L);
+    when(existing.getMetadata()).thenReturn(Map.of("content-hash", "hash"));
+    when(storage.get("bucket", "1_10_2024.pdf")).thenReturn(existing);
+
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+
+    verify(storage, never()).create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        any(Storage.BlobTargetOption.class));
+    verify(storage, times(1)).get("bucket", "1_10_2024.pdf");
+  }
+
+  @Test
+  void testPutIfChangedOverwritesLookedUpGeneration() {
+    Blob existing = blobWithGeneration(7L);
+    when(existing.getMetadata()).thenReturn(Map.of("content-hash", "other"));
+    Blob updated = blobWithGeneration(8L);
+    when(storage.get("bucket", "1_10_2024.pdf")).thenReturn(existing);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.generationMatch(7L)))).thenReturn(updated);
+
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+
+    verify(storage, never()).create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.doesNotExist()));
+  }
+
+  @Test
+  void testCacheEvictsLeastRecentlyUsedObject() {
+    blobStore = new GcsBlobStore("bucket", () -> storage, 1);
+    Blob blob = blobWithGeneration(1L);
+    when(storage.create(any(BlobInfo.class), eq(CONTENT), eq(0), eq(4),
+        eq(Storage.BlobTargetOption.doesNotExist()))).thenReturn(blob);
+
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+    blobStore.putIfChanged("2_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+    blobStore.putIfChanged("2_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 4, "application/pdf", "hash");
+
+    verify(storage, times(2)).get("bucket", "1_10_2024.pdf");
+    verify(storage, times(1)).get("bucket", "2_10_2024.pdf");
+  }
+}
@@ -0,0 +1,102 @@
+package com.nullterminators.project.util.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for the local filesystem and in-memory blob stores. */
+class LocalFileSystemBlobStoreTests {
+
+  private static final byte[] CONTENT = {9, 1, 2, 3, 9};
+
+  @TempDir
+  Path root;
+
+  @Test
+  void testPutAndGet() {
+    BlobStore blobStore = new LocalFileSystemBlobStore(root);
+    String url = blobStore.put("1_10_2024.pdf", CONTENT, 1, 3, "application/pdf");
+    assertEquals(root.resolve("1_10_2024.pdf").toUri().toString(), url);
+    assertArrayEquals(new byte[] {1, 2, 3}, blobStore.get("1_10_2024.pdf"));
+  }
+
+  @Test
+  void testPutReplacesExistingObject() {
+    BlobStore blobStore = new LocalFileSystemBlobStore(root);
+    blobStore.put("1_10_2024.pdf", CONTENT, 0, 5, "application/pdf");
+    blobStore.put("1_10_2024.pdf", CONTENT, 1, 1, "application/pdf");
+    assertArrayEquals(new byte[] {1}, blobStore.get("1_10_2024.pdf"));
+  }
+
+  @Test
+  void testPutIfChangedSkipsUnchangedContent() throws IOException {
+    BlobStore blobStore = new LocalFileSystemBlobStore(root);
+    Path file = root.resolve("1_10_2024.pdf");
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 5, "application/pdf", "hash");
+    Files.write(file, new byte[] {7});
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 5, "application/pdf", "hash");
+    assertArrayEquals(new byte[] {7}, blobStore.get("1_10_2024.pdf"));
+
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 1, 1, "application/pdf", "other");
+    assertArrayEquals(new byte[] {1}, blobStore.get("1_10_2024.pdf"));
+  }
+
+  @Test
+  void testPutIfChangedRewritesMissingObject() throws IOException {
+    BlobStore blobStore = new LocalFileSystemBlobStore(root);
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 1, 3, "application/pdf", "hash");
+    Files.delete(root.resolve("1_10_2024.pdf"));
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 1, 3, "application/pdf", "hash");
+    assertArrayEquals(new byte[] {1, 2, 3}, blobStore.get("1_10_2024.pdf"));
+  }
+
+  @Test
+  void testGetMissingObject() {
+    assertNull(new LocalFileSystemBlobStore(root).get("missing.pdf"));
+  }
+
+  @Test
+  void testOpen() throws IOException {
+    BlobStore blobStore = new LocalFileSystemBlobStore(root);
+    blobStore.put("1_10_2024.pdf", CONTENT, 1, 3, "application/pdf");
+    try (InputStream in = blobStore.open("1_10_2024.pdf")) {
+      assertArrayEquals(new byte[] {1, 2, 3}, in.readAllBytes());
+    }
+    assertNull(blobStore.open("missing.pdf"));
+  }
+
+  @Test
+  void testPutRejectsNamesOutsideRoot() {
+    BlobStore blobStore = new LocalFileSystemBlobStore(root);
+    assertThrows(IllegalArgumentException.class,
+        () -> blobStore.put("../escape.pdf", CONTENT, 0, 5, "application/pdf"));
+  }
+
+  @Test
+  void testInMemoryPutAndGet() {
+    BlobStore blobStore = new InMemoryBlobStore();
+    assertEquals("memory://1_10_2024.pdf",
+        blobStore.put("1_10_2024.pdf", CONTENT, 1, 3, "application/pdf"));
+    assertArrayEquals(new byte[] {1, 2, 3}, blobStore.get("1_10_2024.pdf"));
+    assertNull(blobStore.get("missing.pdf"));
+    assertNull(blobStore.open("missing.pdf"));
+  }
+
+  @Test
+  void testInMemoryPutIfChangedSkipsUnchangedContent() {
+    BlobStore blobStore = new InMemoryBlobStore();
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 1, 3, "application/pdf", "hash");
+    blobStore.putIfChanged("1_10_2024.pdf", CONTENT, 0, 1, "application/pdf", "hash");
+    assertArrayEquals(new byte[] {1, 2, 3}, blobStore.get("1_10_2024.pdf"));
+    blobStore.put("1_10_2024.pdf", CONTENT, 0, 1, "application/pdf");
+    assertArrayEquals(new byte[] {9}, blobStore.get("1_10_2024.pdf"));
+  }
+}
@@ -0,0 +1,77 @@
+package com.nullterminators.project.util.tax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for bracket tables preloaded per state and year. */
+class BracketTaxEngineTests {
+
+  private BracketTaxEngine engine;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    engine = BracketTaxEngine.load(csv("""
+        # comment
+        *,2024,0,30
+
+        NY,2024,5000,28
+        ny,2024,0,22
+        NY,2026,0,20
+        """));
+  }
+
+  private static InputStream csv(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testStateTableApplies() {
+    assertEquals(1100 + 1400, engine.calculateTax(10000, "NY", 2024));
+    assertEquals(2500, engine.calculateTax(10000, " ny ", 2025));
+    assertEquals(2000, engine.calculateTax(10000, "NY", 2030));
+    assertEquals(2500, engine.calculateTax(10000, "NY", 2020));
+  }
+
+  @Test
+  void testDefaultTableForUnknownState() {
+    assertEquals(3000, engine.calculateTax(10000, null, 2024));
+    assertEquals(3000, engine.calculateTax(10000, "CA", 2024));
+    assertSame(engine.getTable(null, 2024), engine.getTable("CA", 2025));
+  }
+
+  @Test
+  void testBatchUsesStateTable() {
+    int[] taxes = new int[2];
+    engine.calculateTaxes(new int[] {4000, 10000}, taxes, "NY", 2024);
+    assertEquals(880, taxes[0]);
+    assertEquals(2500, taxes[1]);
+  }
+
+  @Test
+  void testDefaultStateIsRequired() {
+    assertThrows(IllegalArgumentException.class,
+        () -> BracketTaxEngine.load(csv("NY,2024,0,22\n")));
+    assertThrows(IllegalArgumentException.class,
+        () -> new BracketTaxEngine(Map.of("NY", Map.of(2024, TaxTable.flat(2200)))));
+    assertThrows(IllegalArgumentException.class,
+        () -> BracketTaxEngine.load(csv("*,2024,0\n")));
+  }
+
+  @Test
+  void testBundledTablesKeepDefaultRate() throws IOException {
+    try (InputStream inputStream = getClass().getResourceAsStream("/tax/sample-brackets.csv")) {
+      BracketTaxEngine bundled = BracketTaxEngine.load(inputStream);
+      assertEquals(3000, bundled.calculateTax(10000, null, 2024));
+      assertEquals(900 + 1100, bundled.calculateTax(10000, "TX", 2024));
+    }
+  }
+}
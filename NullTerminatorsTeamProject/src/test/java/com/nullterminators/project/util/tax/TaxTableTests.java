@@ -0,0 +1,54 @@
+package com.nullterminators.project.util.tax;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests for progressive tax brackets. */
+class TaxTableTests {
+
+  private final TaxTable table = new TaxTable(new int[] {0, 5000, 10000},
+      new int[] {1000, 2000, 3050});
+
+  @Test
+  void testFlatTableMatchesRate() {
+    assertEquals(3000, TaxTable.flat(3000).calculateTax(10000));
+    assertEquals(3703, TaxTable.flat(3000).calculateTax(12345));
+  }
+
+  @Test
+  void testTaxIsProgressive() {
+    assertEquals(0, table.calculateTax(0));
+    assertEquals(0, table.calculateTax(-100));
+    assertEquals(400, table.calculateTax(4000));
+    assertEquals(500, table.calculateTax(5000));
+    assertEquals(1500, table.calculateTax(10000));
+    assertEquals(3025, table.calculateTax(15000));
+  }
+
+  @Test
+  void testBatchMatchesSingleSalaries() {
+    int[] salaries = {0, 4000, 5000, 7500, 10000, 15000, 123456};
+    int[] taxes = new int[salaries.length];
+    table.calculateTaxes(salaries, taxes);
+    int[] expected = new int[salaries.length];
+    for (int i = 0; i < salaries.length; i++) {
+      expected[i] = table.calculateTax(salaries[i]);
+    }
+    assertArrayEquals(expected, taxes);
+  }
+
+  @Test
+  void testInvalidBrackets() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new TaxTable(new int[] {100}, new int[] {1000}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TaxTable(new int[] {0, 5000, 5000}, new int[] {1000, 2000, 3000}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TaxTable(new int[] {0}, new int[] {10001}));
+    assertThrows(IllegalArgumentException.class,
+        () -> table.calculateTaxes(new int[2], new int[1]));
+  }
+}